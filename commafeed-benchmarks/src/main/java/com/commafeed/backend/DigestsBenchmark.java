@@ -0,0 +1,60 @@
+package com.commafeed.backend;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
+import com.commafeed.benchmarks.Corpus;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DigestsBenchmark {
+
+	@Param({ Corpus.RSS_NEWS, Corpus.RSS_AGGREGATOR, Corpus.ATOM_BLOG })
+	private String file;
+
+	private byte[] bytes;
+	private List<Entry> entries;
+
+	@Setup
+	public void setup() {
+		bytes = Corpus.read(file);
+		entries = Corpus.entries(file);
+	}
+
+	/**
+	 * hash of the whole feed, used to detect unchanged feeds
+	 */
+	@Benchmark
+	public String sha1HexFeed() {
+		return Digests.sha1Hex(bytes);
+	}
+
+	/**
+	 * guid and content hashes of every entry, as computed when entries are inserted
+	 */
+	@Benchmark
+	public void sha1HexEntries(Blackhole blackhole) {
+		for (Entry entry : entries) {
+			blackhole.consume(Digests.sha1Hex(entry.guid()));
+			blackhole.consume(Digests.sha1Hex(entry.content().content()));
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.commafeed.backend.feed;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
+import com.commafeed.benchmarks.Corpus;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeedUtilsBenchmark {
+
+	@Param({ Corpus.RSS_NEWS, Corpus.RSS_AGGREGATOR, Corpus.ATOM_BLOG })
+	private String file;
+
+	private List<String> urls;
+
+	@Setup
+	public void setup() {
+		urls = Corpus.entries(file).stream().map(Entry::url).filter(Objects::nonNull).toList();
+	}
+
+	@Benchmark
+	public void normalizeURL(Blackhole blackhole) {
+		for (String url : urls) {
+			blackhole.consume(FeedUtils.normalizeURL(url));
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.commafeed.backend.feed.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.commafeed.benchmarks.Corpus;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncodingDetectorBenchmark {
+
+	@Param({ Corpus.RSS_NEWS, Corpus.RSS_PODCAST, Corpus.RSS_AGGREGATOR, Corpus.ATOM_BLOG, Corpus.RDF_JOURNAL })
+	private String file;
+
+	private final EncodingDetector encodingDetector = new EncodingDetector();
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		bytes = Corpus.read(file);
+	}
+
+	@Benchmark
+	public Charset getEncodingFromBytes() {
+		return encodingDetector.getEncoding(bytes);
+	}
+
+	@Benchmark
+	public Charset getEncodingFromStream() throws IOException {
+		try (InputStream input = new ByteArrayInputStream(bytes)) {
+			return encodingDetector.getEncoding(input);
+		}
+	}
+}
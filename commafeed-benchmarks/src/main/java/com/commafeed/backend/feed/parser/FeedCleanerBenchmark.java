@@ -0,0 +1,66 @@
+package com.commafeed.backend.feed.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.commafeed.benchmarks.Corpus;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeedCleanerBenchmark {
+
+	@Param({ Corpus.RSS_NEWS, Corpus.RSS_PODCAST, Corpus.RSS_AGGREGATOR, Corpus.ATOM_BLOG, Corpus.RDF_JOURNAL })
+	private String file;
+
+	private final FeedCleaner feedCleaner = new FeedCleaner();
+	private String xml;
+	private String trimmedXml;
+
+	@Setup
+	public void setup() {
+		byte[] bytes = Corpus.read(file);
+		xml = new String(bytes, new EncodingDetector().getEncoding(bytes));
+		trimmedXml = feedCleaner.trimInvalidXmlCharacters(xml);
+	}
+
+	@Benchmark
+	public String trimInvalidXmlCharacters() {
+		return feedCleaner.trimInvalidXmlCharacters(xml);
+	}
+
+	@Benchmark
+	public String replaceHtmlEntitiesWithNumericEntities() {
+		return feedCleaner.replaceHtmlEntitiesWithNumericEntities(trimmedXml);
+	}
+
+	@Benchmark
+	public void cleaningReader(Blackhole blackhole) throws IOException {
+		char[] buffer = new char[8192];
+		try (Reader reader = feedCleaner.cleaningReader(new StringReader(xml))) {
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				blackhole.consume(read);
+			}
+		}
+		blackhole.consume(buffer);
+	}
+}
@@ -0,0 +1,49 @@
+package com.commafeed.backend.feed.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.commafeed.benchmarks.Corpus;
+import com.rometools.rome.io.FeedException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeedParserBenchmark {
+
+	private static final String FEED_URL = "https://www.commafeed.com/feed";
+
+	@Param({ Corpus.RSS_NEWS, Corpus.RSS_PODCAST, Corpus.RSS_AGGREGATOR, Corpus.ATOM_BLOG, Corpus.RDF_JOURNAL })
+	private String file;
+
+	@Param({ "false", "true" })
+	private boolean streaming;
+
+	private FeedParser feedParser;
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		feedParser = FeedParsers.create(streaming);
+		bytes = Corpus.read(file);
+	}
+
+	@Benchmark
+	public FeedParserResult parseBytes() throws FeedException {
+		return feedParser.parse(FEED_URL, bytes);
+	}
+}
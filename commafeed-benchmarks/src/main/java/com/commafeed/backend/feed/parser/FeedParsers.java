@@ -0,0 +1,22 @@
+package com.commafeed.backend.feed.parser;
+
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
+
+/**
+ * Builds {@link FeedParser} instances outside of the Guice injector, giving benchmarks access to package-private collaborators
+ */
+public final class FeedParsers {
+
+	private FeedParsers() {
+	}
+
+	public static FeedParser create(boolean streaming) {
+		ApplicationSettings settings = new ApplicationSettings();
+		settings.setStreamingFeedParserEnabled(streaming);
+		CommaFeedConfiguration config = new CommaFeedConfiguration();
+		config.setApplicationSettings(settings);
+
+		return new FeedParser(new EncodingDetector(), new FeedCleaner(), new StreamingFeedParser(), config);
+	}
+}
@@ -0,0 +1,59 @@
+package com.commafeed.backend.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
+import com.commafeed.benchmarks.Corpus;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeedEntryContentCleaningServiceBenchmark {
+
+	private static final String BASE_URI = "https://www.commafeed.com/";
+
+	@Param({ Corpus.RSS_NEWS, Corpus.RSS_PODCAST, Corpus.RSS_AGGREGATOR, Corpus.ATOM_BLOG, Corpus.RDF_JOURNAL })
+	private String file;
+
+	private final FeedEntryContentCleaningService cleaningService = new FeedEntryContentCleaningService();
+	private List<Entry> entries;
+
+	@Setup
+	public void setup() {
+		entries = Corpus.entries(file);
+	}
+
+	/**
+	 * cleans the content of every entry of the feed, as done when a feed is refreshed
+	 */
+	@Benchmark
+	public void clean(Blackhole blackhole) {
+		for (Entry entry : entries) {
+			blackhole.consume(cleaningService.clean(entry.content().content(), BASE_URI, false));
+		}
+	}
+
+	@Benchmark
+	public void cleanTextOnly(Blackhole blackhole) {
+		for (Entry entry : entries) {
+			blackhole.consume(cleaningService.clean(entry.content().title(), BASE_URI, true));
+		}
+	}
+}
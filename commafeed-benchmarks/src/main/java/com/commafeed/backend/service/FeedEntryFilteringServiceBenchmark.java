@@ -0,0 +1,68 @@
+package com.commafeed.backend.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.model.FeedEntry;
+import com.commafeed.backend.model.FeedEntryContent;
+import com.commafeed.backend.service.FeedEntryFilteringService.FeedEntryFilterException;
+import com.commafeed.benchmarks.Corpus;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeedEntryFilteringServiceBenchmark {
+
+	@Param({ Corpus.RSS_NEWS, Corpus.ATOM_BLOG })
+	private String file;
+
+	@Param({ "title.contains(\"release\")", "title.contains(\"release\") && !author.equals(\"bot\") && year >= 2020",
+			"content.contains(\"sponsored\") || categories.contains(\"ads\") || url.contains(\"/promo/\")" })
+	private String filter;
+
+	private final FeedEntryFilteringService filteringService = new FeedEntryFilteringService(new MetricRegistry());
+	private List<FeedEntry> entries;
+
+	@Setup
+	public void setup() {
+		entries = Corpus.entries(file).stream().map(e -> {
+			FeedEntryContent content = new FeedEntryContent();
+			content.setTitle(e.content().title());
+			content.setContent(e.content().content());
+			content.setAuthor(e.content().author());
+			content.setCategories(e.content().categories());
+
+			FeedEntry entry = new FeedEntry();
+			entry.setUrl(e.url());
+			entry.setContent(content);
+			return entry;
+		}).toList();
+	}
+
+	/**
+	 * evaluates the filter against every entry of the feed, as done when new entries are inserted
+	 */
+	@Benchmark
+	public void filterMatchesEntry(Blackhole blackhole) throws FeedEntryFilterException {
+		for (FeedEntry entry : entries) {
+			blackhole.consume(filteringService.filterMatchesEntry(filter, entry));
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.commafeed.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+
+import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
+import com.commafeed.backend.feed.parser.FeedParsers;
+import com.rometools.rome.io.FeedException;
+
+/**
+ * Feeds checked in under src/main/resources/corpus, covering the formats and shapes CommaFeed commonly encounters
+ */
+public final class Corpus {
+
+	public static final String RSS_NEWS = "rss-news.xml";
+	public static final String RSS_PODCAST = "rss-podcast.xml";
+	public static final String RSS_AGGREGATOR = "rss-aggregator.xml";
+	public static final String ATOM_BLOG = "atom-blog.xml";
+	public static final String RDF_JOURNAL = "rdf-journal.xml";
+
+	private Corpus() {
+	}
+
+	public static byte[] read(String name) {
+		try (InputStream input = Objects.requireNonNull(Corpus.class.getResourceAsStream("/corpus/" + name), name)) {
+			return input.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * parses the feed with the ROME parser, for benchmarks that need entries as input
+	 */
+	public static List<Entry> entries(String name) {
+		try {
+			return FeedParsers.create(false).parse("https://www.commafeed.com/feed", read(name)).entries();
+		} catch (FeedException e) {
+			throw new IllegalStateException("could not parse " + name, e);
+		}
+	}
+}
@@ -25,6 +25,8 @@ interface EntriesState {
     timestamp?: number
     selectedEntryId?: string
     hasMore: boolean
+    /** cursor to load the next page with, the server returns it when there are more entries */
+    nextCursor?: string
     loading: boolean
     search?: string
     scrollingToEntry: boolean
@@ -90,6 +92,7 @@ export const entriesSlice = createSlice({
             state.sourceLabel = ""
             state.sourceWebsiteUrl = ""
             state.hasMore = true
+            state.nextCursor = undefined
             state.selectedEntryId = undefined
             state.loading = true
         })
@@ -102,6 +105,7 @@ export const entriesSlice = createSlice({
             state.sourceLabel = action.payload.name
             state.sourceWebsiteUrl = action.payload.feedLink
             state.hasMore = action.payload.hasMore
+            state.nextCursor = action.payload.nextCursor
             state.loading = false
         })
         builder.addCase(loadMoreEntries.fulfilled, (state, action) => {
@@ -109,6 +113,7 @@ export const entriesSlice = createSlice({
             const entriesToAdd = action.payload.entries.filter(e => !state.entries.some(e2 => e.id === e2.id))
             state.entries = [...state.entries, ...entriesToAdd]
             state.hasMore = action.payload.hasMore
+            state.nextCursor = action.payload.nextCursor
             state.loading = false
         })
         builder.addCase(tagEntry.pending, (state, action) => {
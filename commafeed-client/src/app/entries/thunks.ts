@@ -34,14 +34,15 @@ export const loadMoreEntries = createAppAsyncThunk("entries/loadMore", async (_,
     const offset =
         state.user.settings?.readingMode === "all" ? state.entries.entries.length : state.entries.entries.filter(e => !e.read).length
     const endpoint = getEndpoint(state.entries.source.type)
-    const result = await endpoint(buildGetEntriesPaginatedRequest(state, source, offset))
+    const result = await endpoint(buildGetEntriesPaginatedRequest(state, source, offset, state.entries.nextCursor))
     return result.data
 })
-const buildGetEntriesPaginatedRequest = (state: RootState, source: EntrySource, offset: number) => ({
+const buildGetEntriesPaginatedRequest = (state: RootState, source: EntrySource, offset: number, cursor?: string) => ({
     id: source.type === "tag" ? Constants.categories.all.id : source.id,
     order: state.user.settings?.readingOrder,
     readType: state.entries.search ? "all" : state.user.settings?.readingMode,
     offset,
+    cursor,
     limit: 50,
     tag: source.type === "tag" ? source.id : undefined,
     keywords: state.entries.search,
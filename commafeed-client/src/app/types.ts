@@ -90,6 +90,7 @@ export interface Entries {
     hasMore: boolean
     offset?: number
     limit?: number
+    nextCursor?: string
     entries: Entry[]
     ignoredReadStatus: boolean
 }
@@ -124,6 +125,7 @@ export interface GetEntriesRequest {
 export interface GetEntriesPaginatedRequest extends GetEntriesRequest {
     offset: number
     limit: number
+    cursor?: string
 }
 
 export interface IDRequest {
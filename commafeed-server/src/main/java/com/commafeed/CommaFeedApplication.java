@@ -5,6 +5,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -13,19 +14,27 @@ import org.eclipse.jetty.websocket.jakarta.server.config.JakartaWebSocketServlet
 import org.hibernate.cfg.AvailableSettings;
 
 import com.codahale.metrics.json.MetricsModule;
+import com.commafeed.backend.HttpGetter;
+import com.commafeed.backend.cache.CacheService;
+import com.commafeed.backend.cache.RedisNearCacheService;
 import com.commafeed.backend.dao.UserDAO;
+import com.commafeed.backend.feed.FeedFetcher;
 import com.commafeed.backend.feed.FeedRefreshEngine;
 import com.commafeed.backend.model.AbstractModel;
 import com.commafeed.backend.model.Feed;
 import com.commafeed.backend.model.FeedCategory;
 import com.commafeed.backend.model.FeedEntry;
 import com.commafeed.backend.model.FeedEntryContent;
+import com.commafeed.backend.model.FeedEntryContentTerm;
 import com.commafeed.backend.model.FeedEntryStatus;
 import com.commafeed.backend.model.FeedEntryTag;
+import com.commafeed.backend.model.FeedFavicon;
 import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.TimelineEntry;
 import com.commafeed.backend.model.User;
 import com.commafeed.backend.model.UserRole;
 import com.commafeed.backend.model.UserSettings;
+import com.commafeed.backend.service.FeedFaviconService;
 import com.commafeed.backend.service.UserService;
 import com.commafeed.backend.service.db.DatabaseStartupService;
 import com.commafeed.backend.service.db.H2MigrationService;
@@ -67,6 +76,7 @@ import io.dropwizard.core.setup.Environment;
 import io.dropwizard.db.DataSourceFactory;
 import io.dropwizard.forms.MultiPartBundle;
 import io.dropwizard.hibernate.HibernateBundle;
+import io.dropwizard.hibernate.SessionFactoryFactory;
 import io.dropwizard.migrations.MigrationsBundle;
 import io.dropwizard.servlets.CacheBustingFilter;
 import io.whitfin.dropwizard.configuration.EnvironmentSubstitutor;
@@ -85,6 +95,10 @@ public class CommaFeedApplication extends Application<CommaFeedConfiguration> {
 
 	public static final Instant STARTUP_TIME = Instant.now();
 
+	public static final List<Class<?>> ENTITIES = List.of(AbstractModel.class, Feed.class, FeedCategory.class, FeedEntry.class,
+			FeedEntryContent.class, FeedEntryContentTerm.class, FeedEntryStatus.class, FeedEntryTag.class, FeedFavicon.class,
+			FeedSubscription.class, TimelineEntry.class, User.class, UserRole.class, UserSettings.class);
+
 	private HibernateBundle<CommaFeedConfiguration> hibernateBundle;
 
 	@Override
@@ -121,9 +135,7 @@ public class CommaFeedApplication extends Application<CommaFeedConfiguration> {
 			}
 		});
 
-		bootstrap.addBundle(hibernateBundle = new HibernateBundle<>(AbstractModel.class, Feed.class, FeedCategory.class, FeedEntry.class,
-				FeedEntryContent.class, FeedEntryStatus.class, FeedEntryTag.class, FeedSubscription.class, User.class, UserRole.class,
-				UserSettings.class) {
+		bootstrap.addBundle(hibernateBundle = new HibernateBundle<>(ENTITIES, new SessionFactoryFactory()) {
 			@Override
 			public DataSourceFactory getDataSourceFactory(CommaFeedConfiguration configuration) {
 				DataSourceFactory factory = configuration.getDataSourceFactory();
@@ -245,6 +257,12 @@ public class CommaFeedApplication extends Application<CommaFeedConfiguration> {
 
 		// start feed fetching engine
 		environment.lifecycle().manage(injector.getInstance(FeedRefreshEngine.class));
+		environment.lifecycle().manage(injector.getInstance(FeedFetcher.class));
+		environment.lifecycle().manage(injector.getInstance(HttpGetter.class));
+		environment.lifecycle().manage(injector.getInstance(FeedFaviconService.class));
+		if (injector.getInstance(CacheService.class) instanceof RedisNearCacheService nearCache) {
+			environment.lifecycle().manage(nearCache);
+		}
 
 		// prevent caching index.html, so that the webapp is always up to date
 		environment.servlets()
@@ -27,7 +27,7 @@ import lombok.Setter;
 public class CommaFeedConfiguration extends Configuration {
 
 	public enum CacheType {
-		NOOP, REDIS
+		NOOP, LOCAL, REDIS
 	}
 
 	@Valid
@@ -105,11 +105,54 @@ public class CommaFeedConfiguration extends Configuration {
 		@Valid
 		private Integer databaseUpdateThreads;
 
+		@NotNull
+		@Valid
+		private Boolean virtualThreadsEnabled = false;
+
+		@NotNull
+		@Valid
+		private Boolean asyncHttpEnabled = false;
+
+		@NotNull
+		@Min(1)
+		@Valid
+		private Integer maxInFlightAsyncFetches = 500;
+
+		@NotNull
+		@Min(0)
+		@Valid
+		private Integer maxConcurrentFeedParsing = 0;
+
+		@NotNull
+		@Min(0)
+		@Valid
+		private Integer maxConcurrentRequestsPerHost = 0;
+
+		@NotNull
+		@Valid
+		private Duration minDelayBetweenRequestsPerHost = Duration.seconds(0);
+
+		@NotNull
+		@Valid
+		private Boolean streamingFeedParserEnabled = false;
+
 		@NotNull
 		@Positive
 		@Valid
 		private Integer databaseCleanupBatchSize = 100;
 
+		@NotNull
+		@Valid
+		private Boolean timelineEnabled = false;
+
+		@NotNull
+		@Valid
+		private Boolean searchIndexEnabled = false;
+
+		@NotNull
+		@Valid
+		private Boolean entryBloomFilterEnabled = false;
+
 		private String smtpHost;
 		private int smtpPort;
 		private boolean smtpTls;
@@ -131,6 +174,10 @@ public class CommaFeedConfiguration extends Configuration {
 		@Valid
 		private Boolean imageProxyEnabled;
 
+		@NotNull
+		@Valid
+		private DataSize imageProxyCacheSize = DataSize.megabytes(32);
+
 		@NotNull
 		@Min(0)
 		@Valid
@@ -164,6 +211,10 @@ public class CommaFeedConfiguration extends Configuration {
 		@Valid
 		private Integer refreshIntervalMinutes;
 
+		@NotNull
+		@Valid
+		private Boolean adaptiveRefreshEnabled = false;
+
 		@NotNull
 		@Valid
 		private CacheType cache;
@@ -4,27 +4,35 @@ import java.net.InetSocketAddress;
 import java.util.concurrent.TimeUnit;
 
 import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.graphite.Graphite;
 import com.codahale.metrics.graphite.GraphiteReporter;
 import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
-import com.commafeed.CommaFeedConfiguration.CacheType;
 import com.commafeed.backend.cache.CacheService;
+import com.commafeed.backend.cache.LocalCacheService;
 import com.commafeed.backend.cache.NoopCacheService;
 import com.commafeed.backend.cache.RedisCacheService;
+import com.commafeed.backend.cache.RedisNearCacheService;
 import com.commafeed.backend.favicon.AbstractFaviconFetcher;
 import com.commafeed.backend.favicon.DefaultFaviconFetcher;
 import com.commafeed.backend.favicon.FacebookFaviconFetcher;
 import com.commafeed.backend.favicon.YoutubeFaviconFetcher;
+import com.commafeed.backend.task.ContentDirectionTask;
 import com.commafeed.backend.task.DemoAccountCleanupTask;
 import com.commafeed.backend.task.EntriesExceedingFeedCapacityCleanupTask;
+import com.commafeed.backend.task.FaviconRefreshTask;
 import com.commafeed.backend.task.OldEntriesCleanupTask;
 import com.commafeed.backend.task.OldStatusesCleanupTask;
 import com.commafeed.backend.task.OrphanedContentsCleanupTask;
 import com.commafeed.backend.task.OrphanedFeedsCleanupTask;
 import com.commafeed.backend.task.ScheduledTask;
+import com.commafeed.backend.task.SearchIndexTask;
+import com.commafeed.backend.task.TimelineMaintenanceTask;
+import com.commafeed.backend.task.UnreadCountReconciliationTask;
 import com.commafeed.backend.urlprovider.FeedURLProvider;
 import com.commafeed.backend.urlprovider.InPageReferenceFeedURLProvider;
 import com.commafeed.backend.urlprovider.YoutubeFeedURLProvider;
@@ -51,8 +59,13 @@ public class CommaFeedModule extends AbstractModule {
 
 	@Override
 	protected void configure() {
-		CacheService cacheService = config.getApplicationSettings().getCache() == CacheType.NOOP ? new NoopCacheService()
+		CacheService cacheService = switch (config.getApplicationSettings().getCache()) {
+		case NOOP -> new NoopCacheService();
+		case LOCAL -> new LocalCacheService(metrics);
+		case REDIS -> config.getRedisPoolFactory().isNearCache()
+				? new RedisNearCacheService(new LocalCacheService(metrics), config.getRedisPoolFactory().build(), metrics)
 				: new RedisCacheService(config.getRedisPoolFactory().build());
+		};
 		log.info("using cache {}", cacheService.getClass());
 		bind(CacheService.class).toInstance(cacheService);
 
@@ -72,6 +85,23 @@ public class CommaFeedModule extends AbstractModule {
 		taskMultibinder.addBinding().to(OrphanedFeedsCleanupTask.class);
 		taskMultibinder.addBinding().to(OrphanedContentsCleanupTask.class);
 		taskMultibinder.addBinding().to(DemoAccountCleanupTask.class);
+		taskMultibinder.addBinding().to(UnreadCountReconciliationTask.class);
+		taskMultibinder.addBinding().to(TimelineMaintenanceTask.class);
+		taskMultibinder.addBinding().to(SearchIndexTask.class);
+		taskMultibinder.addBinding().to(ContentDirectionTask.class);
+		taskMultibinder.addBinding().to(FaviconRefreshTask.class);
+
+		// expose hibernate statistics if they have been enabled with the hibernate.generate_statistics database property
+		Statistics statistics = sessionFactory.getStatistics();
+		if (statistics.isStatisticsEnabled()) {
+			metrics.register(MetricRegistry.name(SessionFactory.class, "statements", "prepared"),
+					(Gauge<Long>) statistics::getPrepareStatementCount);
+			metrics.register(MetricRegistry.name(SessionFactory.class, "queries", "executed"),
+					(Gauge<Long>) statistics::getQueryExecutionCount);
+			metrics.register(MetricRegistry.name(SessionFactory.class, "entities", "inserted"), (Gauge<Long>) statistics::getEntityInsertCount);
+			metrics.register(MetricRegistry.name(SessionFactory.class, "entities", "updated"), (Gauge<Long>) statistics::getEntityUpdateCount);
+			metrics.register(MetricRegistry.name(SessionFactory.class, "transactions"), (Gauge<Long>) statistics::getTransactionCount);
+		}
 
 		ApplicationSettings settings = config.getApplicationSettings();
 
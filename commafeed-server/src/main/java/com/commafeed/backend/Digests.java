@@ -1,9 +1,12 @@
 package com.commafeed.backend;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
 
 import lombok.experimental.UtilityClass;
 
@@ -19,6 +22,20 @@ public class Digests {
 		return hashBytesToHex(Hashing.sha1(), input.getBytes(StandardCharsets.UTF_8));
 	}
 
+	/**
+	 * incremental version of {@link #sha1Hex(byte[])}, the hex value is obtained with hash().toString()
+	 */
+	public static Hasher sha1Hasher() {
+		return Hashing.sha1().newHasher();
+	}
+
+	/**
+	 * computes the same hash as {@link #sha1Hex(byte[])} while the stream is being read, the hex value is obtained with hash().toString()
+	 */
+	public static HashingInputStream sha1HashingInputStream(InputStream input) {
+		return new HashingInputStream(Hashing.sha1(), input);
+	}
+
 	public static String md5Hex(String input) {
 		return hashBytesToHex(Hashing.md5(), input.getBytes(StandardCharsets.UTF_8));
 	}
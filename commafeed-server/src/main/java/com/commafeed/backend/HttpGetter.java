@@ -1,39 +1,64 @@
 package com.commafeed.backend;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.client5.http.protocol.RedirectLocations;
+import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpMessage;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
 import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.entity.AbstractBinAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AbstractAsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.eclipse.jetty.http.HttpStatus;
 
 import com.codahale.metrics.MetricRegistry;
 import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.backend.HttpGetter.NotModifiedException.Reason;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
 
+import io.dropwizard.lifecycle.Managed;
 import io.dropwizard.util.DataSize;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -45,17 +70,36 @@ import nl.altindag.ssl.apache5.util.Apache5SslUtils;
 
 /**
  * Smart HTTP getter: handles gzip, ssl, last modified and etag headers
+ * 
+ * When async http is enabled, {@link #getBinaryAsync(String, String, String, int)} uses a non-blocking client that negotiates HTTP/2 with
+ * the hosts supporting it, so that a large number of requests can be in flight on a handful of I/O threads.
  */
 @Singleton
 @Slf4j
-public class HttpGetter {
+public class HttpGetter implements Managed {
 
 	private final CloseableHttpClient client;
+	private final CloseableHttpAsyncClient asyncClient;
 	private final DataSize maxResponseSize;
 
 	@Inject
 	public HttpGetter(CommaFeedConfiguration config, MetricRegistry metrics) {
-		PoolingHttpClientConnectionManager connectionManager = newConnectionManager(config.getApplicationSettings().getBackgroundThreads());
+		this(config, metrics, config.getApplicationSettings().getBackgroundThreads(),
+				Boolean.TRUE.equals(config.getApplicationSettings().getAsyncHttpEnabled())
+						? config.getApplicationSettings().getMaxInFlightAsyncFetches()
+						: 0);
+	}
+
+	/**
+	 * @param poolSize
+	 *            maximum number of concurrent connections, pool metrics are registered under the name of the concrete class so that
+	 *            subclasses each get their own
+	 * @param asyncPoolSize
+	 *            maximum number of concurrent connections of the non-blocking client used by
+	 *            {@link #getBinaryAsync(String, String, String, int)}, 0 to not create that client
+	 */
+	protected HttpGetter(CommaFeedConfiguration config, MetricRegistry metrics, int poolSize, int asyncPoolSize) {
+		PoolingHttpClientConnectionManager connectionManager = newConnectionManager(poolSize);
 		String userAgent = Optional.ofNullable(config.getApplicationSettings().getUserAgent())
 				.orElseGet(() -> String.format("CommaFeed/%s (https://github.com/Athou/commafeed)", config.getVersion()));
 		this.client = newClient(connectionManager, userAgent);
@@ -66,6 +110,21 @@ public class HttpGetter {
 				() -> connectionManager.getTotalStats().getAvailable() + connectionManager.getTotalStats().getLeased());
 		metrics.registerGauge(MetricRegistry.name(getClass(), "pool", "leased"), () -> connectionManager.getTotalStats().getLeased());
 		metrics.registerGauge(MetricRegistry.name(getClass(), "pool", "pending"), () -> connectionManager.getTotalStats().getPending());
+
+		if (asyncPoolSize > 0) {
+			PoolingAsyncClientConnectionManager asyncConnectionManager = newAsyncConnectionManager(asyncPoolSize);
+			this.asyncClient = newAsyncClient(asyncConnectionManager, userAgent);
+			this.asyncClient.start();
+
+			metrics.registerGauge(MetricRegistry.name(getClass(), "async", "pool", "size"),
+					() -> asyncConnectionManager.getTotalStats().getAvailable() + asyncConnectionManager.getTotalStats().getLeased());
+			metrics.registerGauge(MetricRegistry.name(getClass(), "async", "pool", "leased"),
+					() -> asyncConnectionManager.getTotalStats().getLeased());
+			metrics.registerGauge(MetricRegistry.name(getClass(), "async", "pool", "pending"),
+					() -> asyncConnectionManager.getTotalStats().getPending());
+		} else {
+			this.asyncClient = null;
+		}
 	}
 
 	public HttpResult getBinary(String url, int timeout) throws IOException, NotModifiedException {
@@ -98,50 +157,127 @@ public class HttpGetter {
 		context.setRequestConfig(RequestConfig.custom().setResponseTimeout(timeout, TimeUnit.MILLISECONDS).build());
 
 		HttpResponse response = client.execute(request, context, resp -> {
-			byte[] content = resp.getEntity() == null ? null : toByteArray(resp.getEntity(), maxResponseSize.toBytes());
-			int code = resp.getCode();
-			String lastModifiedHeader = Optional.ofNullable(resp.getFirstHeader(HttpHeaders.LAST_MODIFIED))
-					.map(NameValuePair::getValue)
-					.map(StringUtils::trimToNull)
-					.orElse(null);
-			String eTagHeader = Optional.ofNullable(resp.getFirstHeader(HttpHeaders.ETAG))
-					.map(NameValuePair::getValue)
-					.map(StringUtils::trimToNull)
-					.orElse(null);
-
+			HashedContent content = resp.getEntity() == null ? null : toByteArray(resp.getEntity(), maxResponseSize.toBytes());
 			String contentType = Optional.ofNullable(resp.getEntity()).map(HttpEntity::getContentType).orElse(null);
-			String urlAfterRedirect = Optional.ofNullable(context.getRedirectLocations())
-					.map(RedirectLocations::getAll)
-					.map(l -> Iterables.getLast(l, null))
-					.map(URI::toString)
-					.orElse(url);
+			return toHttpResponse(url, resp.getCode(), resp, content, contentType, context);
+		});
+
+		return toHttpResult(response, lastModified, eTag, start);
+	}
+
+	/**
+	 * Non-blocking version of {@link #getBinary(String, String, String, int)}, only available when async http is enabled.
+	 * 
+	 * The returned future is completed by one of the I/O threads of the client, callers should not do any heavy work on it without
+	 * switching to their own executor first.
+	 */
+	public CompletableFuture<HttpResult> getBinaryAsync(String url, String lastModified, String eTag, int timeout) {
+		if (asyncClient == null) {
+			return CompletableFuture.failedFuture(new IllegalStateException("async http is not enabled"));
+		}
+
+		log.debug("fetching {} asynchronously", url);
 
-			return new HttpResponse(code, lastModifiedHeader, eTagHeader, content, contentType, urlAfterRedirect);
+		long start = System.currentTimeMillis();
+		AsyncRequestProducer request;
+		try {
+			AsyncRequestBuilder builder = AsyncRequestBuilder.get(url).addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+			if (lastModified != null) {
+				builder.addHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+			}
+			if (eTag != null) {
+				builder.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+			}
+			request = builder.build();
+		} catch (RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+
+		HttpClientContext context = HttpClientContext.create();
+		context.setRequestConfig(RequestConfig.custom().setResponseTimeout(timeout, TimeUnit.MILLISECONDS).build());
+
+		CompletableFuture<HttpResult> future = new CompletableFuture<>();
+		asyncClient.execute(request, new LimitedResponseConsumer(maxResponseSize.toBytes()), context, new FutureCallback<>() {
+			@Override
+			public void completed(AsyncResponse resp) {
+				try {
+					HashedContent content = decode(resp, maxResponseSize.toBytes());
+					String contentType = Optional.ofNullable(resp.response().getFirstHeader(HttpHeaders.CONTENT_TYPE))
+							.map(NameValuePair::getValue)
+							.orElse(null);
+					HttpResponse response = toHttpResponse(url, resp.response().getCode(), resp.response(), content, contentType, context);
+					future.complete(toHttpResult(response, lastModified, eTag, start));
+				} catch (IOException | NotModifiedException e) {
+					future.completeExceptionally(e);
+				}
+			}
+
+			@Override
+			public void failed(Exception ex) {
+				future.completeExceptionally(ex);
+			}
+
+			@Override
+			public void cancelled() {
+				future.cancel(false);
+			}
 		});
+		return future;
+	}
+
+	private static HttpResponse toHttpResponse(String url, int code, HttpMessage resp, HashedContent content, String contentType,
+			HttpClientContext context) {
+		String lastModifiedHeader = Optional.ofNullable(resp.getFirstHeader(HttpHeaders.LAST_MODIFIED))
+				.map(NameValuePair::getValue)
+				.map(StringUtils::trimToNull)
+				.orElse(null);
+		String eTagHeader = Optional.ofNullable(resp.getFirstHeader(HttpHeaders.ETAG))
+				.map(NameValuePair::getValue)
+				.map(StringUtils::trimToNull)
+				.orElse(null);
+
+		String urlAfterRedirect = Optional.ofNullable(context.getRedirectLocations())
+				.map(RedirectLocations::getAll)
+				.map(l -> Iterables.getLast(l, null))
+				.map(URI::toString)
+				.orElse(url);
+
+		return new HttpResponse(code, lastModifiedHeader, eTagHeader, content == null ? null : content.bytes(),
+				content == null ? null : content.hash(), contentType, urlAfterRedirect);
+	}
 
+	private static HttpResult toHttpResult(HttpResponse response, String lastModified, String eTag, long start)
+			throws HttpResponseException, NotModifiedException {
+		long duration = System.currentTimeMillis() - start;
 		int code = response.getCode();
 		if (code == HttpStatus.NOT_MODIFIED_304) {
-			throw new NotModifiedException("'304 - not modified' http code received");
+			throw new NotModifiedException(Reason.NOT_MODIFIED, "'304 - not modified' http code received", 0, duration);
 		} else if (code >= 300) {
 			throw new HttpResponseException(code, "Server returned HTTP error code " + code);
 		}
 
 		String lastModifiedHeader = response.getLastModifiedHeader();
 		if (lastModifiedHeader != null && lastModifiedHeader.equals(lastModified)) {
-			throw new NotModifiedException("lastModifiedHeader is the same");
+			throw new NotModifiedException(Reason.SAME_VALIDATORS, "lastModifiedHeader is the same", contentLength(response), duration);
 		}
 
 		String eTagHeader = response.getETagHeader();
 		if (eTagHeader != null && eTagHeader.equals(eTag)) {
-			throw new NotModifiedException("eTagHeader is the same");
+			throw new NotModifiedException(Reason.SAME_VALIDATORS, "eTagHeader is the same", contentLength(response), duration);
 		}
 
-		long duration = System.currentTimeMillis() - start;
-		return new HttpResult(response.getContent(), response.getContentType(), lastModifiedHeader, eTagHeader, duration,
-				response.getUrlAfterRedirect());
+		return new HttpResult(response.getContent(), response.getContentHash(), response.getContentType(), lastModifiedHeader, eTagHeader,
+				duration, response.getUrlAfterRedirect());
+	}
+
+	private static long contentLength(HttpResponse response) {
+		return response.getContent() == null ? 0 : response.getContent().length;
 	}
 
-	private static byte[] toByteArray(HttpEntity entity, long maxBytes) throws IOException {
+	/**
+	 * reads the response while computing its hash, so that callers can detect unchanged content without going through it again
+	 */
+	private static HashedContent toByteArray(HttpEntity entity, long maxBytes) throws IOException {
 		if (entity.getContentLength() > maxBytes) {
 			throw new IOException(
 					"Response size (%s bytes) exceeds the maximum allowed size (%s bytes)".formatted(entity.getContentLength(), maxBytes));
@@ -152,11 +288,31 @@ public class HttpGetter {
 				return null;
 			}
 
-			byte[] bytes = ByteStreams.limit(input, maxBytes).readAllBytes();
+			HashingInputStream hashingInput = Digests.sha1HashingInputStream(ByteStreams.limit(input, maxBytes));
+			byte[] bytes = hashingInput.readAllBytes();
+			if (bytes.length == maxBytes) {
+				throw new IOException("Response size exceeds the maximum allowed size (%s bytes)".formatted(maxBytes));
+			}
+			return new HashedContent(bytes, hashingInput.hash().toString());
+		}
+	}
+
+	/**
+	 * the async client does not decompress responses by itself, the decompressed content is subject to the same size limit
+	 */
+	private static HashedContent decode(AsyncResponse resp, long maxBytes) throws IOException {
+		Header contentEncoding = resp.response().getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+		if (resp.content() == null || contentEncoding == null || !"gzip".equalsIgnoreCase(StringUtils.trim(contentEncoding.getValue()))) {
+			return resp.content();
+		}
+
+		try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(resp.content().bytes()))) {
+			HashingInputStream hashingInput = Digests.sha1HashingInputStream(ByteStreams.limit(input, maxBytes));
+			byte[] bytes = hashingInput.readAllBytes();
 			if (bytes.length == maxBytes) {
 				throw new IOException("Response size exceeds the maximum allowed size (%s bytes)".formatted(maxBytes));
 			}
-			return bytes;
+			return new HashedContent(bytes, hashingInput.hash().toString());
 		}
 	}
 
@@ -173,6 +329,20 @@ public class HttpGetter {
 
 	}
 
+	private static PoolingAsyncClientConnectionManager newAsyncConnectionManager(int poolSize) {
+		SSLFactory sslFactory = SSLFactory.builder().withUnsafeTrustMaterial().withUnsafeHostnameVerifier().build();
+
+		return PoolingAsyncClientConnectionManagerBuilder.create()
+				.setTlsStrategy(Apache5SslUtils.toTlsStrategy(sslFactory))
+				// HTTP/2 is used when the server advertises it during the TLS handshake (ALPN), HTTP/1.1 otherwise
+				.setDefaultTlsConfig(TlsConfig.custom().setVersionPolicy(HttpVersionPolicy.NEGOTIATE).build())
+				.setDefaultConnectionConfig(
+						ConnectionConfig.custom().setConnectTimeout(Timeout.ofSeconds(5)).setTimeToLive(TimeValue.ofSeconds(30)).build())
+				.setMaxConnPerRoute(poolSize)
+				.setMaxConnTotal(poolSize)
+				.build();
+	}
+
 	private static CloseableHttpClient newClient(HttpClientConnectionManager connectionManager, String userAgent) {
 		List<Header> headers = new ArrayList<>();
 		headers.add(new BasicHeader(HttpHeaders.ACCEPT_LANGUAGE, "en"));
@@ -191,10 +361,66 @@ public class HttpGetter {
 				.build();
 	}
 
+	private static CloseableHttpAsyncClient newAsyncClient(AsyncClientConnectionManager connectionManager, String userAgent) {
+		List<Header> headers = new ArrayList<>();
+		headers.add(new BasicHeader(HttpHeaders.ACCEPT_LANGUAGE, "en"));
+		headers.add(new BasicHeader(HttpHeaders.PRAGMA, "No-cache"));
+		headers.add(new BasicHeader(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+		return HttpAsyncClientBuilder.create()
+				.useSystemProperties()
+				.disableAutomaticRetries()
+				.disableCookieManagement()
+				.setUserAgent(userAgent)
+				.setDefaultHeaders(headers)
+				.setConnectionManager(connectionManager)
+				.evictExpiredConnections()
+				.evictIdleConnections(TimeValue.ofMinutes(1))
+				.build();
+	}
+
+	@Override
+	public void stop() {
+		if (asyncClient != null) {
+			asyncClient.close(CloseMode.GRACEFUL);
+		}
+	}
+
 	@Getter
 	public static class NotModifiedException extends Exception {
 		private static final long serialVersionUID = 1L;
 
+		public enum Reason {
+			/**
+			 * the server answered with a 304
+			 */
+			NOT_MODIFIED,
+			/**
+			 * the server sent the whole response but with the same Last-Modified or ETag header as last time
+			 */
+			SAME_VALIDATORS,
+			/**
+			 * the content is identical to what we got last time
+			 */
+			SAME_CONTENT_HASH,
+			/**
+			 * the content changed but the feed publication date did not
+			 */
+			SAME_PUBLISHED_DATE
+		}
+
+		private final Reason reason;
+
+		/**
+		 * number of bytes of the response that was downloaded before concluding it was not modified
+		 */
+		private final long contentLength;
+
+		/**
+		 * time spent on the http request, in milliseconds
+		 */
+		private final long duration;
+
 		/**
 		 * if the value of this header changed, this is its new value
 		 */
@@ -205,12 +431,17 @@ public class HttpGetter {
 		 */
 		private final String newEtagHeader;
 
-		public NotModifiedException(String message) {
-			this(message, null, null);
+		public NotModifiedException(Reason reason, String message, long contentLength, long duration) {
+			this(reason, message, contentLength, duration, null, null);
 		}
 
-		public NotModifiedException(String message, String newLastModifiedHeader, String newEtagHeader) {
-			super(message);
+		public NotModifiedException(Reason reason, String message, long contentLength, long duration, String newLastModifiedHeader,
+				String newEtagHeader) {
+			// thrown for a large share of fetches as a control flow signal, the stack trace is never used
+			super(message, null, false, false);
+			this.reason = reason;
+			this.contentLength = contentLength;
+			this.duration = duration;
 			this.newLastModifiedHeader = newLastModifiedHeader;
 			this.newEtagHeader = newEtagHeader;
 		}
@@ -236,14 +467,86 @@ public class HttpGetter {
 		private final String lastModifiedHeader;
 		private final String eTagHeader;
 		private final byte[] content;
+		private final String contentHash;
 		private final String contentType;
 		private final String urlAfterRedirect;
 	}
 
+	private record HashedContent(byte[] bytes, String hash) {
+	}
+
+	private record AsyncResponse(org.apache.hc.core5.http.HttpResponse response, HashedContent content) {
+	}
+
+	/**
+	 * buffers the response body as it arrives and fails the request as soon as it exceeds the maximum allowed size
+	 */
+	private static class LimitedResponseConsumer extends AbstractAsyncResponseConsumer<AsyncResponse, HashedContent> {
+
+		LimitedResponseConsumer(long maxBytes) {
+			super(() -> new LimitedByteArrayConsumer(maxBytes));
+		}
+
+		@Override
+		protected AsyncResponse buildResult(org.apache.hc.core5.http.HttpResponse response, HashedContent entity, ContentType contentType) {
+			return new AsyncResponse(response, entity);
+		}
+
+		@Override
+		public void informationResponse(org.apache.hc.core5.http.HttpResponse response, HttpContext context) {
+			// 1xx responses are ignored
+		}
+	}
+
+	@RequiredArgsConstructor
+	private static class LimitedByteArrayConsumer extends AbstractBinAsyncEntityConsumer<HashedContent> {
+
+		private final long maxBytes;
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		private final Hasher hasher = Digests.sha1Hasher();
+
+		@Override
+		protected void streamStart(ContentType contentType) {
+			// nothing to do
+		}
+
+		@Override
+		protected int capacityIncrement() {
+			return Integer.MAX_VALUE;
+		}
+
+		@Override
+		protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+			if (buffer.size() + src.remaining() >= maxBytes) {
+				throw new IOException("Response size exceeds the maximum allowed size (%s bytes)".formatted(maxBytes));
+			}
+
+			byte[] bytes = new byte[src.remaining()];
+			src.get(bytes);
+			buffer.write(bytes);
+			hasher.putBytes(bytes);
+		}
+
+		@Override
+		protected HashedContent generateContent() {
+			return new HashedContent(buffer.toByteArray(), hasher.hash().toString());
+		}
+
+		@Override
+		public void releaseResources() {
+			buffer.reset();
+		}
+	}
+
 	@Getter
 	@RequiredArgsConstructor
 	public static class HttpResult {
 		private final byte[] content;
+
+		/**
+		 * sha1 of the content, computed while the response was read
+		 */
+		private final String contentHash;
 		private final String contentType;
 		private final String lastModifiedSince;
 		private final String eTag;
@@ -1,6 +1,8 @@
 package com.commafeed.backend.cache;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.commafeed.backend.Digests;
@@ -30,9 +32,12 @@ public abstract class CacheService {
 	public abstract void invalidateUserRootCategory(User... users);
 
 	// unread count
-	public abstract UnreadCount getUnreadCount(FeedSubscription sub);
+	/**
+	 * @return cached unread counts by subscription id, subscriptions that are not cached are absent from the map
+	 */
+	public abstract Map<Long, UnreadCount> getUnreadCounts(List<FeedSubscription> subs);
 
-	public abstract void setUnreadCount(FeedSubscription sub, UnreadCount count);
+	public abstract void setUnreadCounts(Collection<UnreadCount> counts);
 
 	public abstract void invalidateUnreadCount(FeedSubscription... subs);
 
@@ -0,0 +1,114 @@
+package com.commafeed.backend.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.Models;
+import com.commafeed.backend.model.User;
+import com.commafeed.frontend.model.Category;
+import com.commafeed.frontend.model.UnreadCount;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * In-process cache, for single node setups or as the local tier of {@link RedisNearCacheService}
+ */
+public class LocalCacheService extends CacheService {
+
+	private final Cache<Long, Set<String>> lastEntries;
+	private final Cache<Long, Category> rootCategories;
+	private final Cache<Long, UnreadCount> unreadCounts;
+
+	public LocalCacheService(MetricRegistry metrics) {
+		this.lastEntries = build(metrics, "lastEntries", 20000, Duration.ofDays(7));
+		this.rootCategories = build(metrics, "rootCategories", 10000, Duration.ofMinutes(30));
+		this.unreadCounts = build(metrics, "unreadCounts", 100000, Duration.ofMinutes(30));
+	}
+
+	private <V> Cache<Long, V> build(MetricRegistry metrics, String name, long maximumSize, Duration expiration) {
+		Cache<Long, V> cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expiration).recordStats().build();
+		metrics.registerGauge(MetricRegistry.name(LocalCacheService.class, name, "hits"), () -> cache.stats().hitCount());
+		metrics.registerGauge(MetricRegistry.name(LocalCacheService.class, name, "misses"), () -> cache.stats().missCount());
+		metrics.registerGauge(MetricRegistry.name(LocalCacheService.class, name, "evictions"), () -> cache.stats().evictionCount());
+		metrics.registerGauge(MetricRegistry.name(LocalCacheService.class, name, "size"), cache::estimatedSize);
+		return cache;
+	}
+
+	@Override
+	public Set<String> getLastEntries(Feed feed) {
+		Set<String> entries = lastEntries.getIfPresent(Models.getId(feed));
+		return entries == null ? Collections.emptySet() : entries;
+	}
+
+	@Override
+	public void setLastEntries(Feed feed, List<String> entries) {
+		lastEntries.put(Models.getId(feed), Set.copyOf(entries));
+	}
+
+	@Override
+	public Category getUserRootCategory(User user) {
+		return rootCategories.getIfPresent(Models.getId(user));
+	}
+
+	@Override
+	public void setUserRootCategory(User user, Category category) {
+		rootCategories.put(Models.getId(user), category);
+	}
+
+	@Override
+	public Map<Long, UnreadCount> getUnreadCounts(List<FeedSubscription> subs) {
+		return new HashMap<>(unreadCounts.getAllPresent(subs.stream().map(Models::getId).toList()));
+	}
+
+	@Override
+	public void setUnreadCounts(Collection<UnreadCount> counts) {
+		for (UnreadCount count : counts) {
+			unreadCounts.put(count.getFeedId(), count);
+		}
+	}
+
+	@Override
+	public void invalidateUserRootCategory(User... users) {
+		if (users != null) {
+			for (User user : users) {
+				rootCategories.invalidate(Models.getId(user));
+			}
+		}
+	}
+
+	@Override
+	public void invalidateUnreadCount(FeedSubscription... subs) {
+		if (subs != null) {
+			for (FeedSubscription sub : subs) {
+				unreadCounts.invalidate(Models.getId(sub));
+			}
+		}
+	}
+
+	void evictLastEntries(Long feedId) {
+		lastEntries.invalidate(feedId);
+	}
+
+	void evictUserRootCategory(Long userId) {
+		rootCategories.invalidate(userId);
+	}
+
+	void evictUnreadCount(Long subscriptionId) {
+		unreadCounts.invalidate(subscriptionId);
+	}
+
+	void evictAll() {
+		lastEntries.invalidateAll();
+		rootCategories.invalidateAll();
+		unreadCounts.invalidateAll();
+	}
+
+}
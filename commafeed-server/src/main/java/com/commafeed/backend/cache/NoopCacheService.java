@@ -1,7 +1,9 @@
 package com.commafeed.backend.cache;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.commafeed.backend.model.Feed;
@@ -22,12 +24,12 @@ public class NoopCacheService extends CacheService {
 	}
 
 	@Override
-	public UnreadCount getUnreadCount(FeedSubscription sub) {
-		return null;
+	public Map<Long, UnreadCount> getUnreadCounts(List<FeedSubscription> subs) {
+		return Collections.emptyMap();
 	}
 
 	@Override
-	public void setUnreadCount(FeedSubscription sub, UnreadCount count) {
+	public void setUnreadCounts(Collection<UnreadCount> counts) {
 
 	}
 
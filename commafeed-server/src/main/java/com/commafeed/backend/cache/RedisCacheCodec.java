@@ -0,0 +1,127 @@
+package com.commafeed.backend.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.commafeed.frontend.model.Category;
+import com.commafeed.frontend.model.UnreadCount;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Binary encoding of the values stored in Redis. The first byte of each value is the version of its encoding, values with an unknown
+ * version (e.g. written by an older or newer version of CommaFeed) are decoded as null and treated as cache misses.
+ */
+@UtilityClass
+class RedisCacheCodec {
+
+	private static final byte ENTRY_KEYS_V1 = 1;
+	private static final byte CATEGORY_V1 = 1;
+	private static final byte UNREAD_COUNT_V1 = 1;
+
+	private static final int SHA1_LENGTH = 20;
+	private static final HexFormat HEX = HexFormat.of();
+	private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+	/**
+	 * v1: the raw 20 bytes of each sha1 hex entry key, concatenated
+	 */
+	public static byte[] encodeEntryKeys(List<String> keys) {
+		ByteBuffer buffer = ByteBuffer.allocate(1 + keys.size() * SHA1_LENGTH);
+		buffer.put(ENTRY_KEYS_V1);
+		for (String key : keys) {
+			buffer.put(HEX.parseHex(key));
+		}
+		return buffer.array();
+	}
+
+	public static Set<String> decodeEntryKeys(byte[] value) {
+		if (value == null || value.length == 0 || value[0] != ENTRY_KEYS_V1 || (value.length - 1) % SHA1_LENGTH != 0) {
+			return null;
+		}
+
+		Set<String> keys = new HashSet<>();
+		for (int i = 1; i < value.length; i += SHA1_LENGTH) {
+			keys.add(HEX.formatHex(value, i, i + SHA1_LENGTH));
+		}
+		return keys;
+	}
+
+	/**
+	 * v1: gzipped json
+	 */
+	public static byte[] encodeCategory(Category category) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(CATEGORY_V1);
+		try (OutputStream out = new GZIPOutputStream(bytes)) {
+			MAPPER.writeValue(out, category);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public static Category decodeCategory(byte[] value) {
+		if (value == null || value.length == 0 || value[0] != CATEGORY_V1) {
+			return null;
+		}
+
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(value, 1, value.length - 1))) {
+			return MAPPER.readValue(in, Category.class);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * v1: feed id, unread count, whether there is a newest item time, and if there is one its epoch seconds and nanoseconds
+	 */
+	public static byte[] encodeUnreadCount(UnreadCount count) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(30);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(UNREAD_COUNT_V1);
+			out.writeLong(count.getFeedId());
+			out.writeLong(count.getUnreadCount());
+			out.writeBoolean(count.getNewestItemTime() != null);
+			if (count.getNewestItemTime() != null) {
+				out.writeLong(count.getNewestItemTime().getEpochSecond());
+				out.writeInt(count.getNewestItemTime().getNano());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public static UnreadCount decodeUnreadCount(byte[] value) {
+		if (value == null || value.length == 0 || value[0] != UNREAD_COUNT_V1) {
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value, 1, value.length - 1))) {
+			long feedId = in.readLong();
+			long unreadCount = in.readLong();
+			Instant newestItemTime = in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+			return new UnreadCount(feedId, unreadCount, newestItemTime);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -1,6 +1,10 @@
 package com.commafeed.backend.cache;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -10,44 +14,34 @@ import com.commafeed.backend.model.Models;
 import com.commafeed.backend.model.User;
 import com.commafeed.frontend.model.Category;
 import com.commafeed.frontend.model.UnreadCount;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.util.SafeEncoder;
 
 @Slf4j
 @RequiredArgsConstructor
 public class RedisCacheService extends CacheService {
 
-	private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
-
 	private final JedisPool pool;
 
 	@Override
 	public Set<String> getLastEntries(Feed feed) {
 		try (Jedis jedis = pool.getResource()) {
-			String key = buildRedisEntryKey(feed);
-			return jedis.smembers(key);
+			byte[] key = buildRedisEntryKey(feed);
+			Set<String> entries = RedisCacheCodec.decodeEntryKeys(jedis.get(key));
+			return entries == null ? Collections.emptySet() : entries;
 		}
 	}
 
 	@Override
 	public void setLastEntries(Feed feed, List<String> entries) {
 		try (Jedis jedis = pool.getResource()) {
-			String key = buildRedisEntryKey(feed);
-
-			Pipeline pipe = jedis.pipelined();
-			pipe.del(key);
-			for (String entry : entries) {
-				pipe.sadd(key, entry);
-			}
-			pipe.expire(key, (int) TimeUnit.DAYS.toSeconds(7));
-			pipe.sync();
+			byte[] key = buildRedisEntryKey(feed);
+			jedis.setex(key, TimeUnit.DAYS.toSeconds(7), RedisCacheCodec.encodeEntryKeys(entries));
 		}
 	}
 
@@ -55,11 +49,8 @@ public class RedisCacheService extends CacheService {
 	public Category getUserRootCategory(User user) {
 		Category cat = null;
 		try (Jedis jedis = pool.getResource()) {
-			String key = buildRedisUserRootCategoryKey(user);
-			String json = jedis.get(key);
-			if (json != null) {
-				cat = MAPPER.readValue(json, Category.class);
-			}
+			byte[] key = buildRedisUserRootCategoryKey(user);
+			cat = RedisCacheCodec.decodeCategory(jedis.get(key));
 		} catch (Exception e) {
 			log.error(e.getMessage(), e);
 		}
@@ -69,42 +60,47 @@ public class RedisCacheService extends CacheService {
 	@Override
 	public void setUserRootCategory(User user, Category category) {
 		try (Jedis jedis = pool.getResource()) {
-			String key = buildRedisUserRootCategoryKey(user);
-
-			Pipeline pipe = jedis.pipelined();
-			pipe.del(key);
-			pipe.set(key, MAPPER.writeValueAsString(category));
-			pipe.expire(key, (int) TimeUnit.MINUTES.toSeconds(30));
-			pipe.sync();
-		} catch (JsonProcessingException e) {
+			byte[] key = buildRedisUserRootCategoryKey(user);
+			jedis.setex(key, TimeUnit.MINUTES.toSeconds(30), RedisCacheCodec.encodeCategory(category));
+		} catch (Exception e) {
 			log.error(e.getMessage(), e);
 		}
 	}
 
 	@Override
-	public UnreadCount getUnreadCount(FeedSubscription sub) {
-		UnreadCount count = null;
+	public Map<Long, UnreadCount> getUnreadCounts(List<FeedSubscription> subs) {
+		Map<Long, UnreadCount> counts = new HashMap<>();
+		if (subs.isEmpty()) {
+			return counts;
+		}
+
 		try (Jedis jedis = pool.getResource()) {
-			String key = buildRedisUnreadCountKey(sub);
-			String json = jedis.get(key);
-			if (json != null) {
-				count = MAPPER.readValue(json, UnreadCount.class);
+			byte[][] keys = subs.stream().map(this::buildRedisUnreadCountKey).toArray(byte[][]::new);
+			List<byte[]> values = jedis.mget(keys);
+			for (int i = 0; i < subs.size(); i++) {
+				UnreadCount count = RedisCacheCodec.decodeUnreadCount(values.get(i));
+				if (count != null) {
+					counts.put(subs.get(i).getId(), count);
+				}
 			}
 		} catch (Exception e) {
 			log.error(e.getMessage(), e);
 		}
-		return count;
+		return counts;
 	}
 
 	@Override
-	public void setUnreadCount(FeedSubscription sub, UnreadCount count) {
-		try (Jedis jedis = pool.getResource()) {
-			String key = buildRedisUnreadCountKey(sub);
+	public void setUnreadCounts(Collection<UnreadCount> counts) {
+		if (counts.isEmpty()) {
+			return;
+		}
 
+		try (Jedis jedis = pool.getResource()) {
 			Pipeline pipe = jedis.pipelined();
-			pipe.del(key);
-			pipe.set(key, MAPPER.writeValueAsString(count));
-			pipe.expire(key, (int) TimeUnit.MINUTES.toSeconds(30));
+			for (UnreadCount count : counts) {
+				byte[] key = buildRedisUnreadCountKey(count.getFeedId());
+				pipe.setex(key, TimeUnit.MINUTES.toSeconds(30), RedisCacheCodec.encodeUnreadCount(count));
+			}
 			pipe.sync();
 		} catch (Exception e) {
 			log.error(e.getMessage(), e);
@@ -117,7 +113,7 @@ public class RedisCacheService extends CacheService {
 			Pipeline pipe = jedis.pipelined();
 			if (users != null) {
 				for (User user : users) {
-					String key = buildRedisUserRootCategoryKey(user);
+					byte[] key = buildRedisUserRootCategoryKey(user);
 					pipe.del(key);
 				}
 			}
@@ -131,7 +127,7 @@ public class RedisCacheService extends CacheService {
 			Pipeline pipe = jedis.pipelined();
 			if (subs != null) {
 				for (FeedSubscription sub : subs) {
-					String key = buildRedisUnreadCountKey(sub);
+					byte[] key = buildRedisUnreadCountKey(sub);
 					pipe.del(key);
 				}
 			}
@@ -139,16 +135,21 @@ public class RedisCacheService extends CacheService {
 		}
 	}
 
-	private String buildRedisEntryKey(Feed feed) {
-		return "f:" + Models.getId(feed);
+	// "f:" keys used to hold redis sets, a new prefix avoids WRONGTYPE errors until they expire
+	private byte[] buildRedisEntryKey(Feed feed) {
+		return SafeEncoder.encode("e:" + Models.getId(feed));
+	}
+
+	private byte[] buildRedisUserRootCategoryKey(User user) {
+		return SafeEncoder.encode("c:" + Models.getId(user));
 	}
 
-	private String buildRedisUserRootCategoryKey(User user) {
-		return "c:" + Models.getId(user);
+	private byte[] buildRedisUnreadCountKey(FeedSubscription sub) {
+		return buildRedisUnreadCountKey(Models.getId(sub));
 	}
 
-	private String buildRedisUnreadCountKey(FeedSubscription sub) {
-		return "u:" + Models.getId(sub);
+	private byte[] buildRedisUnreadCountKey(Long subscriptionId) {
+		return SafeEncoder.encode("u:" + subscriptionId);
 	}
 
 }
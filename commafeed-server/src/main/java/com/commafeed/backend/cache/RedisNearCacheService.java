@@ -0,0 +1,274 @@
+package com.commafeed.backend.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.Models;
+import com.commafeed.backend.model.User;
+import com.commafeed.frontend.model.Category;
+import com.commafeed.frontend.model.UnreadCount;
+
+import io.dropwizard.lifecycle.Managed;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+
+/**
+ * Keeps a local copy of the values cached in Redis. Nodes publish the keys they modify on a Redis channel and the other nodes evict their
+ * local copy of these keys.
+ *
+ * Invalidations may be missed while the node is not subscribed to the channel. Local copies are cleared once when the connection is lost
+ * and the local tier is bypassed until the node is subscribed again, so that nothing needs to be cleared when it resubscribes.
+ */
+@Slf4j
+public class RedisNearCacheService extends CacheService implements Managed {
+
+	private static final String CHANNEL = "commafeed:invalidations";
+	private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+	private final String nodeId = UUID.randomUUID().toString();
+	private final LocalCacheService local;
+	private final RedisCacheService redis;
+	private final JedisPool pool;
+	private final Meter disconnections;
+	private final Meter reconnections;
+
+	private final Thread subscriber = new Thread(this::subscribe, "redis-near-cache-invalidations");
+
+	private volatile boolean running;
+	private volatile JedisPubSub subscription;
+	private volatile boolean subscribed;
+
+	// only accessed by the subscriber thread
+	private boolean disconnected;
+
+	public RedisNearCacheService(LocalCacheService local, JedisPool pool, MetricRegistry metrics) {
+		this.local = local;
+		this.redis = new RedisCacheService(pool);
+		this.pool = pool;
+		this.disconnections = metrics.meter(MetricRegistry.name(getClass(), "disconnections"));
+		this.reconnections = metrics.meter(MetricRegistry.name(getClass(), "reconnections"));
+		metrics.registerGauge(MetricRegistry.name(getClass(), "subscribed"), () -> subscribed);
+		subscriber.setDaemon(true);
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		subscriber.start();
+	}
+
+	@Override
+	public void stop() throws InterruptedException {
+		running = false;
+		JedisPubSub current = subscription;
+		if (current != null && current.isSubscribed()) {
+			current.unsubscribe();
+		}
+		subscriber.interrupt();
+		subscriber.join(RECONNECT_DELAY.toMillis());
+	}
+
+	@Override
+	public Set<String> getLastEntries(Feed feed) {
+		if (!subscribed) {
+			return redis.getLastEntries(feed);
+		}
+
+		Set<String> entries = local.getLastEntries(feed);
+		if (entries.isEmpty()) {
+			entries = redis.getLastEntries(feed);
+			if (!entries.isEmpty()) {
+				local.setLastEntries(feed, new ArrayList<>(entries));
+			}
+		}
+		return entries;
+	}
+
+	@Override
+	public void setLastEntries(Feed feed, List<String> entries) {
+		redis.setLastEntries(feed, entries);
+		if (subscribed) {
+			local.setLastEntries(feed, entries);
+		}
+		publish(Stream.of(lastEntriesKey(Models.getId(feed))));
+	}
+
+	@Override
+	public Category getUserRootCategory(User user) {
+		if (!subscribed) {
+			return redis.getUserRootCategory(user);
+		}
+
+		Category category = local.getUserRootCategory(user);
+		if (category == null) {
+			category = redis.getUserRootCategory(user);
+			if (category != null) {
+				local.setUserRootCategory(user, category);
+			}
+		}
+		return category;
+	}
+
+	@Override
+	public void setUserRootCategory(User user, Category category) {
+		redis.setUserRootCategory(user, category);
+		if (subscribed) {
+			local.setUserRootCategory(user, category);
+		}
+		publish(Stream.of(rootCategoryKey(Models.getId(user))));
+	}
+
+	@Override
+	public void invalidateUserRootCategory(User... users) {
+		redis.invalidateUserRootCategory(users);
+		local.invalidateUserRootCategory(users);
+		if (users != null) {
+			publish(Arrays.stream(users).map(u -> rootCategoryKey(Models.getId(u))));
+		}
+	}
+
+	@Override
+	public Map<Long, UnreadCount> getUnreadCounts(List<FeedSubscription> subs) {
+		if (!subscribed) {
+			return redis.getUnreadCounts(subs);
+		}
+
+		Map<Long, UnreadCount> counts = local.getUnreadCounts(subs);
+		if (counts.size() < subs.size()) {
+			List<FeedSubscription> missing = subs.stream().filter(s -> !counts.containsKey(s.getId())).toList();
+			Map<Long, UnreadCount> remote = redis.getUnreadCounts(missing);
+			local.setUnreadCounts(remote.values());
+			counts.putAll(remote);
+		}
+		return counts;
+	}
+
+	@Override
+	public void setUnreadCounts(Collection<UnreadCount> counts) {
+		redis.setUnreadCounts(counts);
+		if (subscribed) {
+			local.setUnreadCounts(counts);
+		}
+		publish(counts.stream().map(c -> unreadCountKey(c.getFeedId())));
+	}
+
+	@Override
+	public void invalidateUnreadCount(FeedSubscription... subs) {
+		redis.invalidateUnreadCount(subs);
+		local.invalidateUnreadCount(subs);
+		if (subs != null) {
+			publish(Arrays.stream(subs).map(s -> unreadCountKey(Models.getId(s))));
+		}
+	}
+
+	/**
+	 * publishes the keys in a single message, prefixed by the id of this node so that the node does not evict its own values
+	 */
+	private void publish(Stream<String> keys) {
+		List<String> list = keys.toList();
+		if (list.isEmpty()) {
+			return;
+		}
+
+		String message = nodeId + " " + String.join(" ", list);
+		try (Jedis jedis = pool.getResource()) {
+			jedis.publish(CHANNEL, message);
+		} catch (Exception e) {
+			log.error("could not publish cache invalidation: {}", e.getMessage(), e);
+		}
+	}
+
+	private void subscribe() {
+		while (running) {
+			try (Jedis jedis = pool.getResource()) {
+				subscription = new JedisPubSub() {
+					@Override
+					public void onSubscribe(String channel, int subscribedChannels) {
+						if (disconnected) {
+							disconnected = false;
+							reconnections.mark();
+						}
+						subscribed = true;
+					}
+
+					@Override
+					public void onMessage(String channel, String message) {
+						handleMessage(message);
+					}
+				};
+				jedis.subscribe(subscription, CHANNEL);
+			} catch (Exception e) {
+				if (running) {
+					log.warn("lost connection to the cache invalidation channel, retrying in {}s: {}", RECONNECT_DELAY.toSeconds(),
+							e.getMessage());
+				}
+			}
+
+			if (subscribed) {
+				subscribed = false;
+				if (running) {
+					// local copies are bypassed until the node is subscribed again, they only need to be cleared once per disconnection
+					disconnected = true;
+					disconnections.mark();
+					local.evictAll();
+				}
+			}
+
+			if (running) {
+				try {
+					TimeUnit.MILLISECONDS.sleep(RECONNECT_DELAY.toMillis());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	void handleMessage(String message) {
+		String[] tokens = StringUtils.split(message, ' ');
+		if (tokens.length == 0 || nodeId.equals(tokens[0])) {
+			return;
+		}
+
+		for (int i = 1; i < tokens.length; i++) {
+			String key = tokens[i];
+			Long id = Long.valueOf(key.substring(2));
+			switch (key.charAt(0)) {
+			case 'f' -> local.evictLastEntries(id);
+			case 'c' -> local.evictUserRootCategory(id);
+			case 'u' -> local.evictUnreadCount(id);
+			default -> log.warn("unknown cache invalidation key {}", key);
+			}
+		}
+	}
+
+	private static String lastEntriesKey(Long feedId) {
+		return "f:" + feedId;
+	}
+
+	private static String rootCategoryKey(Long userId) {
+		return "c:" + userId;
+	}
+
+	private static String unreadCountKey(Long subscriptionId) {
+		return "u:" + subscriptionId;
+	}
+
+}
@@ -34,6 +34,12 @@ public class RedisPoolFactory {
 	@JsonProperty
 	private int maxTotal = 500;
 
+	/**
+	 * keep a local copy of the cached values, invalidated through redis pub/sub when another node modifies them
+	 */
+	@JsonProperty
+	private boolean nearCache;
+
 	public JedisPool build() {
 		JedisPoolConfig poolConfig = new JedisPoolConfig();
 		poolConfig.setMaxTotal(maxTotal);
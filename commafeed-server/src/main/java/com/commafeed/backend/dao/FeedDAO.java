@@ -9,6 +9,7 @@ import org.hibernate.SessionFactory;
 import com.commafeed.backend.model.Feed;
 import com.commafeed.backend.model.QFeed;
 import com.commafeed.backend.model.QFeedSubscription;
+import com.google.common.collect.Iterables;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 
@@ -40,7 +41,9 @@ public class FeedDAO extends GenericDAO<Feed> {
 	}
 
 	public void setDisabledUntil(List<Long> feedIds, Instant date) {
-		updateQuery(FEED).set(FEED.disabledUntil, date).where(FEED.id.in(feedIds)).execute();
+		for (List<Long> ids : Iterables.partition(feedIds, IN_CLAUSE_MAX_SIZE)) {
+			updateQuery(FEED).set(FEED.disabledUntil, date).where(FEED.id.in(ids)).execute();
+		}
 	}
 
 	public Feed findByUrl(String normalizedUrl, String normalizedUrlHash) {
@@ -1,5 +1,7 @@
 package com.commafeed.backend.dao;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.hibernate.SessionFactory;
@@ -7,6 +9,8 @@ import org.hibernate.SessionFactory;
 import com.commafeed.backend.model.FeedEntryContent;
 import com.commafeed.backend.model.QFeedEntry;
 import com.commafeed.backend.model.QFeedEntryContent;
+import com.google.common.collect.Iterables;
+import com.querydsl.core.BooleanBuilder;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLSubQuery;
 
@@ -19,19 +23,47 @@ public class FeedEntryContentDAO extends GenericDAO<FeedEntryContent> {
 	private static final QFeedEntryContent CONTENT = QFeedEntryContent.feedEntryContent;
 	private static final QFeedEntry ENTRY = QFeedEntry.feedEntry;
 
+	private final FeedEntryContentTermDAO feedEntryContentTermDAO;
+
 	@Inject
-	public FeedEntryContentDAO(SessionFactory sessionFactory) {
+	public FeedEntryContentDAO(SessionFactory sessionFactory, FeedEntryContentTermDAO feedEntryContentTermDAO) {
 		super(sessionFactory);
+		this.feedEntryContentTermDAO = feedEntryContentTermDAO;
+	}
+
+	/**
+	 * returns the stored contents having the same content hash and title hash as any of the given contents
+	 */
+	public List<FeedEntryContent> findExisting(Collection<FeedEntryContent> contents) {
+		List<Hashes> distinctHashes = contents.stream().map(c -> new Hashes(c.getContentHash(), c.getTitleHash())).distinct().toList();
+
+		List<FeedEntryContent> existing = new ArrayList<>();
+		// each pair binds two parameters
+		for (List<Hashes> hashes : Iterables.partition(distinctHashes, IN_CLAUSE_MAX_SIZE / 2)) {
+			BooleanBuilder predicate = new BooleanBuilder();
+			for (Hashes h : hashes) {
+				predicate.or(CONTENT.contentHash.eq(h.contentHash()).and(CONTENT.titleHash.eq(h.titleHash())));
+			}
+			existing.addAll(query().selectFrom(CONTENT).where(predicate).fetch());
+		}
+		return existing;
 	}
 
-	public List<FeedEntryContent> findExisting(String contentHash, String titleHash) {
-		return query().select(CONTENT).from(CONTENT).where(CONTENT.contentHash.eq(contentHash), CONTENT.titleHash.eq(titleHash)).fetch();
+	/**
+	 * returns the contents stored before their direction was computed at ingestion, in id order
+	 */
+	public List<FeedEntryContent> findWithoutDirection(long afterId, int limit) {
+		return query().selectFrom(CONTENT).where(CONTENT.id.gt(afterId), CONTENT.rtl.isNull()).orderBy(CONTENT.id.asc()).limit(limit).fetch();
 	}
 
 	public long deleteWithoutEntries(int max) {
 		JPQLSubQuery<Integer> subQuery = JPAExpressions.selectOne().from(ENTRY).where(ENTRY.content.id.eq(CONTENT.id));
 		List<Long> ids = query().select(CONTENT.id).from(CONTENT).where(subQuery.notExists()).limit(max).fetch();
 
+		feedEntryContentTermDAO.deleteByContentIds(ids);
 		return deleteQuery(CONTENT).where(CONTENT.id.in(ids)).execute();
 	}
+
+	private record Hashes(String contentHash, String titleHash) {
+	}
 }
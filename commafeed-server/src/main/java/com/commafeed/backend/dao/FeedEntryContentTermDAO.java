@@ -0,0 +1,89 @@
+package com.commafeed.backend.dao;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+
+import com.commafeed.backend.feed.FeedUtils;
+import com.commafeed.backend.model.FeedEntryContent;
+import com.commafeed.backend.model.FeedEntryContentTerm;
+import com.commafeed.backend.model.QFeedEntryContent;
+import com.commafeed.backend.model.QFeedEntryContentTerm;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class FeedEntryContentTermDAO extends GenericDAO<FeedEntryContentTerm> {
+
+	private static final QFeedEntryContentTerm TERM = QFeedEntryContentTerm.feedEntryContentTerm;
+	private static final QFeedEntryContent CONTENT = QFeedEntryContent.feedEntryContent;
+
+	private static final Duration COMPLETION_CHECK_INTERVAL = Duration.ofMinutes(1);
+
+	// contents are never un-indexed once the index is complete, only the positive result is kept
+	private volatile boolean complete;
+	private volatile Instant nextCompletionCheck = Instant.EPOCH;
+
+	@Inject
+	public FeedEntryContentTermDAO(SessionFactory sessionFactory) {
+		super(sessionFactory);
+	}
+
+	/**
+	 * adds the terms of the contents to the index, the terms are inserted in jdbc batches.
+	 * 
+	 * Contents that are not persisted yet should be flagged as indexed before they are persisted to avoid an additional update.
+	 */
+	public void index(Collection<FeedEntryContent> contents) {
+		List<FeedEntryContentTerm> terms = new ArrayList<>();
+		for (FeedEntryContent content : contents) {
+			FeedUtils.extractSearchTerms(content.getTitle(), content.getContent())
+					.forEach(term -> terms.add(new FeedEntryContentTerm(content, term)));
+			content.setSearchIndexed(true);
+		}
+		saveInBatches(terms);
+	}
+
+	/**
+	 * indexes contents that are not in the index yet
+	 * 
+	 * @return the number of contents indexed
+	 */
+	public int indexNextBatch(int limit) {
+		List<FeedEntryContent> contents = query().selectFrom(CONTENT).where(CONTENT.searchIndexed.isFalse()).limit(limit).fetch();
+		index(contents);
+		return contents.size();
+	}
+
+	/**
+	 * whether all contents have been indexed, the result is checked at most once per minute until the index is complete
+	 */
+	public boolean isComplete() {
+		if (!complete && Instant.now().isAfter(nextCompletionCheck)) {
+			nextCompletionCheck = Instant.now().plus(COMPLETION_CHECK_INTERVAL);
+			complete = query().selectOne().from(CONTENT).where(CONTENT.searchIndexed.isFalse()).fetchFirst() == null;
+		}
+		return complete;
+	}
+
+	/**
+	 * matches contents having a word starting with the given term. The subquery is correlated with the content so that it is evaluated
+	 * with the (content_id, term) index for the entries the query is already restricted to, instead of collecting the ids of all matching
+	 * contents of the instance.
+	 */
+	public BooleanExpression matches(QFeedEntryContent content, String term) {
+		return JPAExpressions.selectOne().from(TERM).where(TERM.content.eq(content), TERM.term.startsWith(term)).exists();
+	}
+
+	public long deleteByContentIds(Collection<Long> contentIds) {
+		return deleteQuery(TERM).where(TERM.content.id.in(contentIds)).execute();
+	}
+
+}
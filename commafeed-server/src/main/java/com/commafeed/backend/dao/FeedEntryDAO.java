@@ -1,6 +1,8 @@
 package com.commafeed.backend.dao;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.hibernate.SessionFactory;
@@ -8,6 +10,7 @@ import org.hibernate.SessionFactory;
 import com.commafeed.backend.model.Feed;
 import com.commafeed.backend.model.FeedEntry;
 import com.commafeed.backend.model.QFeedEntry;
+import com.google.common.collect.Iterables;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.NumberExpression;
 
@@ -21,13 +24,23 @@ public class FeedEntryDAO extends GenericDAO<FeedEntry> {
 
 	private static final QFeedEntry ENTRY = QFeedEntry.feedEntry;
 
+	private final TimelineEntryDAO timelineEntryDAO;
+
 	@Inject
-	public FeedEntryDAO(SessionFactory sessionFactory) {
+	public FeedEntryDAO(SessionFactory sessionFactory, TimelineEntryDAO timelineEntryDAO) {
 		super(sessionFactory);
+		this.timelineEntryDAO = timelineEntryDAO;
 	}
 
-	public FeedEntry findExisting(String guidHash, Feed feed) {
-		return query().select(ENTRY).from(ENTRY).where(ENTRY.guidHash.eq(guidHash), ENTRY.feed.eq(feed)).limit(1).fetchOne();
+	/**
+	 * returns the guid hashes that already exist for this feed among the given ones
+	 */
+	public List<String> findExistingGuidHashes(Feed feed, Collection<String> guidHashes) {
+		List<String> existing = new ArrayList<>();
+		for (List<String> hashes : Iterables.partition(guidHashes, IN_CLAUSE_MAX_SIZE)) {
+			existing.addAll(query().select(ENTRY.guidHash).from(ENTRY).where(ENTRY.guidHash.in(hashes), ENTRY.feed.eq(feed)).fetch());
+		}
+		return existing;
 	}
 
 	public List<FeedCapacity> findFeedsExceedingCapacity(long maxCapacity, long max) {
@@ -46,6 +59,13 @@ public class FeedEntryDAO extends GenericDAO<FeedEntry> {
 		return delete(list);
 	}
 
+	@Override
+	public int delete(Collection<FeedEntry> entries) {
+		// the timeline has one row per entry and subscriber, it is cleaned up in bulk before the entries are removed
+		timelineEntryDAO.deleteByEntries(entries);
+		return super.delete(entries);
+	}
+
 	/**
 	 * Delete entries older than a certain date
 	 */
@@ -2,6 +2,7 @@ package com.commafeed.backend.dao;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -10,8 +11,10 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.hibernate.SessionFactory;
 
 import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.backend.feed.FeedEntryCursor;
 import com.commafeed.backend.feed.FeedEntryKeyword;
 import com.commafeed.backend.feed.FeedEntryKeyword.Mode;
+import com.commafeed.backend.feed.FeedUtils;
 import com.commafeed.backend.model.FeedEntry;
 import com.commafeed.backend.model.FeedEntryStatus;
 import com.commafeed.backend.model.FeedEntryTag;
@@ -20,12 +23,16 @@ import com.commafeed.backend.model.QFeedEntry;
 import com.commafeed.backend.model.QFeedEntryContent;
 import com.commafeed.backend.model.QFeedEntryStatus;
 import com.commafeed.backend.model.QFeedEntryTag;
+import com.commafeed.backend.model.QFeedSubscription;
+import com.commafeed.backend.model.QTimelineEntry;
 import com.commafeed.backend.model.User;
 import com.commafeed.backend.model.UserSettings.ReadingOrder;
 import com.commafeed.frontend.model.UnreadCount;
 import com.google.common.collect.Iterables;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.DateTimePath;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.jpa.impl.JPAQuery;
 
 import jakarta.inject.Inject;
@@ -36,16 +43,21 @@ public class FeedEntryStatusDAO extends GenericDAO<FeedEntryStatus> {
 
 	private static final QFeedEntryStatus STATUS = QFeedEntryStatus.feedEntryStatus;
 	private static final QFeedEntry ENTRY = QFeedEntry.feedEntry;
+	private static final QFeedSubscription SUBSCRIPTION = QFeedSubscription.feedSubscription;
 	private static final QFeedEntryContent CONTENT = QFeedEntryContent.feedEntryContent;
 	private static final QFeedEntryTag TAG = QFeedEntryTag.feedEntryTag;
+	private static final QTimelineEntry TIMELINE = QTimelineEntry.timelineEntry;
 
 	private final FeedEntryTagDAO feedEntryTagDAO;
+	private final FeedEntryContentTermDAO feedEntryContentTermDAO;
 	private final CommaFeedConfiguration config;
 
 	@Inject
-	public FeedEntryStatusDAO(SessionFactory sessionFactory, FeedEntryTagDAO feedEntryTagDAO, CommaFeedConfiguration config) {
+	public FeedEntryStatusDAO(SessionFactory sessionFactory, FeedEntryTagDAO feedEntryTagDAO, FeedEntryContentTermDAO feedEntryContentTermDAO,
+			CommaFeedConfiguration config) {
 		super(sessionFactory);
 		this.feedEntryTagDAO = feedEntryTagDAO;
+		this.feedEntryContentTermDAO = feedEntryContentTermDAO;
 		this.config = config;
 	}
 
@@ -81,7 +93,7 @@ public class FeedEntryStatusDAO extends GenericDAO<FeedEntryStatus> {
 	}
 
 	public List<FeedEntryStatus> findStarred(User user, Instant newerThan, int offset, int limit, ReadingOrder order,
-			boolean includeContent) {
+			boolean includeContent, FeedEntryCursor after) {
 		JPAQuery<FeedEntryStatus> query = query().selectFrom(STATUS).where(STATUS.user.eq(user), STATUS.starred.isTrue());
 		if (includeContent) {
 			query.join(STATUS.entry.content).fetchJoin();
@@ -91,10 +103,14 @@ public class FeedEntryStatusDAO extends GenericDAO<FeedEntryStatus> {
 			query.where(STATUS.entryInserted.gt(newerThan));
 		}
 
+		if (after != null) {
+			query.where(buildAfterPredicate(STATUS.entryPublished, STATUS.entry.id, after, order));
+		}
+
 		if (order == ReadingOrder.asc) {
-			query.orderBy(STATUS.entryPublished.asc(), STATUS.id.asc());
+			query.orderBy(STATUS.entryPublished.asc(), STATUS.entry.id.asc());
 		} else {
-			query.orderBy(STATUS.entryPublished.desc(), STATUS.id.desc());
+			query.orderBy(STATUS.entryPublished.desc(), STATUS.entry.id.desc());
 		}
 
 		if (offset > -1) {
@@ -118,42 +134,14 @@ public class FeedEntryStatusDAO extends GenericDAO<FeedEntryStatus> {
 
 	public List<FeedEntryStatus> findBySubscriptions(User user, List<FeedSubscription> subs, boolean unreadOnly,
 			List<FeedEntryKeyword> keywords, Instant newerThan, int offset, int limit, ReadingOrder order, boolean includeContent,
-			String tag, Long minEntryId, Long maxEntryId) {
+			String tag, Long minEntryId, Long maxEntryId, FeedEntryCursor after) {
 		Map<Long, List<FeedSubscription>> subsByFeedId = subs.stream().collect(Collectors.groupingBy(s -> s.getFeed().getId()));
 
 		JPAQuery<Tuple> query = query().select(ENTRY, STATUS).from(ENTRY);
 		query.leftJoin(ENTRY.statuses, STATUS).on(STATUS.subscription.in(subs));
 		query.where(ENTRY.feed.id.in(subsByFeedId.keySet()));
 
-		if (includeContent || CollectionUtils.isNotEmpty(keywords)) {
-			query.join(ENTRY.content, CONTENT).fetchJoin();
-		}
-		if (CollectionUtils.isNotEmpty(keywords)) {
-			for (FeedEntryKeyword keyword : keywords) {
-				BooleanBuilder or = new BooleanBuilder();
-				or.or(CONTENT.content.containsIgnoreCase(keyword.getKeyword()));
-				or.or(CONTENT.title.containsIgnoreCase(keyword.getKeyword()));
-				if (keyword.getMode() == Mode.EXCLUDE) {
-					or.not();
-				}
-				query.where(or);
-			}
-		}
-
-		if (unreadOnly && tag == null) {
-			query.where(buildUnreadPredicate());
-		}
-
-		if (tag != null) {
-			BooleanBuilder and = new BooleanBuilder();
-			and.and(TAG.user.id.eq(user.getId()));
-			and.and(TAG.name.eq(tag));
-			query.join(ENTRY.tags, TAG).on(and);
-		}
-
-		if (newerThan != null) {
-			query.where(ENTRY.inserted.goe(newerThan));
-		}
+		applyEntryFilters(query, user, unreadOnly, keywords, newerThan, includeContent, tag);
 
 		if (minEntryId != null) {
 			query.where(ENTRY.id.gt(minEntryId));
@@ -163,6 +151,10 @@ public class FeedEntryStatusDAO extends GenericDAO<FeedEntryStatus> {
 			query.where(ENTRY.id.lt(maxEntryId));
 		}
 
+		if (after != null) {
+			query.where(buildAfterPredicate(ENTRY.published, ENTRY.id, after, order));
+		}
+
 		if (order != null) {
 			if (order == ReadingOrder.asc) {
 				query.orderBy(ENTRY.published.asc(), ENTRY.id.asc());
@@ -198,18 +190,135 @@ public class FeedEntryStatusDAO extends GenericDAO<FeedEntryStatus> {
 		return statuses;
 	}
 
-	public UnreadCount getUnreadCount(FeedSubscription sub) {
-		JPAQuery<Tuple> query = query().select(ENTRY.count(), ENTRY.published.max())
-				.from(ENTRY)
-				.leftJoin(ENTRY.statuses, STATUS)
-				.on(STATUS.subscription.eq(sub))
-				.where(ENTRY.feed.eq(sub.getFeed()))
-				.where(buildUnreadPredicate());
-
-		Tuple tuple = query.fetchOne();
-		Long count = tuple.get(ENTRY.count());
-		Instant published = tuple.get(ENTRY.published.max());
-		return new UnreadCount(sub.getId(), count == null ? 0 : count, published);
+	/**
+	 * same as {@link #findBySubscriptions} for all the subscriptions of the user, read from the timeline of the user instead of joining
+	 * the entries of every subscription. The timeline needs to be enabled and ready for all subscriptions of the user.
+	 */
+	public List<FeedEntryStatus> findTimeline(User user, boolean unreadOnly, List<FeedEntryKeyword> keywords, Instant newerThan,
+			int offset, int limit, ReadingOrder order, boolean includeContent, String tag, FeedEntryCursor after) {
+		JPAQuery<Tuple> query = query().select(TIMELINE.subscription, ENTRY, STATUS).from(TIMELINE);
+		query.join(TIMELINE.entry, ENTRY);
+		query.leftJoin(ENTRY.statuses, STATUS).on(STATUS.subscription.eq(TIMELINE.subscription));
+		query.where(TIMELINE.user.eq(user));
+
+		applyEntryFilters(query, user, unreadOnly, keywords, newerThan, includeContent, tag);
+
+		if (after != null) {
+			query.where(buildAfterPredicate(TIMELINE.entryPublished, TIMELINE.entry.id, after, order));
+		}
+
+		if (order == ReadingOrder.asc) {
+			query.orderBy(TIMELINE.entryPublished.asc(), TIMELINE.entry.id.asc());
+		} else {
+			query.orderBy(TIMELINE.entryPublished.desc(), TIMELINE.entry.id.desc());
+		}
+
+		if (offset > -1) {
+			query.offset(offset);
+		}
+
+		if (limit > -1) {
+			query.limit(limit);
+		}
+
+		setTimeout(query, config.getApplicationSettings().getQueryTimeout());
+
+		List<FeedEntryStatus> statuses = new ArrayList<>();
+		for (Tuple tuple : query.fetch()) {
+			statuses.add(handleStatus(user, tuple.get(STATUS), tuple.get(TIMELINE.subscription), tuple.get(ENTRY)));
+		}
+
+		if (includeContent) {
+			fetchTags(user, statuses);
+		}
+
+		return statuses;
+	}
+
+	private void applyEntryFilters(JPAQuery<Tuple> query, User user, boolean unreadOnly, List<FeedEntryKeyword> keywords,
+			Instant newerThan, boolean includeContent, String tag) {
+		if (includeContent || CollectionUtils.isNotEmpty(keywords)) {
+			query.join(ENTRY.content, CONTENT).fetchJoin();
+		}
+		if (CollectionUtils.isNotEmpty(keywords)) {
+			boolean useSearchIndex = config.getApplicationSettings().getSearchIndexEnabled() && feedEntryContentTermDAO.isComplete();
+			for (FeedEntryKeyword keyword : keywords) {
+				BooleanBuilder or = new BooleanBuilder();
+				String term = useSearchIndex ? FeedUtils.toSearchTerm(keyword.getKeyword()) : null;
+				if (term != null) {
+					or.or(feedEntryContentTermDAO.matches(CONTENT, term));
+				} else {
+					or.or(CONTENT.content.containsIgnoreCase(keyword.getKeyword()));
+					or.or(CONTENT.title.containsIgnoreCase(keyword.getKeyword()));
+				}
+				if (keyword.getMode() == Mode.EXCLUDE) {
+					or.not();
+				}
+				query.where(or);
+			}
+		}
+
+		if (unreadOnly && tag == null) {
+			query.where(buildUnreadPredicate());
+		}
+
+		if (tag != null) {
+			BooleanBuilder and = new BooleanBuilder();
+			and.and(TAG.user.id.eq(user.getId()));
+			and.and(TAG.name.eq(tag));
+			query.join(ENTRY.tags, TAG).on(and);
+		}
+
+		if (newerThan != null) {
+			query.where(ENTRY.inserted.goe(newerThan));
+		}
+	}
+
+	/**
+	 * counts the unread entries of the subscriptions with one grouped query per chunk of subscriptions, used to compute or reconcile
+	 * the unread counters stored on the subscriptions
+	 *
+	 * @return unread counters by subscription id, subscriptions without unread entries have an empty counter
+	 */
+	public Map<Long, UnreadCounter> computeUnreadCounters(List<FeedSubscription> subs) {
+		Map<Long, UnreadCounter> counters = new HashMap<>();
+		for (List<FeedSubscription> chunk : Iterables.partition(subs, IN_CLAUSE_MAX_SIZE)) {
+			List<Tuple> tuples = query().select(SUBSCRIPTION.id, ENTRY.count(), ENTRY.published.max(), ENTRY.published.min())
+					.from(SUBSCRIPTION)
+					.join(ENTRY)
+					.on(ENTRY.feed.eq(SUBSCRIPTION.feed))
+					.leftJoin(ENTRY.statuses, STATUS)
+					.on(STATUS.subscription.eq(SUBSCRIPTION))
+					.where(SUBSCRIPTION.in(chunk))
+					.where(buildUnreadPredicate())
+					.groupBy(SUBSCRIPTION.id)
+					.fetch();
+			for (Tuple tuple : tuples) {
+				counters.put(tuple.get(SUBSCRIPTION.id), new UnreadCounter(tuple.get(ENTRY.count()), tuple.get(ENTRY.published.max()),
+						tuple.get(ENTRY.published.min())));
+			}
+		}
+
+		for (FeedSubscription sub : subs) {
+			counters.putIfAbsent(sub.getId(), new UnreadCounter(0, null, null));
+		}
+		return counters;
+	}
+
+	/**
+	 * keyset pagination, keeps the rows located after the cursor in the (published, id) ordering
+	 */
+	private BooleanBuilder buildAfterPredicate(DateTimePath<Instant> published, NumberPath<Long> id, FeedEntryCursor after,
+			ReadingOrder order) {
+		BooleanBuilder predicate = new BooleanBuilder();
+		if (order == ReadingOrder.asc) {
+			predicate.or(published.gt(after.published()));
+			predicate.or(published.eq(after.published()).and(id.gt(after.id())));
+		} else {
+			predicate.or(published.lt(after.published()));
+			predicate.or(published.eq(after.published()).and(id.lt(after.id())));
+		}
+		return predicate;
 	}
 
 	private BooleanBuilder buildUnreadPredicate() {
@@ -234,4 +343,10 @@ public class FeedEntryStatusDAO extends GenericDAO<FeedEntryStatus> {
 		return deleteQuery(STATUS).where(STATUS.id.in(ids)).execute();
 	}
 
+	public record UnreadCounter(long count, Instant newestUnreadDate, Instant oldestUnreadDate) {
+		public UnreadCount toUnreadCount(FeedSubscription sub) {
+			return new UnreadCount(sub.getId(), count, newestUnreadDate);
+		}
+	}
+
 }
@@ -0,0 +1,37 @@
+package com.commafeed.backend.dao;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+
+import com.commafeed.backend.model.FeedFavicon;
+import com.commafeed.backend.model.QFeedFavicon;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class FeedFaviconDAO extends GenericDAO<FeedFavicon> {
+
+	private static final QFeedFavicon FAVICON = QFeedFavicon.feedFavicon;
+
+	@Inject
+	public FeedFaviconDAO(SessionFactory sessionFactory) {
+		super(sessionFactory);
+	}
+
+	public FeedFavicon findByKeyHash(String keyHash) {
+		return query().selectFrom(FAVICON).where(FAVICON.keyHash.eq(keyHash)).fetchOne();
+	}
+
+	public List<FeedFavicon> findByKeyHashes(Collection<String> keyHashes) {
+		return query().selectFrom(FAVICON).where(FAVICON.keyHash.in(keyHashes)).fetch();
+	}
+
+	public List<FeedFavicon> findNextRefreshable(int count) {
+		return query().selectFrom(FAVICON).where(FAVICON.nextRefresh.lt(Instant.now())).orderBy(FAVICON.nextRefresh.asc()).limit(count).fetch();
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.commafeed.backend.dao;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -21,7 +22,11 @@ import com.commafeed.backend.model.Models;
 import com.commafeed.backend.model.QFeedSubscription;
 import com.commafeed.backend.model.User;
 import com.google.common.collect.Iterables;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -111,6 +116,111 @@ public class FeedSubscriptionDAO extends GenericDAO<FeedSubscription> {
 		return findAll(user).stream().filter(s -> s.getCategory() != null && categoryIds.contains(s.getCategory().getId())).toList();
 	}
 
+	/**
+	 * returns subscriptions ordered by id, starting after the given id, to iterate over all subscriptions in batches
+	 */
+	public List<FeedSubscription> findNextBatch(Long afterId, int limit) {
+		JPQLQuery<FeedSubscription> query = query().selectFrom(SUBSCRIPTION).join(SUBSCRIPTION.feed).fetchJoin();
+		if (afterId != null) {
+			query.where(SUBSCRIPTION.id.gt(afterId));
+		}
+		return query.orderBy(SUBSCRIPTION.id.asc()).limit(limit).fetch();
+	}
+
+	public List<FeedSubscription> findWithoutTimeline(int limit) {
+		return query().selectFrom(SUBSCRIPTION)
+				.join(SUBSCRIPTION.feed)
+				.fetchJoin()
+				.where(SUBSCRIPTION.timelineReady.isFalse())
+				.orderBy(SUBSCRIPTION.id.asc())
+				.limit(limit)
+				.fetch();
+	}
+
+	public void setTimelineReady(FeedSubscription sub) {
+		updateQuery(SUBSCRIPTION).set(SUBSCRIPTION.timelineReady, true).where(SUBSCRIPTION.id.eq(sub.getId())).execute();
+	}
+
+	/**
+	 * marks all subscriptions as not ready, the timeline is no longer maintained and needs to be backfilled if it is enabled again
+	 */
+	public long resetTimelineReady() {
+		return updateQuery(SUBSCRIPTION).set(SUBSCRIPTION.timelineReady, false).where(SUBSCRIPTION.timelineReady.isTrue()).execute();
+	}
+
+	/**
+	 * adds unread entries to the unread counter of the subscription. Counters that have not been computed yet are left untouched.
+	 */
+	public void incrementUnreadCount(FeedSubscription sub, long count, Instant newestUnreadDate, Instant oldestUnreadDate) {
+		// the counter is updated last because mysql evaluates assignments from left to right
+		updateQuery(SUBSCRIPTION)
+				.set(SUBSCRIPTION.newestUnreadDate,
+						new CaseBuilder()
+								.when(SUBSCRIPTION.newestUnreadDate.isNull().or(SUBSCRIPTION.newestUnreadDate.lt(newestUnreadDate)))
+								.then(Expressions.constant(newestUnreadDate))
+								.otherwise(SUBSCRIPTION.newestUnreadDate))
+				.set(SUBSCRIPTION.oldestUnreadDate,
+						new CaseBuilder()
+								.when(SUBSCRIPTION.oldestUnreadDate.isNull().or(SUBSCRIPTION.oldestUnreadDate.gt(oldestUnreadDate)))
+								.then(Expressions.constant(oldestUnreadDate))
+								.otherwise(SUBSCRIPTION.oldestUnreadDate))
+				.set(SUBSCRIPTION.unreadCount, SUBSCRIPTION.unreadCount.add(count))
+				.where(SUBSCRIPTION.id.eq(sub.getId()), SUBSCRIPTION.unreadCount.isNotNull())
+				.execute();
+	}
+
+	/**
+	 * removes entries that have been read from the unread counter of the subscription. Counters that have not been computed yet are left
+	 * untouched.
+	 * 
+	 * The newest and oldest unread dates are only reset when there are no unread entries left, the oldest unread date may thus be older
+	 * than the actual oldest unread entry which only results in the counter being recomputed earlier than necessary.
+	 */
+	public void decrementUnreadCount(FeedSubscription sub, long count) {
+		BooleanExpression noUnreadLeft = SUBSCRIPTION.unreadCount.loe(count);
+		updateQuery(SUBSCRIPTION)
+				.set(SUBSCRIPTION.newestUnreadDate,
+						new CaseBuilder().when(noUnreadLeft)
+								.then(Expressions.nullExpression(Instant.class))
+								.otherwise(SUBSCRIPTION.newestUnreadDate))
+				.set(SUBSCRIPTION.oldestUnreadDate,
+						new CaseBuilder().when(noUnreadLeft)
+								.then(Expressions.nullExpression(Instant.class))
+								.otherwise(SUBSCRIPTION.oldestUnreadDate))
+				.set(SUBSCRIPTION.unreadCount, SUBSCRIPTION.unreadCount.subtract(count))
+				.where(SUBSCRIPTION.id.eq(sub.getId()), SUBSCRIPTION.unreadCount.isNotNull())
+				.execute();
+	}
+
+	/**
+	 * stores a freshly computed unread counter, unless the counter was modified since expectedUnreadCount was read
+	 * 
+	 * @return true if the counter was stored
+	 */
+	public boolean setUnreadCount(FeedSubscription sub, Long expectedUnreadCount, long unreadCount, Instant newestUnreadDate,
+			Instant oldestUnreadDate) {
+		JPAUpdateClause update = updateQuery(SUBSCRIPTION).set(SUBSCRIPTION.newestUnreadDate, newestUnreadDate)
+				.set(SUBSCRIPTION.oldestUnreadDate, oldestUnreadDate)
+				.set(SUBSCRIPTION.unreadCount, unreadCount)
+				.where(SUBSCRIPTION.id.eq(sub.getId()));
+		update.where(expectedUnreadCount == null ? SUBSCRIPTION.unreadCount.isNull() : SUBSCRIPTION.unreadCount.eq(expectedUnreadCount));
+		return update.execute() > 0;
+	}
+
+	/**
+	 * forces the unread counters of the subscriptions to the feed to be recomputed
+	 */
+	public long invalidateUnreadCounts(Long feedId) {
+		return updateQuery(SUBSCRIPTION).setNull(SUBSCRIPTION.unreadCount).where(SUBSCRIPTION.feed.id.eq(feedId)).execute();
+	}
+
+	/**
+	 * forces the unread counters of the subscriptions having unread entries published before the given date to be recomputed
+	 */
+	public long invalidateUnreadCountsWithUnreadEntriesOlderThan(Instant olderThan) {
+		return updateQuery(SUBSCRIPTION).setNull(SUBSCRIPTION.unreadCount).where(SUBSCRIPTION.oldestUnreadDate.lt(olderThan)).execute();
+	}
+
 	private List<FeedSubscription> initRelations(List<FeedSubscription> list) {
 		list.forEach(this::initRelations);
 		return list;
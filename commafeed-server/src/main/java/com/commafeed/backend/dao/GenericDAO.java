@@ -1,11 +1,13 @@
 package com.commafeed.backend.dao;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.hibernate.SessionFactory;
 import org.hibernate.jpa.SpecHints;
 
 import com.commafeed.backend.model.AbstractModel;
+import com.google.common.collect.Iterables;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.jpa.impl.JPADeleteClause;
 import com.querydsl.jpa.impl.JPAQuery;
@@ -16,6 +18,9 @@ import io.dropwizard.hibernate.AbstractDAO;
 
 public abstract class GenericDAO<T extends AbstractModel> extends AbstractDAO<T> {
 
+	// keep IN clauses reasonably sized, some databases limit the number of bind parameters per statement
+	protected static final int IN_CLAUSE_MAX_SIZE = 500;
+
 	protected GenericDAO(SessionFactory sessionFactory) {
 		super(sessionFactory);
 	}
@@ -40,6 +45,24 @@ public abstract class GenericDAO<T extends AbstractModel> extends AbstractDAO<T>
 		models.forEach(this::persist);
 	}
 
+	/**
+	 * persists new models in chunks of the jdbc batch size. Each chunk is flushed as one jdbc batch and detached from the session, so that
+	 * large inserts are sent while they are built and do not accumulate in the persistence context until the transaction commits.
+	 */
+	public void saveInBatches(Collection<T> models) {
+		int batchSize = currentSession().getSessionFactory().getSessionFactoryOptions().getJdbcBatchSize();
+		if (batchSize <= 0) {
+			saveOrUpdate(models);
+			return;
+		}
+
+		for (List<T> chunk : Iterables.partition(models, batchSize)) {
+			chunk.forEach(this::persist);
+			currentSession().flush();
+			chunk.forEach(currentSession()::detach);
+		}
+	}
+
 	public void update(T model) {
 		currentSession().merge(model);
 	}
@@ -0,0 +1,70 @@
+package com.commafeed.backend.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+
+import com.commafeed.backend.model.FeedEntry;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.QFeedEntry;
+import com.commafeed.backend.model.QTimelineEntry;
+import com.commafeed.backend.model.TimelineEntry;
+import com.google.common.collect.Iterables;
+import com.querydsl.jpa.JPAExpressions;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class TimelineEntryDAO extends GenericDAO<TimelineEntry> {
+
+	private static final QTimelineEntry TIMELINE = QTimelineEntry.timelineEntry;
+	private static final QFeedEntry ENTRY = QFeedEntry.feedEntry;
+
+	@Inject
+	public TimelineEntryDAO(SessionFactory sessionFactory) {
+		super(sessionFactory);
+	}
+
+	/**
+	 * adds the entries of the feed of the subscription that are not in the timeline yet
+	 * 
+	 * @return the number of entries added
+	 */
+	public long backfill(FeedSubscription sub, int batchSize) {
+		long total = 0;
+		List<FeedEntry> entries;
+		do {
+			// the timeline entries of the previous batch are flushed before this query runs
+			entries = query().selectFrom(ENTRY)
+					.where(ENTRY.feed.eq(sub.getFeed()),
+							JPAExpressions.selectOne()
+									.from(TIMELINE)
+									.where(TIMELINE.subscription.eq(sub), TIMELINE.entry.eq(ENTRY))
+									.notExists())
+					.limit(batchSize)
+					.fetch();
+			saveInBatches(entries.stream().map(e -> new TimelineEntry(sub, e)).toList());
+			total += entries.size();
+		} while (entries.size() == batchSize);
+		return total;
+	}
+
+	/**
+	 * removes the entries from the timelines with bulk delete queries instead of loading the timeline entries of each entry
+	 */
+	public long deleteByEntries(Collection<FeedEntry> entries) {
+		long deleted = 0;
+		for (List<FeedEntry> chunk : Iterables.partition(entries, IN_CLAUSE_MAX_SIZE)) {
+			deleted += deleteQuery(TIMELINE).where(TIMELINE.entry.in(chunk)).execute();
+		}
+		return deleted;
+	}
+
+	public long delete(int limit) {
+		List<Long> ids = query().select(TIMELINE.id).from(TIMELINE).limit(limit).fetch();
+		return deleteQuery(TIMELINE).where(TIMELINE.id.in(ids)).execute();
+	}
+
+}
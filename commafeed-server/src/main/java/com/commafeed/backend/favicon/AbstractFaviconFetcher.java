@@ -18,6 +18,12 @@ public abstract class AbstractFaviconFetcher {
 	private static final long MIN_ICON_LENGTH = 100;
 	private static final long MAX_ICON_LENGTH = 100000;
 
+	/**
+	 * @return the key under which the favicon of the feed is stored, feeds with the same key share the same favicon. null if this
+	 *         fetcher does not handle the feed
+	 */
+	public abstract String getKey(Feed feed);
+
 	public abstract Favicon fetch(Feed feed);
 
 	protected boolean isValidIconResponse(byte[] content, String contentType) {
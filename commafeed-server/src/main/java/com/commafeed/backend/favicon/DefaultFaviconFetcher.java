@@ -5,7 +5,6 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.select.Elements;
 
-import com.commafeed.backend.HttpGetter;
 import com.commafeed.backend.HttpGetter.HttpResult;
 import com.commafeed.backend.feed.FeedUtils;
 import com.commafeed.backend.model.Feed;
@@ -24,7 +23,14 @@ import lombok.extern.slf4j.Slf4j;
 @Singleton
 public class DefaultFaviconFetcher extends AbstractFaviconFetcher {
 
-	private final HttpGetter getter;
+	private final FaviconHttpGetter getter;
+
+	@Override
+	public String getKey(Feed feed) {
+		// the icon is looked up on the root of the site, all feeds of a site share it
+		String link = rootUrl(feed.getLink());
+		return link != null ? link : rootUrl(feed.getUrl());
+	}
 
 	@Override
 	public Favicon fetch(Feed feed) {
@@ -36,11 +42,26 @@ public class DefaultFaviconFetcher extends AbstractFaviconFetcher {
 	}
 
 	private Favicon fetch(String url) {
+		url = rootUrl(url);
 		if (url == null) {
 			log.debug("url is null");
 			return null;
 		}
 
+		Favicon icon = getIconAtRoot(url);
+
+		if (icon == null) {
+			icon = getIconInPage(url);
+		}
+
+		return icon;
+	}
+
+	private static String rootUrl(String url) {
+		if (url == null) {
+			return null;
+		}
+
 		int doubleSlash = url.indexOf("//");
 		if (doubleSlash == -1) {
 			doubleSlash = 0;
@@ -51,14 +72,7 @@ public class DefaultFaviconFetcher extends AbstractFaviconFetcher {
 		if (firstSlash != -1) {
 			url = url.substring(0, firstSlash);
 		}
-
-		Favicon icon = getIconAtRoot(url);
-
-		if (icon == null) {
-			icon = getIconInPage(url);
-		}
-
-		return icon;
+		return url;
 	}
 
 	private Favicon getIconAtRoot(String url) {
@@ -7,7 +7,6 @@ import java.util.List;
 import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.net.URIBuilder;
 
-import com.commafeed.backend.HttpGetter;
 import com.commafeed.backend.HttpGetter.HttpResult;
 import com.commafeed.backend.model.Feed;
 
@@ -21,21 +20,28 @@ import lombok.extern.slf4j.Slf4j;
 @Singleton
 public class FacebookFaviconFetcher extends AbstractFaviconFetcher {
 
-	private final HttpGetter getter;
+	private final FaviconHttpGetter getter;
 
 	@Override
-	public Favicon fetch(Feed feed) {
+	public String getKey(Feed feed) {
 		String url = feed.getUrl();
-
-		if (!url.toLowerCase().contains("www.facebook.com")) {
+		if (!url.toLowerCase().contains("www.facebook.com") || extractUserName(url) == null) {
 			return null;
 		}
 
-		String userName = extractUserName(url);
-		if (userName == null) {
+		// each user has its own icon
+		return url;
+	}
+
+	@Override
+	public Favicon fetch(Feed feed) {
+		if (getKey(feed) == null) {
 			return null;
 		}
 
+		String url = feed.getUrl();
+		String userName = extractUserName(url);
+
 		String iconUrl = String.format("https://graph.facebook.com/%s/picture?type=square&height=16", userName);
 
 		byte[] bytes = null;
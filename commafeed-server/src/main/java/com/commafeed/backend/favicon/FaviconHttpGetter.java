@@ -0,0 +1,23 @@
+package com.commafeed.backend.favicon;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.backend.HttpGetter;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * {@link HttpGetter} with its own small connection pool, so that favicon fetches never compete with feed fetches
+ */
+@Singleton
+public class FaviconHttpGetter extends HttpGetter {
+
+	public static final int POOL_SIZE = 2;
+
+	@Inject
+	public FaviconHttpGetter(CommaFeedConfiguration config, MetricRegistry metrics) {
+		super(config, metrics, POOL_SIZE, 0);
+	}
+
+}
@@ -9,7 +9,6 @@ import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.net.URIBuilder;
 
 import com.commafeed.CommaFeedConfiguration;
-import com.commafeed.backend.HttpGetter;
 import com.commafeed.backend.HttpGetter.HttpResult;
 import com.commafeed.backend.model.Feed;
 import com.google.api.client.http.javanet.NetHttpTransport;
@@ -32,23 +31,29 @@ import lombok.extern.slf4j.Slf4j;
 @Singleton
 public class YoutubeFaviconFetcher extends AbstractFaviconFetcher {
 
-	private final HttpGetter getter;
+	private final FaviconHttpGetter getter;
 	private final CommaFeedConfiguration config;
 
 	@Override
-	public Favicon fetch(Feed feed) {
+	public String getKey(Feed feed) {
 		String url = feed.getUrl();
-
-		if (!url.toLowerCase().contains("youtube.com/feeds/videos.xml")) {
+		if (!url.toLowerCase().contains("youtube.com/feeds/videos.xml") || config.getApplicationSettings().getGoogleAuthKey() == null) {
 			return null;
 		}
 
-		String googleAuthKey = config.getApplicationSettings().getGoogleAuthKey();
-		if (googleAuthKey == null) {
-			log.debug("no google auth key configured");
+		// each channel has its own icon
+		return url;
+	}
+
+	@Override
+	public Favicon fetch(Feed feed) {
+		if (getKey(feed) == null) {
 			return null;
 		}
 
+		String url = feed.getUrl();
+		String googleAuthKey = config.getApplicationSettings().getGoogleAuthKey();
+
 		byte[] bytes = null;
 		String contentType = null;
 		try {
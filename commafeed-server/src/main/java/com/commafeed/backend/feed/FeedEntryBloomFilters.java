@@ -0,0 +1,136 @@
+package com.commafeed.backend.feed;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.Models;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Per-feed bloom filters of the keys (see {@link com.commafeed.backend.cache.CacheService#buildUniqueEntryKey}) of entries that are
+ * already in the database, used by {@link FeedRefreshUpdater} to skip known entries without querying the database.
+ * 
+ * A false positive would drop a new entry, so the filters are only trusted for entries published before the newest entry known to the
+ * filter. Newer entries are always checked against the database. A small sample of the entries the filters claim to know is still
+ * checked against the database to measure the false positive rate.
+ */
+@Singleton
+public class FeedEntryBloomFilters {
+
+	private static final double FALSE_POSITIVE_PROBABILITY = 0.000001;
+	private static final int MIN_EXPECTED_INSERTIONS = 100;
+	private static final int GROWTH_FACTOR = 4;
+	private static final int VERIFICATION_RATE = 100;
+
+	private final boolean enabled;
+	private final Cache<Long, Filter> filters;
+
+	private final Meter hit;
+	private final Meter verified;
+	private final Meter falsePositive;
+
+	@Inject
+	public FeedEntryBloomFilters(CommaFeedConfiguration config, MetricRegistry metrics) {
+		this(config.getApplicationSettings().getEntryBloomFilterEnabled(), metrics);
+	}
+
+	FeedEntryBloomFilters(boolean enabled, MetricRegistry metrics) {
+		this.enabled = enabled;
+		this.filters = Caffeine.newBuilder().maximumSize(100000).expireAfterAccess(Duration.ofDays(7)).build();
+
+		this.hit = metrics.meter(MetricRegistry.name(getClass(), "hit"));
+		this.verified = metrics.meter(MetricRegistry.name(getClass(), "verified"));
+		this.falsePositive = metrics.meter(MetricRegistry.name(getClass(), "falsePositive"));
+		metrics.registerGauge(MetricRegistry.name(getClass(), "size"), filters::estimatedSize);
+		metrics.register(MetricRegistry.name(getClass(), "falsePositiveRate"), new RatioGauge() {
+			@Override
+			protected Ratio getRatio() {
+				return Ratio.of(falsePositive.getCount(), verified.getCount());
+			}
+		});
+	}
+
+	/**
+	 * @return true if the entry is probably already in the database, false if it definitely isn't, if it is not older than the newest
+	 *         entry known to the filter or if we don't know anything about the feed yet
+	 */
+	public boolean mightContain(Feed feed, String key, Instant published) {
+		if (!enabled || published == null) {
+			return false;
+		}
+
+		Filter filter = filters.getIfPresent(Models.getId(feed));
+		boolean result = filter != null && filter.newestEntryDate() != null && published.isBefore(filter.newestEntryDate())
+				&& filter.bloomFilter().mightContain(key);
+		if (result) {
+			hit.mark();
+		}
+		return result;
+	}
+
+	/**
+	 * @return true if an entry the filter claims to know should still be checked against the database
+	 */
+	public boolean shouldVerify() {
+		return ThreadLocalRandom.current().nextInt(VERIFICATION_RATE) == 0;
+	}
+
+	/**
+	 * record the outcome of checking an entry the filter claimed to know against the database
+	 */
+	public void verified(boolean wasMissing) {
+		verified.mark();
+		if (wasMissing) {
+			falsePositive.mark();
+		}
+	}
+
+	/**
+	 * add the keys of entries that are now in the database, along with the publication date of the newest of these entries. The filter
+	 * is rebuilt from the given keys when it has outgrown its expected size so that the false positive rate stays bounded, keys that are
+	 * no longer in the feed are then forgotten.
+	 */
+	public void put(Feed feed, Collection<String> keys, Instant newestEntryDate) {
+		if (!enabled) {
+			return;
+		}
+
+		filters.asMap().compute(Models.getId(feed), (id, filter) -> {
+			if (filter == null || filter.bloomFilter().approximateElementCount() + keys.size() > filter.expectedInsertions()) {
+				filter = Filter.create(keys.size());
+			}
+			keys.forEach(filter.bloomFilter()::put);
+			return filter.withNewestEntryDate(newestEntryDate);
+		});
+	}
+
+	private record Filter(BloomFilter<CharSequence> bloomFilter, long expectedInsertions, Instant newestEntryDate) {
+		static Filter create(int size) {
+			long expectedInsertions = Math.max(MIN_EXPECTED_INSERTIONS, (long) size * GROWTH_FACTOR);
+			return new Filter(BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, FALSE_POSITIVE_PROBABILITY),
+					expectedInsertions, null);
+		}
+
+		Filter withNewestEntryDate(Instant date) {
+			if (date == null || newestEntryDate != null && !date.isAfter(newestEntryDate)) {
+				return this;
+			}
+			return new Filter(bloomFilter, expectedInsertions, date);
+		}
+	}
+
+}
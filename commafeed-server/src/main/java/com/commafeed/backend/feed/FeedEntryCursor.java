@@ -0,0 +1,56 @@
+package com.commafeed.backend.feed;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.commafeed.frontend.model.Entry;
+
+/**
+ * Position of an entry in a listing ordered by publication date then id, used for keyset pagination.
+ *
+ * The query string representation is opaque to clients, they only pass back the value returned with the previous page.
+ */
+public record FeedEntryCursor(Instant published, Long id) {
+
+	private static final String SEPARATOR = "_";
+
+	/**
+	 * @return the query string representation of the cursor positioned after the last entry of the page, or null if the page is empty
+	 */
+	public static String after(List<Entry> page) {
+		if (page.isEmpty()) {
+			return null;
+		}
+
+		Entry last = page.get(page.size() - 1);
+		return new FeedEntryCursor(last.getDate(), Long.valueOf(last.getId())).toQueryString();
+	}
+
+	public String toQueryString() {
+		return published.getEpochSecond() + SEPARATOR + published.getNano() + SEPARATOR + id;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the cursor is malformed
+	 */
+	public static FeedEntryCursor fromQueryString(String cursor) {
+		if (StringUtils.isBlank(cursor)) {
+			return null;
+		}
+
+		String[] parts = StringUtils.split(cursor, SEPARATOR);
+		if (parts.length != 3) {
+			throw new IllegalArgumentException("invalid cursor " + cursor);
+		}
+
+		try {
+			Instant published = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+			return new FeedEntryCursor(published, Long.valueOf(parts[2]));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("invalid cursor " + cursor, e);
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package com.commafeed.backend.feed;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
+import com.commafeed.backend.HttpGetter.HttpResponseException;
+import com.commafeed.backend.HttpGetter.NotModifiedException;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.Models;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Records the outcome of each feed fetch, globally (as metrics and as a report), per host and per feed.
+ *
+ * A conditional request is a request sent with an If-Modified-Since or If-None-Match header. When such a request still gets the whole
+ * response back while the content did not change, the server is considered to be ignoring conditional requests.
+ */
+@Singleton
+public class FeedFetchStatistics {
+
+	private static final int MAX_FEEDS = 100000;
+	private static final int MAX_HOSTS = 10000;
+
+	public enum Outcome {
+		/**
+		 * 200, the feed was parsed and may contain new entries
+		 */
+		MODIFIED,
+		/**
+		 * 304
+		 */
+		NOT_MODIFIED,
+		/**
+		 * 200 with the same Last-Modified or ETag header as last time
+		 */
+		SAME_VALIDATORS,
+		/**
+		 * 200 with exactly the same content as last time
+		 */
+		SAME_CONTENT_HASH,
+		/**
+		 * 200 with a different content but the same publication date
+		 */
+		SAME_PUBLISHED_DATE,
+		ERROR;
+
+		static Outcome of(NotModifiedException e) {
+			return switch (e.getReason()) {
+			case NOT_MODIFIED -> NOT_MODIFIED;
+			case SAME_VALIDATORS -> SAME_VALIDATORS;
+			case SAME_CONTENT_HASH -> SAME_CONTENT_HASH;
+			case SAME_PUBLISHED_DATE -> SAME_PUBLISHED_DATE;
+			};
+		}
+
+		boolean ignoresConditionalRequest() {
+			return this == SAME_VALIDATORS || this == SAME_CONTENT_HASH;
+		}
+	}
+
+	private final MetricRegistry metrics;
+	private final Map<Outcome, Meter> outcomeMeters = new EnumMap<>(Outcome.class);
+	private final Meter bytes;
+	private final Timer duration;
+	private final Meter conditionalRequests;
+	private final Meter ignoredConditionalRequests;
+
+	private final Stats global = new Stats();
+	private final Cache<String, Stats> hosts = Caffeine.newBuilder().maximumSize(MAX_HOSTS).build();
+	private final Cache<Long, Stats> feeds = Caffeine.newBuilder().maximumSize(MAX_FEEDS).build();
+
+	@Inject
+	public FeedFetchStatistics(MetricRegistry metrics) {
+		this.metrics = metrics;
+		for (Outcome outcome : Outcome.values()) {
+			outcomeMeters.put(outcome, metrics.meter(MetricRegistry.name(getClass(), "outcome", outcome.name().toLowerCase())));
+		}
+		this.bytes = metrics.meter(MetricRegistry.name(getClass(), "bytes"));
+		this.duration = metrics.timer(MetricRegistry.name(getClass(), "duration"));
+		this.conditionalRequests = metrics.meter(MetricRegistry.name(getClass(), "conditionalRequests"));
+		this.ignoredConditionalRequests = metrics.meter(MetricRegistry.name(getClass(), "ignoredConditionalRequests"));
+		metrics.register(MetricRegistry.name(getClass(), "ignoredConditionalRequestsRate"), new RatioGauge() {
+			@Override
+			protected Ratio getRatio() {
+				return Ratio.of(ignoredConditionalRequests.getCount(), conditionalRequests.getCount());
+			}
+		});
+	}
+
+	/**
+	 * @param conditional
+	 *            whether the request was sent with an If-Modified-Since or If-None-Match header
+	 * @param error
+	 *            the error if the outcome is {@link Outcome#ERROR}, null otherwise
+	 */
+	public void record(Feed feed, Outcome outcome, boolean conditional, Throwable error, long contentLength, Duration fetchDuration) {
+		String errorClass = error == null ? null : errorClass(error);
+
+		outcomeMeters.get(outcome).mark();
+		bytes.mark(contentLength);
+		duration.update(fetchDuration.toNanos(), TimeUnit.NANOSECONDS);
+		if (conditional) {
+			conditionalRequests.mark();
+			if (outcome.ignoresConditionalRequest()) {
+				ignoredConditionalRequests.mark();
+			}
+		}
+		if (errorClass != null) {
+			metrics.meter(MetricRegistry.name(getClass(), "error", errorClass)).mark();
+		}
+
+		global.record(outcome, conditional, errorClass, contentLength, fetchDuration);
+		hosts.get(HostAwareFeedQueue.getHost(feed), k -> new Stats()).record(outcome, conditional, errorClass, contentLength, fetchDuration);
+		feeds.get(Models.getId(feed), k -> new Stats()).record(outcome, conditional, errorClass, contentLength, fetchDuration);
+	}
+
+	/**
+	 * @param maxHosts
+	 *            maximum number of hosts to include, the hosts ignoring the most conditional requests come first
+	 */
+	public Report getReport(int maxHosts) {
+		Map<String, Snapshot> hostSnapshots = new LinkedHashMap<>();
+		hosts.asMap()
+				.entrySet()
+				.stream()
+				.map(e -> Map.entry(e.getKey(), e.getValue().snapshot()))
+				.sorted(Comparator.comparing((Map.Entry<String, Snapshot> e) -> e.getValue().ignoredConditionalRequests())
+						.thenComparing(e -> e.getValue().fetches())
+						.reversed())
+				.limit(maxHosts)
+				.forEach(e -> hostSnapshots.put(e.getKey(), e.getValue()));
+		return new Report(global.snapshot(), hostSnapshots);
+	}
+
+	/**
+	 * @return the statistics of the feed, or null if it was not fetched since startup
+	 */
+	public Snapshot getFeedStatistics(Long feedId) {
+		Stats stats = feeds.getIfPresent(feedId);
+		return stats == null ? null : stats.snapshot();
+	}
+
+	private static String errorClass(Throwable error) {
+		if (error instanceof HttpResponseException e) {
+			return "http" + e.getCode();
+		}
+		return error.getClass().getSimpleName();
+	}
+
+	public record Report(Snapshot global, Map<String, Snapshot> hosts) {
+	}
+
+	public record Snapshot(long fetches, Map<Outcome, Long> outcomes, long conditionalRequests, long ignoredConditionalRequests,
+			long bytes, long averageDurationMillis, Map<String, Long> errors) {
+	}
+
+	private static class Stats {
+		private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+		private final LongAdder conditionalRequests = new LongAdder();
+		private final LongAdder ignoredConditionalRequests = new LongAdder();
+		private final LongAdder bytes = new LongAdder();
+		private final LongAdder durationMillis = new LongAdder();
+		private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+		Stats() {
+			for (Outcome outcome : Outcome.values()) {
+				outcomes.put(outcome, new LongAdder());
+			}
+		}
+
+		void record(Outcome outcome, boolean conditional, String errorClass, long contentLength, Duration fetchDuration) {
+			outcomes.get(outcome).increment();
+			if (conditional) {
+				conditionalRequests.increment();
+				if (outcome.ignoresConditionalRequest()) {
+					ignoredConditionalRequests.increment();
+				}
+			}
+			if (errorClass != null) {
+				errors.computeIfAbsent(errorClass, k -> new LongAdder()).increment();
+			}
+			bytes.add(contentLength);
+			durationMillis.add(fetchDuration.toMillis());
+		}
+
+		Snapshot snapshot() {
+			Map<Outcome, Long> outcomeCounts = new EnumMap<>(Outcome.class);
+			outcomes.forEach((k, v) -> outcomeCounts.put(k, v.sum()));
+			long fetches = outcomeCounts.values().stream().mapToLong(Long::longValue).sum();
+
+			Map<String, Long> errorCounts = new TreeMap<>();
+			errors.forEach((k, v) -> errorCounts.put(k, v.sum()));
+
+			return new Snapshot(fetches, outcomeCounts, conditionalRequests.sum(), ignoredConditionalRequests.sum(), bytes.sum(),
+					fetches == 0 ? 0 : durationMillis.sum() / fetches, errorCounts);
+		}
+	}
+}
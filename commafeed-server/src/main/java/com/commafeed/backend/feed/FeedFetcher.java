@@ -3,56 +3,89 @@ package com.commafeed.backend.feed;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.codec.binary.StringUtils;
 
-import com.commafeed.backend.Digests;
+import com.commafeed.CommaFeedConfiguration;
 import com.commafeed.backend.HttpGetter;
 import com.commafeed.backend.HttpGetter.HttpResult;
 import com.commafeed.backend.HttpGetter.NotModifiedException;
+import com.commafeed.backend.HttpGetter.NotModifiedException.Reason;
 import com.commafeed.backend.feed.parser.FeedParser;
 import com.commafeed.backend.feed.parser.FeedParserResult;
 import com.commafeed.backend.urlprovider.FeedURLProvider;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.rometools.rome.io.FeedException;
 
+import io.dropwizard.lifecycle.Managed;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Fetches a feed then parses it
  */
 @Slf4j
-@RequiredArgsConstructor(onConstructor = @__({ @Inject }))
 @Singleton
-public class FeedFetcher {
+public class FeedFetcher implements Managed {
+
+	private static final int TIMEOUT = 20000;
 
 	private final FeedParser parser;
 	private final HttpGetter getter;
 	private final Set<FeedURLProvider> urlProviders;
 
+	/**
+	 * limits the number of feeds being parsed at the same time, independently of the number of feeds being fetched
+	 */
+	private final Semaphore parsingPermits;
+
+	/**
+	 * parses the responses of {@link #fetchAsync(String, String, String, Instant, String)} so that http I/O threads are never blocked,
+	 * only created when async http is enabled
+	 */
+	private final ExecutorService parsingExecutor;
+
+	@Inject
+	public FeedFetcher(FeedParser parser, HttpGetter getter, Set<FeedURLProvider> urlProviders, CommaFeedConfiguration config) {
+		this.parser = parser;
+		this.getter = getter;
+		this.urlProviders = urlProviders;
+
+		int maxConcurrentFeedParsing = config.getApplicationSettings().getMaxConcurrentFeedParsing();
+		int parsingThreads = maxConcurrentFeedParsing > 0 ? maxConcurrentFeedParsing : Runtime.getRuntime().availableProcessors();
+		this.parsingPermits = new Semaphore(parsingThreads);
+		this.parsingExecutor = Boolean.TRUE.equals(config.getApplicationSettings().getAsyncHttpEnabled())
+				? Executors.newFixedThreadPool(parsingThreads, new ThreadFactoryBuilder().setNameFormat("feed-parser-%d").setDaemon(true).build())
+				: null;
+	}
+
 	public FeedFetcherResult fetch(String feedUrl, boolean extractFeedUrlFromHtml, String lastModified, String eTag,
 			Instant lastPublishedDate, String lastContentHash) throws FeedException, IOException, NotModifiedException {
 		log.debug("Fetching feed {}", feedUrl);
 
-		int timeout = 20000;
-
-		HttpResult result = getter.getBinary(feedUrl, lastModified, eTag, timeout);
+		HttpResult result = getter.getBinary(feedUrl, lastModified, eTag, TIMEOUT);
+		checkContentHash(feedUrl, result, lastModified, eTag, lastContentHash);
 		byte[] content = result.getContent();
 
 		FeedParserResult parserResult;
 		try {
-			parserResult = parser.parse(result.getUrlAfterRedirect(), content);
+			parserResult = parse(result.getUrlAfterRedirect(), content);
 		} catch (FeedException e) {
 			if (extractFeedUrlFromHtml) {
 				String extractedUrl = extractFeedUrl(urlProviders, feedUrl, StringUtils.newStringUtf8(result.getContent()));
 				if (org.apache.commons.lang3.StringUtils.isNotBlank(extractedUrl)) {
 					feedUrl = extractedUrl;
 
-					result = getter.getBinary(extractedUrl, lastModified, eTag, timeout);
+					result = getter.getBinary(extractedUrl, lastModified, eTag, TIMEOUT);
+					checkContentHash(feedUrl, result, lastModified, eTag, lastContentHash);
 					content = result.getContent();
-					parserResult = parser.parse(result.getUrlAfterRedirect(), content);
+					parserResult = parse(result.getUrlAfterRedirect(), content);
 				} else {
 					throw e;
 				}
@@ -61,30 +94,81 @@ public class FeedFetcher {
 			}
 		}
 
-		if (content == null) {
-			throw new IOException("Feed content is empty.");
-		}
+		return toFetcherResult(feedUrl, result, parserResult, lastModified, eTag, lastPublishedDate);
+	}
 
-		boolean lastModifiedHeaderValueChanged = !StringUtils.equals(lastModified, result.getLastModifiedSince());
-		boolean etagHeaderValueChanged = !StringUtils.equals(eTag, result.getETag());
+	/**
+	 * Non-blocking version of {@link #fetch(String, boolean, String, String, Instant, String)}, requires async http to be enabled. Does not
+	 * try to extract a feed url from html pages.
+	 * 
+	 * The returned future is always completed on a parsing thread, never on an http I/O thread.
+	 */
+	public CompletableFuture<FeedFetcherResult> fetchAsync(String feedUrl, String lastModified, String eTag, Instant lastPublishedDate,
+			String lastContentHash) {
+		log.debug("Fetching feed {} asynchronously", feedUrl);
+
+		return getter.getBinaryAsync(feedUrl, lastModified, eTag, TIMEOUT).handleAsync((result, ex) -> {
+			if (ex != null) {
+				throw ex instanceof CompletionException ce ? ce : new CompletionException(ex);
+			}
+
+			try {
+				checkContentHash(feedUrl, result, lastModified, eTag, lastContentHash);
+				FeedParserResult parserResult = parse(result.getUrlAfterRedirect(), result.getContent());
+				return toFetcherResult(feedUrl, result, parserResult, lastModified, eTag, lastPublishedDate);
+			} catch (FeedException | IOException | NotModifiedException e) {
+				throw new CompletionException(e);
+			}
+		}, parsingExecutor);
+	}
 
-		String hash = Digests.sha1Hex(content);
-		if (lastContentHash != null && lastContentHash.equals(hash)) {
+	/**
+	 * the hash is computed while the response is read, comparing it before parsing means unchanged feeds are never parsed
+	 */
+	private static void checkContentHash(String feedUrl, HttpResult result, String lastModified, String eTag, String lastContentHash)
+			throws NotModifiedException {
+		if (lastContentHash != null && lastContentHash.equals(result.getContentHash())) {
 			log.debug("content hash not modified: {}", feedUrl);
-			throw new NotModifiedException("content hash not modified",
-					lastModifiedHeaderValueChanged ? result.getLastModifiedSince() : null,
-					etagHeaderValueChanged ? result.getETag() : null);
+			throw notModified(Reason.SAME_CONTENT_HASH, "content hash not modified", result, lastModified, eTag);
+		}
+	}
+
+	private FeedFetcherResult toFetcherResult(String feedUrl, HttpResult result, FeedParserResult parserResult, String lastModified,
+			String eTag, Instant lastPublishedDate) throws IOException, NotModifiedException {
+		if (result.getContent() == null) {
+			throw new IOException("Feed content is empty.");
 		}
 
 		if (lastPublishedDate != null && lastPublishedDate.equals(parserResult.lastPublishedDate())) {
 			log.debug("publishedDate not modified: {}", feedUrl);
-			throw new NotModifiedException("publishedDate not modified",
-					lastModifiedHeaderValueChanged ? result.getLastModifiedSince() : null,
-					etagHeaderValueChanged ? result.getETag() : null);
+			throw notModified(Reason.SAME_PUBLISHED_DATE, "publishedDate not modified", result, lastModified, eTag);
 		}
 
-		return new FeedFetcherResult(parserResult, result.getUrlAfterRedirect(), result.getLastModifiedSince(), result.getETag(), hash,
-				result.getDuration());
+		return new FeedFetcherResult(parserResult, result.getUrlAfterRedirect(), result.getLastModifiedSince(), result.getETag(),
+				result.getContentHash(), result.getContent().length, result.getDuration());
+	}
+
+	private static NotModifiedException notModified(Reason reason, String message, HttpResult result, String lastModified, String eTag) {
+		boolean lastModifiedHeaderValueChanged = !StringUtils.equals(lastModified, result.getLastModifiedSince());
+		boolean etagHeaderValueChanged = !StringUtils.equals(eTag, result.getETag());
+		long contentLength = result.getContent() == null ? 0 : result.getContent().length;
+		return new NotModifiedException(reason, message, contentLength, result.getDuration(),
+				lastModifiedHeaderValueChanged ? result.getLastModifiedSince() : null, etagHeaderValueChanged ? result.getETag() : null);
+	}
+
+	private FeedParserResult parse(String feedUrl, byte[] content) throws FeedException {
+		try {
+			parsingPermits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FeedException("interrupted while waiting to parse feed " + feedUrl, e);
+		}
+
+		try {
+			return parser.parse(feedUrl, content);
+		} finally {
+			parsingPermits.release();
+		}
 	}
 
 	private static String extractFeedUrl(Set<FeedURLProvider> urlProviders, String url, String urlContent) {
@@ -98,8 +182,15 @@ public class FeedFetcher {
 		return null;
 	}
 
+	@Override
+	public void stop() {
+		if (parsingExecutor != null) {
+			parsingExecutor.shutdownNow();
+		}
+	}
+
 	public record FeedFetcherResult(FeedParserResult feed, String urlAfterRedirect, String lastModifiedHeader, String lastETagHeader,
-			String contentHash, long fetchDuration) {
+			String contentHash, long contentLength, long fetchDuration) {
 	}
 
 }
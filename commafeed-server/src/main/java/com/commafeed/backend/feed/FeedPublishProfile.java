@@ -0,0 +1,100 @@
+package com.commafeed.backend.feed;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * When a feed usually publishes its entries: hour of the day and day of the week histograms (UTC) of the publication dates of its
+ * entries.
+ * 
+ * Stored in {@link com.commafeed.backend.model.Feed#getPublishHistogram()} as the 24 hour counts followed by the 7 day counts,
+ * separated by commas.
+ */
+public class FeedPublishProfile {
+
+	/**
+	 * below this number of entries, the histograms don't tell us anything useful
+	 */
+	static final int MIN_SAMPLES = 10;
+
+	/**
+	 * number of samples spread evenly over the buckets of each histogram, so that quiet periods are not considered impossible
+	 */
+	private static final double PRIOR_SAMPLES = 2;
+
+	private static final int HOURS = 24;
+	private static final int DAYS = 7;
+
+	private final long[] hours;
+	private final long[] days;
+	private final long samples;
+
+	private FeedPublishProfile(long[] hours, long[] days) {
+		this.hours = hours;
+		this.days = days;
+		this.samples = Arrays.stream(hours).sum();
+	}
+
+	/**
+	 * @return the profile built from the given publication dates, or null if there are not enough of them
+	 */
+	public static FeedPublishProfile fromDates(Collection<Instant> dates) {
+		if (dates.size() < MIN_SAMPLES) {
+			return null;
+		}
+
+		long[] hours = new long[HOURS];
+		long[] days = new long[DAYS];
+		for (Instant date : dates) {
+			ZonedDateTime utc = date.atZone(ZoneOffset.UTC);
+			hours[utc.getHour()]++;
+			days[utc.getDayOfWeek().getValue() - 1]++;
+		}
+		return new FeedPublishProfile(hours, days);
+	}
+
+	/**
+	 * @return the profile stored in the given string, or null if it is empty or malformed
+	 */
+	public static FeedPublishProfile parse(String histogram) {
+		if (StringUtils.isBlank(histogram)) {
+			return null;
+		}
+
+		String[] tokens = histogram.split(",");
+		if (tokens.length != HOURS + DAYS) {
+			return null;
+		}
+
+		try {
+			long[] values = Arrays.stream(tokens).mapToLong(Long::parseLong).toArray();
+			return new FeedPublishProfile(Arrays.copyOfRange(values, 0, HOURS), Arrays.copyOfRange(values, HOURS, HOURS + DAYS));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public String format() {
+		return Arrays.stream(hours).mapToObj(String::valueOf).collect(Collectors.joining(",")) + ","
+				+ Arrays.stream(days).mapToObj(String::valueOf).collect(Collectors.joining(","));
+	}
+
+	/**
+	 * how likely the feed is to publish at the given date compared to a feed publishing uniformly around the clock, 1 meaning average.
+	 */
+	public double intensity(Instant date) {
+		ZonedDateTime utc = date.atZone(ZoneOffset.UTC);
+		return ratio(hours[utc.getHour()], HOURS) * ratio(days[utc.getDayOfWeek().getValue() - 1], DAYS);
+	}
+
+	private double ratio(long count, int buckets) {
+		return (count + PRIOR_SAMPLES / buckets) / (samples + PRIOR_SAMPLES) * buckets;
+	}
+
+}
@@ -3,11 +3,12 @@ package com.commafeed.backend.feed;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -15,9 +16,11 @@ import java.util.concurrent.TimeUnit;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.commafeed.CommaFeedConfiguration;
 import com.commafeed.backend.dao.FeedDAO;
 import com.commafeed.backend.dao.UnitOfWork;
+import com.commafeed.backend.feed.FeedRefreshWorker.FeedRefreshWorkerResult;
 import com.commafeed.backend.model.AbstractModel;
 import com.commafeed.backend.model.Feed;
 
@@ -36,14 +39,26 @@ public class FeedRefreshEngine implements Managed {
 	private final FeedRefreshUpdater updater;
 	private final CommaFeedConfiguration config;
 	private final Meter refill;
+	private final Timer process;
 
-	private final BlockingDeque<Feed> queue;
+	private final HostAwareFeedQueue queue;
 
 	private final ExecutorService feedProcessingLoopExecutor;
 	private final ExecutorService refillLoopExecutor;
 	private final ExecutorService refillExecutor;
-	private final ThreadPoolExecutor workerExecutor;
-	private final ThreadPoolExecutor databaseUpdaterExecutor;
+	private final ExecutorService workerExecutor;
+	private final FeedUpdaterLanes databaseUpdaterLanes;
+
+	/**
+	 * limits the number of feeds being fetched or waiting for their database update at the same time when async http is enabled, null
+	 * otherwise
+	 */
+	private final Semaphore asyncFetchPermits;
+
+	/**
+	 * maximum number of feeds being fetched at the same time
+	 */
+	private final int fetchConcurrency;
 
 	@Inject
 	public FeedRefreshEngine(UnitOfWork unitOfWork, FeedDAO feedDAO, FeedRefreshWorker worker, FeedRefreshUpdater updater,
@@ -54,18 +69,49 @@ public class FeedRefreshEngine implements Managed {
 		this.updater = updater;
 		this.config = config;
 		this.refill = metrics.meter(MetricRegistry.name(getClass(), "refill"));
+		this.process = metrics.timer(MetricRegistry.name(getClass(), "process"));
 
-		this.queue = new LinkedBlockingDeque<>();
+		this.queue = new HostAwareFeedQueue(config.getApplicationSettings().getMaxConcurrentRequestsPerHost(),
+				config.getApplicationSettings().getMinDelayBetweenRequestsPerHost().toJavaDuration());
 
 		this.feedProcessingLoopExecutor = Executors.newSingleThreadExecutor();
 		this.refillLoopExecutor = Executors.newSingleThreadExecutor();
 		this.refillExecutor = newDiscardingSingleThreadExecutorService();
-		this.workerExecutor = newBlockingExecutorService(config.getApplicationSettings().getBackgroundThreads());
-		this.databaseUpdaterExecutor = newBlockingExecutorService(config.getApplicationSettings().getDatabaseUpdateThreads());
+		int backgroundThreads = config.getApplicationSettings().getBackgroundThreads();
+		boolean asyncHttp = Boolean.TRUE.equals(config.getApplicationSettings().getAsyncHttpEnabled());
+		this.fetchConcurrency = asyncHttp ? config.getApplicationSettings().getMaxInFlightAsyncFetches() : backgroundThreads;
+
+		// feeds are sharded by id so that a feed is always updated by the same lane. With blocking fetches, a full lane blocks the worker
+		// submitting to it. With async fetches the lanes are unbounded so that parsing threads never block, the number of pending updates
+		// is bounded by the fetch permits instead as a permit is only released once the feed has been updated
+		this.databaseUpdaterLanes = new FeedUpdaterLanes(config.getApplicationSettings().getDatabaseUpdateThreads(),
+				asyncHttp ? Integer.MAX_VALUE : backgroundThreads, metrics.timer(MetricRegistry.name(getClass(), "updater", "wait")));
+
+		if (asyncHttp) {
+			// fetches don't hold a thread while waiting for the network, only permits are needed to bound them
+			Semaphore permits = new Semaphore(fetchConcurrency);
+			this.asyncFetchPermits = permits;
+			this.workerExecutor = null;
+			metrics.register(MetricRegistry.name(getClass(), "worker", "active"),
+					(Gauge<Integer>) () -> fetchConcurrency - permits.availablePermits());
+		} else if (Boolean.TRUE.equals(config.getApplicationSettings().getVirtualThreadsEnabled())) {
+			this.asyncFetchPermits = null;
+			BlockingVirtualThreadExecutorService virtualThreadExecutor = new BlockingVirtualThreadExecutorService(backgroundThreads);
+			this.workerExecutor = virtualThreadExecutor;
+			metrics.register(MetricRegistry.name(getClass(), "worker", "active"), (Gauge<Integer>) virtualThreadExecutor::getActiveCount);
+		} else {
+			this.asyncFetchPermits = null;
+			ThreadPoolExecutor threadPoolExecutor = newBlockingExecutorService(backgroundThreads);
+			this.workerExecutor = threadPoolExecutor;
+			metrics.register(MetricRegistry.name(getClass(), "worker", "active"), (Gauge<Integer>) threadPoolExecutor::getActiveCount);
+		}
 
 		metrics.register(MetricRegistry.name(getClass(), "queue", "size"), (Gauge<Integer>) queue::size);
-		metrics.register(MetricRegistry.name(getClass(), "worker", "active"), (Gauge<Integer>) workerExecutor::getActiveCount);
-		metrics.register(MetricRegistry.name(getClass(), "updater", "active"), (Gauge<Integer>) databaseUpdaterExecutor::getActiveCount);
+		metrics.register(MetricRegistry.name(getClass(), "queue", "hosts"), (Gauge<Integer>) queue::hostCount);
+		metrics.register(MetricRegistry.name(getClass(), "updater", "active"), (Gauge<Integer>) databaseUpdaterLanes::getActiveCount);
+		metrics.register(MetricRegistry.name(getClass(), "updater", "queue", "size"), (Gauge<Integer>) databaseUpdaterLanes::queueSize);
+		metrics.register(MetricRegistry.name(getClass(), "updater", "queue", "max"),
+				(Gauge<Integer>) databaseUpdaterLanes::maxLaneQueueSize);
 	}
 
 	@Override
@@ -79,16 +125,17 @@ public class FeedRefreshEngine implements Managed {
 		feedProcessingLoopExecutor.submit(() -> {
 			while (!feedProcessingLoopExecutor.isShutdown()) {
 				try {
-					// take() is blocking until a feed is available from the queue
+					// take() is blocking until a feed is available from the queue and its host can be queried
 					Feed feed = queue.take();
 
 					// send the feed to be processed
 					log.debug("got feed {} from the queue, send it for processing", feed.getId());
 					processFeedAsync(feed);
 
-					// we removed a feed from the queue, try to refill it as it may now be empty
-					if (queue.isEmpty()) {
-						log.debug("took the last feed from the queue, try to refill");
+					// we removed a feed from the queue, try to refill it as it may now be empty or only contain feeds of hosts we're
+					// already querying
+					if (needsRefill()) {
+						log.debug("took the last available feed from the queue, try to refill");
 						refillQueueAsync();
 					}
 				} catch (InterruptedException e) {
@@ -102,11 +149,11 @@ public class FeedRefreshEngine implements Managed {
 	}
 
 	private void startRefillLoop() {
-		// refill the queue at regular intervals if it's empty
+		// refill the queue at regular intervals if it has no available feeds
 		refillLoopExecutor.submit(() -> {
 			while (!refillLoopExecutor.isShutdown()) {
 				try {
-					if (queue.isEmpty()) {
+					if (needsRefill()) {
 						log.debug("refilling queue");
 						refillQueueAsync();
 					}
@@ -126,13 +173,13 @@ public class FeedRefreshEngine implements Managed {
 	public void refreshImmediately(Feed feed) {
 		log.debug("add feed {} at the start of the queue", feed.getId());
 		// remove the feed from the queue if it was already queued to avoid refreshing it twice
-		queue.removeIf(f -> f.getId().equals(feed.getId()));
+		queue.remove(feed.getId());
 		queue.addFirst(feed);
 	}
 
 	private void refillQueueAsync() {
 		CompletableFuture.runAsync(() -> {
-			if (!queue.isEmpty()) {
+			if (!needsRefill()) {
 				return;
 			}
 
@@ -142,7 +189,7 @@ public class FeedRefreshEngine implements Managed {
 			log.debug("found {} feeds that are up for refresh", nextUpdatableFeeds.size());
 			for (Feed feed : nextUpdatableFeeds) {
 				// add the feed only if it was not already queued
-				if (queue.stream().noneMatch(f -> f.getId().equals(feed.getId()))) {
+				if (!queue.contains(feed.getId())) {
 					queue.addLast(feed);
 				}
 			}
@@ -153,16 +200,57 @@ public class FeedRefreshEngine implements Managed {
 		});
 	}
 
-	private void processFeedAsync(Feed feed) {
-		CompletableFuture.supplyAsync(() -> worker.update(feed), workerExecutor)
-				.thenApplyAsync(r -> updater.update(r.feed(), r.entries()), databaseUpdaterExecutor)
+	private void processFeedAsync(Feed feed) throws InterruptedException {
+		// time spent between the moment the feed was taken from the queue and the moment it was updated in the database
+		Timer.Context processTime = process.time();
+		fetchAsync(feed).thenAcceptAsync(r -> updater.update(r.feed(), r.entries()), databaseUpdaterLanes.lane(feed.getId()))
 				.whenComplete((data, ex) -> {
+					processTime.stop();
+					if (asyncFetchPermits != null) {
+						asyncFetchPermits.release();
+					}
 					if (ex != null) {
 						log.error("error while processing feed {}", feed.getUrl(), ex);
 					}
 				});
 	}
 
+	private CompletableFuture<FeedRefreshWorkerResult> fetchAsync(Feed feed) throws InterruptedException {
+		if (asyncFetchPermits == null) {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return worker.update(feed);
+				} finally {
+					// let the next feed of the same host be fetched
+					queue.release(feed);
+				}
+			}, workerExecutor);
+		}
+
+		// blocks the processing loop until a fetch slot is available, like the blocking worker executor does. The permit is released by
+		// processFeedAsync() once the feed has been updated
+		asyncFetchPermits.acquire();
+		try {
+			return worker.updateAsync(feed).whenComplete((data, ex) -> {
+				// let the next feed of the same host be fetched
+				queue.release(feed);
+			});
+		} catch (RuntimeException e) {
+			asyncFetchPermits.release();
+			queue.release(feed);
+			throw e;
+		}
+	}
+
+	/**
+	 * the queue is refilled when none of its feeds can be taken right now, unless it already holds a batch of feeds waiting for their
+	 * hosts. Without that bound, a host with many feeds would make the queue grow on every refill while the disabledUntil of the feeds
+	 * waiting in it keeps being pushed back.
+	 */
+	private boolean needsRefill() {
+		return !queue.hasAvailableFeeds() && queue.size() < getBatchSize();
+	}
+
 	private List<Feed> getNextUpdatableFeeds(int max) {
 		return unitOfWork.call(() -> {
 			Instant lastLoginThreshold = Boolean.TRUE.equals(config.getApplicationSettings().getHeavyLoad())
@@ -177,7 +265,8 @@ public class FeedRefreshEngine implements Managed {
 	}
 
 	private int getBatchSize() {
-		return Math.min(100, 3 * config.getApplicationSettings().getBackgroundThreads());
+		// with async fetches, a batch holds enough feeds to use all the permits
+		return asyncFetchPermits == null ? Math.min(100, 3 * fetchConcurrency) : Math.max(100, fetchConcurrency);
 	}
 
 	@Override
@@ -185,8 +274,10 @@ public class FeedRefreshEngine implements Managed {
 		this.feedProcessingLoopExecutor.shutdownNow();
 		this.refillLoopExecutor.shutdownNow();
 		this.refillExecutor.shutdownNow();
-		this.workerExecutor.shutdownNow();
-		this.databaseUpdaterExecutor.shutdownNow();
+		if (this.workerExecutor != null) {
+			this.workerExecutor.shutdownNow();
+		}
+		this.databaseUpdaterLanes.shutdownNow();
 	}
 
 	/**
@@ -217,4 +308,91 @@ public class FeedRefreshEngine implements Managed {
 		});
 		return pool;
 	}
+
+	/**
+	 * ExecutorService that runs each task in its own virtual thread and blocks submissions while maxConcurrency tasks are running.
+	 * 
+	 * Falls back to platform threads if virtual threads are not available (Java 21+ is required).
+	 */
+	private static class BlockingVirtualThreadExecutorService extends AbstractExecutorService {
+
+		private final ExecutorService delegate;
+		private final Semaphore permits;
+		private final int maxConcurrency;
+
+		BlockingVirtualThreadExecutorService(int maxConcurrency) {
+			this.delegate = newVirtualThreadPerTaskExecutor();
+			this.permits = new Semaphore(maxConcurrency);
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		private static ExecutorService newVirtualThreadPerTaskExecutor() {
+			try {
+				// the project targets Java 17, use reflection to create virtual threads when running on Java 21+
+				ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+				log.info("using virtual threads to fetch feeds");
+				return executor;
+			} catch (ReflectiveOperationException e) {
+				log.warn("virtual threads are not available on this JVM (Java 21+ is required), using platform threads to fetch feeds");
+				return Executors.newCachedThreadPool();
+			}
+		}
+
+		public int getActiveCount() {
+			return maxConcurrency - permits.availablePermits();
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			if (delegate.isShutdown()) {
+				return;
+			}
+
+			try {
+				permits.acquire();
+			} catch (InterruptedException e) {
+				log.debug("interrupted while waiting for a slot in the queue.", e);
+				Thread.currentThread().interrupt();
+				return;
+			}
+
+			try {
+				delegate.execute(() -> {
+					try {
+						command.run();
+					} finally {
+						permits.release();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				permits.release();
+				throw e;
+			}
+		}
+
+		@Override
+		public void shutdown() {
+			delegate.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return delegate.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return delegate.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return delegate.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return delegate.awaitTermination(timeout, unit);
+		}
+	}
 }
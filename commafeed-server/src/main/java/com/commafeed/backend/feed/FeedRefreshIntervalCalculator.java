@@ -5,6 +5,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
 import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.backend.model.Feed;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -12,23 +13,38 @@ import jakarta.inject.Singleton;
 @Singleton
 public class FeedRefreshIntervalCalculator {
 
+	/**
+	 * weight of the latest fetch in {@link Feed#getModifiedFetchRatio()}
+	 */
+	private static final double MODIFIED_FETCH_RATIO_WEIGHT = 0.1;
+
+	/**
+	 * fraction of fetches we would like to return a modified feed, the interval is stretched or shortened to get closer to it
+	 */
+	private static final double TARGET_MODIFIED_FETCH_RATIO = 0.5;
+
+	private static final Duration MAX_ADAPTIVE_INTERVAL = Duration.ofHours(24);
+	private static final Duration ADAPTIVE_STEP = Duration.ofMinutes(15);
+
 	private final boolean heavyLoad;
+	private final boolean adaptive;
 	private final int refreshIntervalMinutes;
 
 	@Inject
 	public FeedRefreshIntervalCalculator(CommaFeedConfiguration config) {
 		this.heavyLoad = config.getApplicationSettings().getHeavyLoad();
+		this.adaptive = config.getApplicationSettings().getAdaptiveRefreshEnabled();
 		this.refreshIntervalMinutes = config.getApplicationSettings().getRefreshIntervalMinutes();
 	}
 
-	public Instant onFetchSuccess(Instant publishedDate, Long averageEntryInterval) {
-		Instant defaultRefreshInterval = getDefaultRefreshInterval();
-		return heavyLoad ? computeRefreshIntervalForHeavyLoad(publishedDate, averageEntryInterval, defaultRefreshInterval)
-				: defaultRefreshInterval;
+	public Instant onFetchSuccess(Feed feed) {
+		feed.setModifiedFetchRatio(updateModifiedFetchRatio(feed.getModifiedFetchRatio(), true));
+		return computeRefreshInterval(feed);
 	}
 
-	public Instant onFeedNotModified(Instant publishedDate, Long averageEntryInterval) {
-		return onFetchSuccess(publishedDate, averageEntryInterval);
+	public Instant onFeedNotModified(Feed feed) {
+		feed.setModifiedFetchRatio(updateModifiedFetchRatio(feed.getModifiedFetchRatio(), false));
+		return computeRefreshInterval(feed);
 	}
 
 	public Instant onFetchError(int errorCount) {
@@ -45,6 +61,69 @@ public class FeedRefreshIntervalCalculator {
 		return Instant.now().plus(Duration.ofMinutes(refreshIntervalMinutes));
 	}
 
+	private Instant computeRefreshInterval(Feed feed) {
+		Instant defaultRefreshInterval = getDefaultRefreshInterval();
+		if (adaptive) {
+			return computeAdaptiveRefreshInterval(feed, Instant.now(), defaultRefreshInterval);
+		} else if (heavyLoad) {
+			return computeRefreshIntervalForHeavyLoad(feed.getLastPublishedDate(), feed.getAverageEntryInterval(), defaultRefreshInterval);
+		} else {
+			return defaultRefreshInterval;
+		}
+	}
+
+	static Double updateModifiedFetchRatio(Double ratio, boolean modified) {
+		double value = modified ? 1 : 0;
+		return ratio == null ? value : ratio * (1 - MODIFIED_FETCH_RATIO_WEIGHT) + value * MODIFIED_FETCH_RATIO_WEIGHT;
+	}
+
+	/**
+	 * The expected time between entries is first stretched for feeds that are rarely modified when we fetch them and shortened for
+	 * feeds that always are. It is then spread over the week according to the publication profile of the feed: time passes faster
+	 * during the hours the feed usually publishes, so the next fetch lands sooner if those hours are coming up and later if a quiet
+	 * period is ahead.
+	 */
+	Instant computeAdaptiveRefreshInterval(Feed feed, Instant now, Instant defaultRefreshInterval) {
+		Duration minInterval = Duration.between(now, defaultRefreshInterval);
+		if (minInterval.compareTo(MAX_ADAPTIVE_INTERVAL) >= 0) {
+			return defaultRefreshInterval;
+		}
+
+		double interval = expectedEntryInterval(feed, now).toMillis();
+		if (feed.getModifiedFetchRatio() != null) {
+			double factor = TARGET_MODIFIED_FETCH_RATIO / Math.max(feed.getModifiedFetchRatio(), 0.01);
+			interval *= Math.max(0.5, Math.min(4, factor));
+		}
+		interval = Math.max(minInterval.toMillis(), Math.min(MAX_ADAPTIVE_INTERVAL.toMillis(), interval));
+
+		FeedPublishProfile profile = FeedPublishProfile.parse(feed.getPublishHistogram());
+		if (profile == null) {
+			return now.plusMillis((long) interval);
+		}
+
+		Instant max = now.plus(MAX_ADAPTIVE_INTERVAL);
+		Instant date = now;
+		double elapsed = 0;
+		while (elapsed < interval && date.isBefore(max)) {
+			elapsed += ADAPTIVE_STEP.toMillis() * profile.intensity(date);
+			date = date.plus(ADAPTIVE_STEP);
+		}
+		return date.isBefore(defaultRefreshInterval) ? defaultRefreshInterval : date;
+	}
+
+	private Duration expectedEntryInterval(Feed feed, Instant now) {
+		if (feed.getAverageEntryInterval() != null) {
+			// we want to catch new entries about halfway between two of them
+			return Duration.ofMillis(feed.getAverageEntryInterval() / 2);
+		} else if (feed.getLastPublishedDate() != null) {
+			// a single entry, assume the next one will come after about as long as it took since the last one
+			return Duration.between(feed.getLastPublishedDate(), now).dividedBy(2);
+		} else {
+			// feed with no entries
+			return MAX_ADAPTIVE_INTERVAL;
+		}
+	}
+
 	private Instant computeRefreshIntervalForHeavyLoad(Instant publishedDate, Long averageEntryInterval, Instant defaultRefreshInterval) {
 		Instant now = Instant.now();
 
@@ -1,36 +1,29 @@
 package com.commafeed.backend.feed;
 
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-
-import org.apache.commons.lang3.StringUtils;
 
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.commafeed.backend.Digests;
 import com.commafeed.backend.cache.CacheService;
 import com.commafeed.backend.dao.FeedSubscriptionDAO;
 import com.commafeed.backend.dao.UnitOfWork;
-import com.commafeed.backend.feed.parser.FeedParserResult.Content;
 import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
 import com.commafeed.backend.model.Feed;
 import com.commafeed.backend.model.FeedEntry;
 import com.commafeed.backend.model.FeedSubscription;
-import com.commafeed.backend.model.Models;
 import com.commafeed.backend.model.User;
 import com.commafeed.backend.service.FeedEntryService;
 import com.commafeed.backend.service.FeedService;
 import com.commafeed.frontend.ws.WebSocketMessageBuilder;
 import com.commafeed.frontend.ws.WebSocketSessions;
-import com.google.common.util.concurrent.Striped;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -49,94 +42,64 @@ public class FeedRefreshUpdater {
 	private final FeedEntryService feedEntryService;
 	private final FeedSubscriptionDAO feedSubscriptionDAO;
 	private final CacheService cache;
+	private final FeedEntryBloomFilters bloomFilters;
 	private final WebSocketSessions webSocketSessions;
 
-	private final Striped<Lock> locks;
-
 	private final Meter entryCacheMiss;
 	private final Meter entryCacheHit;
 	private final Meter feedUpdated;
 	private final Meter entryInserted;
+	private final Timer updateTimer;
 
 	@Inject
 	public FeedRefreshUpdater(UnitOfWork unitOfWork, FeedService feedService, FeedEntryService feedEntryService, MetricRegistry metrics,
-			FeedSubscriptionDAO feedSubscriptionDAO, CacheService cache, WebSocketSessions webSocketSessions) {
+			FeedSubscriptionDAO feedSubscriptionDAO, CacheService cache, FeedEntryBloomFilters bloomFilters,
+			WebSocketSessions webSocketSessions) {
 		this.unitOfWork = unitOfWork;
 		this.feedService = feedService;
 		this.feedEntryService = feedEntryService;
 		this.feedSubscriptionDAO = feedSubscriptionDAO;
 		this.cache = cache;
+		this.bloomFilters = bloomFilters;
 		this.webSocketSessions = webSocketSessions;
 
-		locks = Striped.lazyWeakLock(100000);
-
 		entryCacheMiss = metrics.meter(MetricRegistry.name(getClass(), "entryCacheMiss"));
 		entryCacheHit = metrics.meter(MetricRegistry.name(getClass(), "entryCacheHit"));
 		feedUpdated = metrics.meter(MetricRegistry.name(getClass(), "feedUpdated"));
 		entryInserted = metrics.meter(MetricRegistry.name(getClass(), "entryInserted"));
+		updateTimer = metrics.timer(MetricRegistry.name(getClass(), "update"));
 	}
 
-	private AddEntryResult addEntry(final Feed feed, final Entry entry, final List<FeedSubscription> subscriptions) {
-		boolean processed = false;
-		boolean inserted = false;
-		Set<FeedSubscription> subscriptionsForWhichEntryIsUnread = new HashSet<>();
-
-		// lock on feed, make sure we are not updating the same feed twice at
-		// the same time
-		String key1 = StringUtils.trimToEmpty(String.valueOf(feed.getId()));
-
-		// lock on content, make sure we are not updating the same entry
-		// twice at the same time
-		Content content = entry.content();
-		String key2 = Digests.sha1Hex(StringUtils.trimToEmpty(content.content() + content.title()));
-
-		Iterator<Lock> iterator = locks.bulkGet(Arrays.asList(key1, key2)).iterator();
-		Lock lock1 = iterator.next();
-		Lock lock2 = iterator.next();
-		boolean locked1 = false;
-		boolean locked2 = false;
-		try {
-			// try to lock, give up after 1 minute
-			locked1 = lock1.tryLock(1, TimeUnit.MINUTES);
-			locked2 = lock2.tryLock(1, TimeUnit.MINUTES);
-			if (locked1 && locked2) {
-				processed = true;
-				inserted = unitOfWork.call(() -> {
-					boolean newEntry = false;
-					FeedEntry feedEntry = feedEntryService.find(feed, entry);
-					if (feedEntry == null) {
-						feedEntry = feedEntryService.create(feed, entry);
-						newEntry = true;
-					}
-					if (newEntry) {
-						entryInserted.mark();
-						for (FeedSubscription sub : subscriptions) {
-							boolean unread = feedEntryService.applyFilter(sub, feedEntry);
-							if (unread) {
-								subscriptionsForWhichEntryIsUnread.add(sub);
-							}
-						}
-					}
-					return newEntry;
-				});
-			} else {
-				log.error("lock timeout for {} - {}", feed.getUrl(), key1);
-			}
-		} catch (InterruptedException e) {
-			log.error("interrupted while waiting for lock for {} : {}", feed.getUrl(), e.getMessage(), e);
-		} finally {
-			if (locked1) {
-				lock1.unlock();
-			}
-			if (locked2) {
-				lock2.unlock();
+	private AddEntriesResult addEntries(final Feed feed, final List<Entry> entries, final List<FeedSubscription> subscriptions) {
+		Map<FeedSubscription, Long> unreadCountBySubscription = new HashMap<>();
+		Set<String> insertedGuidHashes = new HashSet<>();
+		long inserted = unitOfWork.call(() -> {
+			List<FeedEntry> feedEntries = feedEntryService.createMissing(feed, entries);
+			feedEntries.forEach(e -> insertedGuidHashes.add(e.getGuidHash()));
+			Map<FeedSubscription, List<FeedEntry>> unreadEntriesBySubscription = new HashMap<>();
+			for (FeedEntry feedEntry : feedEntries) {
+				entryInserted.mark();
+				for (FeedSubscription sub : feedEntryService.applyFilters(subscriptions, feedEntry)) {
+					unreadCountBySubscription.merge(sub, 1L, Long::sum);
+					unreadEntriesBySubscription.computeIfAbsent(sub, k -> new ArrayList<>()).add(feedEntry);
+				}
 			}
-		}
-		return new AddEntryResult(processed, inserted, subscriptionsForWhichEntryIsUnread);
+			unreadEntriesBySubscription.forEach(feedEntryService::addToUnreadCount);
+			feedEntryService.addToTimelines(subscriptions, feedEntries);
+			return (long) feedEntries.size();
+		});
+		return new AddEntriesResult(inserted, unreadCountBySubscription, insertedGuidHashes);
+	}
+
+	/**
+	 * this is NOT thread-safe for a given feed, callers need to make sure the same feed is not updated concurrently.
+	 * {@link FeedRefreshEngine} always updates a feed from the same {@link FeedUpdaterLanes} lane.
+	 */
+	public void update(Feed feed, List<Entry> entries) {
+		updateTimer.time(() -> doUpdate(feed, entries));
 	}
 
-	public boolean update(Feed feed, List<Entry> entries) {
-		boolean processed = true;
+	private void doUpdate(Feed feed, List<Entry> entries) {
 		long inserted = 0;
 		Map<FeedSubscription, Long> unreadCountBySubscription = new HashMap<>();
 
@@ -144,28 +107,44 @@ public class FeedRefreshUpdater {
 			Set<String> lastEntries = cache.getLastEntries(feed);
 			List<String> currentEntries = new ArrayList<>();
 
-			List<FeedSubscription> subscriptions = null;
+			List<Entry> missedEntries = new ArrayList<>();
+			Set<String> verifiedGuidHashes = new HashSet<>();
+			Instant newestEntryDate = null;
 			for (Entry entry : entries) {
-				String cacheKey = cache.buildUniqueEntryKey(entry);
-				if (!lastEntries.contains(cacheKey)) {
-					log.debug("cache miss for {}", entry.url());
-					if (subscriptions == null) {
-						subscriptions = unitOfWork.call(() -> feedSubscriptionDAO.findByFeed(feed));
-					}
-					AddEntryResult addEntryResult = addEntry(feed, entry, subscriptions);
-					processed &= addEntryResult.processed;
-					inserted += addEntryResult.inserted ? 1 : 0;
-					addEntryResult.subscriptionsForWhichEntryIsUnread.forEach(sub -> unreadCountBySubscription.merge(sub, 1L, Long::sum));
+				if (entry.published() != null && (newestEntryDate == null || entry.published().isAfter(newestEntryDate))) {
+					newestEntryDate = entry.published();
+				}
 
-					entryCacheMiss.mark();
-				} else {
+				String cacheKey = cache.buildUniqueEntryKey(entry);
+				if (lastEntries.contains(cacheKey)) {
 					log.debug("cache hit for {}", entry.url());
 					entryCacheHit.mark();
+				} else if (bloomFilters.mightContain(feed, cacheKey, entry.published())) {
+					log.debug("bloom filter hit for {}", entry.url());
+					if (bloomFilters.shouldVerify()) {
+						// still send a sample to the database to measure the false positive rate of the filter
+						missedEntries.add(entry);
+						verifiedGuidHashes.add(Digests.sha1Hex(entry.guid()));
+					}
+				} else {
+					log.debug("cache miss for {}", entry.url());
+					missedEntries.add(entry);
+					entryCacheMiss.mark();
 				}
 
 				currentEntries.add(cacheKey);
 			}
+
+			List<FeedSubscription> subscriptions = null;
+			if (!missedEntries.isEmpty()) {
+				subscriptions = unitOfWork.call(() -> feedSubscriptionDAO.findByFeed(feed));
+				AddEntriesResult addEntriesResult = addEntries(feed, missedEntries, subscriptions);
+				inserted = addEntriesResult.inserted;
+				unreadCountBySubscription.putAll(addEntriesResult.unreadCountBySubscription);
+				verifiedGuidHashes.forEach(h -> bloomFilters.verified(addEntriesResult.insertedGuidHashes.contains(h)));
+			}
 			cache.setLastEntries(feed, currentEntries);
+			bloomFilters.put(feed, currentEntries, newestEntryDate);
 
 			if (subscriptions == null) {
 				feed.setMessage("No new entries found");
@@ -177,11 +156,6 @@ public class FeedRefreshUpdater {
 			}
 		}
 
-		if (!processed) {
-			// requeue asap
-			feed.setDisabledUntil(Models.MINIMUM_INSTANT);
-		}
-
 		if (inserted > 0) {
 			feedUpdated.mark();
 		}
@@ -189,8 +163,6 @@ public class FeedRefreshUpdater {
 		unitOfWork.run(() -> feedService.save(feed));
 
 		notifyOverWebsocket(unreadCountBySubscription);
-
-		return processed;
 	}
 
 	private void notifyOverWebsocket(Map<FeedSubscription, Long> unreadCountBySubscription) {
@@ -199,10 +171,10 @@ public class FeedRefreshUpdater {
 	}
 
 	@AllArgsConstructor
-	private static class AddEntryResult {
-		private final boolean processed;
-		private final boolean inserted;
-		private final Set<FeedSubscription> subscriptionsForWhichEntryIsUnread;
+	private static class AddEntriesResult {
+		private final long inserted;
+		private final Map<FeedSubscription, Long> unreadCountBySubscription;
+		private final Set<String> insertedGuidHashes;
 	}
 
 }
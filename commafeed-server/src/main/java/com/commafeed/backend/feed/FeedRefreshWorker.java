@@ -5,6 +5,8 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -12,6 +14,7 @@ import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.commafeed.CommaFeedConfiguration;
 import com.commafeed.backend.HttpGetter.NotModifiedException;
+import com.commafeed.backend.feed.FeedFetchStatistics.Outcome;
 import com.commafeed.backend.feed.FeedFetcher.FeedFetcherResult;
 import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
 import com.commafeed.backend.model.Feed;
@@ -29,86 +32,154 @@ public class FeedRefreshWorker {
 
 	private final FeedRefreshIntervalCalculator refreshIntervalCalculator;
 	private final FeedFetcher fetcher;
+	private final FeedFetchStatistics statistics;
 	private final CommaFeedConfiguration config;
 	private final Meter feedFetched;
 
 	@Inject
-	public FeedRefreshWorker(FeedRefreshIntervalCalculator refreshIntervalCalculator, FeedFetcher fetcher, CommaFeedConfiguration config,
-			MetricRegistry metrics) {
+	public FeedRefreshWorker(FeedRefreshIntervalCalculator refreshIntervalCalculator, FeedFetcher fetcher, FeedFetchStatistics statistics,
+			CommaFeedConfiguration config, MetricRegistry metrics) {
 		this.refreshIntervalCalculator = refreshIntervalCalculator;
 		this.fetcher = fetcher;
+		this.statistics = statistics;
 		this.config = config;
 		this.feedFetched = metrics.meter(MetricRegistry.name(getClass(), "feedFetched"));
 
 	}
 
 	public FeedRefreshWorkerResult update(Feed feed) {
+		String url = Optional.ofNullable(feed.getUrlAfterRedirect()).orElse(feed.getUrl());
+		boolean conditional = isConditional(feed);
+		long start = System.nanoTime();
 		try {
-			String url = Optional.ofNullable(feed.getUrlAfterRedirect()).orElse(feed.getUrl());
 			FeedFetcherResult result = fetcher.fetch(url, false, feed.getLastModifiedHeader(), feed.getEtagHeader(),
 					feed.getLastPublishedDate(), feed.getLastContentHash());
 			// stops here if NotModifiedException or any other exception is thrown
-
-			List<Entry> entries = result.feed().entries();
-
-			Integer maxFeedCapacity = config.getApplicationSettings().getMaxFeedCapacity();
-			if (maxFeedCapacity > 0) {
-				entries = entries.stream().limit(maxFeedCapacity).toList();
-			}
-
-			Integer maxEntriesAgeDays = config.getApplicationSettings().getMaxEntriesAgeDays();
-			if (maxEntriesAgeDays > 0) {
-				Instant threshold = Instant.now().minus(Duration.ofDays(maxEntriesAgeDays));
-				entries = entries.stream().filter(entry -> entry.published().isAfter(threshold)).toList();
-			}
-
-			String urlAfterRedirect = result.urlAfterRedirect();
-			if (StringUtils.equals(url, urlAfterRedirect)) {
-				urlAfterRedirect = null;
-			}
-
-			feed.setUrlAfterRedirect(urlAfterRedirect);
-			feed.setLink(result.feed().link());
-			feed.setLastModifiedHeader(result.lastModifiedHeader());
-			feed.setEtagHeader(result.lastETagHeader());
-			feed.setLastContentHash(result.contentHash());
-			feed.setLastPublishedDate(result.feed().lastPublishedDate());
-			feed.setAverageEntryInterval(result.feed().averageEntryInterval());
-			feed.setLastEntryDate(result.feed().lastEntryDate());
-
-			feed.setErrorCount(0);
-			feed.setMessage(null);
-			feed.setDisabledUntil(
-					refreshIntervalCalculator.onFetchSuccess(result.feed().lastPublishedDate(), result.feed().averageEntryInterval()));
-
-			return new FeedRefreshWorkerResult(feed, entries);
+			FeedRefreshWorkerResult workerResult = onFetched(feed, url, result);
+			statistics.record(feed, Outcome.MODIFIED, conditional, null, result.contentLength(),
+					Duration.ofMillis(result.fetchDuration()));
+			return workerResult;
 		} catch (NotModifiedException e) {
-			log.debug("Feed not modified : {} - {}", feed.getUrl(), e.getMessage());
+			statistics.record(feed, Outcome.of(e), conditional, null, e.getContentLength(),
+					Duration.ofMillis(e.getDuration()));
+			return onNotModified(feed, e);
+		} catch (Exception e) {
+			statistics.record(feed, Outcome.ERROR, conditional, e, 0, elapsedSince(start));
+			return onError(feed, e);
+		} finally {
+			feedFetched.mark();
+		}
+	}
 
-			feed.setErrorCount(0);
-			feed.setMessage(e.getMessage());
-			feed.setDisabledUntil(refreshIntervalCalculator.onFeedNotModified(feed.getLastPublishedDate(), feed.getAverageEntryInterval()));
+	/**
+	 * Non-blocking version of {@link #update(Feed)}, requires async http to be enabled. The returned future never completes exceptionally,
+	 * errors are recorded on the feed just like {@link #update(Feed)} does.
+	 */
+	public CompletableFuture<FeedRefreshWorkerResult> updateAsync(Feed feed) {
+		String url = Optional.ofNullable(feed.getUrlAfterRedirect()).orElse(feed.getUrl());
+		boolean conditional = isConditional(feed);
+		long start = System.nanoTime();
+		return fetcher
+				.fetchAsync(url, feed.getLastModifiedHeader(), feed.getEtagHeader(), feed.getLastPublishedDate(), feed.getLastContentHash())
+				.handle((result, ex) -> {
+					try {
+						Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+						if (cause == null) {
+							FeedRefreshWorkerResult workerResult = onFetched(feed, url, result);
+							statistics.record(feed, Outcome.MODIFIED, conditional, null, result.contentLength(),
+									Duration.ofMillis(result.fetchDuration()));
+							return workerResult;
+						} else if (cause instanceof NotModifiedException e) {
+							statistics.record(feed, Outcome.of(e), conditional, null, e.getContentLength(),
+									Duration.ofMillis(e.getDuration()));
+							return onNotModified(feed, e);
+						} else {
+							statistics.record(feed, Outcome.ERROR, conditional, cause, 0, elapsedSince(start));
+							return onError(feed, cause);
+						}
+					} catch (Exception e) {
+						statistics.record(feed, Outcome.ERROR, conditional, e, 0, elapsedSince(start));
+						return onError(feed, e);
+					} finally {
+						feedFetched.mark();
+					}
+				});
+	}
 
-			if (e.getNewLastModifiedHeader() != null) {
-				feed.setLastModifiedHeader(e.getNewLastModifiedHeader());
-			}
+	private FeedRefreshWorkerResult onFetched(Feed feed, String url, FeedFetcherResult result) {
+		List<Entry> entries = result.feed().entries();
 
-			if (e.getNewEtagHeader() != null) {
-				feed.setEtagHeader(e.getNewEtagHeader());
-			}
+		Integer maxFeedCapacity = config.getApplicationSettings().getMaxFeedCapacity();
+		if (maxFeedCapacity > 0) {
+			entries = entries.stream().limit(maxFeedCapacity).toList();
+		}
 
-			return new FeedRefreshWorkerResult(feed, Collections.emptyList());
-		} catch (Exception e) {
-			log.debug("unable to refresh feed {}", feed.getUrl(), e);
+		Integer maxEntriesAgeDays = config.getApplicationSettings().getMaxEntriesAgeDays();
+		if (maxEntriesAgeDays > 0) {
+			Instant threshold = Instant.now().minus(Duration.ofDays(maxEntriesAgeDays));
+			entries = entries.stream().filter(entry -> entry.published().isAfter(threshold)).toList();
+		}
 
-			feed.setErrorCount(feed.getErrorCount() + 1);
-			feed.setMessage("Unable to refresh feed : " + e.getMessage());
-			feed.setDisabledUntil(refreshIntervalCalculator.onFetchError(feed.getErrorCount()));
+		String urlAfterRedirect = result.urlAfterRedirect();
+		if (StringUtils.equals(url, urlAfterRedirect)) {
+			urlAfterRedirect = null;
+		}
 
-			return new FeedRefreshWorkerResult(feed, Collections.emptyList());
-		} finally {
-			feedFetched.mark();
+		feed.setUrlAfterRedirect(urlAfterRedirect);
+		feed.setLink(result.feed().link());
+		feed.setLastModifiedHeader(result.lastModifiedHeader());
+		feed.setEtagHeader(result.lastETagHeader());
+		feed.setLastContentHash(result.contentHash());
+		feed.setLastPublishedDate(result.feed().lastPublishedDate());
+		feed.setAverageEntryInterval(result.feed().averageEntryInterval());
+		feed.setLastEntryDate(result.feed().lastEntryDate());
+
+		FeedPublishProfile profile = FeedPublishProfile.fromDates(result.feed().entries().stream().map(Entry::published).toList());
+		if (profile != null) {
+			feed.setPublishHistogram(profile.format());
 		}
+
+		feed.setErrorCount(0);
+		feed.setMessage(null);
+		feed.setDisabledUntil(refreshIntervalCalculator.onFetchSuccess(feed));
+
+		return new FeedRefreshWorkerResult(feed, entries);
+	}
+
+	private FeedRefreshWorkerResult onNotModified(Feed feed, NotModifiedException e) {
+		log.debug("Feed not modified : {} - {}", feed.getUrl(), e.getMessage());
+
+		feed.setErrorCount(0);
+		feed.setMessage(e.getMessage());
+		feed.setDisabledUntil(refreshIntervalCalculator.onFeedNotModified(feed));
+
+		if (e.getNewLastModifiedHeader() != null) {
+			feed.setLastModifiedHeader(e.getNewLastModifiedHeader());
+		}
+
+		if (e.getNewEtagHeader() != null) {
+			feed.setEtagHeader(e.getNewEtagHeader());
+		}
+
+		return new FeedRefreshWorkerResult(feed, Collections.emptyList());
+	}
+
+	private FeedRefreshWorkerResult onError(Feed feed, Throwable e) {
+		log.debug("unable to refresh feed {}", feed.getUrl(), e);
+
+		feed.setErrorCount(feed.getErrorCount() + 1);
+		feed.setMessage("Unable to refresh feed : " + e.getMessage());
+		feed.setDisabledUntil(refreshIntervalCalculator.onFetchError(feed.getErrorCount()));
+
+		return new FeedRefreshWorkerResult(feed, Collections.emptyList());
+	}
+
+	private static boolean isConditional(Feed feed) {
+		return feed.getLastModifiedHeader() != null || feed.getEtagHeader() != null;
+	}
+
+	private static Duration elapsedSince(long startNanos) {
+		return Duration.ofNanos(System.nanoTime() - startNanos);
 	}
 
 	public record FeedRefreshWorkerResult(Feed feed, List<Entry> entries) {
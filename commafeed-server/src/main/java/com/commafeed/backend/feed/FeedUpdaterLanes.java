@@ -0,0 +1,98 @@
+package com.commafeed.backend.feed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-threaded executors ("lanes") for database updates, sharded by feed id.
+ *
+ * A feed is always updated by the same lane, which guarantees that the same feed is never updated concurrently without having to lock.
+ * Submitting to a full lane blocks until there is room in its queue, lanes created with a capacity of {@link Integer#MAX_VALUE} never
+ * block and callers then have to bound the number of pending tasks themselves.
+ */
+@Slf4j
+class FeedUpdaterLanes {
+
+	private final List<ThreadPoolExecutor> lanes = new ArrayList<>();
+	private final Timer waitTimer;
+
+	/**
+	 * @param laneCount
+	 *            number of lanes (threads)
+	 * @param laneCapacity
+	 *            maximum number of tasks waiting in each lane
+	 * @param waitTimer
+	 *            records the time tasks spend waiting in their lane before being executed
+	 */
+	FeedUpdaterLanes(int laneCount, int laneCapacity, Timer waitTimer) {
+		this.waitTimer = waitTimer;
+		for (int i = 0; i < laneCount; i++) {
+			lanes.add(newLane(laneCapacity));
+		}
+	}
+
+	/**
+	 * returns the executor of the lane the feed belongs to
+	 */
+	public Executor lane(Long feedId) {
+		ThreadPoolExecutor lane = lanes.get(laneIndex(feedId, lanes.size()));
+		return command -> {
+			long enqueued = System.nanoTime();
+			lane.execute(() -> {
+				waitTimer.update(System.nanoTime() - enqueued, TimeUnit.NANOSECONDS);
+				command.run();
+			});
+		};
+	}
+
+	static int laneIndex(Long feedId, int laneCount) {
+		return feedId == null ? 0 : (int) Math.floorMod(feedId, (long) laneCount);
+	}
+
+	/**
+	 * total number of tasks waiting in the lanes
+	 */
+	public int queueSize() {
+		return lanes.stream().mapToInt(l -> l.getQueue().size()).sum();
+	}
+
+	/**
+	 * number of tasks waiting in the busiest lane
+	 */
+	public int maxLaneQueueSize() {
+		return lanes.stream().mapToInt(l -> l.getQueue().size()).max().orElse(0);
+	}
+
+	public int getActiveCount() {
+		return lanes.stream().mapToInt(ThreadPoolExecutor::getActiveCount).sum();
+	}
+
+	public void shutdownNow() {
+		lanes.forEach(ThreadPoolExecutor::shutdownNow);
+	}
+
+	private ThreadPoolExecutor newLane(int capacity) {
+		ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(capacity));
+		lane.setRejectedExecutionHandler((r, e) -> {
+			if (e.isShutdown()) {
+				return;
+			}
+
+			try {
+				e.getQueue().put(r);
+			} catch (InterruptedException ex) {
+				log.debug("interrupted while waiting for a slot in the lane.", ex);
+				Thread.currentThread().interrupt();
+			}
+		});
+		return lane;
+	}
+}
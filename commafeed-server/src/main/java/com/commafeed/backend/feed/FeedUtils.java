@@ -3,7 +3,10 @@ package com.commafeed.backend.feed;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.commons.codec.binary.Base64;
@@ -16,7 +19,7 @@ import org.netpreserve.urlcanon.Canonicalizer;
 import org.netpreserve.urlcanon.ParsedUrl;
 
 import com.commafeed.backend.feed.FeedEntryKeyword.Mode;
-import com.commafeed.backend.model.FeedEntry;
+import com.commafeed.backend.model.FeedEntryContent;
 import com.commafeed.backend.model.FeedSubscription;
 import com.commafeed.frontend.model.Entry;
 import com.google.gwt.i18n.client.HasDirection.Direction;
@@ -33,6 +36,12 @@ public class FeedUtils {
 
 	private static final String ESCAPED_QUESTION_MARK = Pattern.quote("?");
 
+	private static final Pattern SEARCH_TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final Pattern SEARCH_TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+	// shorter prefixes match too many terms to be looked up in the index, they are searched with a LIKE on the contents instead
+	private static final int SEARCH_TERM_MIN_LENGTH = 3;
+	private static final int SEARCH_TERM_MAX_LENGTH = 40;
+
 	public static String truncate(String string, int length) {
 		if (string != null) {
 			string = string.substring(0, Math.min(length, string.length()));
@@ -93,11 +102,11 @@ public class FeedUtils {
 		return normalized;
 	}
 
-	public static boolean isRTL(FeedEntry entry) {
-		String text = entry.getContent().getContent();
+	public static boolean isRTL(FeedEntryContent content) {
+		String text = content.getContent();
 
 		if (StringUtils.isBlank(text)) {
-			text = entry.getContent().getTitle();
+			text = content.getTitle();
 		}
 
 		if (StringUtils.isBlank(text)) {
@@ -200,6 +209,39 @@ public class FeedUtils {
 		return rot13(new String(Base64.decodeBase64(code)));
 	}
 
+	/**
+	 * extracts the distinct lowercase words of the text of the title and the content, words longer than the maximum term length are
+	 * truncated
+	 */
+	public static Set<String> extractSearchTerms(String title, String content) {
+		Set<String> terms = new LinkedHashSet<>();
+		for (String html : new String[] { title, content }) {
+			if (StringUtils.isBlank(html)) {
+				continue;
+			}
+
+			for (String word : SEARCH_TERM_SEPARATOR.split(Jsoup.parse(html).text().toLowerCase(Locale.ROOT))) {
+				if (word.length() >= SEARCH_TERM_MIN_LENGTH) {
+					terms.add(truncate(word, SEARCH_TERM_MAX_LENGTH));
+				}
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * returns the term to look up in the search index for the given keyword, or null if the keyword is not a single word that can be
+	 * looked up in the index
+	 */
+	public static String toSearchTerm(String keyword) {
+		String term = StringUtils.lowerCase(keyword, Locale.ROOT);
+		if (term == null || term.length() < SEARCH_TERM_MIN_LENGTH || term.length() > SEARCH_TERM_MAX_LENGTH
+				|| !SEARCH_TERM.matcher(term).matches()) {
+			return null;
+		}
+		return term;
+	}
+
 	public static void removeUnwantedFromSearch(List<Entry> entries, List<FeedEntryKeyword> keywords) {
 		Iterator<Entry> it = entries.iterator();
 		while (it.hasNext()) {
@@ -0,0 +1,301 @@
+package com.commafeed.backend.feed;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.commafeed.backend.model.Feed;
+
+/**
+ * Queue of feeds waiting to be refreshed, grouped by host.
+ *
+ * Feeds are handed out round-robin across hosts, while making sure that no more than maxConcurrentRequestsPerHost feeds of the same host
+ * are being fetched at the same time and that at least minDelayPerHost elapsed since the last request to that host.
+ *
+ * Feeds taken from the queue need to be given back with {@link #release(Feed)} when they are done being fetched.
+ *
+ * Queued feeds are indexed by id so that {@link #contains(Long)} and {@link #remove(Long)} don't scan the queue, a removed feed is left in
+ * the queue of its host and skipped when it reaches its head.
+ */
+class HostAwareFeedQueue {
+
+	private final int maxConcurrentRequestsPerHost;
+	private final long minDelayPerHostNanos;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+
+	private final Map<String, HostState> hosts = new HashMap<>();
+	// round-robin order of the hosts, a host is moved to the end after one of its feeds has been taken
+	private final Deque<String> rotation = new ArrayDeque<>();
+	private final Map<Long, QueuedFeed> queuedFeedsById = new HashMap<>();
+	private final Map<Long, String> inFlightHostsByFeedId = new HashMap<>();
+
+	/**
+	 * @param maxConcurrentRequestsPerHost
+	 *            maximum number of feeds of the same host being fetched at the same time, 0 for unlimited
+	 * @param minDelayPerHost
+	 *            minimum delay between two requests to the same host
+	 */
+	HostAwareFeedQueue(int maxConcurrentRequestsPerHost, Duration minDelayPerHost) {
+		this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+		this.minDelayPerHostNanos = minDelayPerHost.toNanos();
+	}
+
+	/**
+	 * add the feed at the end of the queue of its host
+	 */
+	public void addLast(Feed feed) {
+		add(feed, false);
+	}
+
+	/**
+	 * add the feed at the start of the queue of its host and give its host priority over the other hosts
+	 */
+	public void addFirst(Feed feed) {
+		add(feed, true);
+	}
+
+	private void add(Feed feed, boolean first) {
+		String host = getHost(feed);
+
+		lock.lock();
+		try {
+			HostState state = hosts.get(host);
+			if (state == null) {
+				state = new HostState();
+				hosts.put(host, state);
+				rotation.addLast(host);
+			}
+
+			QueuedFeed queuedFeed = new QueuedFeed(feed, host);
+			QueuedFeed previous = queuedFeedsById.put(feed.getId(), queuedFeed);
+			if (previous != null) {
+				// the feed was already queued, the previous entry is now stale
+				hosts.get(previous.host).queued--;
+			}
+			state.queued++;
+
+			if (first) {
+				state.feeds.addFirst(queuedFeed);
+
+				// move the host at the start of the round-robin order
+				rotation.remove(host);
+				rotation.addFirst(host);
+			} else {
+				state.feeds.addLast(queuedFeed);
+			}
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * take the next feed that can be fetched, blocking until one is available
+	 */
+	public Feed take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (true) {
+				long now = System.nanoTime();
+				long waitNanos = Long.MAX_VALUE;
+
+				int hostCount = rotation.size();
+				for (int i = 0; i < hostCount; i++) {
+					String host = rotation.pollFirst();
+					HostState state = hosts.get(host);
+					state.discardStaleHead();
+
+					if (state.feeds.isEmpty()) {
+						if (state.inFlight == 0 && state.remainingDelay(now) <= 0) {
+							// nothing left to do for this host
+							hosts.remove(host);
+						} else {
+							rotation.addLast(host);
+						}
+						continue;
+					}
+
+					// the host is moved at the end of the round-robin order whether a feed was taken or not
+					rotation.addLast(host);
+
+					if (maxConcurrentRequestsPerHost > 0 && state.inFlight >= maxConcurrentRequestsPerHost) {
+						// wait for a feed of this host to be released
+						continue;
+					}
+
+					long remainingDelay = state.remainingDelay(now);
+					if (remainingDelay > 0) {
+						waitNanos = Math.min(waitNanos, remainingDelay);
+						continue;
+					}
+
+					Feed feed = state.feeds.pollFirst().feed;
+					queuedFeedsById.remove(feed.getId());
+					state.queued--;
+					state.inFlight++;
+					state.lastRequest = now;
+					state.requested = true;
+
+					String previousHost = inFlightHostsByFeedId.put(feed.getId(), host);
+					if (previousHost != null) {
+						// the feed was queued again while it was being fetched, only keep track of the latest fetch
+						decrementInFlight(previousHost);
+					}
+					return feed;
+				}
+
+				if (waitNanos == Long.MAX_VALUE) {
+					changed.await();
+				} else {
+					changed.awaitNanos(waitNanos);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * notify the queue that the feed is done being fetched, allowing the next feed of the same host to be taken
+	 */
+	public void release(Feed feed) {
+		lock.lock();
+		try {
+			String host = inFlightHostsByFeedId.remove(feed.getId());
+			if (host == null) {
+				return;
+			}
+
+			decrementInFlight(host);
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void decrementInFlight(String host) {
+		HostState state = hosts.get(host);
+		if (state != null) {
+			state.inFlight = Math.max(0, state.inFlight - 1);
+		}
+	}
+
+	public boolean contains(Long feedId) {
+		lock.lock();
+		try {
+			return queuedFeedsById.containsKey(feedId);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void remove(Long feedId) {
+		lock.lock();
+		try {
+			QueuedFeed queuedFeed = queuedFeedsById.remove(feedId);
+			if (queuedFeed != null) {
+				HostState state = hosts.get(queuedFeed.host);
+				state.queued--;
+				state.discardStaleHead();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * whether the queue contains a feed that can be taken right now
+	 */
+	public boolean hasAvailableFeeds() {
+		lock.lock();
+		try {
+			long now = System.nanoTime();
+			return hosts.values()
+					.stream()
+					.anyMatch(s -> s.queued > 0
+							&& (maxConcurrentRequestsPerHost <= 0 || s.inFlight < maxConcurrentRequestsPerHost)
+							&& s.remainingDelay(now) <= 0);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int size() {
+		lock.lock();
+		try {
+			return queuedFeedsById.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int hostCount() {
+		lock.lock();
+		try {
+			return (int) hosts.values().stream().filter(s -> s.queued > 0).count();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	static String getHost(Feed feed) {
+		String url = Optional.ofNullable(feed.getUrlAfterRedirect()).orElse(feed.getUrl());
+		try {
+			String host = URI.create(StringUtils.trimToEmpty(url)).getHost();
+			if (host != null) {
+				return host.toLowerCase();
+			}
+		} catch (IllegalArgumentException ignored) {
+			// malformed url, use the url itself as the host so that the feed is still fetched
+		}
+		return StringUtils.trimToEmpty(url);
+	}
+
+	private class HostState {
+		private final Deque<QueuedFeed> feeds = new ArrayDeque<>();
+		// number of feeds of the deque that are still queued, the others were removed or queued again
+		private int queued;
+		private int inFlight;
+		private boolean requested;
+		private long lastRequest;
+
+		private long remainingDelay(long now) {
+			return requested ? minDelayPerHostNanos - (now - lastRequest) : 0;
+		}
+
+		private void discardStaleHead() {
+			if (queued == 0) {
+				feeds.clear();
+				return;
+			}
+
+			while (queuedFeedsById.get(feeds.peekFirst().feed.getId()) != feeds.peekFirst()) {
+				feeds.pollFirst();
+			}
+		}
+	}
+
+	private static class QueuedFeed {
+		private final Feed feed;
+		private final String host;
+
+		private QueuedFeed(Feed feed, String host) {
+			this.feed = feed;
+			this.host = host;
+		}
+	}
+}
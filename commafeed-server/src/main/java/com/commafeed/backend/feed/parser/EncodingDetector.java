@@ -1,5 +1,7 @@
 package com.commafeed.backend.feed.parser;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -13,6 +15,9 @@ import jakarta.inject.Singleton;
 @Singleton
 class EncodingDetector {
 
+	// the charset detector only looks at the first 8000 bytes
+	private static final int DETECTION_BUFFER_SIZE = 8192;
+
 	/**
 	 * Detect feed encoding by using the declared encoding in the xml processing instruction and by detecting the characters used in the
 	 * feed
@@ -30,6 +35,19 @@ class EncodingDetector {
 		return detectEncoding(bytes);
 	}
 
+	/**
+	 * Same as {@link #getEncoding(byte[])} but only looks at the start of the stream. The stream needs to support mark/reset and is reset
+	 * to its initial position.
+	 */
+	public Charset getEncoding(InputStream input) throws IOException {
+		input.mark(DETECTION_BUFFER_SIZE);
+		try {
+			return getEncoding(input.readNBytes(DETECTION_BUFFER_SIZE));
+		} finally {
+			input.reset();
+		}
+	}
+
 	/**
 	 * Extract the declared encoding from the xml
 	 */
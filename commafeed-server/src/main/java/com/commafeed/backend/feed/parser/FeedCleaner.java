@@ -1,9 +1,9 @@
 package com.commafeed.backend.feed.parser;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
 
-import org.ahocorasick.trie.Emit;
-import org.ahocorasick.trie.Trie;
 import org.apache.commons.lang3.StringUtils;
 
 import jakarta.inject.Singleton;
@@ -11,6 +11,8 @@ import jakarta.inject.Singleton;
 @Singleton
 class FeedCleaner {
 
+	private static final int MAX_ENTITY_LENGTH = Arrays.stream(HtmlEntities.HTML_ENTITIES).mapToInt(String::length).max().orElse(0);
+
 	public String trimInvalidXmlCharacters(String xml) {
 		if (StringUtils.isBlank(xml)) {
 			return null;
@@ -29,35 +31,184 @@ class FeedCleaner {
 				}
 			}
 
-			if (c >= 32 || c == 9 || c == 10 || c == 13) {
-				if (!Character.isHighSurrogate(c) && !Character.isLowSurrogate(c)) {
-					sb.append(c);
-				}
+			if (isValidXmlCharacter(c)) {
+				sb.append(c);
 			}
 		}
 		return sb.toString();
 	}
 
-	// https://stackoverflow.com/a/40836618
+	/**
+	 * Replaces html entities (e.g. &amp;eacute;) with their numeric counterpart (e.g. &amp;#233;) so that the xml parser can handle them.
+	 * Returns the source as-is when it contains no html entity.
+	 */
 	public String replaceHtmlEntitiesWithNumericEntities(String source) {
-		// Create a buffer sufficiently large that re-allocations are minimized.
-		StringBuilder sb = new StringBuilder(source.length() << 1);
+		StringBuilder sb = null;
+		int prevIndex = 0;
 
-		Collection<Emit> emits = Trie.builder().ignoreOverlaps().addKeywords(HtmlEntities.HTML_ENTITIES).build().parseText(source);
+		int index = source.indexOf('&');
+		while (index != -1) {
+			String entity = findHtmlEntity(source, index);
+			if (entity == null) {
+				index = source.indexOf('&', index + 1);
+				continue;
+			}
 
-		int prevIndex = 0;
-		for (Emit emit : emits) {
-			int matchIndex = emit.getStart();
+			if (sb == null) {
+				// only allocate once we know there is something to replace
+				sb = new StringBuilder(source.length() + 256);
+			}
+			sb.append(source, prevIndex, index).append(HtmlEntities.HTML_TO_NUMERIC_MAP.get(entity));
+			prevIndex = index + entity.length();
+			index = source.indexOf('&', prevIndex);
+		}
 
-			sb.append(source, prevIndex, matchIndex);
-			sb.append(HtmlEntities.HTML_TO_NUMERIC_MAP.get(emit.getKeyword()));
-			prevIndex = emit.getEnd() + 1;
+		if (sb == null) {
+			return source;
 		}
+		return sb.append(source, prevIndex, source.length()).toString();
+	}
 
-		// Add the remainder of the string (contains no more matches).
-		sb.append(source.substring(prevIndex));
+	/**
+	 * returns the html entity starting at the given index, or null if there is no known html entity at that index
+	 */
+	private static String findHtmlEntity(String source, int index) {
+		int end = Math.min(source.length(), index + MAX_ENTITY_LENGTH);
+		for (int i = index + 1; i < end; i++) {
+			char c = source.charAt(i);
+			if (c == ';') {
+				String entity = source.substring(index, i + 1);
+				return HtmlEntities.HTML_TO_NUMERIC_MAP.containsKey(entity) ? entity : null;
+			}
+			if (!Character.isLetterOrDigit(c)) {
+				return null;
+			}
+		}
+		return null;
+	}
 
-		return sb.toString();
+	/**
+	 * Returns a reader that trims invalid xml characters and replaces html entities with numeric entities on the fly, without loading the
+	 * whole document in memory. Equivalent to calling {@link #trimInvalidXmlCharacters(String)} then
+	 * {@link #replaceHtmlEntitiesWithNumericEntities(String)}.
+	 */
+	public Reader cleaningReader(Reader reader) {
+		return new CleaningReader(reader);
+	}
+
+	private static boolean isValidXmlCharacter(int c) {
+		return (c >= 32 || c == 9 || c == 10 || c == 13) && !Character.isHighSurrogate((char) c) && !Character.isLowSurrogate((char) c);
+	}
+
+	private static class CleaningReader extends Reader {
+
+		private final Reader in;
+		private final char[] buffer = new char[8192];
+		private int bufferIndex;
+		private int bufferLength;
+		private boolean firstTagFound;
+
+		// a valid character that was read while looking for the end of an entity and that still needs to be processed
+		private int lookahead = -1;
+
+		// characters ready to be returned, the result of an entity replacement
+		private String pending = "";
+		private int pendingIndex;
+
+		CleaningReader(Reader in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+
+			int count = 0;
+			while (count < len) {
+				int c = next();
+				if (c == -1) {
+					break;
+				}
+				cbuf[off + count++] = (char) c;
+			}
+			return count == 0 ? -1 : count;
+		}
+
+		private int next() throws IOException {
+			if (pendingIndex < pending.length()) {
+				return pending.charAt(pendingIndex++);
+			}
+
+			int c = nextValid();
+			if (c != '&') {
+				return c;
+			}
+
+			pending = readEntity();
+			pendingIndex = 1;
+			return pending.charAt(0);
+		}
+
+		/**
+		 * reads an entity candidate starting with '&' and returns its numeric replacement if it is a known html entity, or the characters
+		 * read as-is otherwise
+		 */
+		private String readEntity() throws IOException {
+			StringBuilder sb = new StringBuilder(MAX_ENTITY_LENGTH).append('&');
+			while (sb.length() < MAX_ENTITY_LENGTH) {
+				int c = nextValid();
+				if (c == ';') {
+					sb.append(';');
+					return HtmlEntities.HTML_TO_NUMERIC_MAP.getOrDefault(sb.toString(), sb.toString());
+				}
+				if (c == -1 || !Character.isLetterOrDigit(c)) {
+					lookahead = c;
+					break;
+				}
+				sb.append((char) c);
+			}
+			return sb.toString();
+		}
+
+		private int nextValid() throws IOException {
+			if (lookahead != -1) {
+				int c = lookahead;
+				lookahead = -1;
+				return c;
+			}
+
+			while (true) {
+				if (bufferIndex == bufferLength) {
+					// read in chunks, avoiding a (synchronized) call to the underlying reader for every character
+					bufferLength = in.read(buffer);
+					bufferIndex = 0;
+					if (bufferLength == -1) {
+						bufferLength = 0;
+						return -1;
+					}
+				}
+
+				char c = buffer[bufferIndex++];
+
+				if (!firstTagFound) {
+					if (c != '<') {
+						continue;
+					}
+					firstTagFound = true;
+				}
+
+				if (isValidXmlCharacter(c)) {
+					return c;
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
 	}
 
 }
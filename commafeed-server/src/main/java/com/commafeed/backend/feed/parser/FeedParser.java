@@ -1,5 +1,11 @@
 package com.commafeed.backend.feed.parser;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.text.DateFormat;
@@ -17,11 +23,14 @@ import org.jdom2.Element;
 import org.jdom2.Namespace;
 import org.xml.sax.InputSource;
 
+import com.commafeed.CommaFeedConfiguration;
 import com.commafeed.backend.feed.FeedUtils;
 import com.commafeed.backend.feed.parser.FeedParserResult.Content;
 import com.commafeed.backend.feed.parser.FeedParserResult.Enclosure;
 import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
 import com.commafeed.backend.feed.parser.FeedParserResult.Media;
+import com.commafeed.backend.feed.parser.StreamingFeedParser.FeedHeader;
+import com.commafeed.backend.feed.parser.StreamingFeedParser.UnsupportedFeedFormatException;
 import com.google.common.collect.Iterables;
 import com.rometools.modules.mediarss.MediaEntryModule;
 import com.rometools.modules.mediarss.MediaModule;
@@ -41,10 +50,12 @@ import com.rometools.rome.io.SyndFeedInput;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Parses raw xml into a FeedParserResult object
  */
+@Slf4j
 @RequiredArgsConstructor(onConstructor = @__({ @Inject }))
 @Singleton
 public class FeedParser {
@@ -56,8 +67,38 @@ public class FeedParser {
 
 	private final EncodingDetector encodingDetector;
 	private final FeedCleaner feedCleaner;
+	private final StreamingFeedParser streamingFeedParser;
+	private final CommaFeedConfiguration config;
 
 	public FeedParserResult parse(String feedUrl, byte[] xml) throws FeedException {
+		if (Boolean.TRUE.equals(config.getApplicationSettings().getStreamingFeedParserEnabled())) {
+			try {
+				return parseStreaming(feedUrl, new ByteArrayInputStream(xml));
+			} catch (UnsupportedFeedFormatException e) {
+				log.debug("streaming parser does not support feed {}, using ROME instead: {}", feedUrl, e.getMessage());
+			}
+		}
+
+		return parseWithRome(feedUrl, xml);
+	}
+
+	private FeedParserResult parseStreaming(String feedUrl, InputStream xml) throws FeedException, UnsupportedFeedFormatException {
+		try {
+			InputStream input = xml.markSupported() ? xml : new BufferedInputStream(xml);
+			Charset encoding = encodingDetector.getEncoding(input);
+			Reader reader = feedCleaner.cleaningReader(new BufferedReader(new InputStreamReader(input, encoding)));
+
+			List<Entry> entries = new ArrayList<>();
+			FeedHeader header = streamingFeedParser.parse(reader, feedUrl, entries::add);
+			return buildResult(header.title(), header.link(), header.publishedDate(), entries);
+		} catch (UnsupportedFeedFormatException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new FeedException(String.format("Could not parse feed from %s : %s", feedUrl, e.getMessage()), e);
+		}
+	}
+
+	private FeedParserResult parseWithRome(String feedUrl, byte[] xml) throws FeedException {
 		try {
 			Charset encoding = encodingDetector.getEncoding(xml);
 			String xmlString = feedCleaner.trimInvalidXmlCharacters(new String(xml, encoding));
@@ -70,22 +111,26 @@ public class FeedParser {
 			SyndFeed feed = new SyndFeedInput().build(source);
 			handleForeignMarkup(feed);
 
-			String title = feed.getTitle();
-			String link = feed.getLink();
 			List<Entry> entries = buildEntries(feed, feedUrl);
-			Instant lastEntryDate = entries.stream().findFirst().map(Entry::published).orElse(null);
-			Instant lastPublishedDate = toValidInstant(feed.getPublishedDate(), false);
-			if (lastPublishedDate == null || lastEntryDate != null && lastPublishedDate.isBefore(lastEntryDate)) {
-				lastPublishedDate = lastEntryDate;
-			}
-			Long averageEntryInterval = averageTimeBetweenEntries(entries);
-
-			return new FeedParserResult(title, link, lastPublishedDate, averageEntryInterval, lastEntryDate, entries);
+			return buildResult(feed.getTitle(), feed.getLink(), feed.getPublishedDate(), entries);
 		} catch (Exception e) {
 			throw new FeedException(String.format("Could not parse feed from %s : %s", feedUrl, e.getMessage()), e);
 		}
 	}
 
+	private FeedParserResult buildResult(String title, String link, Date publishedDate, List<Entry> entries) {
+		entries.sort(Comparator.comparing(Entry::published).reversed());
+
+		Instant lastEntryDate = entries.stream().findFirst().map(Entry::published).orElse(null);
+		Instant lastPublishedDate = toValidInstant(publishedDate, false);
+		if (lastPublishedDate == null || lastEntryDate != null && lastPublishedDate.isBefore(lastEntryDate)) {
+			lastPublishedDate = lastEntryDate;
+		}
+		Long averageEntryInterval = averageTimeBetweenEntries(entries);
+
+		return new FeedParserResult(title, link, lastPublishedDate, averageEntryInterval, lastEntryDate, entries);
+	}
+
 	/**
 	 * Adds atom links for rss feeds
 	 */
@@ -129,7 +174,6 @@ public class FeedParser {
 			entries.add(new Entry(guid, url, publishedDate, content));
 		}
 
-		entries.sort(Comparator.comparing(Entry::published).reversed());
 		return entries;
 	}
 
@@ -174,7 +218,7 @@ public class FeedParser {
 		return FeedUtils.toAbsoluteUrl(url, feedLink, feedUrl);
 	}
 
-	private Instant toValidInstant(Date date, boolean nullToNow) {
+	static Instant toValidInstant(Date date, boolean nullToNow) {
 		Instant now = Instant.now();
 		if (date == null) {
 			return nullToNow ? now : null;
@@ -202,16 +246,17 @@ public class FeedParser {
 	}
 
 	private String getTitle(SyndEntry item) {
-		String title = item.getTitle();
-		if (StringUtils.isBlank(title)) {
-			Date date = item.getPublishedDate();
-			if (date != null) {
-				title = DateFormat.getInstance().format(date);
-			} else {
-				title = "(no title)";
-			}
+		return buildTitle(item.getTitle(), item.getPublishedDate());
+	}
+
+	/**
+	 * uses the published date as title if the title is blank
+	 */
+	static String buildTitle(String title, Date publishedDate) {
+		if (StringUtils.isNotBlank(title)) {
+			return StringUtils.trimToNull(title);
 		}
-		return StringUtils.trimToNull(title);
+		return publishedDate != null ? DateFormat.getInstance().format(publishedDate) : "(no title)";
 	}
 
 	private Media buildMedia(SyndEntry item) {
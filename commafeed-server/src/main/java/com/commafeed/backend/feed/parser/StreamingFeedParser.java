@@ -0,0 +1,492 @@
+package com.commafeed.backend.feed.parser;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.commafeed.backend.feed.FeedUtils;
+import com.commafeed.backend.feed.parser.FeedParserResult.Content;
+import com.commafeed.backend.feed.parser.FeedParserResult.Enclosure;
+import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
+import com.commafeed.backend.feed.parser.FeedParserResult.Media;
+import com.rometools.rome.io.impl.DateParser;
+
+import jakarta.inject.Singleton;
+
+/**
+ * Parses RSS 0.9x/2.0, RSS 1.0 and Atom 1.0 feeds with StAX, without building a document tree.
+ *
+ * Entries are handed to a consumer as soon as they are parsed. Mirrors the way {@link FeedParser} maps ROME's SyndFeed to a
+ * {@link FeedParserResult}, other formats are rejected with an {@link UnsupportedFeedFormatException}.
+ */
+@Singleton
+class StreamingFeedParser {
+
+	private static final String ATOM_10_NS = "http://www.w3.org/2005/Atom";
+	private static final String RSS_090_NS = "http://my.netscape.com/rdf/simple/0.9/";
+	private static final String RSS_10_NS = "http://purl.org/rss/1.0/";
+	private static final String RDF_NS = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+	private static final String DC_NS = "http://purl.org/dc/elements/1.1/";
+	private static final String CONTENT_NS = "http://purl.org/rss/1.0/modules/content/";
+	private static final String MEDIA_NS = "http://search.yahoo.com/mrss/";
+
+	private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+
+	private static XMLInputFactory newXmlInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	/**
+	 * @param reader
+	 *            the cleaned xml, see {@link FeedCleaner#cleaningReader(Reader)}
+	 * @param feedUrl
+	 *            used to resolve relative entry urls
+	 * @param entryConsumer
+	 *            receives entries in document order as soon as they are parsed
+	 * @return the feed information found in the document
+	 */
+	public FeedHeader parse(Reader reader, String feedUrl, Consumer<Entry> entryConsumer)
+			throws XMLStreamException, UnsupportedFeedFormatException {
+		XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(reader);
+		try {
+			if (!nextChild(xml)) {
+				throw new UnsupportedFeedFormatException("no root element");
+			}
+
+			FeedBuilder feed = new FeedBuilder(feedUrl);
+			String ns = StringUtils.defaultString(xml.getNamespaceURI());
+			String name = xml.getLocalName();
+			if ("rss".equals(name) && ns.isEmpty() || "RDF".equals(name) && RDF_NS.equals(ns)) {
+				parseRssChannel(xml, feed, entryConsumer);
+			} else if ("feed".equals(name) && ATOM_10_NS.equals(ns)) {
+				parseAtomFeed(xml, feed, entryConsumer);
+			} else {
+				throw new UnsupportedFeedFormatException("unsupported root element " + xml.getName());
+			}
+
+			return new FeedHeader(feed.title, feed.selfLink != null ? feed.selfLink : feed.link,
+					feed.publishedDate != null ? feed.publishedDate : feed.dcDate);
+		} finally {
+			xml.close();
+		}
+	}
+
+	/**
+	 * handles the children of rss, rdf:RDF and channel elements. Items are children of the channel element for RSS 2.0 and siblings of
+	 * the channel element for RSS 1.0 and 0.90.
+	 */
+	private void parseRssChannel(XMLStreamReader xml, FeedBuilder feed, Consumer<Entry> entryConsumer) throws XMLStreamException {
+		while (nextChild(xml)) {
+			String ns = StringUtils.defaultString(xml.getNamespaceURI());
+			String name = xml.getLocalName();
+			if (isRss(ns) && "channel".equals(name)) {
+				parseRssChannel(xml, feed, entryConsumer);
+			} else if (isRss(ns) && "item".equals(name)) {
+				emit(parseRssItem(xml, feed), entryConsumer);
+			} else if (isRss(ns) && "title".equals(name) && feed.title == null) {
+				feed.title = readText(xml);
+			} else if (isRss(ns) && "link".equals(name) && feed.link == null) {
+				feed.link = readText(xml);
+			} else if (isRss(ns) && "pubDate".equals(name)) {
+				feed.publishedDate = parseDate(readText(xml));
+			} else if (DC_NS.equals(ns) && "date".equals(name)) {
+				feed.dcDate = parseDate(readText(xml));
+			} else {
+				skipElement(xml);
+			}
+		}
+	}
+
+	private Entry parseRssItem(XMLStreamReader xml, FeedBuilder feed) throws XMLStreamException {
+		EntryBuilder entry = new EntryBuilder();
+		entry.guid = StringUtils.trimToNull(xml.getAttributeValue(RDF_NS, "about"));
+
+		boolean guidIsPermaLink = false;
+		while (nextChild(xml)) {
+			String ns = StringUtils.defaultString(xml.getNamespaceURI());
+			String name = xml.getLocalName();
+			if (isRss(ns) && "guid".equals(name)) {
+				guidIsPermaLink = !"false".equalsIgnoreCase(StringUtils.trim(xml.getAttributeValue(null, "isPermaLink")));
+				entry.guid = readText(xml);
+			} else if (isRss(ns) && "title".equals(name)) {
+				entry.title = readText(xml);
+			} else if (isRss(ns) && "link".equals(name)) {
+				entry.link = readText(xml);
+			} else if (isRss(ns) && "description".equals(name)) {
+				entry.description = readText(xml);
+			} else if (CONTENT_NS.equals(ns) && "encoded".equals(name)) {
+				entry.contents.add(readText(xml));
+			} else if (isRss(ns) && "pubDate".equals(name)) {
+				entry.publishedDate = parseDate(readText(xml));
+			} else if (DC_NS.equals(ns) && "date".equals(name)) {
+				entry.dcDate = parseDate(readText(xml));
+			} else if (isRss(ns) && "author".equals(name)) {
+				entry.author = readText(xml);
+			} else if (DC_NS.equals(ns) && "creator".equals(name)) {
+				entry.dcCreator = readText(xml);
+			} else if (isRss(ns) && "category".equals(name)) {
+				entry.categories.add(readText(xml));
+			} else if (isRss(ns) && "enclosure".equals(name) && entry.enclosure == null) {
+				entry.enclosure = new Enclosure(xml.getAttributeValue(null, "url"), xml.getAttributeValue(null, "type"));
+				skipElement(xml);
+			} else if (MEDIA_NS.equals(ns)) {
+				parseMedia(xml, entry);
+			} else {
+				skipElement(xml);
+			}
+		}
+
+		if (entry.link == null && entry.guid != null && guidIsPermaLink) {
+			entry.link = entry.guid;
+		}
+		if (entry.guid == null) {
+			entry.guid = entry.link;
+		}
+		return entry.build(feed);
+	}
+
+	private void parseAtomFeed(XMLStreamReader xml, FeedBuilder feed, Consumer<Entry> entryConsumer) throws XMLStreamException {
+		while (nextChild(xml)) {
+			String ns = StringUtils.defaultString(xml.getNamespaceURI());
+			String name = xml.getLocalName();
+			if (!ATOM_10_NS.equals(ns)) {
+				skipElement(xml);
+			} else if ("entry".equals(name)) {
+				emit(parseAtomEntry(xml, feed), entryConsumer);
+			} else if ("title".equals(name) && feed.title == null) {
+				feed.title = readTextConstruct(xml);
+			} else if ("link".equals(name)) {
+				// same as ROME, the first self link is preferred over the first alternate link
+				String href = xml.getAttributeValue(null, "href");
+				if (feed.selfLink == null && "self".equals(xml.getAttributeValue(null, "rel"))) {
+					feed.selfLink = href;
+				} else if (feed.link == null && isAlternateLink(xml)) {
+					feed.link = href;
+				}
+				skipElement(xml);
+			} else if ("updated".equals(name)) {
+				feed.publishedDate = parseDate(readText(xml));
+			} else {
+				skipElement(xml);
+			}
+		}
+	}
+
+	private Entry parseAtomEntry(XMLStreamReader xml, FeedBuilder feed) throws XMLStreamException {
+		EntryBuilder entry = new EntryBuilder();
+		while (nextChild(xml)) {
+			String ns = StringUtils.defaultString(xml.getNamespaceURI());
+			String name = xml.getLocalName();
+			if (MEDIA_NS.equals(ns)) {
+				parseMedia(xml, entry);
+			} else if (!ATOM_10_NS.equals(ns)) {
+				skipElement(xml);
+			} else if ("id".equals(name)) {
+				entry.guid = readText(xml);
+			} else if ("title".equals(name)) {
+				entry.title = readTextConstruct(xml);
+			} else if ("link".equals(name)) {
+				String rel = xml.getAttributeValue(null, "rel");
+				if (entry.link == null && isAlternateLink(xml)) {
+					entry.link = xml.getAttributeValue(null, "href");
+				} else if (entry.enclosure == null && "enclosure".equals(rel)) {
+					entry.enclosure = new Enclosure(xml.getAttributeValue(null, "href"), xml.getAttributeValue(null, "type"));
+				}
+				skipElement(xml);
+			} else if ("summary".equals(name)) {
+				entry.description = readTextConstruct(xml);
+			} else if ("content".equals(name)) {
+				entry.contents.add(readTextConstruct(xml));
+			} else if ("published".equals(name)) {
+				entry.publishedDate = parseDate(readText(xml));
+			} else if ("updated".equals(name)) {
+				entry.updatedDate = parseDate(readText(xml));
+			} else if ("author".equals(name) && entry.author == null) {
+				entry.author = parseAtomAuthorName(xml);
+			} else if ("category".equals(name)) {
+				entry.categories.add(xml.getAttributeValue(null, "term"));
+				skipElement(xml);
+			} else {
+				skipElement(xml);
+			}
+		}
+		return entry.build(feed);
+	}
+
+	private void emit(Entry entry, Consumer<Entry> entryConsumer) {
+		// entries without guid and link are skipped
+		if (entry != null) {
+			entryConsumer.accept(entry);
+		}
+	}
+
+	private String parseAtomAuthorName(XMLStreamReader xml) throws XMLStreamException {
+		String authorName = null;
+		while (nextChild(xml)) {
+			if (ATOM_10_NS.equals(xml.getNamespaceURI()) && "name".equals(xml.getLocalName())) {
+				authorName = readText(xml);
+			} else {
+				skipElement(xml);
+			}
+		}
+		return authorName;
+	}
+
+	private boolean isAlternateLink(XMLStreamReader xml) {
+		String rel = xml.getAttributeValue(null, "rel");
+		return StringUtils.isBlank(rel) || "alternate".equals(rel);
+	}
+
+	/**
+	 * handles media rss elements of an item, only the first group is kept as {@link FeedParser} only uses the first one
+	 */
+	private void parseMedia(XMLStreamReader xml, EntryBuilder entry) throws XMLStreamException {
+		String name = xml.getLocalName();
+		if ("group".equals(name) && entry.groupMedia == null) {
+			entry.groupMedia = new MediaBuilder();
+			while (nextChild(xml)) {
+				if (MEDIA_NS.equals(xml.getNamespaceURI())) {
+					parseMediaMetadata(xml, entry.groupMedia);
+				} else {
+					skipElement(xml);
+				}
+			}
+		} else {
+			parseMediaMetadata(xml, entry.media);
+		}
+	}
+
+	private void parseMediaMetadata(XMLStreamReader xml, MediaBuilder media) throws XMLStreamException {
+		String name = xml.getLocalName();
+		if ("description".equals(name) && media.description == null) {
+			media.description = readText(xml);
+		} else if ("thumbnail".equals(name) && media.thumbnailUrl == null) {
+			media.thumbnailUrl = StringUtils.trimToNull(xml.getAttributeValue(null, "url"));
+			media.thumbnailWidth = parseInteger(xml.getAttributeValue(null, "width"));
+			media.thumbnailHeight = parseInteger(xml.getAttributeValue(null, "height"));
+			skipElement(xml);
+		} else {
+			skipElement(xml);
+		}
+	}
+
+	/**
+	 * reads an atom text construct, xhtml and xml content is returned as markup
+	 */
+	private String readTextConstruct(XMLStreamReader xml) throws XMLStreamException {
+		String type = StringUtils.defaultString(xml.getAttributeValue(null, "type"));
+		if ("xhtml".equals(type) || type.contains("/xml") || type.contains("+xml")) {
+			return readMarkup(xml);
+		}
+		return readText(xml);
+	}
+
+	/**
+	 * moves to the next child element of the current element, returns false when the end of the current element is reached
+	 */
+	private boolean nextChild(XMLStreamReader xml) throws XMLStreamException {
+		while (xml.hasNext()) {
+			int event = xml.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				return true;
+			}
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * returns the text of the current element and its descendants, positioned on the end of the current element afterwards
+	 */
+	private String readText(XMLStreamReader xml) throws XMLStreamException {
+		StringBuilder sb = new StringBuilder();
+		int depth = 1;
+		while (depth > 0) {
+			switch (xml.next()) {
+			case XMLStreamConstants.START_ELEMENT -> depth++;
+			case XMLStreamConstants.END_ELEMENT -> depth--;
+			case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> sb.append(xml.getText());
+			default -> {
+				// ignore comments and processing instructions
+			}
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * returns the inner markup of the current element, positioned on the end of the current element afterwards
+	 */
+	private String readMarkup(XMLStreamReader xml) throws XMLStreamException {
+		StringBuilder sb = new StringBuilder();
+		int depth = 1;
+		while (depth > 0) {
+			switch (xml.next()) {
+			case XMLStreamConstants.START_ELEMENT -> {
+				depth++;
+				sb.append('<').append(xml.getLocalName());
+				for (int i = 0; i < xml.getAttributeCount(); i++) {
+					sb.append(' ').append(xml.getAttributeLocalName(i)).append("=\"");
+					escape(xml.getAttributeValue(i), sb).append('"');
+				}
+				sb.append('>');
+			}
+			case XMLStreamConstants.END_ELEMENT -> {
+				depth--;
+				if (depth > 0) {
+					sb.append("</").append(xml.getLocalName()).append('>');
+				}
+			}
+			case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> escape(xml.getText(), sb);
+			default -> {
+				// ignore comments and processing instructions
+			}
+			}
+		}
+		return sb.toString();
+	}
+
+	private StringBuilder escape(String text, StringBuilder sb) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '<' -> sb.append("&lt;");
+			case '>' -> sb.append("&gt;");
+			case '&' -> sb.append("&amp;");
+			case '"' -> sb.append("&quot;");
+			default -> sb.append(c);
+			}
+		}
+		return sb;
+	}
+
+	private void skipElement(XMLStreamReader xml) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = xml.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	private boolean isRss(String ns) {
+		return ns.isEmpty() || RSS_10_NS.equals(ns) || RSS_090_NS.equals(ns);
+	}
+
+	private Date parseDate(String date) {
+		return DateParser.parseDate(StringUtils.trimToEmpty(date), Locale.US);
+	}
+
+	private Integer parseInteger(String value) {
+		return NumberUtils.isDigits(value) ? NumberUtils.createInteger(value) : null;
+	}
+
+	public record FeedHeader(String title, String link, Date publishedDate) {
+	}
+
+	public static class UnsupportedFeedFormatException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		public UnsupportedFeedFormatException(String message) {
+			super(message);
+		}
+	}
+
+	private static class FeedBuilder {
+		private final String feedUrl;
+		private String title;
+		private String link;
+		private String selfLink;
+		private Date publishedDate;
+		private Date dcDate;
+
+		FeedBuilder(String feedUrl) {
+			this.feedUrl = feedUrl;
+		}
+	}
+
+	private static class EntryBuilder {
+		private String guid;
+		private String link;
+		private String title;
+		private String description;
+		private final List<String> contents = new ArrayList<>();
+		private Date publishedDate;
+		private Date updatedDate;
+		private Date dcDate;
+		private String author;
+		private String dcCreator;
+		private final List<String> categories = new ArrayList<>();
+		private Enclosure enclosure;
+		private final MediaBuilder media = new MediaBuilder();
+		private MediaBuilder groupMedia;
+
+		/**
+		 * same rules as {@link FeedParser} applies to ROME entries
+		 */
+		private Entry build(FeedBuilder feed) {
+			String entryGuid = StringUtils.isBlank(guid) ? link : guid;
+			if (StringUtils.isBlank(entryGuid)) {
+				return null;
+			}
+
+			String url = StringUtils.trimToNull(StringUtils.normalizeSpace(link));
+			if (url != null && !FeedUtils.isAbsoluteUrl(url)) {
+				String feedLink = StringUtils.trimToNull(StringUtils.normalizeSpace(feed.link));
+				url = FeedUtils.toAbsoluteUrl(url, feedLink, feed.feedUrl);
+			}
+			if (StringUtils.isBlank(url) && FeedUtils.isAbsoluteUrl(entryGuid)) {
+				url = entryGuid;
+			}
+
+			Date published = publishedDate != null ? publishedDate : dcDate;
+			Date date = published != null ? published : updatedDate;
+
+			String content = contents.isEmpty() ? description : String.join(System.lineSeparator(), contents);
+			String categoryNames = StringUtils.trimToNull(String.join(", ", categories.stream().filter(StringUtils::isNotBlank).toList()));
+			Media entryMedia = media.build();
+			if (entryMedia == null && groupMedia != null) {
+				entryMedia = groupMedia.build();
+			}
+
+			Content entryContent = new Content(FeedParser.buildTitle(title, published), StringUtils.trimToNull(content),
+					StringUtils.trimToNull(author != null ? author : dcCreator), categoryNames, enclosure, entryMedia);
+			return new Entry(entryGuid, url, FeedParser.toValidInstant(date, true), entryContent);
+		}
+	}
+
+	private static class MediaBuilder {
+		private String description;
+		private String thumbnailUrl;
+		private Integer thumbnailWidth;
+		private Integer thumbnailHeight;
+
+		private Media build() {
+			if (description == null && thumbnailUrl == null) {
+				return null;
+			}
+			return new Media(description, thumbnailUrl, thumbnailWidth, thumbnailHeight);
+		}
+	}
+}
@@ -97,4 +97,16 @@ public class Feed extends AbstractModel {
 	@Column(length = 40)
 	private String lastContentHash;
 
+	/**
+	 * hour of the day and day of the week histograms of the publication dates of the entries, see
+	 * {@link com.commafeed.backend.feed.FeedPublishProfile}
+	 */
+	@Column(length = 255)
+	private String publishHistogram;
+
+	/**
+	 * moving average of the fraction of fetches that returned a modified feed
+	 */
+	private Double modifiedFetchRatio;
+
 }
@@ -61,6 +61,16 @@ public class FeedEntryContent extends AbstractModel {
 	@OneToMany(mappedBy = "content")
 	private Set<FeedEntry> entries;
 
+	/**
+	 * whether the text is written right-to-left, computed when the content is stored
+	 */
+	private Boolean rtl;
+
+	/**
+	 * whether the terms of this content have been added to the search index
+	 */
+	private boolean searchIndexed;
+
 	public boolean equivalentTo(FeedEntryContent c) {
 		if (c == null) {
 			return false;
@@ -0,0 +1,38 @@
+package com.commafeed.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A word of the title or the text of a content, the terms form an inverted index indexed by (term, content) used by keyword searches.
+ */
+@Entity
+@Table(name = "FEEDENTRYCONTENTTERMS")
+@SuppressWarnings("serial")
+@Getter
+@Setter
+public class FeedEntryContentTerm extends AbstractModel {
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(nullable = false)
+	private FeedEntryContent content;
+
+	@Column(length = 40, nullable = false)
+	private String term;
+
+	public FeedEntryContentTerm() {
+
+	}
+
+	public FeedEntryContentTerm(FeedEntryContent content, String term) {
+		this.content = content;
+		this.term = term;
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.commafeed.backend.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A favicon shared by all the feeds with the same key (usually the root url of their site, see
+ * {@link com.commafeed.backend.favicon.AbstractFaviconFetcher#getKey(Feed)}), fetched in the background and served from the database
+ */
+@Entity
+@Table(name = "FEEDFAVICONS")
+@SuppressWarnings("serial")
+@Getter
+@Setter
+public class FeedFavicon extends AbstractModel {
+
+	@Column(name = "faviconKey", length = 2048, nullable = false)
+	private String key;
+
+	@Column(length = 40, nullable = false, unique = true)
+	private String keyHash;
+
+	/**
+	 * url and link of the feed the favicon was last fetched for, used to refresh it
+	 */
+	@Column(length = 2048, nullable = false)
+	private String feedUrl;
+
+	@Column(length = 2048)
+	private String feedLink;
+
+	/**
+	 * null if no favicon could be found
+	 */
+	@Column(length = 65535)
+	private byte[] icon;
+
+	@Column(length = 255)
+	private String mediaType;
+
+	/**
+	 * hash of the icon, used as ETag
+	 */
+	@Column(length = 40)
+	private String hash;
+
+	/**
+	 * last time we tried to fetch the favicon
+	 */
+	@Column(nullable = false)
+	private Instant refreshed;
+
+	/**
+	 * number of consecutive fetches that did not find a favicon
+	 */
+	private int failures;
+
+	/**
+	 * the favicon will be fetched again after this date
+	 */
+	@Column(nullable = false)
+	private Instant nextRefresh;
+
+}
@@ -1,5 +1,6 @@
 package com.commafeed.backend.model;
 
+import java.time.Instant;
 import java.util.Set;
 
 import jakarta.persistence.CascadeType;
@@ -37,9 +38,40 @@ public class FeedSubscription extends AbstractModel {
 	@OneToMany(mappedBy = "subscription", cascade = CascadeType.REMOVE)
 	private Set<FeedEntryStatus> statuses;
 
+	@OneToMany(mappedBy = "subscription", cascade = CascadeType.REMOVE)
+	private Set<TimelineEntry> timelineEntries;
+
 	private int position;
 
 	@Column(name = "filtering_expression", length = 4096)
 	private String filter;
 
+	/**
+	 * materialized number of unread entries, null if it has not been computed yet.
+	 * 
+	 * The unread counter columns are maintained with update queries by FeedSubscriptionDAO and are never written when the subscription
+	 * itself is saved, so that concurrent increments are not overwritten.
+	 */
+	@Column(insertable = false, updatable = false)
+	private Long unreadCount;
+
+	/**
+	 * publication date of the newest unread entry
+	 */
+	@Column(insertable = false, updatable = false)
+	private Instant newestUnreadDate;
+
+	/**
+	 * publication date of the oldest unread entry, used to detect when unread entries get older than the unread threshold
+	 */
+	@Column(insertable = false, updatable = false)
+	private Instant oldestUnreadDate;
+
+	/**
+	 * whether the timeline contains all the entries of this subscription, the "All" view is read from the timeline only when all the
+	 * subscriptions of the user are ready. Updated with update queries by FeedSubscriptionDAO once the subscription has been inserted.
+	 */
+	@Column(updatable = false)
+	private boolean timelineReady;
+
 }
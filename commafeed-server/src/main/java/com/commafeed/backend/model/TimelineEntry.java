@@ -0,0 +1,56 @@
+package com.commafeed.backend.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An entry in the timeline of a user, the timeline contains the entries of all the subscriptions of the user and is indexed by (user,
+ * entryPublished, entry) so that the "All" view can be read with an index range scan.
+ * 
+ * Timeline entries are written when entries are inserted (fan-out on write), only if the timeline is enabled.
+ */
+@Entity
+@Table(name = "TIMELINEENTRIES")
+@SuppressWarnings("serial")
+@Getter
+@Setter
+public class TimelineEntry extends AbstractModel {
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(nullable = false)
+	private User user;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(nullable = false)
+	private FeedSubscription subscription;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(nullable = false)
+	private FeedEntry entry;
+
+	/**
+	 * Denormalization of the entry publication date, used for ordering
+	 */
+	@Column(nullable = false)
+	private Instant entryPublished;
+
+	public TimelineEntry() {
+
+	}
+
+	public TimelineEntry(FeedSubscription subscription, FeedEntry entry) {
+		this.user = subscription.getUser();
+		this.subscription = subscription;
+		this.entry = entry;
+		this.entryPublished = entry.getPublished();
+	}
+
+}
@@ -1,11 +1,17 @@
 package com.commafeed.backend.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.commafeed.CommaFeedConfiguration;
 import com.commafeed.backend.Digests;
 import com.commafeed.backend.dao.FeedEntryContentDAO;
+import com.commafeed.backend.dao.FeedEntryContentTermDAO;
 import com.commafeed.backend.feed.FeedUtils;
 import com.commafeed.backend.feed.parser.FeedParserResult.Content;
 import com.commafeed.backend.feed.parser.FeedParserResult.Enclosure;
@@ -21,23 +27,50 @@ import lombok.RequiredArgsConstructor;
 public class FeedEntryContentService {
 
 	private final FeedEntryContentDAO feedEntryContentDAO;
+	private final FeedEntryContentTermDAO feedEntryContentTermDAO;
 	private final FeedEntryContentCleaningService cleaningService;
+	private final CommaFeedConfiguration config;
 
 	/**
+	 * finds or creates the contents with a single lookup query, the returned list has the same order as the given contents. Identical
+	 * contents in the same batch share the same instance.
+	 *
 	 * this is NOT thread-safe
 	 */
-	public FeedEntryContent findOrCreate(Content content, String baseUrl) {
-		FeedEntryContent entryContent = buildContent(content, baseUrl);
-		Optional<FeedEntryContent> existing = feedEntryContentDAO.findExisting(entryContent.getContentHash(), entryContent.getTitleHash())
-				.stream()
-				.filter(entryContent::equivalentTo)
-				.findFirst();
-		if (existing.isPresent()) {
-			return existing.get();
-		} else {
-			feedEntryContentDAO.saveOrUpdate(entryContent);
-			return entryContent;
+	public List<FeedEntryContent> findOrCreate(List<Content> contents, String baseUrl) {
+		List<FeedEntryContent> entryContents = contents.stream().map(c -> buildContent(c, baseUrl)).toList();
+
+		Map<String, List<FeedEntryContent>> candidatesByContentHash = new HashMap<>();
+		feedEntryContentDAO.findExisting(entryContents)
+				.forEach(c -> candidatesByContentHash.computeIfAbsent(c.getContentHash(), k -> new ArrayList<>()).add(c));
+
+		boolean searchIndexEnabled = config.getApplicationSettings().getSearchIndexEnabled();
+		List<FeedEntryContent> created = new ArrayList<>();
+		List<FeedEntryContent> results = new ArrayList<>();
+		for (FeedEntryContent entryContent : entryContents) {
+			List<FeedEntryContent> candidates = candidatesByContentHash.computeIfAbsent(entryContent.getContentHash(),
+					k -> new ArrayList<>());
+			Optional<FeedEntryContent> existing = candidates.stream()
+					.filter(c -> entryContent.getTitleHash().equals(c.getTitleHash()))
+					.filter(entryContent::equivalentTo)
+					.findFirst();
+			if (existing.isPresent()) {
+				results.add(existing.get());
+			} else {
+				entryContent.setRtl(FeedUtils.isRTL(entryContent));
+				// flagged before it is persisted so that indexing does not issue an additional update
+				entryContent.setSearchIndexed(searchIndexEnabled);
+				feedEntryContentDAO.saveOrUpdate(entryContent);
+				created.add(entryContent);
+				candidates.add(entryContent);
+				results.add(entryContent);
+			}
+		}
+
+		if (searchIndexEnabled && !created.isEmpty()) {
+			feedEntryContentTermDAO.index(created);
 		}
+		return results;
 	}
 
 	private FeedEntryContent buildContent(Content content, String baseUrl) {
@@ -1,14 +1,14 @@
 package com.commafeed.backend.service;
 
+import java.time.Duration;
 import java.time.Year;
-import java.util.concurrent.Callable;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.jexl2.Interpreter;
 import org.apache.commons.jexl2.JexlContext;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.JexlException;
@@ -23,19 +23,55 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.LogFactory;
 import org.jsoup.Jsoup;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.commafeed.backend.model.FeedEntry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
-@RequiredArgsConstructor(onConstructor = @__({ @Inject }))
+@Slf4j
 @Singleton
 public class FeedEntryFilteringService {
 
 	private static final JexlEngine ENGINE = initEngine();
-
-	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private static final Duration TIMEOUT = Duration.ofMillis(500);
+	private static final Duration SLOW_THRESHOLD = Duration.ofMillis(100);
+	private static final Duration QUARANTINE_DURATION = Duration.ofMinutes(10);
+
+	// compiled scripts are thread-safe and shared by all subscriptions using the same filter
+	private final Cache<String, Script> scripts = CacheBuilder.newBuilder().maximumSize(1000).build();
+
+	// filters that timed out are not evaluated for a while, so that a pathological filter does not hold a database update thread for
+	// TIMEOUT on every entry of its feed
+	private final Cache<String, Boolean> quarantine = CacheBuilder.newBuilder()
+			.maximumSize(1000)
+			.expireAfterWrite(QUARANTINE_DURATION.toMillis(), TimeUnit.MILLISECONDS)
+			.build();
+
+	// slow filters are logged at most once per hour
+	private final Cache<String, Boolean> slowFiltersLogged = CacheBuilder.newBuilder()
+			.maximumSize(1000)
+			.expireAfterWrite(1, TimeUnit.HOURS)
+			.build();
+
+	private final AtomicInteger activeEvaluations = new AtomicInteger();
+	private final Timer evaluationTimer;
+	private final Meter timeouts;
+	private final Meter quarantined;
+
+	@Inject
+	public FeedEntryFilteringService(MetricRegistry metrics) {
+		this.evaluationTimer = metrics.timer(MetricRegistry.name(getClass(), "evaluation"));
+		this.timeouts = metrics.meter(MetricRegistry.name(getClass(), "timeout"));
+		this.quarantined = metrics.meter(MetricRegistry.name(getClass(), "quarantined"));
+		metrics.registerGauge(MetricRegistry.name(getClass(), "active"), activeEvaluations::get);
+	}
 
 	private static JexlEngine initEngine() {
 		// classloader that prevents object creation
@@ -65,57 +101,135 @@ public class FeedEntryFilteringService {
 			}
 		};
 
-		JexlEngine engine = new JexlEngine(uberspect, null, null, null);
+		// interpreter that stops evaluating once the deadline of the context is reached, checked by loops and method calls
+		JexlEngine engine = new JexlEngine(uberspect, null, null, null) {
+			@Override
+			protected Interpreter createInterpreter(JexlContext context, boolean strict, boolean silent) {
+				return new Interpreter(this, context, strict, silent) {
+					@Override
+					protected boolean isCancelled() {
+						return super.isCancelled() || context instanceof FilterContext c && c.isExpired();
+					}
+				};
+			}
+		};
 		engine.setStrict(true);
 		engine.setClassLoader(cl);
 		return engine;
 	}
 
 	public boolean filterMatchesEntry(String filter, FeedEntry entry) throws FeedEntryFilterException {
+		return filterMatchesEntry(filter, new EntryVariables(entry));
+	}
+
+	/**
+	 * evaluates the filter against variables computed beforehand with {@link EntryVariables#EntryVariables(FeedEntry)}, so that they can be
+	 * shared by all the filters evaluated against the same entry
+	 */
+	public boolean filterMatchesEntry(String filter, EntryVariables variables) throws FeedEntryFilterException {
 		if (StringUtils.isBlank(filter)) {
 			return true;
 		}
 
 		Script script;
 		try {
-			script = ENGINE.createScript(filter);
-		} catch (JexlException e) {
-			throw new FeedEntryFilterException("Exception while parsing expression " + filter, e);
+			script = scripts.get(filter, () -> ENGINE.createScript(filter));
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			throw new FeedEntryFilterException("Exception while parsing expression " + filter, e.getCause());
 		}
 
-		JexlContext context = new MapContext();
-		context.set("title", entry.getContent().getTitle() == null ? "" : Jsoup.parse(entry.getContent().getTitle()).text().toLowerCase());
-		context.set("author", entry.getContent().getAuthor() == null ? "" : entry.getContent().getAuthor().toLowerCase());
-		context.set("content",
-				entry.getContent().getContent() == null ? "" : Jsoup.parse(entry.getContent().getContent()).text().toLowerCase());
-		context.set("url", entry.getUrl() == null ? "" : entry.getUrl().toLowerCase());
-		context.set("categories", entry.getContent().getCategories() == null ? "" : entry.getContent().getCategories().toLowerCase());
-
-		context.set("year", Year.now().getValue());
+		if (isQuarantined(filter)) {
+			throw new FeedEntryFilterException("Expression recently took too long to evaluate and is disabled for a while " + filter, null);
+		}
 
-		Callable<Object> callable = script.callable(context);
-		Future<Object> future = executor.submit(callable);
+		long start = System.nanoTime();
+		FilterContext context = new FilterContext(variables, start + TIMEOUT.toNanos());
 		Object result;
+		activeEvaluations.incrementAndGet();
 		try {
-			result = future.get(500, TimeUnit.MILLISECONDS);
-		} catch (InterruptedException e) {
-			throw new FeedEntryFilterException("interrupted while evaluating expression " + filter, e);
-		} catch (ExecutionException e) {
+			result = script.execute(context);
+		} catch (JexlException e) {
+			if (context.isExpired()) {
+				timeouts.mark();
+				quarantine.put(filter, true);
+				log.warn("filter took more than {}ms to evaluate and is disabled for {} minutes: {}", TIMEOUT.toMillis(),
+						QUARANTINE_DURATION.toMinutes(), filter);
+				throw new FeedEntryFilterTimeoutException("Took too long evaluating expression " + filter, e);
+			}
 			throw new FeedEntryFilterException("Exception while evaluating expression " + filter, e);
-		} catch (TimeoutException e) {
-			throw new FeedEntryFilterException("Took too long evaluating expression " + filter, e);
+		} finally {
+			activeEvaluations.decrementAndGet();
+			long duration = System.nanoTime() - start;
+			evaluationTimer.update(duration, TimeUnit.NANOSECONDS);
+			if (duration > SLOW_THRESHOLD.toNanos() && slowFiltersLogged.asMap().putIfAbsent(filter, true) == null) {
+				log.warn("filter took {}ms to evaluate: {}", TimeUnit.NANOSECONDS.toMillis(duration), filter);
+			}
 		}
 		try {
 			return (boolean) result;
-		} catch (ClassCastException e) {
+		} catch (ClassCastException | NullPointerException e) {
 			throw new FeedEntryFilterException(e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * whether the filter recently timed out and is not evaluated until its quarantine expires, entries are then left unread
+	 */
+	public boolean isQuarantined(String filter) {
+		if (quarantine.getIfPresent(filter) == null) {
+			return false;
+		}
+		quarantined.mark();
+		return true;
+	}
+
+	/**
+	 * The variables of an entry that filters can use
+	 */
+	public static class EntryVariables {
+		private final Map<String, Object> values = new HashMap<>();
+
+		public EntryVariables(FeedEntry entry) {
+			values.put("title", entry.getContent().getTitle() == null ? "" : Jsoup.parse(entry.getContent().getTitle()).text().toLowerCase());
+			values.put("author", entry.getContent().getAuthor() == null ? "" : entry.getContent().getAuthor().toLowerCase());
+			values.put("content",
+					entry.getContent().getContent() == null ? "" : Jsoup.parse(entry.getContent().getContent()).text().toLowerCase());
+			values.put("url", entry.getUrl() == null ? "" : entry.getUrl().toLowerCase());
+			values.put("categories", entry.getContent().getCategories() == null ? "" : entry.getContent().getCategories().toLowerCase());
+			values.put("year", Year.now().getValue());
+		}
+	}
+
+	/**
+	 * a context per evaluation, scripts may assign variables and must not see the assignments of other scripts
+	 */
+	private static class FilterContext extends MapContext {
+		private final long deadline;
+
+		FilterContext(EntryVariables variables, long deadline) {
+			super(new HashMap<>(variables.values));
+			this.deadline = deadline;
+		}
+
+		boolean isExpired() {
+			return System.nanoTime() > deadline;
+		}
+	}
+
 	@SuppressWarnings("serial")
 	public static class FeedEntryFilterException extends Exception {
 		public FeedEntryFilterException(String message, Throwable t) {
 			super(message, t);
 		}
 	}
+
+	/**
+	 * the evaluation of the filter took too long, the filter is quarantined and this was already logged
+	 */
+	@SuppressWarnings("serial")
+	public static class FeedEntryFilterTimeoutException extends FeedEntryFilterException {
+		public FeedEntryFilterTimeoutException(String message, Throwable t) {
+			super(message, t);
+		}
+	}
 }
@@ -1,22 +1,38 @@
 package com.commafeed.backend.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
+
+import com.commafeed.CommaFeedConfiguration;
 import com.commafeed.backend.Digests;
 import com.commafeed.backend.cache.CacheService;
 import com.commafeed.backend.dao.FeedEntryDAO;
 import com.commafeed.backend.dao.FeedEntryStatusDAO;
 import com.commafeed.backend.dao.FeedSubscriptionDAO;
+import com.commafeed.backend.dao.TimelineEntryDAO;
 import com.commafeed.backend.feed.FeedEntryKeyword;
 import com.commafeed.backend.feed.FeedUtils;
 import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
 import com.commafeed.backend.model.Feed;
 import com.commafeed.backend.model.FeedEntry;
+import com.commafeed.backend.model.FeedEntryContent;
 import com.commafeed.backend.model.FeedEntryStatus;
 import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.TimelineEntry;
 import com.commafeed.backend.model.User;
+import com.commafeed.backend.service.FeedEntryFilteringService.EntryVariables;
 import com.commafeed.backend.service.FeedEntryFilteringService.FeedEntryFilterException;
+import com.commafeed.backend.service.FeedEntryFilteringService.FeedEntryFilterTimeoutException;
+import com.google.common.base.Suppliers;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -31,33 +47,91 @@ public class FeedEntryService {
 	private final FeedSubscriptionDAO feedSubscriptionDAO;
 	private final FeedEntryDAO feedEntryDAO;
 	private final FeedEntryStatusDAO feedEntryStatusDAO;
+	private final TimelineEntryDAO timelineEntryDAO;
 	private final FeedEntryContentService feedEntryContentService;
 	private final FeedEntryFilteringService feedEntryFilteringService;
 	private final CacheService cache;
+	private final CommaFeedConfiguration config;
 
-	public FeedEntry find(Feed feed, Entry entry) {
-		String guidHash = Digests.sha1Hex(entry.guid());
-		return feedEntryDAO.findExisting(guidHash, feed);
+	/**
+	 * inserts the entries that do not exist yet for this feed. Existing entries are looked up with a single query and new entries are
+	 * persisted together so that the inserts can be batched when the session is flushed.
+	 *
+	 * @return the inserted entries
+	 */
+	public List<FeedEntry> createMissing(Feed feed, List<Entry> entries) {
+		Map<String, Entry> entriesByGuidHash = new LinkedHashMap<>();
+		for (Entry entry : entries) {
+			entriesByGuidHash.putIfAbsent(Digests.sha1Hex(entry.guid()), entry);
+		}
+		if (entriesByGuidHash.isEmpty()) {
+			return List.of();
+		}
+
+		Set<String> existingGuidHashes = new HashSet<>(feedEntryDAO.findExistingGuidHashes(feed, entriesByGuidHash.keySet()));
+		entriesByGuidHash.keySet().removeAll(existingGuidHashes);
+		if (entriesByGuidHash.isEmpty()) {
+			return List.of();
+		}
+
+		List<Entry> newEntries = new ArrayList<>(entriesByGuidHash.values());
+		List<FeedEntryContent> contents = feedEntryContentService.findOrCreate(newEntries.stream().map(Entry::content).toList(),
+				feed.getLink());
+
+		Instant now = Instant.now();
+		List<FeedEntry> feedEntries = new ArrayList<>();
+		int i = 0;
+		for (Map.Entry<String, Entry> e : entriesByGuidHash.entrySet()) {
+			Entry entry = e.getValue();
+
+			FeedEntry feedEntry = new FeedEntry();
+			feedEntry.setGuid(FeedUtils.truncate(entry.guid(), 2048));
+			feedEntry.setGuidHash(e.getKey());
+			feedEntry.setUrl(FeedUtils.truncate(entry.url(), 2048));
+			feedEntry.setPublished(entry.published());
+			feedEntry.setInserted(now);
+			feedEntry.setFeed(feed);
+			feedEntry.setContent(contents.get(i++));
+			feedEntries.add(feedEntry);
+		}
+
+		feedEntryDAO.saveOrUpdate(feedEntries);
+		return feedEntries;
 	}
 
-	public FeedEntry create(Feed feed, Entry entry) {
-		FeedEntry feedEntry = new FeedEntry();
-		feedEntry.setGuid(FeedUtils.truncate(entry.guid(), 2048));
-		feedEntry.setGuidHash(Digests.sha1Hex(entry.guid()));
-		feedEntry.setUrl(FeedUtils.truncate(entry.url(), 2048));
-		feedEntry.setPublished(entry.published());
-		feedEntry.setInserted(Instant.now());
-		feedEntry.setFeed(feed);
-		feedEntry.setContent(feedEntryContentService.findOrCreate(entry.content(), feed.getLink()));
-
-		feedEntryDAO.saveOrUpdate(feedEntry);
-		return feedEntry;
+	/**
+	 * applies the filters of the subscriptions to the entry, the entry is marked as read for the subscriptions whose filter does not match
+	 * 
+	 * @return the subscriptions for which the entry is unread
+	 */
+	public List<FeedSubscription> applyFilters(List<FeedSubscription> subs, FeedEntry entry) {
+		// the variables are only computed if at least one subscription has a filter, and only once
+		Supplier<EntryVariables> variables = Suppliers.memoize(() -> new EntryVariables(entry));
+
+		List<FeedSubscription> unread = new ArrayList<>();
+		for (FeedSubscription sub : subs) {
+			if (applyFilter(sub, entry, variables)) {
+				unread.add(sub);
+			}
+		}
+		return unread;
 	}
 
-	public boolean applyFilter(FeedSubscription sub, FeedEntry entry) {
+	private boolean applyFilter(FeedSubscription sub, FeedEntry entry, Supplier<EntryVariables> variables) {
+		if (StringUtils.isBlank(sub.getFilter())) {
+			return true;
+		}
+
+		if (feedEntryFilteringService.isQuarantined(sub.getFilter())) {
+			// the filter recently timed out, this was logged once when it was quarantined
+			return true;
+		}
+
 		boolean matches = true;
 		try {
-			matches = feedEntryFilteringService.filterMatchesEntry(sub.getFilter(), entry);
+			matches = feedEntryFilteringService.filterMatchesEntry(sub.getFilter(), variables.get());
+		} catch (FeedEntryFilterTimeoutException e) {
+			// logged by the filtering service when the filter was quarantined
 		} catch (FeedEntryFilterException e) {
 			log.error("could not evaluate filter {}", sub.getFilter(), e);
 		}
@@ -71,6 +145,47 @@ public class FeedEntryService {
 		return matches;
 	}
 
+	/**
+	 * adds freshly inserted entries to the timelines of the subscribers, if the timeline is enabled
+	 */
+	public void addToTimelines(List<FeedSubscription> subscriptions, List<FeedEntry> entries) {
+		if (!config.getApplicationSettings().getTimelineEnabled()) {
+			return;
+		}
+
+		List<TimelineEntry> timelineEntries = new ArrayList<>();
+		for (FeedSubscription sub : subscriptions) {
+			for (FeedEntry entry : entries) {
+				timelineEntries.add(new TimelineEntry(sub, entry));
+			}
+		}
+		timelineEntryDAO.saveInBatches(timelineEntries);
+	}
+
+	/**
+	 * adds freshly inserted unread entries to the unread counter of the subscription
+	 */
+	public void addToUnreadCount(FeedSubscription sub, List<FeedEntry> unreadEntries) {
+		Instant unreadThreshold = config.getApplicationSettings().getUnreadThreshold();
+		List<Instant> dates = unreadEntries.stream()
+				.filter(e -> isCountedAsUnread(e, unreadThreshold))
+				.map(FeedEntry::getPublished)
+				.toList();
+		if (dates.isEmpty()) {
+			return;
+		}
+
+		feedSubscriptionDAO.incrementUnreadCount(sub, dates.size(), dates.stream().max(Instant::compareTo).get(),
+				dates.stream().min(Instant::compareTo).get());
+	}
+
+	/**
+	 * entries published before the unread threshold are considered read and are not part of the unread counters
+	 */
+	private boolean isCountedAsUnread(FeedEntry entry, Instant unreadThreshold) {
+		return unreadThreshold == null || !entry.getPublished().isBefore(unreadThreshold);
+	}
+
 	public void markEntry(User user, Long entryId, boolean read) {
 		FeedEntry entry = feedEntryDAO.findById(entryId);
 		if (entry == null) {
@@ -84,8 +199,16 @@ public class FeedEntryService {
 
 		FeedEntryStatus status = feedEntryStatusDAO.getStatus(user, sub, entry);
 		if (status.isMarkable()) {
+			boolean wasRead = status.isRead();
 			status.setRead(read);
 			feedEntryStatusDAO.saveOrUpdate(status);
+			if (wasRead != read) {
+				if (!read) {
+					addToUnreadCount(sub, List.of(entry));
+				} else if (isCountedAsUnread(entry, config.getApplicationSettings().getUnreadThreshold())) {
+					feedSubscriptionDAO.decrementUnreadCount(sub, 1);
+				}
+			}
 			cache.invalidateUnreadCount(sub);
 			cache.invalidateUserRootCategory(user);
 		}
@@ -111,18 +234,27 @@ public class FeedEntryService {
 	public void markSubscriptionEntries(User user, List<FeedSubscription> subscriptions, Instant olderThan, Instant insertedBefore,
 			List<FeedEntryKeyword> keywords) {
 		List<FeedEntryStatus> statuses = feedEntryStatusDAO.findBySubscriptions(user, subscriptions, true, keywords, null, -1, -1, null,
-				false, null, null, null);
+				false, null, null, null, null);
 		markList(statuses, olderThan, insertedBefore);
 		cache.invalidateUnreadCount(subscriptions.toArray(new FeedSubscription[0]));
 		cache.invalidateUserRootCategory(user);
 	}
 
 	public void markStarredEntries(User user, Instant olderThan, Instant insertedBefore) {
-		List<FeedEntryStatus> statuses = feedEntryStatusDAO.findStarred(user, null, -1, -1, null, false);
-		markList(statuses, olderThan, insertedBefore);
+		List<FeedEntryStatus> statuses = feedEntryStatusDAO.findStarred(user, null, -1, -1, null, false, null);
+		List<FeedSubscription> marked = markList(statuses, olderThan, insertedBefore);
+		if (!marked.isEmpty()) {
+			cache.invalidateUnreadCount(marked.toArray(new FeedSubscription[0]));
+			cache.invalidateUserRootCategory(user);
+		}
 	}
 
-	private void markList(List<FeedEntryStatus> statuses, Instant olderThan, Instant insertedBefore) {
+	/**
+	 * marks the statuses as read and updates the unread counters of their subscriptions
+	 *
+	 * @return the subscriptions that had unread entries marked as read
+	 */
+	private List<FeedSubscription> markList(List<FeedEntryStatus> statuses, Instant olderThan, Instant insertedBefore) {
 		List<FeedEntryStatus> statusesToMark = statuses.stream().filter(FeedEntryStatus::isMarkable).filter(s -> {
 			Instant entryDate = s.getEntry().getPublished();
 			return olderThan == null || entryDate == null || entryDate.isBefore(olderThan);
@@ -131,7 +263,16 @@ public class FeedEntryService {
 			return insertedBefore == null || insertedDate == null || insertedDate.isBefore(insertedBefore);
 		}).toList();
 
+		List<FeedEntryStatus> unreadToMark = statusesToMark.stream().filter(s -> !s.isRead()).toList();
+		Instant unreadThreshold = config.getApplicationSettings().getUnreadThreshold();
+		Map<FeedSubscription, Long> unreadMarkedCounts = unreadToMark.stream()
+				.filter(s -> isCountedAsUnread(s.getEntry(), unreadThreshold))
+				.collect(Collectors.groupingBy(FeedEntryStatus::getSubscription, Collectors.counting()));
+
 		statusesToMark.forEach(s -> s.setRead(true));
 		feedEntryStatusDAO.saveOrUpdate(statusesToMark);
+
+		unreadMarkedCounts.forEach(feedSubscriptionDAO::decrementUnreadCount);
+		return unreadToMark.stream().map(FeedEntryStatus::getSubscription).distinct().toList();
 	}
 }
@@ -0,0 +1,290 @@
+package com.commafeed.backend.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.hibernate.exception.ConstraintViolationException;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.Digests;
+import com.commafeed.backend.dao.FeedDAO;
+import com.commafeed.backend.dao.FeedFaviconDAO;
+import com.commafeed.backend.dao.UnitOfWork;
+import com.commafeed.backend.favicon.AbstractFaviconFetcher;
+import com.commafeed.backend.favicon.Favicon;
+import com.commafeed.backend.favicon.FaviconHttpGetter;
+import com.commafeed.backend.feed.FeedUtils;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedFavicon;
+import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.dropwizard.lifecycle.Managed;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves feed favicons from the database. Favicons are shared by all feeds with the same key (usually the root url of their site) and
+ * are fetched in the background so that requests never wait for the (potentially slow) favicon fetchers.
+ * 
+ * Concurrent requests for the same key share a single fetch. Favicons are refreshed by {@link com.commafeed.backend.task.FaviconRefreshTask},
+ * keys for which no favicon could be found are retried with an exponential backoff.
+ */
+@Slf4j
+@Singleton
+public class FeedFaviconService implements Managed {
+
+	private static final Duration REFRESH_INTERVAL = Duration.ofDays(30);
+	private static final Duration MIN_FAILURE_BACKOFF = Duration.ofDays(1);
+	private static final int MAX_QUEUED_FETCHES = 1000;
+
+	/**
+	 * favicons are stored in a blob column, which is limited to 64KB on some databases
+	 */
+	private static final int MAX_ICON_LENGTH = 65535;
+
+	private final FeedFaviconDAO feedFaviconDAO;
+	private final FeedDAO feedDAO;
+	private final UnitOfWork unitOfWork;
+	private final Set<AbstractFaviconFetcher> faviconFetchers;
+	private final StoredFavicon defaultFavicon;
+
+	private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+	private final ThreadPoolExecutor executor;
+	private final Meter fetched;
+	private final Meter notFound;
+
+	@Inject
+	public FeedFaviconService(FeedFaviconDAO feedFaviconDAO, FeedDAO feedDAO, UnitOfWork unitOfWork,
+			Set<AbstractFaviconFetcher> faviconFetchers, MetricRegistry metrics) {
+		this.feedFaviconDAO = feedFaviconDAO;
+		this.feedDAO = feedDAO;
+		this.unitOfWork = unitOfWork;
+		this.faviconFetchers = faviconFetchers;
+
+		try {
+			byte[] icon = Resources.toByteArray(Objects.requireNonNull(getClass().getResource("/images/default_favicon.gif")));
+			defaultFavicon = new StoredFavicon(new Favicon(icon, "image/gif"), Digests.sha1Hex(icon), false);
+		} catch (IOException e) {
+			throw new RuntimeException("could not load default favicon", e);
+		}
+
+		// one thread per connection of the dedicated favicon connection pool
+		this.executor = new ThreadPoolExecutor(FaviconHttpGetter.POOL_SIZE, FaviconHttpGetter.POOL_SIZE, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(MAX_QUEUED_FETCHES), new ThreadFactoryBuilder().setNameFormat("favicon-%d").setDaemon(true).build());
+		this.fetched = metrics.meter(MetricRegistry.name(getClass(), "fetched"));
+		this.notFound = metrics.meter(MetricRegistry.name(getClass(), "notFound"));
+		metrics.register(MetricRegistry.name(getClass(), "inFlight"), (Gauge<Integer>) inFlight::size);
+	}
+
+	/**
+	 * @return the stored favicon of the feed, or the default favicon if there is none yet, in which case it is fetched in the background
+	 */
+	public StoredFavicon getFavicon(Feed feed) {
+		String key = getKey(feed);
+		if (key == null) {
+			return defaultFavicon;
+		}
+
+		String keyHash = Digests.sha1Hex(key);
+		return toStoredFavicon(key, keyHash, feed, feedFaviconDAO.findByKeyHash(keyHash));
+	}
+
+	/**
+	 * @return the stored favicons of the feeds, by feed id
+	 */
+	public Map<Long, StoredFavicon> getFavicons(Collection<Feed> feeds) {
+		Map<Feed, String> keys = new HashMap<>();
+		for (Feed feed : feeds) {
+			String key = getKey(feed);
+			if (key != null) {
+				keys.put(feed, key);
+			}
+		}
+
+		Map<String, FeedFavicon> favicons = new HashMap<>();
+		if (!keys.isEmpty()) {
+			List<String> keyHashes = keys.values().stream().distinct().map(Digests::sha1Hex).toList();
+			feedFaviconDAO.findByKeyHashes(keyHashes).forEach(f -> favicons.put(f.getKeyHash(), f));
+		}
+
+		Map<Long, StoredFavicon> result = new HashMap<>();
+		for (Feed feed : feeds) {
+			String key = keys.get(feed);
+			if (key == null) {
+				result.put(feed.getId(), defaultFavicon);
+			} else {
+				String keyHash = Digests.sha1Hex(key);
+				result.put(feed.getId(), toStoredFavicon(key, keyHash, feed, favicons.get(keyHash)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * fetch the favicons that are due for a refresh. Favicons last fetched for a feed that no longer exists are deleted instead, they
+	 * will be fetched again on demand if other feeds share them.
+	 * 
+	 * @return the number of fetches scheduled
+	 */
+	public int refreshNextBatch(int count) {
+		List<FeedFavicon> favicons = unitOfWork.call(() -> {
+			List<FeedFavicon> refreshable = new ArrayList<>();
+			for (FeedFavicon favicon : feedFaviconDAO.findNextRefreshable(count)) {
+				String normalizedUrl = FeedUtils.normalizeURL(favicon.getFeedUrl());
+				if (feedDAO.findByUrl(normalizedUrl, Digests.sha1Hex(normalizedUrl)) == null) {
+					feedFaviconDAO.delete(favicon);
+				} else {
+					refreshable.add(favicon);
+				}
+			}
+			return refreshable;
+		});
+
+		int scheduled = 0;
+		for (FeedFavicon favicon : favicons) {
+			Feed feed = new Feed();
+			feed.setUrl(favicon.getFeedUrl());
+			feed.setLink(favicon.getFeedLink());
+			if (scheduleFetch(favicon.getKey(), favicon.getKeyHash(), feed) != null) {
+				scheduled++;
+			}
+		}
+		return scheduled;
+	}
+
+	private String getKey(Feed feed) {
+		return faviconFetchers.stream().map(f -> f.getKey(feed)).filter(Objects::nonNull).findFirst().orElse(null);
+	}
+
+	private StoredFavicon toStoredFavicon(String key, String keyHash, Feed feed, FeedFavicon favicon) {
+		if (favicon == null) {
+			scheduleFetch(key, keyHash, feed);
+			return new StoredFavicon(defaultFavicon.favicon(), defaultFavicon.hash(), true);
+		} else if (favicon.getIcon() == null) {
+			return defaultFavicon;
+		} else {
+			return new StoredFavicon(new Favicon(favicon.getIcon(), favicon.getMediaType()), favicon.getHash(), false);
+		}
+	}
+
+	/**
+	 * @return the fetch of the favicon, shared with concurrent callers asking for the same key, or null if too many fetches are pending
+	 */
+	private CompletableFuture<Void> scheduleFetch(String key, String keyHash, Feed feed) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		CompletableFuture<Void> existing = inFlight.putIfAbsent(keyHash, future);
+		if (existing != null) {
+			return existing;
+		}
+
+		try {
+			executor.execute(() -> {
+				try {
+					refresh(key, keyHash, feed);
+					future.complete(null);
+				} catch (Exception e) {
+					log.warn("could not store favicon {}: {}", key, e.getMessage(), e);
+					future.completeExceptionally(e);
+				} finally {
+					inFlight.remove(keyHash, future);
+				}
+			});
+			return future;
+		} catch (RejectedExecutionException e) {
+			// too many favicons to fetch, this one will be fetched later
+			inFlight.remove(keyHash, future);
+			return null;
+		}
+	}
+
+	private void refresh(String key, String keyHash, Feed feed) {
+		Favicon icon = fetch(feed);
+		fetched.mark();
+		if (icon == null) {
+			notFound.mark();
+		}
+
+		try {
+			unitOfWork.run(() -> {
+				FeedFavicon favicon = feedFaviconDAO.findByKeyHash(keyHash);
+				if (favicon == null) {
+					favicon = new FeedFavicon();
+					favicon.setKey(key);
+					favicon.setKeyHash(keyHash);
+				}
+
+				Instant now = Instant.now();
+				favicon.setFeedUrl(feed.getUrl());
+				favicon.setFeedLink(feed.getLink());
+				favicon.setRefreshed(now);
+				if (icon != null) {
+					favicon.setIcon(icon.getIcon());
+					favicon.setMediaType(icon.getMediaType().toString());
+					favicon.setHash(Digests.sha1Hex(icon.getIcon()));
+					favicon.setFailures(0);
+					favicon.setNextRefresh(now.plus(REFRESH_INTERVAL));
+				} else {
+					// keep the previous icon if there was one, and retry later and later
+					favicon.setFailures(favicon.getFailures() + 1);
+					favicon.setNextRefresh(now.plus(failureBackoff(favicon.getFailures())));
+				}
+				feedFaviconDAO.saveOrUpdate(favicon);
+			});
+		} catch (PersistenceException e) {
+			// the violation is wrapped in another PersistenceException when it is raised by the flush of the commit
+			if (ExceptionUtils.indexOfType(e, ConstraintViolationException.class) < 0) {
+				throw e;
+			}
+			log.debug("favicon {} was stored concurrently by another node", key);
+		}
+	}
+
+	static Duration failureBackoff(int failures) {
+		int exponent = Math.min(failures - 1, 5);
+		Duration backoff = MIN_FAILURE_BACKOFF.multipliedBy(1L << exponent);
+		return backoff.compareTo(REFRESH_INTERVAL) > 0 ? REFRESH_INTERVAL : backoff;
+	}
+
+	private Favicon fetch(Feed feed) {
+		for (AbstractFaviconFetcher faviconFetcher : faviconFetchers) {
+			Favicon icon = faviconFetcher.fetch(feed);
+			if (icon != null && icon.getIcon().length <= MAX_ICON_LENGTH) {
+				return icon;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @param pending
+	 *            true if the favicon has not been fetched yet and the default favicon is returned in the meantime
+	 */
+	public record StoredFavicon(Favicon favicon, String hash, boolean pending) {
+	}
+
+}
@@ -1,18 +1,12 @@
 package com.commafeed.backend.service;
 
-import java.io.IOException;
 import java.time.Instant;
-import java.util.Objects;
-import java.util.Set;
 
 import com.commafeed.backend.Digests;
 import com.commafeed.backend.dao.FeedDAO;
-import com.commafeed.backend.favicon.AbstractFaviconFetcher;
-import com.commafeed.backend.favicon.Favicon;
 import com.commafeed.backend.feed.FeedUtils;
 import com.commafeed.backend.model.Feed;
 import com.commafeed.backend.model.Models;
-import com.google.common.io.Resources;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -21,21 +15,10 @@ import jakarta.inject.Singleton;
 public class FeedService {
 
 	private final FeedDAO feedDAO;
-	private final Set<AbstractFaviconFetcher> faviconFetchers;
-
-	private final Favicon defaultFavicon;
 
 	@Inject
-	public FeedService(FeedDAO feedDAO, Set<AbstractFaviconFetcher> faviconFetchers) {
+	public FeedService(FeedDAO feedDAO) {
 		this.feedDAO = feedDAO;
-		this.faviconFetchers = faviconFetchers;
-
-		try {
-			defaultFavicon = new Favicon(
-					Resources.toByteArray(Objects.requireNonNull(getClass().getResource("/images/default_favicon.gif"))), "image/gif");
-		} catch (IOException e) {
-			throw new RuntimeException("could not load default favicon", e);
-		}
 	}
 
 	public synchronized Feed findOrCreate(String url) {
@@ -62,19 +45,4 @@ public class FeedService {
 		feedDAO.saveOrUpdate(feed);
 	}
 
-	public Favicon fetchFavicon(Feed feed) {
-
-		Favicon icon = null;
-		for (AbstractFaviconFetcher faviconFetcher : faviconFetchers) {
-			icon = faviconFetcher.fetch(feed);
-			if (icon != null) {
-				break;
-			}
-		}
-		if (icon == null) {
-			icon = defaultFavicon;
-		}
-		return icon;
-	}
-
 }
@@ -1,9 +1,11 @@
 package com.commafeed.backend.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -11,13 +13,13 @@ import com.commafeed.CommaFeedConfiguration;
 import com.commafeed.backend.cache.CacheService;
 import com.commafeed.backend.dao.FeedDAO;
 import com.commafeed.backend.dao.FeedEntryStatusDAO;
+import com.commafeed.backend.dao.FeedEntryStatusDAO.UnreadCounter;
 import com.commafeed.backend.dao.FeedSubscriptionDAO;
 import com.commafeed.backend.feed.FeedRefreshEngine;
 import com.commafeed.backend.feed.FeedUtils;
 import com.commafeed.backend.model.Feed;
 import com.commafeed.backend.model.FeedCategory;
 import com.commafeed.backend.model.FeedSubscription;
-import com.commafeed.backend.model.Models;
 import com.commafeed.backend.model.User;
 import com.commafeed.frontend.model.UnreadCount;
 
@@ -91,6 +93,9 @@ public class FeedSubscriptionService {
 			sub = new FeedSubscription();
 			sub.setFeed(feed);
 			sub.setUser(user);
+			// not in the timeline yet: a refresh that loaded the subscribers of the feed before this subscription is committed does not add
+			// its entries to the timeline of this subscription. TimelineMaintenanceTask backfills it once it is committed.
+			sub.setTimelineReady(false);
 		}
 		sub.setCategory(category);
 		sub.setPosition(position);
@@ -132,17 +137,84 @@ public class FeedSubscriptionService {
 	}
 
 	public Map<Long, UnreadCount> getUnreadCount(User user) {
-		return feedSubscriptionDAO.findAll(user).stream().collect(Collectors.toMap(FeedSubscription::getId, this::getUnreadCount));
+		return getUnreadCount(feedSubscriptionDAO.findAll(user));
 	}
 
-	private UnreadCount getUnreadCount(FeedSubscription sub) {
-		UnreadCount count = cache.getUnreadCount(sub);
-		if (count == null) {
-			log.debug("unread count cache miss for {}", Models.getId(sub));
-			count = feedEntryStatusDAO.getUnreadCount(sub);
-			cache.setUnreadCount(sub, count);
+	/**
+	 * reads the unread counts of the subscriptions from the cache in bulk. Cache misses are served from the unread counters stored on the
+	 * subscriptions, counters that were never computed or may be stale are recomputed with a single grouped query.
+	 *
+	 * @return unread counts by subscription id
+	 */
+	public Map<Long, UnreadCount> getUnreadCount(List<FeedSubscription> subs) {
+		Map<Long, UnreadCount> counts = new HashMap<>(cache.getUnreadCounts(subs));
+		List<FeedSubscription> misses = subs.stream().filter(sub -> !counts.containsKey(sub.getId())).toList();
+		if (misses.isEmpty()) {
+			return counts;
 		}
-		return count;
+
+		log.debug("unread count cache miss for {} subscriptions", misses.size());
+		Map<Long, UnreadCount> missingCounts = new HashMap<>();
+		List<FeedSubscription> stale = new ArrayList<>();
+		for (FeedSubscription sub : misses) {
+			if (isUnreadCounterValid(sub)) {
+				missingCounts.put(sub.getId(), new UnreadCount(sub.getId(), sub.getUnreadCount(), sub.getNewestUnreadDate()));
+			} else {
+				stale.add(sub);
+			}
+		}
+
+		if (!stale.isEmpty()) {
+			log.debug("computing unread counters of {} subscriptions", stale.size());
+			Map<Long, UnreadCounter> counters = feedEntryStatusDAO.computeUnreadCounters(stale);
+			for (FeedSubscription sub : stale) {
+				UnreadCounter counter = counters.get(sub.getId());
+				feedSubscriptionDAO.setUnreadCount(sub, sub.getUnreadCount(), counter.count(), counter.newestUnreadDate(),
+						counter.oldestUnreadDate());
+				missingCounts.put(sub.getId(), counter.toUnreadCount(sub));
+			}
+		}
+
+		cache.setUnreadCounts(missingCounts.values());
+		counts.putAll(missingCounts);
+		return counts;
+	}
+
+	private boolean isUnreadCounterValid(FeedSubscription sub) {
+		if (sub.getUnreadCount() == null || sub.getUnreadCount() < 0) {
+			return false;
+		}
+
+		// entries published before the unread threshold are considered read, the counter is stale if some of them are counted
+		Instant unreadThreshold = config.getApplicationSettings().getUnreadThreshold();
+		return unreadThreshold == null || sub.getOldestUnreadDate() == null || !sub.getOldestUnreadDate().isBefore(unreadThreshold);
+	}
+
+	/**
+	 * compares the unread counters stored on the subscriptions with the actual number of unread entries and fixes them if needed
+	 * 
+	 * @return the number of counters that were fixed
+	 */
+	public long reconcileUnreadCounts(List<FeedSubscription> subs) {
+		Map<Long, UnreadCounter> counters = feedEntryStatusDAO.computeUnreadCounters(subs);
+		long fixed = 0;
+		for (FeedSubscription sub : subs) {
+			UnreadCounter counter = counters.get(sub.getId());
+			if (sub.getUnreadCount() != null && sub.getUnreadCount() == counter.count()
+					&& Objects.equals(sub.getNewestUnreadDate(), counter.newestUnreadDate())
+					&& Objects.equals(sub.getOldestUnreadDate(), counter.oldestUnreadDate())) {
+				continue;
+			}
+
+			// the counter is not stored if it was modified while we were computing it, it will be reconciled on the next run
+			if (feedSubscriptionDAO.setUnreadCount(sub, sub.getUnreadCount(), counter.count(), counter.newestUnreadDate(),
+					counter.oldestUnreadDate())) {
+				cache.invalidateUnreadCount(sub);
+				cache.invalidateUserRootCategory(sub.getUser());
+				fixed++;
+			}
+		}
+		return fixed;
 	}
 
 	@SuppressWarnings("serial")
@@ -0,0 +1,62 @@
+package com.commafeed.backend.service;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.backend.feed.FeedUtils;
+import com.commafeed.backend.model.FeedEntryContent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Rewrites the images of the contents to go through the image proxy, if the proxy is enabled
+ */
+@Singleton
+public class ImageProxyService {
+
+	private final boolean enabled;
+
+	// contents with their images rewritten, weighted by their length which is about their size in bytes for latin contents
+	private final Cache<Long, String> proxiedContents;
+
+	@Inject
+	public ImageProxyService(CommaFeedConfiguration config, MetricRegistry metrics) {
+		this.enabled = config.getApplicationSettings().getImageProxyEnabled();
+		this.proxiedContents = Caffeine.newBuilder()
+				.maximumWeight(config.getApplicationSettings().getImageProxyCacheSize().toBytes())
+				.<Long, String> weigher((id, content) -> content.length())
+				.recordStats()
+				.build();
+
+		metrics.registerGauge(MetricRegistry.name(getClass(), "cache", "hits"), () -> proxiedContents.stats().hitCount());
+		metrics.registerGauge(MetricRegistry.name(getClass(), "cache", "misses"), () -> proxiedContents.stats().missCount());
+		metrics.registerGauge(MetricRegistry.name(getClass(), "cache", "evictions"), () -> proxiedContents.stats().evictionCount());
+		metrics.registerGauge(MetricRegistry.name(getClass(), "cache", "size"), proxiedContents::estimatedSize);
+		metrics.registerGauge(MetricRegistry.name(getClass(), "cache", "weight"),
+				() -> proxiedContents.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L));
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * same as {@link FeedUtils#proxyImages(String)}, the result is cached for persisted contents as they never change
+	 */
+	public String proxyImages(FeedEntryContent content) {
+		if (content.getId() == null) {
+			return FeedUtils.proxyImages(content.getContent());
+		}
+
+		String proxied = proxiedContents.get(content.getId(), id -> StringUtils.defaultString(FeedUtils.proxyImages(content.getContent())));
+		return StringUtils.isEmpty(proxied) ? content.getContent() : proxied;
+	}
+
+	public String proxyImage(String url) {
+		return FeedUtils.proxyImage(url);
+	}
+}
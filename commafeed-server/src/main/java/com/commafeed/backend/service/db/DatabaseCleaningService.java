@@ -11,6 +11,7 @@ import com.commafeed.backend.dao.FeedEntryContentDAO;
 import com.commafeed.backend.dao.FeedEntryDAO;
 import com.commafeed.backend.dao.FeedEntryDAO.FeedCapacity;
 import com.commafeed.backend.dao.FeedEntryStatusDAO;
+import com.commafeed.backend.dao.FeedSubscriptionDAO;
 import com.commafeed.backend.dao.UnitOfWork;
 import com.commafeed.backend.model.Feed;
 
@@ -33,16 +34,19 @@ public class DatabaseCleaningService {
 	private final FeedEntryDAO feedEntryDAO;
 	private final FeedEntryContentDAO feedEntryContentDAO;
 	private final FeedEntryStatusDAO feedEntryStatusDAO;
+	private final FeedSubscriptionDAO feedSubscriptionDAO;
 	private final Meter entriesDeletedMeter;
 
 	@Inject
 	public DatabaseCleaningService(CommaFeedConfiguration config, UnitOfWork unitOfWork, FeedDAO feedDAO, FeedEntryDAO feedEntryDAO,
-			FeedEntryContentDAO feedEntryContentDAO, FeedEntryStatusDAO feedEntryStatusDAO, MetricRegistry metrics) {
+			FeedEntryContentDAO feedEntryContentDAO, FeedEntryStatusDAO feedEntryStatusDAO, FeedSubscriptionDAO feedSubscriptionDAO,
+			MetricRegistry metrics) {
 		this.unitOfWork = unitOfWork;
 		this.feedDAO = feedDAO;
 		this.feedEntryDAO = feedEntryDAO;
 		this.feedEntryContentDAO = feedEntryContentDAO;
 		this.feedEntryStatusDAO = feedEntryStatusDAO;
+		this.feedSubscriptionDAO = feedSubscriptionDAO;
 		this.batchSize = config.getApplicationSettings().getDatabaseCleanupBatchSize();
 		this.entriesDeletedMeter = metrics.meter(MetricRegistry.name(getClass(), "entriesDeleted"));
 	}
@@ -101,6 +105,9 @@ public class DatabaseCleaningService {
 					remaining -= deleted;
 					log.info("removed {} entries for feeds exceeding capacity", total);
 				} while (remaining > 0);
+
+				// unread counters of the subscriptions will be recomputed on next read
+				unitOfWork.run(() -> feedSubscriptionDAO.invalidateUnreadCounts(feed.getId()));
 			}
 		}
 		log.info("cleanup done: {} entries for feeds exceeding capacity deleted", total);
@@ -116,6 +123,10 @@ public class DatabaseCleaningService {
 			total += deleted;
 			log.info("removed {} old entries", total);
 		} while (deleted != 0);
+
+		// unread counters that may include deleted entries will be recomputed on next read
+		long invalidated = unitOfWork.call(() -> feedSubscriptionDAO.invalidateUnreadCountsWithUnreadEntriesOlderThan(olderThan));
+		log.info("invalidated {} unread counters", invalidated);
 		log.info("cleanup done: {} old entries deleted", total);
 	}
 
@@ -1,5 +1,6 @@
 package com.commafeed.backend.service.db;
 
+import java.sql.Connection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -56,35 +57,40 @@ public class DatabaseStartupService implements Managed {
 		log.info("checking if database schema needs updating");
 
 		try (Session session = sessionFactory.openSession()) {
-			session.doWork(connection -> {
-				try {
-					JdbcConnection jdbcConnection = new JdbcConnection(connection);
-					Database database = getDatabase(jdbcConnection);
-
-					Map<String, Object> scopeObjects = new HashMap<>();
-					scopeObjects.put(Scope.Attr.database.name(), database);
-					scopeObjects.put(Scope.Attr.resourceAccessor.name(),
-							new ClassLoaderResourceAccessor(Thread.currentThread().getContextClassLoader()));
-
-					Scope.child(scopeObjects, () -> {
-						CommandScope command = new CommandScope(UpdateCommandStep.COMMAND_NAME);
-						command.addArgumentValue(DbUrlConnectionArgumentsCommandStep.DATABASE_ARG, database);
-						command.addArgumentValue(UpdateCommandStep.CHANGELOG_FILE_ARG, "migrations.xml");
-						command.addArgumentValue(DatabaseChangelogCommandStep.CHANGELOG_PARAMETERS, new ChangeLogParameters(database));
-						command.addArgumentValue(ShowSummaryArgument.SHOW_SUMMARY, UpdateSummaryEnum.OFF);
-						command.execute();
-					});
-
-				} catch (Exception e) {
-					throw new RuntimeException(e);
-				}
-			});
+			session.doWork(DatabaseStartupService::updateSchema);
 		}
 
 		log.info("database schema is up to date");
 	}
 
-	private Database getDatabase(JdbcConnection connection) throws DatabaseException {
+	/**
+	 * apply the liquibase changelog to the database of the given connection
+	 */
+	public static void updateSchema(Connection connection) {
+		try {
+			JdbcConnection jdbcConnection = new JdbcConnection(connection);
+			Database database = getDatabase(jdbcConnection);
+
+			Map<String, Object> scopeObjects = new HashMap<>();
+			scopeObjects.put(Scope.Attr.database.name(), database);
+			scopeObjects.put(Scope.Attr.resourceAccessor.name(),
+					new ClassLoaderResourceAccessor(Thread.currentThread().getContextClassLoader()));
+
+			Scope.child(scopeObjects, () -> {
+				CommandScope command = new CommandScope(UpdateCommandStep.COMMAND_NAME);
+				command.addArgumentValue(DbUrlConnectionArgumentsCommandStep.DATABASE_ARG, database);
+				command.addArgumentValue(UpdateCommandStep.CHANGELOG_FILE_ARG, "migrations.xml");
+				command.addArgumentValue(DatabaseChangelogCommandStep.CHANGELOG_PARAMETERS, new ChangeLogParameters(database));
+				command.addArgumentValue(ShowSummaryArgument.SHOW_SUMMARY, UpdateSummaryEnum.OFF);
+				command.execute();
+			});
+
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static Database getDatabase(JdbcConnection connection) throws DatabaseException {
 		Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(connection);
 		if (database instanceof PostgresDatabase) {
 			database = new PostgresDatabase() {
@@ -0,0 +1,73 @@
+package com.commafeed.backend.task;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.commafeed.backend.dao.FeedEntryContentDAO;
+import com.commafeed.backend.dao.UnitOfWork;
+import com.commafeed.backend.feed.FeedUtils;
+import com.commafeed.backend.model.FeedEntryContent;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Computes the text direction of the contents stored before it was computed at ingestion, so that it is not computed on every listing
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({ @Inject }))
+@Singleton
+public class ContentDirectionTask extends ScheduledTask {
+
+	private static final int BATCH_SIZE = 100;
+
+	private final UnitOfWork unitOfWork;
+	private final FeedEntryContentDAO feedEntryContentDAO;
+
+	// new contents are stored with their direction, there is nothing left to do once all the older contents have been reached
+	private boolean done;
+
+	@Override
+	public void run() {
+		if (done) {
+			return;
+		}
+
+		long total = 0;
+		long lastId = 0;
+		List<FeedEntryContent> contents;
+		do {
+			long afterId = lastId;
+			contents = unitOfWork.call(() -> {
+				List<FeedEntryContent> batch = feedEntryContentDAO.findWithoutDirection(afterId, BATCH_SIZE);
+				batch.forEach(c -> c.setRtl(FeedUtils.isRTL(c)));
+				return batch;
+			});
+			total += contents.size();
+			lastId = contents.isEmpty() ? lastId : contents.get(contents.size() - 1).getId();
+		} while (!contents.isEmpty());
+		done = true;
+
+		if (total > 0) {
+			log.info("computed the direction of {} contents", total);
+		}
+	}
+
+	@Override
+	public long getInitialDelay() {
+		return 2;
+	}
+
+	@Override
+	public long getPeriod() {
+		return 5;
+	}
+
+	@Override
+	public TimeUnit getTimeUnit() {
+		return TimeUnit.MINUTES;
+	}
+
+}
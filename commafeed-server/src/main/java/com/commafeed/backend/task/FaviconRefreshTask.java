@@ -0,0 +1,47 @@
+package com.commafeed.backend.task;
+
+import java.util.concurrent.TimeUnit;
+
+import com.commafeed.backend.service.FeedFaviconService;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches again the favicons that are stale or that could not be found last time
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({ @Inject }))
+@Singleton
+public class FaviconRefreshTask extends ScheduledTask {
+
+	private static final int BATCH_SIZE = 100;
+
+	private final FeedFaviconService feedFaviconService;
+
+	@Override
+	public void run() {
+		int scheduled = feedFaviconService.refreshNextBatch(BATCH_SIZE);
+		if (scheduled > 0) {
+			log.debug("refreshing {} favicons", scheduled);
+		}
+	}
+
+	@Override
+	public long getInitialDelay() {
+		return 5;
+	}
+
+	@Override
+	public long getPeriod() {
+		return 15;
+	}
+
+	@Override
+	public TimeUnit getTimeUnit() {
+		return TimeUnit.MINUTES;
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.commafeed.backend.task;
+
+import java.util.concurrent.TimeUnit;
+
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.backend.dao.FeedEntryContentTermDAO;
+import com.commafeed.backend.dao.UnitOfWork;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adds the contents that are not in the search index yet to the index, e.g. contents stored before the index was enabled
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({ @Inject }))
+@Singleton
+public class SearchIndexTask extends ScheduledTask {
+
+	private static final int BATCH_SIZE = 100;
+
+	private final UnitOfWork unitOfWork;
+	private final FeedEntryContentTermDAO feedEntryContentTermDAO;
+	private final CommaFeedConfiguration config;
+
+	@Override
+	public void run() {
+		if (!config.getApplicationSettings().getSearchIndexEnabled()) {
+			return;
+		}
+
+		long total = 0;
+		int indexed;
+		do {
+			indexed = unitOfWork.call(() -> feedEntryContentTermDAO.indexNextBatch(BATCH_SIZE));
+			total += indexed;
+		} while (indexed > 0);
+
+		if (total > 0) {
+			log.info("added {} contents to the search index", total);
+		}
+	}
+
+	@Override
+	public long getInitialDelay() {
+		return 1;
+	}
+
+	@Override
+	public long getPeriod() {
+		return 5;
+	}
+
+	@Override
+	public TimeUnit getTimeUnit() {
+		return TimeUnit.MINUTES;
+	}
+
+}
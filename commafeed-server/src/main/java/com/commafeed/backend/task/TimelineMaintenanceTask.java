@@ -0,0 +1,96 @@
+package com.commafeed.backend.task;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.backend.dao.FeedSubscriptionDAO;
+import com.commafeed.backend.dao.TimelineEntryDAO;
+import com.commafeed.backend.dao.UnitOfWork;
+import com.commafeed.backend.model.FeedSubscription;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Backfills the timeline of the subscriptions that are not in it yet when the timeline is enabled, empties the timeline when it is disabled
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({ @Inject }))
+@Singleton
+public class TimelineMaintenanceTask extends ScheduledTask {
+
+	private static final int SUBSCRIPTION_BATCH_SIZE = 10;
+	private static final int ENTRY_BATCH_SIZE = 500;
+
+	private final UnitOfWork unitOfWork;
+	private final FeedSubscriptionDAO feedSubscriptionDAO;
+	private final TimelineEntryDAO timelineEntryDAO;
+	private final CommaFeedConfiguration config;
+
+	@Override
+	public void run() {
+		if (config.getApplicationSettings().getTimelineEnabled()) {
+			backfill();
+		} else {
+			clear();
+		}
+	}
+
+	private void backfill() {
+		long subscriptions = 0;
+		long entries = 0;
+		while (true) {
+			List<FeedSubscription> subs = unitOfWork.call(() -> feedSubscriptionDAO.findWithoutTimeline(SUBSCRIPTION_BATCH_SIZE));
+			if (subs.isEmpty()) {
+				break;
+			}
+
+			// one transaction per subscription, entries inserted by feed refreshes in the meantime are skipped by the backfill query
+			for (FeedSubscription sub : subs) {
+				entries += unitOfWork.call(() -> {
+					long added = timelineEntryDAO.backfill(sub, ENTRY_BATCH_SIZE);
+					feedSubscriptionDAO.setTimelineReady(sub);
+					return added;
+				});
+			}
+			subscriptions += subs.size();
+		}
+
+		if (subscriptions > 0) {
+			log.info("added {} subscriptions and {} entries to the timeline", subscriptions, entries);
+		}
+	}
+
+	private void clear() {
+		long reset = unitOfWork.call(feedSubscriptionDAO::resetTimelineReady);
+		long deleted = 0;
+		long batch;
+		do {
+			batch = unitOfWork.call(() -> timelineEntryDAO.delete(ENTRY_BATCH_SIZE));
+			deleted += batch;
+		} while (batch > 0);
+
+		if (reset > 0 || deleted > 0) {
+			log.info("timeline disabled, removed {} subscriptions and {} entries from the timeline", reset, deleted);
+		}
+	}
+
+	@Override
+	public long getInitialDelay() {
+		return 1;
+	}
+
+	@Override
+	public long getPeriod() {
+		return 5;
+	}
+
+	@Override
+	public TimeUnit getTimeUnit() {
+		return TimeUnit.MINUTES;
+	}
+
+}
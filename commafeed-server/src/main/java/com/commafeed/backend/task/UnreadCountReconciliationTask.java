@@ -0,0 +1,90 @@
+package com.commafeed.backend.task;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.dao.FeedSubscriptionDAO;
+import com.commafeed.backend.dao.UnitOfWork;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.service.FeedSubscriptionService;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the unread counters stored on the subscriptions with the actual number of unread entries and fixes the counters that drifted
+ */
+@Slf4j
+@Singleton
+public class UnreadCountReconciliationTask extends ScheduledTask {
+
+	private static final int BATCH_SIZE = 100;
+
+	private final UnitOfWork unitOfWork;
+	private final FeedSubscriptionDAO feedSubscriptionDAO;
+	private final FeedSubscriptionService feedSubscriptionService;
+	private final Meter drift;
+
+	@Inject
+	public UnreadCountReconciliationTask(UnitOfWork unitOfWork, FeedSubscriptionDAO feedSubscriptionDAO,
+			FeedSubscriptionService feedSubscriptionService, MetricRegistry metrics) {
+		this.unitOfWork = unitOfWork;
+		this.feedSubscriptionDAO = feedSubscriptionDAO;
+		this.feedSubscriptionService = feedSubscriptionService;
+		this.drift = metrics.meter(MetricRegistry.name(getClass(), "drift"));
+	}
+
+	@Override
+	public void run() {
+		log.info("reconciling unread counters");
+		long total = 0;
+		long fixed = 0;
+		Long lastId = null;
+		while (true) {
+			Batch batch = reconcileNextBatch(lastId);
+			if (batch.size() == 0) {
+				break;
+			}
+
+			total += batch.size();
+			fixed += batch.fixed();
+			lastId = batch.lastId();
+		}
+		log.info("reconciliation done: {} unread counters checked, {} fixed", total, fixed);
+	}
+
+	private Batch reconcileNextBatch(Long afterId) {
+		return unitOfWork.call(() -> {
+			List<FeedSubscription> subs = feedSubscriptionDAO.findNextBatch(afterId, BATCH_SIZE);
+			if (subs.isEmpty()) {
+				return new Batch(0, 0, afterId);
+			}
+
+			long fixed = feedSubscriptionService.reconcileUnreadCounts(subs);
+			drift.mark(fixed);
+			return new Batch(subs.size(), fixed, subs.get(subs.size() - 1).getId());
+		});
+	}
+
+	@Override
+	public long getInitialDelay() {
+		return 1;
+	}
+
+	@Override
+	public long getPeriod() {
+		return 24;
+	}
+
+	@Override
+	public TimeUnit getTimeUnit() {
+		return TimeUnit.HOURS;
+	}
+
+	private record Batch(int size, long fixed, Long lastId) {
+	}
+
+}
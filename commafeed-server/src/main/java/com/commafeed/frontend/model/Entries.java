@@ -37,6 +37,9 @@ public class Entries implements Serializable {
 	@Schema(description = "the requested limit")
 	private int limit;
 
+	@Schema(description = "cursor to request the next page with, only set if the query has more elements")
+	private String nextCursor;
+
 	@Schema(description = "list of entries", requiredMode = RequiredMode.REQUIRED)
 	private List<Entry> entries = new ArrayList<>();
 
@@ -14,6 +14,7 @@ import com.commafeed.backend.model.FeedEntryContent;
 import com.commafeed.backend.model.FeedEntryStatus;
 import com.commafeed.backend.model.FeedEntryTag;
 import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.service.ImageProxyService;
 import com.rometools.rome.feed.synd.SyndContentImpl;
 import com.rometools.rome.feed.synd.SyndEnclosureImpl;
 import com.rometools.rome.feed.synd.SyndEntry;
@@ -103,7 +104,7 @@ public class Entry implements Serializable {
 	@Schema(description = "tags", requiredMode = RequiredMode.REQUIRED)
 	private List<String> tags;
 
-	public static Entry build(FeedEntryStatus status, boolean proxyImages) {
+	public static Entry build(FeedEntryStatus status, ImageProxyService imageProxyService) {
 		Entry entry = new Entry();
 
 		FeedEntry feedEntry = status.getEntry();
@@ -126,18 +127,20 @@ public class Entry implements Serializable {
 		entry.setTags(status.getTags().stream().map(FeedEntryTag::getName).toList());
 
 		if (content != null) {
-			entry.setRtl(FeedUtils.isRTL(feedEntry));
+			// contents stored before the direction was computed at ingestion have no direction until ContentDirectionTask reaches them
+			boolean proxyImages = imageProxyService.isEnabled();
+			entry.setRtl(content.getRtl() == null ? FeedUtils.isRTL(content) : content.getRtl());
 			entry.setTitle(content.getTitle());
-			entry.setContent(proxyImages ? FeedUtils.proxyImages(content.getContent()) : content.getContent());
+			entry.setContent(proxyImages ? imageProxyService.proxyImages(content) : content.getContent());
 			entry.setAuthor(content.getAuthor());
 
 			entry.setEnclosureType(content.getEnclosureType());
 			entry.setEnclosureUrl(proxyImages && StringUtils.contains(content.getEnclosureType(), "image")
-					? FeedUtils.proxyImage(content.getEnclosureUrl())
+					? imageProxyService.proxyImage(content.getEnclosureUrl())
 					: content.getEnclosureUrl());
 
 			entry.setMediaDescription(content.getMediaDescription());
-			entry.setMediaThumbnailUrl(proxyImages ? FeedUtils.proxyImage(content.getMediaThumbnailUrl()) : content.getMediaThumbnailUrl());
+			entry.setMediaThumbnailUrl(proxyImages ? imageProxyService.proxyImage(content.getMediaThumbnailUrl()) : content.getMediaThumbnailUrl());
 			entry.setMediaThumbnailWidth(content.getMediaThumbnailWidth());
 			entry.setMediaThumbnailHeight(content.getMediaThumbnailHeight());
 
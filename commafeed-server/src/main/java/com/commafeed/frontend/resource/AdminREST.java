@@ -13,6 +13,8 @@ import com.commafeed.CommaFeedConfiguration;
 import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
 import com.commafeed.backend.dao.UserDAO;
 import com.commafeed.backend.dao.UserRoleDAO;
+import com.commafeed.backend.feed.FeedFetchStatistics;
+import com.commafeed.backend.feed.FeedFetchStatistics.Snapshot;
 import com.commafeed.backend.model.User;
 import com.commafeed.backend.model.UserRole;
 import com.commafeed.backend.model.UserRole.Role;
@@ -36,11 +38,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
@@ -60,6 +64,7 @@ public class AdminREST {
 	private final PasswordEncryptionService encryptionService;
 	private final CommaFeedConfiguration config;
 	private final MetricRegistry metrics;
+	private final FeedFetchStatistics fetchStatistics;
 
 	@Path("/user/save")
 	@POST
@@ -213,4 +218,31 @@ public class AdminREST {
 		return Response.ok(metrics).build();
 	}
 
+	@Path("/metrics/fetches")
+	@GET
+	@UnitOfWork
+	@Operation(
+			summary = "Retrieve feed fetch statistics",
+			description = "Retrieve the outcomes of feed fetches since startup, globally and per host. Hosts ignoring conditional requests (If-Modified-Since, If-None-Match) come first")
+	@Timed
+	public Response getFetchStatistics(@Parameter(hidden = true) @SecurityCheck(Role.ADMIN) User user,
+			@Parameter(description = "maximum number of hosts to return") @DefaultValue("50") @QueryParam("hosts") int maxHosts) {
+		maxHosts = Math.max(0, maxHosts);
+		return Response.ok(fetchStatistics.getReport(maxHosts)).build();
+	}
+
+	@Path("/metrics/fetches/feed/{id}")
+	@GET
+	@UnitOfWork
+	@Operation(summary = "Retrieve fetch statistics of a feed", description = "Retrieve the outcomes of the fetches of a feed since startup")
+	@Timed
+	public Response getFeedFetchStatistics(@Parameter(hidden = true) @SecurityCheck(Role.ADMIN) User user,
+			@Parameter(description = "id of the feed", required = true) @PathParam("id") Long id) {
+		Snapshot snapshot = fetchStatistics.getFeedStatistics(id);
+		if (snapshot == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		}
+		return Response.ok(snapshot).build();
+	}
+
 }
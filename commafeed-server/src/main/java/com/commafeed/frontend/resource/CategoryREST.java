@@ -19,6 +19,7 @@ import com.commafeed.backend.cache.CacheService;
 import com.commafeed.backend.dao.FeedCategoryDAO;
 import com.commafeed.backend.dao.FeedEntryStatusDAO;
 import com.commafeed.backend.dao.FeedSubscriptionDAO;
+import com.commafeed.backend.feed.FeedEntryCursor;
 import com.commafeed.backend.feed.FeedEntryKeyword;
 import com.commafeed.backend.feed.FeedUtils;
 import com.commafeed.backend.model.FeedCategory;
@@ -29,6 +30,7 @@ import com.commafeed.backend.model.UserSettings.ReadingMode;
 import com.commafeed.backend.model.UserSettings.ReadingOrder;
 import com.commafeed.backend.service.FeedEntryService;
 import com.commafeed.backend.service.FeedSubscriptionService;
+import com.commafeed.backend.service.ImageProxyService;
 import com.commafeed.frontend.auth.SecurityCheck;
 import com.commafeed.frontend.model.Category;
 import com.commafeed.frontend.model.Entries;
@@ -87,6 +89,7 @@ public class CategoryREST {
 	private final FeedSubscriptionDAO feedSubscriptionDAO;
 	private final FeedEntryService feedEntryService;
 	private final FeedSubscriptionService feedSubscriptionService;
+	private final ImageProxyService imageProxyService;
 	private final CacheService cache;
 	private final CommaFeedConfiguration config;
 
@@ -111,7 +114,9 @@ public class CategoryREST {
 					description = "search for keywords in either the title or the content of the entries, separated by spaces, 3 characters minimum") @QueryParam("keywords") String keywords,
 			@Parameter(
 					description = "comma-separated list of excluded subscription ids") @QueryParam("excludedSubscriptionIds") String excludedSubscriptionIds,
-			@Parameter(description = "keep only entries tagged with this tag") @QueryParam("tag") String tag) {
+			@Parameter(description = "keep only entries tagged with this tag") @QueryParam("tag") String tag,
+			@Parameter(
+					description = "cursor returned with the previous page, replaces offset and stays fast regardless of how deep the page is") @QueryParam("cursor") String cursor) {
 
 		Preconditions.checkNotNull(readType);
 
@@ -119,6 +124,16 @@ public class CategoryREST {
 		Preconditions.checkArgument(keywords == null || StringUtils.length(keywords) >= 3);
 		List<FeedEntryKeyword> entryKeywords = FeedEntryKeyword.fromQueryString(keywords);
 
+		FeedEntryCursor after;
+		try {
+			after = FeedEntryCursor.fromQueryString(cursor);
+		} catch (IllegalArgumentException e) {
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+		}
+		if (after != null) {
+			offset = -1;
+		}
+
 		limit = Math.min(limit, 1000);
 		limit = Math.max(0, limit);
 
@@ -141,18 +156,24 @@ public class CategoryREST {
 			entries.setName(Optional.ofNullable(tag).orElse("All"));
 			List<FeedSubscription> subs = feedSubscriptionDAO.findAll(user);
 			removeExcludedSubscriptions(subs, excludedIds);
-			List<FeedEntryStatus> list = feedEntryStatusDAO.findBySubscriptions(user, subs, unreadOnly, entryKeywords, newerThanDate,
-					offset, limit + 1, order, true, tag, null, null);
+			List<FeedEntryStatus> list;
+			if (useTimeline(subs, excludedIds)) {
+				list = feedEntryStatusDAO.findTimeline(user, unreadOnly, entryKeywords, newerThanDate, offset, limit + 1, order, true, tag,
+						after);
+			} else {
+				list = feedEntryStatusDAO.findBySubscriptions(user, subs, unreadOnly, entryKeywords, newerThanDate, offset, limit + 1, order,
+						true, tag, null, null, after);
+			}
 
 			for (FeedEntryStatus status : list) {
-				entries.getEntries().add(Entry.build(status, config.getApplicationSettings().getImageProxyEnabled()));
+				entries.getEntries().add(Entry.build(status, imageProxyService));
 			}
 
 		} else if (STARRED.equals(id)) {
 			entries.setName("Starred");
-			List<FeedEntryStatus> starred = feedEntryStatusDAO.findStarred(user, newerThanDate, offset, limit + 1, order, true);
+			List<FeedEntryStatus> starred = feedEntryStatusDAO.findStarred(user, newerThanDate, offset, limit + 1, order, true, after);
 			for (FeedEntryStatus status : starred) {
-				entries.getEntries().add(Entry.build(status, config.getApplicationSettings().getImageProxyEnabled()));
+				entries.getEntries().add(Entry.build(status, imageProxyService));
 			}
 		} else {
 			FeedCategory parent = feedCategoryDAO.findById(user, Long.valueOf(id));
@@ -161,10 +182,10 @@ public class CategoryREST {
 				List<FeedSubscription> subs = feedSubscriptionDAO.findByCategories(user, categories);
 				removeExcludedSubscriptions(subs, excludedIds);
 				List<FeedEntryStatus> list = feedEntryStatusDAO.findBySubscriptions(user, subs, unreadOnly, entryKeywords, newerThanDate,
-						offset, limit + 1, order, true, tag, null, null);
+						offset, limit + 1, order, true, tag, null, null, after);
 
 				for (FeedEntryStatus status : list) {
-					entries.getEntries().add(Entry.build(status, config.getApplicationSettings().getImageProxyEnabled()));
+					entries.getEntries().add(Entry.build(status, imageProxyService));
 				}
 				entries.setName(parent.getName());
 			} else {
@@ -176,6 +197,7 @@ public class CategoryREST {
 		if (hasMore) {
 			entries.setHasMore(true);
 			entries.getEntries().remove(entries.getEntries().size() - 1);
+			entries.setNextCursor(FeedEntryCursor.after(entries.getEntries()));
 		}
 
 		entries.setTimestamp(System.currentTimeMillis());
@@ -205,7 +227,8 @@ public class CategoryREST {
 					description = "comma-separated list of excluded subscription ids") @QueryParam("excludedSubscriptionIds") String excludedSubscriptionIds,
 			@Parameter(description = "keep only entries tagged with this tag") @QueryParam("tag") String tag) {
 
-		Response response = getCategoryEntries(user, id, readType, newerThan, offset, limit, order, keywords, excludedSubscriptionIds, tag);
+		Response response = getCategoryEntries(user, id, readType, newerThan, offset, limit, order, keywords, excludedSubscriptionIds, tag,
+				null);
 		if (response.getStatus() != Status.OK.getStatusCode()) {
 			return response;
 		}
@@ -260,6 +283,15 @@ public class CategoryREST {
 		return Response.ok().build();
 	}
 
+	/**
+	 * the timeline contains the entries of all subscriptions of the user, it can only be used when none are excluded and all of them have
+	 * been added to the timeline
+	 */
+	private boolean useTimeline(List<FeedSubscription> subs, List<Long> excludedIds) {
+		return config.getApplicationSettings().getTimelineEnabled() && CollectionUtils.isEmpty(excludedIds)
+				&& subs.stream().allMatch(FeedSubscription::isTimelineReady);
+	}
+
 	private void removeExcludedSubscriptions(List<FeedSubscription> subs, List<Long> excludedIds) {
 		if (CollectionUtils.isNotEmpty(excludedIds)) {
 			subs.removeIf(sub -> excludedIds.contains(sub.getId()));
@@ -5,9 +5,7 @@ import java.io.StringWriter;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Calendar;
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
@@ -22,7 +20,7 @@ import com.commafeed.backend.cache.CacheService;
 import com.commafeed.backend.dao.FeedCategoryDAO;
 import com.commafeed.backend.dao.FeedEntryStatusDAO;
 import com.commafeed.backend.dao.FeedSubscriptionDAO;
-import com.commafeed.backend.favicon.Favicon;
+import com.commafeed.backend.feed.FeedEntryCursor;
 import com.commafeed.backend.feed.FeedEntryKeyword;
 import com.commafeed.backend.feed.FeedFetcher;
 import com.commafeed.backend.feed.FeedFetcher.FeedFetcherResult;
@@ -42,8 +40,10 @@ import com.commafeed.backend.opml.OPMLImporter;
 import com.commafeed.backend.service.FeedEntryFilteringService;
 import com.commafeed.backend.service.FeedEntryFilteringService.FeedEntryFilterException;
 import com.commafeed.backend.service.FeedEntryService;
-import com.commafeed.backend.service.FeedService;
+import com.commafeed.backend.service.FeedFaviconService;
+import com.commafeed.backend.service.FeedFaviconService.StoredFavicon;
 import com.commafeed.backend.service.FeedSubscriptionService;
+import com.commafeed.backend.service.ImageProxyService;
 import com.commafeed.frontend.auth.SecurityCheck;
 import com.commafeed.frontend.model.Entries;
 import com.commafeed.frontend.model.Entry;
@@ -83,7 +83,10 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.ResponseBuilder;
 import jakarta.ws.rs.core.Response.Status;
@@ -105,11 +108,12 @@ public class FeedREST {
 	private final FeedCategoryDAO feedCategoryDAO;
 	private final FeedEntryStatusDAO feedEntryStatusDAO;
 	private final FeedFetcher feedFetcher;
-	private final FeedService feedService;
+	private final FeedFaviconService feedFaviconService;
 	private final FeedEntryService feedEntryService;
 	private final FeedSubscriptionService feedSubscriptionService;
 	private final FeedEntryFilteringService feedEntryFilteringService;
 	private final FeedRefreshEngine feedRefreshEngine;
+	private final ImageProxyService imageProxyService;
 	private final OPMLImporter opmlImporter;
 	private final OPMLExporter opmlExporter;
 	private final CacheService cache;
@@ -144,7 +148,9 @@ public class FeedREST {
 			@Parameter(description = "offset for paging") @DefaultValue("0") @QueryParam("offset") int offset,
 			@Parameter(description = "limit for paging, default 20, maximum 1000") @DefaultValue("20") @QueryParam("limit") int limit,
 			@Parameter(description = "ordering") @QueryParam("order") @DefaultValue("desc") ReadingOrder order, @Parameter(
-					description = "search for keywords in either the title or the content of the entries, separated by spaces, 3 characters minimum") @QueryParam("keywords") String keywords) {
+					description = "search for keywords in either the title or the content of the entries, separated by spaces, 3 characters minimum") @QueryParam("keywords") String keywords,
+			@Parameter(
+					description = "cursor returned with the previous page, replaces offset and stays fast regardless of how deep the page is") @QueryParam("cursor") String cursor) {
 
 		Preconditions.checkNotNull(id);
 		Preconditions.checkNotNull(readType);
@@ -153,6 +159,16 @@ public class FeedREST {
 		Preconditions.checkArgument(keywords == null || StringUtils.length(keywords) >= 3);
 		List<FeedEntryKeyword> entryKeywords = FeedEntryKeyword.fromQueryString(keywords);
 
+		FeedEntryCursor after;
+		try {
+			after = FeedEntryCursor.fromQueryString(cursor);
+		} catch (IllegalArgumentException e) {
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).build();
+		}
+		if (after != null) {
+			offset = -1;
+		}
+
 		limit = Math.min(limit, 1000);
 		limit = Math.max(0, limit);
 
@@ -172,16 +188,17 @@ public class FeedREST {
 			entries.setFeedLink(subscription.getFeed().getLink());
 
 			List<FeedEntryStatus> list = feedEntryStatusDAO.findBySubscriptions(user, Collections.singletonList(subscription), unreadOnly,
-					entryKeywords, newerThanDate, offset, limit + 1, order, true, null, null, null);
+					entryKeywords, newerThanDate, offset, limit + 1, order, true, null, null, null, after);
 
 			for (FeedEntryStatus status : list) {
-				entries.getEntries().add(Entry.build(status, config.getApplicationSettings().getImageProxyEnabled()));
+				entries.getEntries().add(Entry.build(status, imageProxyService));
 			}
 
 			boolean hasMore = entries.getEntries().size() > limit;
 			if (hasMore) {
 				entries.setHasMore(true);
 				entries.getEntries().remove(entries.getEntries().size() - 1);
+				entries.setNextCursor(FeedEntryCursor.after(entries.getEntries()));
 			}
 		} else {
 			return Response.status(Status.NOT_FOUND).entity("<message>feed not found</message>").build();
@@ -210,7 +227,7 @@ public class FeedREST {
 			@Parameter(description = "date ordering") @QueryParam("order") @DefaultValue("desc") ReadingOrder order, @Parameter(
 					description = "search for keywords in either the title or the content of the entries, separated by spaces, 3 characters minimum") @QueryParam("keywords") String keywords) {
 
-		Response response = getFeedEntries(user, id, readType, newerThan, offset, limit, order, keywords);
+		Response response = getFeedEntries(user, id, readType, newerThan, offset, limit, order, keywords, null);
 		if (response.getStatus() != Status.OK.getStatusCode()) {
 			return response;
 		}
@@ -345,7 +362,7 @@ public class FeedREST {
 		if (sub == null) {
 			return Response.status(Status.NOT_FOUND).build();
 		}
-		UnreadCount unreadCount = feedSubscriptionService.getUnreadCount(user).get(id);
+		UnreadCount unreadCount = feedSubscriptionService.getUnreadCount(List.of(sub)).get(id);
 		return Response.ok(Subscription.build(sub, unreadCount)).build();
 	}
 
@@ -354,7 +371,7 @@ public class FeedREST {
 	@UnitOfWork
 	@Operation(summary = "Fetch a feed's icon", description = "Fetch a feed's icon")
 	@Timed
-	public Response getFeedFavicon(@Parameter(hidden = true) @SecurityCheck User user,
+	public Response getFeedFavicon(@Parameter(hidden = true) @SecurityCheck User user, @Parameter(hidden = true) @Context Request request,
 			@Parameter(description = "subscription id", required = true) @PathParam("id") Long id) {
 
 		Preconditions.checkNotNull(id);
@@ -363,19 +380,20 @@ public class FeedREST {
 			return Response.status(Status.NOT_FOUND).build();
 		}
 
-		Feed feed = subscription.getFeed();
-		Favicon icon = feedService.fetchFavicon(feed);
-		ResponseBuilder builder = Response.ok(icon.getIcon(), icon.getMediaType());
+		StoredFavicon icon = feedFaviconService.getFavicon(subscription.getFeed());
+		EntityTag etag = new EntityTag(icon.hash());
+
+		ResponseBuilder builder = request.evaluatePreconditions(etag);
+		if (builder == null) {
+			builder = Response.ok(icon.favicon().getIcon(), icon.favicon().getMediaType());
+		}
 
 		CacheControl cacheControl = new CacheControl();
-		cacheControl.setMaxAge(2592000);
+		// the favicon is being fetched, ask again soon
+		cacheControl.setMaxAge(icon.pending() ? 60 : 86400);
 		cacheControl.setPrivate(false);
 		builder.cacheControl(cacheControl);
-
-		Calendar calendar = Calendar.getInstance();
-		calendar.add(Calendar.MONTH, 1);
-		builder.expires(calendar.getTime());
-		builder.lastModified(Date.from(CommaFeedApplication.STARTUP_TIME));
+		builder.tag(etag);
 
 		return builder.build();
 	}
@@ -465,7 +483,9 @@ public class FeedREST {
 		try {
 			feedEntryFilteringService.filterMatchesEntry(req.getFilter(), TEST_ENTRY);
 		} catch (FeedEntryFilterException e) {
-			return Response.status(Status.BAD_REQUEST).entity(e.getCause().getMessage()).type(MediaType.TEXT_PLAIN).build();
+			// quarantined filters are rejected without being evaluated and have no cause
+			String message = e.getCause() == null ? e.getMessage() : e.getCause().getMessage();
+			return Response.status(Status.BAD_REQUEST).entity(message).type(MediaType.TEXT_PLAIN).build();
 		}
 
 		FeedSubscription subscription = feedSubscriptionDAO.findById(user, req.getId());
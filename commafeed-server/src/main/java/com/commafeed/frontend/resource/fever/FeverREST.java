@@ -29,7 +29,8 @@ import com.commafeed.backend.model.FeedSubscription;
 import com.commafeed.backend.model.User;
 import com.commafeed.backend.model.UserSettings.ReadingOrder;
 import com.commafeed.backend.service.FeedEntryService;
-import com.commafeed.backend.service.FeedService;
+import com.commafeed.backend.service.FeedFaviconService;
+import com.commafeed.backend.service.FeedFaviconService.StoredFavicon;
 import com.commafeed.backend.service.UserService;
 import com.commafeed.frontend.resource.fever.FeverResponse.FeverFavicon;
 import com.commafeed.frontend.resource.fever.FeverResponse.FeverFeed;
@@ -78,7 +79,7 @@ public class FeverREST {
 
 	private final UserService userService;
 	private final FeedEntryService feedEntryService;
-	private final FeedService feedService;
+	private final FeedFaviconService feedFaviconService;
 	private final FeedEntryDAO feedEntryDAO;
 	private final FeedSubscriptionDAO feedSubscriptionDAO;
 	private final FeedCategoryDAO feedCategoryDAO;
@@ -253,12 +254,13 @@ public class FeverREST {
 
 	private List<Long> buildUnreadItemIds(User user, List<FeedSubscription> subscriptions) {
 		List<FeedEntryStatus> statuses = feedEntryStatusDAO.findBySubscriptions(user, subscriptions, true, null, null, 0,
-				UNREAD_ITEM_IDS_BATCH_SIZE, ReadingOrder.desc, false, null, null, null);
+				UNREAD_ITEM_IDS_BATCH_SIZE, ReadingOrder.desc, false, null, null, null, null);
 		return statuses.stream().map(s -> s.getEntry().getId()).toList();
 	}
 
 	private List<Long> buildSavedItemIds(User user) {
-		List<FeedEntryStatus> statuses = feedEntryStatusDAO.findStarred(user, null, 0, SAVED_ITEM_IDS_BATCH_SIZE, ReadingOrder.desc, false);
+		List<FeedEntryStatus> statuses = feedEntryStatusDAO.findStarred(user, null, 0, SAVED_ITEM_IDS_BATCH_SIZE, ReadingOrder.desc, false,
+				null);
 		return statuses.stream().map(s -> s.getEntry().getId()).toList();
 	}
 
@@ -281,7 +283,7 @@ public class FeverREST {
 
 	private List<FeverItem> buildItems(User user, List<FeedSubscription> subscriptions, Long sinceId, Long maxId) {
 		List<FeedEntryStatus> statuses = feedEntryStatusDAO.findBySubscriptions(user, subscriptions, false, null, null, 0, ITEMS_BATCH_SIZE,
-				ReadingOrder.desc, false, null, sinceId, maxId);
+				ReadingOrder.desc, false, null, sinceId, maxId, null);
 		return statuses.stream().map(this::mapStatus).toList();
 	}
 
@@ -300,8 +302,9 @@ public class FeverREST {
 	}
 
 	private List<FeverFavicon> buildFavicons(List<FeedSubscription> subscriptions) {
+		Map<Long, StoredFavicon> favicons = feedFaviconService.getFavicons(subscriptions.stream().map(FeedSubscription::getFeed).toList());
 		return subscriptions.stream().map(s -> {
-			Favicon favicon = feedService.fetchFavicon(s.getFeed());
+			Favicon favicon = favicons.get(s.getFeed().getId()).favicon();
 
 			FeverFavicon f = new FeverFavicon();
 			f.setId(s.getFeed().getId());
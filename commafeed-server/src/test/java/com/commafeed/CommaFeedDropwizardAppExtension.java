@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -67,8 +68,9 @@ public class CommaFeedDropwizardAppExtension extends DropwizardAppExtension<Comm
 		DROP_ALL_STATEMENTS = config.dropAllStatements();
 	}
 
-	public CommaFeedDropwizardAppExtension() {
-		super(CommaFeedApplication.class, ResourceHelpers.resourceFilePath("config.test.yml"), CONFIG_OVERRIDES);
+	public CommaFeedDropwizardAppExtension(ConfigOverride... additionalOverrides) {
+		super(CommaFeedApplication.class, ResourceHelpers.resourceFilePath("config.test.yml"),
+				Stream.concat(Stream.of(CONFIG_OVERRIDES), Stream.of(additionalOverrides)).toArray(ConfigOverride[]::new));
 	}
 
 	private static DatabaseConfiguration buildConfiguration(String databaseName, String imageName) {
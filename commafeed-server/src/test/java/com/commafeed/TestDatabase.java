@@ -0,0 +1,61 @@
+package com.commafeed;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import com.commafeed.backend.service.db.DatabaseStartupService;
+
+import lombok.Getter;
+
+/**
+ * In-memory H2 database with the schema created by the liquibase changelog, for tests that need a session factory without starting the
+ * whole application
+ */
+public class TestDatabase implements AutoCloseable {
+
+	private final Connection connection;
+
+	@Getter
+	private final SessionFactory sessionFactory;
+
+	/**
+	 * @param name
+	 *            name of the in-memory database, unique per test class
+	 * @param currentSessionContext
+	 *            hibernate current session context, "thread" or "managed"
+	 */
+	public TestDatabase(String name, String currentSessionContext) {
+		String url = "jdbc:h2:mem:" + name;
+		try {
+			// the in-memory database is dropped when its last connection is closed
+			connection = DriverManager.getConnection(url, "sa", "sa");
+		} catch (SQLException e) {
+			throw new RuntimeException("could not open database " + url, e);
+		}
+		DatabaseStartupService.updateSchema(connection);
+
+		Configuration configuration = new Configuration();
+		CommaFeedApplication.ENTITIES.forEach(configuration::addAnnotatedClass);
+		configuration.setProperty(AvailableSettings.URL, url);
+		configuration.setProperty(AvailableSettings.USER, "sa");
+		configuration.setProperty(AvailableSettings.PASS, "sa");
+		configuration.setProperty(AvailableSettings.CURRENT_SESSION_CONTEXT_CLASS, currentSessionContext);
+		sessionFactory = configuration.buildSessionFactory();
+	}
+
+	@Override
+	public void close() {
+		sessionFactory.close();
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			throw new RuntimeException("could not close database", e);
+		}
+	}
+
+}
@@ -1,14 +1,18 @@
 package com.commafeed.backend;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.hc.client5.http.ConnectTimeoutException;
 import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,6 +59,7 @@ class HttpGetterTest {
 		settings.setUserAgent("http-getter-test");
 		settings.setBackgroundThreads(3);
 		settings.setMaxFeedResponseSize(DataSize.kilobytes(10));
+		settings.setAsyncHttpEnabled(true);
 
 		CommaFeedConfiguration config = new CommaFeedConfiguration();
 		config.setApplicationSettings(settings);
@@ -62,6 +67,11 @@ class HttpGetterTest {
 		this.getter = new HttpGetter(config, Mockito.mock(MetricRegistry.class));
 	}
 
+	@AfterEach
+	void cleanup() {
+		this.getter.stop();
+	}
+
 	@ParameterizedTest
 	@ValueSource(
 			ints = { HttpStatus.UNAUTHORIZED_401, HttpStatus.FORBIDDEN_403, HttpStatus.NOT_FOUND_404,
@@ -84,6 +94,7 @@ class HttpGetterTest {
 
 		HttpResult result = getter.getBinary(this.feedUrl, TIMEOUT);
 		Assertions.assertArrayEquals(feedContent, result.getContent());
+		Assertions.assertEquals(Digests.sha1Hex(feedContent), result.getContentHash());
 		Assertions.assertEquals(MediaType.APPLICATION_ATOM_XML.toString(), result.getContentType());
 		Assertions.assertEquals("123456", result.getLastModifiedSince());
 		Assertions.assertEquals("78910", result.getETag());
@@ -224,4 +235,95 @@ class HttpGetterTest {
 		Assertions.assertEquals("ok", new String(result.getContent()));
 	}
 
+	@Test
+	void asyncValidFeed() throws Exception {
+		this.mockServerClient.when(HttpRequest.request().withMethod("GET"))
+				.respond(HttpResponse.response()
+						.withBody(feedContent)
+						.withContentType(MediaType.APPLICATION_ATOM_XML)
+						.withHeader(HttpHeaders.LAST_MODIFIED, "123456")
+						.withHeader(HttpHeaders.ETAG, "78910"));
+
+		HttpResult result = getBinaryAsync(this.feedUrl, null, null);
+		Assertions.assertArrayEquals(feedContent, result.getContent());
+		Assertions.assertEquals(Digests.sha1Hex(feedContent), result.getContentHash());
+		Assertions.assertEquals(MediaType.APPLICATION_ATOM_XML.toString(), result.getContentType());
+		Assertions.assertEquals("123456", result.getLastModifiedSince());
+		Assertions.assertEquals("78910", result.getETag());
+		Assertions.assertEquals(this.feedUrl, result.getUrlAfterRedirect());
+	}
+
+	@Test
+	void asyncFollowRedirects() throws Exception {
+		this.mockServerClient.when(HttpRequest.request().withMethod("GET").withPath("/"))
+				.respond(HttpResponse.response()
+						.withStatusCode(HttpStatus.MOVED_PERMANENTLY_301)
+						.withHeader(HttpHeaders.LOCATION, "http://localhost:" + this.mockServerClient.getPort() + "/redirected"));
+		this.mockServerClient.when(HttpRequest.request().withMethod("GET").withPath("/redirected"))
+				.respond(HttpResponse.response().withBody(feedContent).withContentType(MediaType.APPLICATION_ATOM_XML));
+
+		HttpResult result = getBinaryAsync(this.feedUrl, null, null);
+		Assertions.assertEquals("http://localhost:" + this.mockServerClient.getPort() + "/redirected", result.getUrlAfterRedirect());
+	}
+
+	@Test
+	void asyncErrorCode() {
+		this.mockServerClient.when(HttpRequest.request().withMethod("GET"))
+				.respond(HttpResponse.response().withStatusCode(HttpStatus.NOT_FOUND_404));
+
+		HttpResponseException e = Assertions.assertThrows(HttpResponseException.class, () -> getBinaryAsync(this.feedUrl, null, null));
+		Assertions.assertEquals(HttpStatus.NOT_FOUND_404, e.getCode());
+	}
+
+	@Test
+	void asyncETagReturns304() {
+		this.mockServerClient.when(HttpRequest.request().withMethod("GET").withHeader(HttpHeaders.IF_NONE_MATCH, "78910"))
+				.respond(HttpResponse.response().withStatusCode(HttpStatus.NOT_MODIFIED_304));
+
+		Assertions.assertThrows(NotModifiedException.class, () -> getBinaryAsync(this.feedUrl, null, "78910"));
+	}
+
+	@Test
+	void asyncDecompressesGzip() throws Exception {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(feedContent);
+		}
+		this.mockServerClient.when(HttpRequest.request().withMethod("GET").withHeader(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.respond(HttpResponse.response().withBody(compressed.toByteArray()).withHeader(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+		HttpResult result = getBinaryAsync(this.feedUrl, null, null);
+		Assertions.assertArrayEquals(feedContent, result.getContent());
+		Assertions.assertEquals(Digests.sha1Hex(feedContent), result.getContentHash());
+	}
+
+	@Test
+	void asyncLargeFeed() {
+		byte[] bytes = new byte[(int) DataSize.kilobytes(100).toBytes()];
+		Arrays.fill(bytes, (byte) 1);
+		this.mockServerClient.when(HttpRequest.request().withMethod("GET"))
+				.respond(HttpResponse.response()
+						.withBody(bytes)
+						.withConnectionOptions(ConnectionOptions.connectionOptions().withSuppressContentLengthHeader(true)));
+
+		IOException e = Assertions.assertThrows(IOException.class, () -> getBinaryAsync(this.feedUrl, null, null));
+		Assertions.assertEquals("Response size exceeds the maximum allowed size (10000 bytes)", e.getMessage());
+	}
+
+	@Test
+	void asyncIgnoreInvalidSsl() throws Exception {
+		this.mockServerClient.when(HttpRequest.request().withMethod("GET")).respond(HttpResponse.response().withBody("ok"));
+
+		HttpResult result = getBinaryAsync("https://localhost:" + this.mockServerClient.getPort(), null, null);
+		Assertions.assertEquals("ok", new String(result.getContent()));
+	}
+
+	private HttpResult getBinaryAsync(String url, String lastModified, String eTag) throws Exception {
+		try {
+			return getter.getBinaryAsync(url, lastModified, eTag, TIMEOUT).get();
+		} catch (ExecutionException e) {
+			throw (Exception) e.getCause();
+		}
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.commafeed.backend.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.User;
+import com.commafeed.frontend.model.Category;
+import com.commafeed.frontend.model.UnreadCount;
+
+class LocalCacheServiceTest {
+
+	private LocalCacheService cache;
+
+	@BeforeEach
+	void init() {
+		cache = new LocalCacheService(new MetricRegistry());
+	}
+
+	@Test
+	void lastEntries() {
+		Feed feed = new Feed();
+		feed.setId(1L);
+		Assertions.assertTrue(cache.getLastEntries(feed).isEmpty());
+
+		cache.setLastEntries(feed, List.of("a", "b"));
+		Assertions.assertEquals(Set.of("a", "b"), cache.getLastEntries(feed));
+
+		cache.evictLastEntries(1L);
+		Assertions.assertTrue(cache.getLastEntries(feed).isEmpty());
+	}
+
+	@Test
+	void userRootCategory() {
+		User user = new User();
+		user.setId(1L);
+		Category category = new Category();
+		cache.setUserRootCategory(user, category);
+		Assertions.assertSame(category, cache.getUserRootCategory(user));
+
+		cache.invalidateUserRootCategory(user);
+		Assertions.assertNull(cache.getUserRootCategory(user));
+	}
+
+	@Test
+	void unreadCounts() {
+		FeedSubscription sub1 = new FeedSubscription();
+		sub1.setId(1L);
+		FeedSubscription sub2 = new FeedSubscription();
+		sub2.setId(2L);
+
+		UnreadCount count = new UnreadCount(1L, 3, null);
+		cache.setUnreadCounts(List.of(count));
+		Assertions.assertEquals(Map.of(1L, count), cache.getUnreadCounts(List.of(sub1, sub2)));
+
+		cache.invalidateUnreadCount(sub1);
+		Assertions.assertTrue(cache.getUnreadCounts(List.of(sub1, sub2)).isEmpty());
+	}
+
+}
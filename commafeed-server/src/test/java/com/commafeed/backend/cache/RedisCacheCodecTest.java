@@ -0,0 +1,59 @@
+package com.commafeed.backend.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.commafeed.backend.Digests;
+import com.commafeed.frontend.model.Category;
+import com.commafeed.frontend.model.Subscription;
+import com.commafeed.frontend.model.UnreadCount;
+
+class RedisCacheCodecTest {
+
+	@Test
+	void entryKeys() {
+		List<String> keys = List.of(Digests.sha1Hex("a"), Digests.sha1Hex("b"));
+		byte[] value = RedisCacheCodec.encodeEntryKeys(keys);
+		Assertions.assertEquals(41, value.length);
+		Assertions.assertEquals(Set.copyOf(keys), RedisCacheCodec.decodeEntryKeys(value));
+	}
+
+	@Test
+	void category() {
+		Subscription sub = new Subscription();
+		sub.setName("feed");
+		Category child = new Category();
+		child.setName("child");
+		child.getFeeds().add(sub);
+		Category root = new Category();
+		root.setId("all");
+		root.getChildren().add(child);
+
+		Assertions.assertEquals(root, RedisCacheCodec.decodeCategory(RedisCacheCodec.encodeCategory(root)));
+	}
+
+	@Test
+	void unreadCount() {
+		UnreadCount count = new UnreadCount(1, 2, Instant.ofEpochSecond(1700000000, 123456789));
+		Assertions.assertEquals(count, RedisCacheCodec.decodeUnreadCount(RedisCacheCodec.encodeUnreadCount(count)));
+
+		UnreadCount empty = new UnreadCount(1, 0, null);
+		Assertions.assertEquals(empty, RedisCacheCodec.decodeUnreadCount(RedisCacheCodec.encodeUnreadCount(empty)));
+	}
+
+	@Test
+	void unknownVersionIsIgnored() {
+		// values written as json by previous versions
+		byte[] json = "{\"feedId\":1}".getBytes(StandardCharsets.UTF_8);
+		Assertions.assertNull(RedisCacheCodec.decodeUnreadCount(json));
+		Assertions.assertNull(RedisCacheCodec.decodeCategory(json));
+		Assertions.assertNull(RedisCacheCodec.decodeEntryKeys(json));
+		Assertions.assertNull(RedisCacheCodec.decodeUnreadCount(null));
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.commafeed.backend.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.Digests;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.User;
+import com.commafeed.frontend.model.Category;
+import com.commafeed.frontend.model.UnreadCount;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+class RedisNearCacheServiceTest {
+
+	private static final String CHANNEL = "commafeed:invalidations";
+	private static final String KEY_A = Digests.sha1Hex("a");
+	private static final String KEY_B = Digests.sha1Hex("b");
+
+	private Jedis jedis;
+	private LocalCacheService local;
+	private RedisNearCacheService cache;
+
+	@BeforeEach
+	void init() {
+		jedis = Mockito.mock(Jedis.class);
+		JedisPool pool = Mockito.mock(JedisPool.class);
+		Mockito.when(pool.getResource()).thenReturn(jedis);
+
+		local = new LocalCacheService(new MetricRegistry());
+		cache = new RedisNearCacheService(local, pool, new MetricRegistry());
+	}
+
+	@Test
+	void setLastEntriesPublishesTheFeedKey() {
+		cache.setLastEntries(feed(1L), List.of(KEY_A, KEY_B));
+
+		ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+		Mockito.verify(jedis).publish(ArgumentMatchers.eq(CHANNEL), message.capture());
+		Assertions.assertTrue(message.getValue().endsWith(" f:1"));
+	}
+
+	@Test
+	void handleMessageEvictsTheKeysOfTheMessage() {
+		local.setLastEntries(feed(1L), List.of(KEY_A));
+		local.setLastEntries(feed(2L), List.of(KEY_B));
+		local.setUserRootCategory(user(3L), new Category());
+		local.setUnreadCounts(List.of(new UnreadCount(4L, 1, null), new UnreadCount(5L, 1, null)));
+
+		cache.handleMessage("other-node f:1 c:3 u:4");
+
+		Assertions.assertTrue(local.getLastEntries(feed(1L)).isEmpty());
+		Assertions.assertEquals(Set.of(KEY_B), local.getLastEntries(feed(2L)));
+		Assertions.assertNull(local.getUserRootCategory(user(3L)));
+		Map<Long, UnreadCount> counts = local.getUnreadCounts(List.of(subscription(4L), subscription(5L)));
+		Assertions.assertEquals(Set.of(5L), counts.keySet());
+	}
+
+	@Test
+	void handleMessageIgnoresTheMessagesOfThisNode() {
+		cache.setLastEntries(feed(1L), List.of(KEY_A));
+		ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+		Mockito.verify(jedis).publish(ArgumentMatchers.eq(CHANNEL), message.capture());
+
+		local.setLastEntries(feed(1L), List.of(KEY_A));
+		cache.handleMessage(message.getValue());
+		Assertions.assertEquals(Set.of(KEY_A), local.getLastEntries(feed(1L)));
+	}
+
+	private Feed feed(Long id) {
+		Feed feed = new Feed();
+		feed.setId(id);
+		return feed;
+	}
+
+	private User user(Long id) {
+		User user = new User();
+		user.setId(id);
+		return user;
+	}
+
+	private FeedSubscription subscription(Long id) {
+		FeedSubscription sub = new FeedSubscription();
+		sub.setId(id);
+		return sub;
+	}
+}
@@ -0,0 +1,143 @@
+package com.commafeed.backend.dao;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.commafeed.TestDatabase;
+import com.commafeed.backend.Digests;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.User;
+
+class FeedSubscriptionDAOTest {
+
+	private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+	private TestDatabase database;
+	private SessionFactory sessionFactory;
+	private Session session;
+	private FeedSubscriptionDAO feedSubscriptionDAO;
+	private Feed feed;
+	private FeedSubscription sub;
+
+	@BeforeEach
+	void init() {
+		database = new TestDatabase("feed-subscription-dao-test", "thread");
+		sessionFactory = database.getSessionFactory();
+		feedSubscriptionDAO = new FeedSubscriptionDAO(sessionFactory);
+
+		session = sessionFactory.getCurrentSession();
+		session.beginTransaction();
+
+		User user = new User();
+		user.setName("user");
+		user.setPassword(new byte[] { 1 });
+		user.setSalt(new byte[] { 1 });
+		session.persist(user);
+
+		feed = new Feed();
+		feed.setUrl("https://commafeed.com/feed");
+		feed.setUrlAfterRedirect(feed.getUrl());
+		feed.setNormalizedUrl(feed.getUrl());
+		feed.setNormalizedUrlHash(Digests.sha1Hex(feed.getUrl()));
+		session.persist(feed);
+
+		sub = new FeedSubscription();
+		sub.setUser(user);
+		sub.setFeed(feed);
+		sub.setTitle("feed");
+		session.persist(sub);
+		session.flush();
+	}
+
+	@AfterEach
+	void cleanup() {
+		session.getTransaction().rollback();
+		database.close();
+	}
+
+	@Test
+	void countersThatWereNeverComputedAreNotTouched() {
+		feedSubscriptionDAO.incrementUnreadCount(sub, 3, NOW, NOW);
+		feedSubscriptionDAO.decrementUnreadCount(sub, 1);
+
+		Assertions.assertNull(reload().getUnreadCount());
+		Assertions.assertNull(sub.getNewestUnreadDate());
+	}
+
+	@Test
+	void incrementExtendsUnreadDates() {
+		Assertions.assertTrue(feedSubscriptionDAO.setUnreadCount(sub, null, 2, NOW.minusSeconds(10), NOW.minusSeconds(20)));
+
+		feedSubscriptionDAO.incrementUnreadCount(sub, 3, NOW, NOW.minusSeconds(30));
+		assertCounter(5, NOW, NOW.minusSeconds(30));
+
+		// dates inside the current range do not change it
+		feedSubscriptionDAO.incrementUnreadCount(sub, 1, NOW.minusSeconds(15), NOW.minusSeconds(15));
+		assertCounter(6, NOW, NOW.minusSeconds(30));
+	}
+
+	@Test
+	void decrementResetsUnreadDatesWhenNothingIsLeft() {
+		feedSubscriptionDAO.setUnreadCount(sub, null, 3, NOW, NOW.minusSeconds(10));
+
+		feedSubscriptionDAO.decrementUnreadCount(sub, 2);
+		assertCounter(1, NOW, NOW.minusSeconds(10));
+
+		feedSubscriptionDAO.decrementUnreadCount(sub, 1);
+		assertCounter(0, null, null);
+	}
+
+	@Test
+	void setUnreadCountIsACompareAndSet() {
+		feedSubscriptionDAO.setUnreadCount(sub, null, 2, NOW, NOW);
+		Long computedFrom = reload().getUnreadCount();
+
+		// an entry is inserted while the counter is being recomputed
+		feedSubscriptionDAO.incrementUnreadCount(sub, 1, NOW, NOW);
+
+		Assertions.assertFalse(feedSubscriptionDAO.setUnreadCount(sub, computedFrom, 10, NOW, NOW));
+		assertCounter(3, NOW, NOW);
+
+		Assertions.assertTrue(feedSubscriptionDAO.setUnreadCount(sub, reload().getUnreadCount(), 10, NOW, NOW));
+		assertCounter(10, NOW, NOW);
+	}
+
+	@Test
+	void invalidateUnreadCounts() {
+		feedSubscriptionDAO.setUnreadCount(sub, null, 2, NOW, NOW);
+
+		Assertions.assertEquals(1, feedSubscriptionDAO.invalidateUnreadCounts(feed.getId()));
+		Assertions.assertNull(reload().getUnreadCount());
+	}
+
+	@Test
+	void invalidateUnreadCountsWithUnreadEntriesOlderThan() {
+		feedSubscriptionDAO.setUnreadCount(sub, null, 2, NOW, NOW.minusSeconds(10));
+
+		Assertions.assertEquals(0, feedSubscriptionDAO.invalidateUnreadCountsWithUnreadEntriesOlderThan(NOW.minusSeconds(20)));
+		Assertions.assertEquals(2, reload().getUnreadCount());
+
+		Assertions.assertEquals(1, feedSubscriptionDAO.invalidateUnreadCountsWithUnreadEntriesOlderThan(NOW.minusSeconds(5)));
+		Assertions.assertNull(reload().getUnreadCount());
+	}
+
+	private void assertCounter(long count, Instant newestUnreadDate, Instant oldestUnreadDate) {
+		reload();
+		Assertions.assertEquals(count, sub.getUnreadCount());
+		Assertions.assertEquals(newestUnreadDate, sub.getNewestUnreadDate());
+		Assertions.assertEquals(oldestUnreadDate, sub.getOldestUnreadDate());
+	}
+
+	private FeedSubscription reload() {
+		session.refresh(sub);
+		return sub;
+	}
+}
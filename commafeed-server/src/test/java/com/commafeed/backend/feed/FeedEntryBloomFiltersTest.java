@@ -0,0 +1,85 @@
+package com.commafeed.backend.feed;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.model.Feed;
+
+class FeedEntryBloomFiltersTest {
+
+	private static final Instant NEWEST = Instant.parse("2024-01-02T00:00:00Z");
+	private static final Instant OLDER = NEWEST.minusSeconds(60);
+
+	private Feed feed(long id) {
+		Feed feed = new Feed();
+		feed.setId(id);
+		return feed;
+	}
+
+	@Test
+	void knownKeys() {
+		FeedEntryBloomFilters filters = new FeedEntryBloomFilters(true, new MetricRegistry());
+		Assertions.assertFalse(filters.mightContain(feed(1), "a", OLDER));
+
+		filters.put(feed(1), List.of("a", "b"), NEWEST);
+		Assertions.assertTrue(filters.mightContain(feed(1), "a", OLDER));
+		Assertions.assertTrue(filters.mightContain(feed(1), "b", OLDER));
+		Assertions.assertFalse(filters.mightContain(feed(1), "c", OLDER));
+		Assertions.assertFalse(filters.mightContain(feed(2), "a", OLDER));
+
+		filters.put(feed(1), List.of("c"), NEWEST);
+		Assertions.assertTrue(filters.mightContain(feed(1), "a", OLDER));
+		Assertions.assertTrue(filters.mightContain(feed(1), "c", OLDER));
+	}
+
+	@Test
+	void rebuiltWhenFull() {
+		FeedEntryBloomFilters filters = new FeedEntryBloomFilters(true, new MetricRegistry());
+		filters.put(feed(1), List.of("a"), NEWEST);
+
+		List<String> keys = IntStream.range(0, 1000).mapToObj(String::valueOf).toList();
+		filters.put(feed(1), keys, NEWEST);
+		Assertions.assertFalse(filters.mightContain(feed(1), "a", OLDER));
+		keys.forEach(k -> Assertions.assertTrue(filters.mightContain(feed(1), k, OLDER)));
+	}
+
+	@Test
+	void entriesThatAreNotOlderThanTheNewestKnownEntryAreNotTrusted() {
+		FeedEntryBloomFilters filters = new FeedEntryBloomFilters(true, new MetricRegistry());
+		filters.put(feed(1), List.of("a"), NEWEST);
+		Assertions.assertTrue(filters.mightContain(feed(1), "a", OLDER));
+		Assertions.assertFalse(filters.mightContain(feed(1), "a", NEWEST));
+		Assertions.assertFalse(filters.mightContain(feed(1), "a", null));
+
+		// the newest known date never goes back
+		filters.put(feed(1), List.of("b"), OLDER);
+		Assertions.assertTrue(filters.mightContain(feed(1), "b", OLDER));
+	}
+
+	@Test
+	void disabled() {
+		FeedEntryBloomFilters filters = new FeedEntryBloomFilters(false, new MetricRegistry());
+		filters.put(feed(1), List.of("a"), NEWEST);
+		Assertions.assertFalse(filters.mightContain(feed(1), "a", OLDER));
+	}
+
+	@Test
+	void falsePositiveRate() {
+		MetricRegistry metrics = new MetricRegistry();
+		FeedEntryBloomFilters filters = new FeedEntryBloomFilters(true, metrics);
+		filters.verified(false);
+		filters.verified(false);
+		filters.verified(false);
+		filters.verified(true);
+
+		Gauge<?> gauge = metrics.getGauges().get(MetricRegistry.name(FeedEntryBloomFilters.class, "falsePositiveRate"));
+		Assertions.assertEquals(0.25, (Double) gauge.getValue());
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.commafeed.backend.feed;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FeedEntryCursorTest {
+
+	@Test
+	void roundTrip() {
+		FeedEntryCursor cursor = new FeedEntryCursor(Instant.ofEpochSecond(1703721600, 123456789), 42L);
+		Assertions.assertEquals(cursor, FeedEntryCursor.fromQueryString(cursor.toQueryString()));
+	}
+
+	@Test
+	void roundTripBeforeEpoch() {
+		FeedEntryCursor cursor = new FeedEntryCursor(Instant.parse("1960-01-01T00:00:00.5Z"), 42L);
+		Assertions.assertEquals(cursor, FeedEntryCursor.fromQueryString(cursor.toQueryString()));
+	}
+
+	@Test
+	void blank() {
+		Assertions.assertNull(FeedEntryCursor.fromQueryString(null));
+		Assertions.assertNull(FeedEntryCursor.fromQueryString(" "));
+	}
+
+	@Test
+	void malformed() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> FeedEntryCursor.fromQueryString("123"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> FeedEntryCursor.fromQueryString("a_b_c"));
+	}
+}
@@ -0,0 +1,77 @@
+package com.commafeed.backend.feed;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.HttpGetter.HttpResponseException;
+import com.commafeed.backend.HttpGetter.NotModifiedException;
+import com.commafeed.backend.HttpGetter.NotModifiedException.Reason;
+import com.commafeed.backend.feed.FeedFetchStatistics.Outcome;
+import com.commafeed.backend.feed.FeedFetchStatistics.Report;
+import com.commafeed.backend.feed.FeedFetchStatistics.Snapshot;
+import com.commafeed.backend.model.Feed;
+
+class FeedFetchStatisticsTest {
+
+	private Feed feed(long id, String url) {
+		Feed feed = new Feed();
+		feed.setId(id);
+		feed.setUrl(url);
+		return feed;
+	}
+
+	@Test
+	void aggregatesPerFeedPerHostAndGlobally() {
+		MetricRegistry metrics = new MetricRegistry();
+		FeedFetchStatistics statistics = new FeedFetchStatistics(metrics);
+		Feed feed1 = feed(1, "https://a.com/feed1");
+		Feed feed2 = feed(2, "https://a.com/feed2");
+		Feed feed3 = feed(3, "https://b.com/feed");
+
+		statistics.record(feed1, Outcome.MODIFIED, false, null, 1000, Duration.ofMillis(100));
+		statistics.record(feed1, Outcome.NOT_MODIFIED, true, null, 0, Duration.ofMillis(50));
+		statistics.record(feed2, Outcome.SAME_CONTENT_HASH, true, null, 500, Duration.ofMillis(30));
+		statistics.record(feed3, Outcome.ERROR, false, new HttpResponseException(503, "unavailable"), 0, Duration.ofMillis(20));
+
+		Snapshot feed1Stats = statistics.getFeedStatistics(1L);
+		Assertions.assertEquals(2, feed1Stats.fetches());
+		Assertions.assertEquals(1, feed1Stats.outcomes().get(Outcome.MODIFIED));
+		Assertions.assertEquals(1, feed1Stats.outcomes().get(Outcome.NOT_MODIFIED));
+		Assertions.assertEquals(1, feed1Stats.conditionalRequests());
+		Assertions.assertEquals(0, feed1Stats.ignoredConditionalRequests());
+		Assertions.assertEquals(1000, feed1Stats.bytes());
+		Assertions.assertEquals(75, feed1Stats.averageDurationMillis());
+		Assertions.assertNull(statistics.getFeedStatistics(4L));
+
+		Report report = statistics.getReport(10);
+		Assertions.assertEquals(4, report.global().fetches());
+		Assertions.assertEquals(1500, report.global().bytes());
+		Assertions.assertEquals(1, report.global().errors().get("http503"));
+
+		// a.com ignored a conditional request, it comes first
+		Assertions.assertEquals(List.of("a.com", "b.com"), List.copyOf(report.hosts().keySet()));
+		Assertions.assertEquals(3, report.hosts().get("a.com").fetches());
+		Assertions.assertEquals(1, report.hosts().get("a.com").ignoredConditionalRequests());
+		Assertions.assertEquals(1, report.hosts().get("b.com").errors().get("http503"));
+
+		Assertions.assertEquals(List.of("a.com"), List.copyOf(statistics.getReport(1).hosts().keySet()));
+
+		Assertions.assertEquals(1, metrics.meter(MetricRegistry.name(FeedFetchStatistics.class, "outcome", "modified")).getCount());
+		Assertions.assertEquals(1, metrics.meter(MetricRegistry.name(FeedFetchStatistics.class, "error", "http503")).getCount());
+		Assertions.assertEquals(1500, metrics.meter(MetricRegistry.name(FeedFetchStatistics.class, "bytes")).getCount());
+	}
+
+	@Test
+	void outcomeOfNotModifiedException() {
+		Assertions.assertEquals(Outcome.NOT_MODIFIED, Outcome.of(new NotModifiedException(Reason.NOT_MODIFIED, "304", 0, 0)));
+		Assertions.assertEquals(Outcome.SAME_VALIDATORS, Outcome.of(new NotModifiedException(Reason.SAME_VALIDATORS, "etag", 10, 0)));
+		Assertions.assertEquals(Outcome.SAME_CONTENT_HASH, Outcome.of(new NotModifiedException(Reason.SAME_CONTENT_HASH, "hash", 10, 0)));
+		Assertions.assertEquals(Outcome.SAME_PUBLISHED_DATE,
+				Outcome.of(new NotModifiedException(Reason.SAME_PUBLISHED_DATE, "published", 10, 0)));
+	}
+
+}
@@ -11,6 +11,8 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
 import com.commafeed.backend.HttpGetter;
 import com.commafeed.backend.HttpGetter.HttpResult;
 import com.commafeed.backend.HttpGetter.NotModifiedException;
@@ -34,7 +36,9 @@ class FeedFetcherTest {
 
 	@BeforeEach
 	void init() {
-		fetcher = new FeedFetcher(parser, getter, urlProviders);
+		CommaFeedConfiguration config = new CommaFeedConfiguration();
+		config.setApplicationSettings(new ApplicationSettings());
+		fetcher = new FeedFetcher(parser, getter, urlProviders, config);
 	}
 
 	@Test
@@ -46,7 +50,7 @@ class FeedFetcherTest {
 		String lastContentHash = Hashing.sha1().hashBytes(content).toString();
 
 		Mockito.when(getter.getBinary(url, lastModified, etag, 20000))
-				.thenReturn(new HttpResult(content, "content-type", "last-modified-2", "etag-2", 20, null));
+				.thenReturn(new HttpResult(content, lastContentHash, "content-type", "last-modified-2", "etag-2", 20, null));
 
 		NotModifiedException e = Assertions.assertThrows(NotModifiedException.class,
 				() -> fetcher.fetch(url, false, lastModified, etag, Instant.now(), lastContentHash));
@@ -54,6 +58,8 @@ class FeedFetcherTest {
 		Assertions.assertEquals("last-modified-2", e.getNewLastModifiedHeader());
 		Assertions.assertEquals("etag-2", e.getNewEtagHeader());
 
+		// the hash is compared before parsing
+		Mockito.verifyNoInteractions(parser);
 	}
 
 }
@@ -0,0 +1,102 @@
+package com.commafeed.backend.feed;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
+import com.commafeed.backend.model.Feed;
+
+class FeedRefreshIntervalCalculatorTest {
+
+	// a monday
+	private static final Instant NOW = Instant.parse("2024-01-01T08:00:00Z");
+	private static final Instant DEFAULT_REFRESH_INTERVAL = NOW.plus(Duration.ofMinutes(5));
+
+	private FeedRefreshIntervalCalculator calculator;
+
+	@BeforeEach
+	void init() {
+		ApplicationSettings settings = new ApplicationSettings();
+		settings.setHeavyLoad(false);
+		settings.setAdaptiveRefreshEnabled(true);
+		settings.setRefreshIntervalMinutes(5);
+
+		CommaFeedConfiguration config = new CommaFeedConfiguration();
+		config.setApplicationSettings(settings);
+
+		calculator = new FeedRefreshIntervalCalculator(config);
+	}
+
+	private Feed feed(Duration averageEntryInterval) {
+		Feed feed = new Feed();
+		feed.setLastPublishedDate(NOW.minus(Duration.ofHours(1)));
+		feed.setAverageEntryInterval(averageEntryInterval.toMillis());
+		return feed;
+	}
+
+	private Instant compute(Feed feed) {
+		return calculator.computeAdaptiveRefreshInterval(feed, NOW, DEFAULT_REFRESH_INTERVAL);
+	}
+
+	@Test
+	void halfTheAverageEntryInterval() {
+		Assertions.assertEquals(NOW.plus(Duration.ofHours(2)), compute(feed(Duration.ofHours(4))));
+	}
+
+	@Test
+	void boundedByDefaultIntervalAndOneDay() {
+		Assertions.assertEquals(DEFAULT_REFRESH_INTERVAL, compute(feed(Duration.ofMinutes(1))));
+		Assertions.assertEquals(NOW.plus(Duration.ofHours(24)), compute(feed(Duration.ofDays(30))));
+	}
+
+	@Test
+	void rarelyModifiedFeedsAreFetchedLessOften() {
+		Feed feed = feed(Duration.ofHours(4));
+		feed.setModifiedFetchRatio(0.1);
+		Assertions.assertEquals(NOW.plus(Duration.ofHours(8)), compute(feed));
+
+		feed.setModifiedFetchRatio(1.0);
+		Assertions.assertEquals(NOW.plus(Duration.ofHours(1)), compute(feed));
+	}
+
+	@Test
+	void modifiedFetchRatio() {
+		Assertions.assertEquals(1.0, FeedRefreshIntervalCalculator.updateModifiedFetchRatio(null, true));
+		Assertions.assertEquals(0.0, FeedRefreshIntervalCalculator.updateModifiedFetchRatio(null, false));
+		Assertions.assertEquals(0.9, FeedRefreshIntervalCalculator.updateModifiedFetchRatio(1.0, false), 0.0001);
+	}
+
+	@Test
+	void waitsForTheUsualPublicationHours() {
+		// publishes every day at noon
+		List<Instant> dates = IntStream.range(0, 30).mapToObj(i -> NOW.minus(Duration.ofDays(i)).plus(Duration.ofHours(4))).toList();
+
+		Feed feed = feed(Duration.ofHours(2));
+		feed.setPublishHistogram(FeedPublishProfile.fromDates(dates).format());
+
+		Instant next = compute(feed);
+		Assertions.assertTrue(next.isAfter(NOW.plus(Duration.ofHours(3))), next.toString());
+		Assertions.assertFalse(next.isAfter(Instant.parse("2024-01-01T12:15:00Z")), next.toString());
+	}
+
+	@Test
+	void publishProfile() {
+		Assertions.assertNull(FeedPublishProfile.fromDates(List.of(NOW)));
+		Assertions.assertNull(FeedPublishProfile.parse(null));
+		Assertions.assertNull(FeedPublishProfile.parse("1,2,3"));
+
+		List<Instant> dates = IntStream.range(0, 10).mapToObj(i -> NOW.plus(Duration.ofHours(i))).toList();
+		FeedPublishProfile profile = FeedPublishProfile.fromDates(dates);
+		Assertions.assertEquals(profile.format(), FeedPublishProfile.parse(profile.format()).format());
+		Assertions.assertTrue(profile.intensity(NOW) > 1);
+		Assertions.assertTrue(profile.intensity(NOW.minus(Duration.ofDays(1))) < 1);
+	}
+
+}
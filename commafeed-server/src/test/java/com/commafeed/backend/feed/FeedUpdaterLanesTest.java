@@ -0,0 +1,105 @@
+package com.commafeed.backend.feed;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.Timer;
+
+class FeedUpdaterLanesTest {
+
+	@Test
+	void laneIndex() {
+		Assertions.assertEquals(0, FeedUpdaterLanes.laneIndex(null, 4));
+		Assertions.assertEquals(1, FeedUpdaterLanes.laneIndex(5L, 4));
+		Assertions.assertEquals(3, FeedUpdaterLanes.laneIndex(-1L, 4));
+		Assertions.assertEquals(0, FeedUpdaterLanes.laneIndex(42L, 1));
+	}
+
+	@Test
+	void tasksOfTheSameFeedAreExecutedInOrder() throws Exception {
+		Timer timer = new Timer();
+		FeedUpdaterLanes lanes = new FeedUpdaterLanes(4, 1, timer);
+		try {
+			List<Integer> executed = new CopyOnWriteArrayList<>();
+			List<CompletableFuture<Void>> futures = IntStream.range(0, 20)
+					.mapToObj(i -> CompletableFuture.runAsync(() -> executed.add(i), lanes.lane(7L)))
+					.toList();
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+			Assertions.assertEquals(IntStream.range(0, 20).boxed().toList(), executed);
+			Assertions.assertEquals(20, timer.getCount());
+			Assertions.assertEquals(0, lanes.queueSize());
+		} finally {
+			lanes.shutdownNow();
+		}
+	}
+
+	@Test
+	void fullLanesBlockTheSubmitter() throws Exception {
+		FeedUpdaterLanes lanes = new FeedUpdaterLanes(1, 1, new Timer());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			Executor lane = lanes.lane(1L);
+			lane.execute(() -> {
+				started.countDown();
+				awaitQuietly(release);
+			});
+			started.await(5, TimeUnit.SECONDS);
+			lane.execute(() -> {
+			});
+
+			// the lane is busy and its queue is full
+			CompletableFuture<Void> submitted = CompletableFuture.runAsync(() -> lane.execute(() -> {
+			}));
+			Assertions.assertThrows(TimeoutException.class, () -> submitted.get(200, TimeUnit.MILLISECONDS));
+
+			release.countDown();
+			submitted.get(5, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+			lanes.shutdownNow();
+		}
+	}
+
+	@Test
+	void unboundedLanesNeverBlockTheSubmitter() throws Exception {
+		FeedUpdaterLanes lanes = new FeedUpdaterLanes(1, Integer.MAX_VALUE, new Timer());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			Executor lane = lanes.lane(1L);
+			lane.execute(() -> {
+				started.countDown();
+				awaitQuietly(release);
+			});
+			started.await(5, TimeUnit.SECONDS);
+
+			for (int i = 0; i < 1000; i++) {
+				lane.execute(() -> {
+				});
+			}
+			Assertions.assertEquals(1000, lanes.queueSize());
+		} finally {
+			release.countDown();
+			lanes.shutdownNow();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
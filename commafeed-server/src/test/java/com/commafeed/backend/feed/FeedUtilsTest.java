@@ -1,8 +1,12 @@
 package com.commafeed.backend.feed;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import com.commafeed.backend.model.FeedEntryContent;
+
 class FeedUtilsTest {
 
 	@Test
@@ -78,4 +82,29 @@ class FeedUtilsTest {
 		Assertions.assertEquals("http://localhost/", result);
 	}
 
+	@Test
+	void testExtractSearchTerms() {
+		Assertions.assertEquals(List.of("hello", "world", "café", "links"),
+				List.copyOf(FeedUtils.extractSearchTerms("Hello, World!", "<p>Café <b>42</b> a <a href=\"https://x.com\">links</a> hello</p>")));
+		Assertions.assertEquals("a".repeat(40), FeedUtils.extractSearchTerms(null, "a".repeat(50)).iterator().next());
+	}
+
+	@Test
+	void testIsRTL() {
+		FeedEntryContent content = new FeedEntryContent();
+		content.setTitle("עברית");
+		Assertions.assertTrue(FeedUtils.isRTL(content));
+
+		content.setContent("<p>english</p>");
+		Assertions.assertFalse(FeedUtils.isRTL(content));
+	}
+
+	@Test
+	void testToSearchTerm() {
+		Assertions.assertEquals("hello", FeedUtils.toSearchTerm("HeLLo"));
+		Assertions.assertNull(FeedUtils.toSearchTerm("ab"));
+		Assertions.assertNull(FeedUtils.toSearchTerm("c++"));
+		Assertions.assertNull(FeedUtils.toSearchTerm("a".repeat(41)));
+	}
+
 }
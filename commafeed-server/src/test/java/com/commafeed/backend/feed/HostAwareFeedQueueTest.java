@@ -0,0 +1,136 @@
+package com.commafeed.backend.feed;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.commafeed.backend.model.Feed;
+
+class HostAwareFeedQueueTest {
+
+	@Test
+	void roundRobinAcrossHosts() throws Exception {
+		HostAwareFeedQueue queue = new HostAwareFeedQueue(0, Duration.ZERO);
+		queue.addLast(feed(1, "https://a.com/1"));
+		queue.addLast(feed(2, "https://a.com/2"));
+		queue.addLast(feed(3, "https://b.com/1"));
+		queue.addLast(feed(4, "https://c.com/1"));
+
+		Assertions.assertEquals(3, queue.hostCount());
+		Assertions.assertEquals(1L, queue.take().getId());
+		Assertions.assertEquals(3L, queue.take().getId());
+		Assertions.assertEquals(4L, queue.take().getId());
+		Assertions.assertEquals(2L, queue.take().getId());
+		Assertions.assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	void urlAfterRedirectIsUsedAsHost() {
+		Feed feed = feed(1, "https://a.com/1");
+		feed.setUrlAfterRedirect("https://B.com/1");
+		Assertions.assertEquals("b.com", HostAwareFeedQueue.getHost(feed));
+	}
+
+	@Test
+	void addFirstGivesPriority() throws Exception {
+		HostAwareFeedQueue queue = new HostAwareFeedQueue(0, Duration.ZERO);
+		queue.addLast(feed(1, "https://a.com/1"));
+		queue.addLast(feed(2, "https://b.com/1"));
+		queue.addFirst(feed(3, "https://b.com/2"));
+
+		Assertions.assertEquals(3L, queue.take().getId());
+	}
+
+	@Test
+	void maxConcurrentRequestsPerHost() throws Exception {
+		HostAwareFeedQueue queue = new HostAwareFeedQueue(1, Duration.ZERO);
+		Feed feed1 = feed(1, "https://a.com/1");
+		queue.addLast(feed1);
+		queue.addLast(feed(2, "https://a.com/2"));
+
+		Assertions.assertEquals(1L, queue.take().getId());
+		Assertions.assertFalse(queue.hasAvailableFeeds());
+
+		CompletableFuture<Feed> next = CompletableFuture.supplyAsync(() -> {
+			try {
+				return queue.take();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		Assertions.assertThrows(Exception.class, () -> next.get(100, TimeUnit.MILLISECONDS));
+
+		queue.release(feed1);
+		Assertions.assertEquals(2L, next.get(1, TimeUnit.SECONDS).getId());
+	}
+
+	@Test
+	void minDelayPerHost() throws Exception {
+		HostAwareFeedQueue queue = new HostAwareFeedQueue(0, Duration.ofMillis(200));
+		Feed feed1 = feed(1, "https://a.com/1");
+		queue.addLast(feed1);
+		queue.addLast(feed(2, "https://a.com/2"));
+
+		long start = System.nanoTime();
+		queue.release(queue.take());
+		Assertions.assertFalse(queue.hasAvailableFeeds());
+		Assertions.assertEquals(2L, queue.take().getId());
+		Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+	}
+
+	@Test
+	void containsAndRemove() {
+		HostAwareFeedQueue queue = new HostAwareFeedQueue(0, Duration.ZERO);
+		queue.addLast(feed(1, "https://a.com/1"));
+
+		Assertions.assertTrue(queue.contains(1L));
+		queue.remove(1L);
+		Assertions.assertFalse(queue.contains(1L));
+		Assertions.assertEquals(0, queue.size());
+		Assertions.assertEquals(0, queue.hostCount());
+		Assertions.assertFalse(queue.hasAvailableFeeds());
+	}
+
+	@Test
+	void removedFeedsAreSkipped() throws Exception {
+		HostAwareFeedQueue queue = new HostAwareFeedQueue(0, Duration.ZERO);
+		queue.addLast(feed(1, "https://a.com/1"));
+		queue.addLast(feed(2, "https://a.com/2"));
+		queue.addLast(feed(3, "https://a.com/3"));
+
+		queue.remove(2L);
+		Assertions.assertEquals(2, queue.size());
+		Assertions.assertEquals(1L, queue.take().getId());
+		Assertions.assertEquals(3L, queue.take().getId());
+		Assertions.assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	void queueingAgainMovesTheFeed() throws Exception {
+		HostAwareFeedQueue queue = new HostAwareFeedQueue(0, Duration.ZERO);
+		Feed feed = feed(1, "https://a.com/1");
+		queue.addLast(feed);
+		queue.addLast(feed(2, "https://a.com/2"));
+
+		// same as FeedRefreshEngine.refreshImmediately
+		queue.remove(1L);
+		queue.addFirst(feed);
+		queue.addLast(feed(2, "https://a.com/2"));
+
+		Assertions.assertEquals(2, queue.size());
+		Assertions.assertEquals(1L, queue.take().getId());
+		Assertions.assertEquals(2L, queue.take().getId());
+		Assertions.assertTrue(queue.isEmpty());
+		Assertions.assertFalse(queue.hasAvailableFeeds());
+	}
+
+	private Feed feed(long id, String url) {
+		Feed feed = new Feed();
+		feed.setId(id);
+		feed.setUrl(url);
+		return feed;
+	}
+}
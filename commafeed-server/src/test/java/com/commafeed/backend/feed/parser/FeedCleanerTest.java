@@ -1,5 +1,9 @@
 package com.commafeed.backend.feed.parser;
 
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -13,4 +17,23 @@ class FeedCleanerTest {
 		Assertions.assertEquals("<source>T&#180;l&#180;phone &#8242;</source>", feedCleaner.replaceHtmlEntitiesWithNumericEntities(source));
 	}
 
-}
\ No newline at end of file
+	@Test
+	void testReplaceHtmlEntitiesWithNumericEntitiesWithoutEntities() {
+		String source = "<source>AT&T &#38; &unknown; & &amp</source>";
+		Assertions.assertSame(source, feedCleaner.replaceHtmlEntitiesWithNumericEntities(source));
+	}
+
+	@Test
+	void testReplaceHtmlEntitiesWithNumericEntitiesEdgeCases() {
+		String source = "&&frac14;&amp;amp; &amp &unknown;&eacute;";
+		Assertions.assertEquals("&&#188;&#38;amp; &amp &unknown;&#233;", feedCleaner.replaceHtmlEntitiesWithNumericEntities(source));
+	}
+
+	@Test
+	void testCleaningReader() throws IOException {
+		String source = "\uFEFF  <source>T&acute;l&acute;phone &prime; &amp; &unknown; &acute &#38;\u0001 &</source>";
+		String expected = feedCleaner.replaceHtmlEntitiesWithNumericEntities(feedCleaner.trimInvalidXmlCharacters(source));
+		Assertions.assertEquals(expected, IOUtils.toString(feedCleaner.cleaningReader(new StringReader(source))));
+	}
+
+}
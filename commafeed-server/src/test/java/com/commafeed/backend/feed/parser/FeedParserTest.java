@@ -0,0 +1,172 @@
+package com.commafeed.backend.feed.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Objects;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
+import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
+import com.rometools.rome.io.FeedException;
+
+class FeedParserTest {
+
+	private static final String ATOM = """
+			<?xml version="1.0" encoding="utf-8"?>
+			<feed xmlns="http://www.w3.org/2005/Atom" xmlns:media="http://search.yahoo.com/mrss/">
+				<title>Atom feed</title>
+				<link href="https://hostname.local/atom"/>
+				<link rel="self" href="https://hostname.local/atom.xml"/>
+				<updated>2023-12-30T10:00:00Z</updated>
+				<entry>
+					<id>urn:entry:1</id>
+					<title>Entry &eacute; 1</title>
+					<link href="/atom/1"/>
+					<link rel="enclosure" href="https://hostname.local/1.mp3" type="audio/mpeg"/>
+					<published>2023-12-29T10:00:00Z</published>
+					<author><name>John</name></author>
+					<category term="cat1"/>
+					<category term="cat2"/>
+					<summary>summary 1</summary>
+					<media:group>
+						<media:thumbnail url="https://hostname.local/1.jpg" width="120" height="90"/>
+						<media:description>media description</media:description>
+					</media:group>
+				</entry>
+				<entry>
+					<id>urn:entry:2</id>
+					<title type="html">Entry &lt;b&gt;2&lt;/b&gt;</title>
+					<link rel="alternate" href="https://hostname.local/atom/2"/>
+					<updated>2023-12-30T10:00:00Z</updated>
+					<content type="html">&lt;p&gt;content 2&lt;/p&gt;</content>
+				</entry>
+			</feed>
+			""";
+
+	private static final String RDF = """
+			<?xml version="1.0" encoding="utf-8"?>
+			<rdf:RDF xmlns:rdf="http://www.w3.org/1999/02/22-rdf-syntax-ns#" xmlns="http://purl.org/rss/1.0/"
+				xmlns:dc="http://purl.org/dc/elements/1.1/" xmlns:content="http://purl.org/rss/1.0/modules/content/">
+				<channel rdf:about="https://hostname.local/rdf">
+					<title>RDF feed</title>
+					<link>https://hostname.local/rdf</link>
+					<dc:date>2023-12-30T10:00:00Z</dc:date>
+				</channel>
+				<item rdf:about="https://hostname.local/rdf/1">
+					<title>Item 1</title>
+					<link>https://hostname.local/rdf/1</link>
+					<description>description 1</description>
+					<content:encoded><![CDATA[<p>content 1</p>]]></content:encoded>
+					<dc:date>2023-12-29T10:00:00Z</dc:date>
+					<dc:creator>Jane</dc:creator>
+					<dc:subject>subject</dc:subject>
+				</item>
+			</rdf:RDF>
+			""";
+
+	private static final String RSS = """
+			<?xml version="1.0" encoding="utf-8"?>
+			<rss version="2.0" xmlns:atom="http://www.w3.org/2005/Atom">
+				<channel>
+					<title>RSS feed</title>
+					<atom:link href="https://hostname.local/rss.xml" rel="self"/>
+					<link>https://hostname.local/rss</link>
+					<item>
+						<title></title>
+						<guid>https://hostname.local/rss/1</guid>
+						<pubDate>Fri, 29 Dec 2023 15:02:00 +0100</pubDate>
+						<enclosure url="https://hostname.local/1.mp3" type="audio/mpeg"/>
+						<category>cat1</category>
+					</item>
+					<item>
+						<title>Item 2</title>
+						<link>rss/2</link>
+						<guid isPermaLink="false">guid-2</guid>
+						<author>john@hostname.local</author>
+						<description>&lt;p&gt;description &nbsp;2&lt;/p&gt;</description>
+					</item>
+					<item>
+						<title>Item without guid nor link</title>
+					</item>
+				</channel>
+			</rss>
+			""";
+
+	@Test
+	void streamingParserMatchesRome() throws Exception {
+		assertSameResult(IOUtils.toByteArray(Objects.requireNonNull(getClass().getResource("/feed/rss_2.xml"))));
+		assertSameResult(ATOM.getBytes(StandardCharsets.UTF_8));
+		assertSameResult(RDF.getBytes(StandardCharsets.UTF_8));
+		assertSameResult(RSS.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void streamingParserFallsBackToRomeForUnsupportedFormats() throws Exception {
+		String atom03 = """
+				<?xml version="1.0" encoding="utf-8"?>
+				<feed version="0.3" xmlns="http://purl.org/atom/ns#">
+					<title>Atom 0.3 feed</title>
+					<entry>
+						<id>urn:entry:1</id>
+						<title>Entry 1</title>
+						<issued>2023-12-29T10:00:00Z</issued>
+					</entry>
+				</feed>
+				""";
+		FeedParserResult result = newParser(true).parse("https://hostname.local/atom03.xml", atom03.getBytes(StandardCharsets.UTF_8));
+		Assertions.assertEquals("Atom 0.3 feed", result.title());
+		Assertions.assertEquals(1, result.entries().size());
+	}
+
+	@Test
+	void streamingParserRejectsInvalidXml() {
+		Assertions.assertThrows(FeedException.class,
+				() -> newParser(true).parse("https://hostname.local/rss.xml", "<rss><channel></rss>".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private void assertSameResult(byte[] xml) throws FeedException {
+		String feedUrl = "https://hostname.local/feed.xml";
+		FeedParserResult rome = newParser(false).parse(feedUrl, xml);
+		FeedParserResult streaming = newParser(true).parse(feedUrl, xml);
+
+		Assertions.assertEquals(rome.title(), streaming.title());
+		Assertions.assertEquals(rome.link(), streaming.link());
+		Assertions.assertEquals(rome.entries().size(), streaming.entries().size());
+		if (!isNow(rome.lastEntryDate())) {
+			Assertions.assertEquals(rome.lastEntryDate(), streaming.lastEntryDate());
+		}
+		if (!isNow(rome.lastPublishedDate())) {
+			Assertions.assertEquals(rome.lastPublishedDate(), streaming.lastPublishedDate());
+		}
+
+		for (int i = 0; i < rome.entries().size(); i++) {
+			Entry romeEntry = rome.entries().get(i);
+			Entry streamingEntry = streaming.entries().get(i);
+			Assertions.assertEquals(romeEntry.guid(), streamingEntry.guid());
+			Assertions.assertEquals(romeEntry.url(), streamingEntry.url());
+			Assertions.assertEquals(romeEntry.content(), streamingEntry.content());
+			if (!isNow(romeEntry.published())) {
+				Assertions.assertEquals(romeEntry.published(), streamingEntry.published());
+			}
+		}
+	}
+
+	private boolean isNow(Instant instant) {
+		// entries without date are given the current date
+		return instant != null && instant.isAfter(Instant.now().minusSeconds(60));
+	}
+
+	private FeedParser newParser(boolean streaming) {
+		ApplicationSettings settings = new ApplicationSettings();
+		settings.setStreamingFeedParserEnabled(streaming);
+		CommaFeedConfiguration config = new CommaFeedConfiguration();
+		config.setApplicationSettings(settings);
+
+		FeedCleaner feedCleaner = new FeedCleaner();
+		return new FeedParser(new EncodingDetector(), feedCleaner, new StreamingFeedParser(), config);
+	}
+}
@@ -1,12 +1,17 @@
 package com.commafeed.backend.service;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.codahale.metrics.MetricRegistry;
 import com.commafeed.backend.model.FeedEntry;
 import com.commafeed.backend.model.FeedEntryContent;
+import com.commafeed.backend.service.FeedEntryFilteringService.EntryVariables;
 import com.commafeed.backend.service.FeedEntryFilteringService.FeedEntryFilterException;
+import com.commafeed.backend.service.FeedEntryFilteringService.FeedEntryFilterTimeoutException;
 
 class FeedEntryFilteringServiceTest {
 
@@ -16,7 +21,7 @@ class FeedEntryFilteringServiceTest {
 
 	@BeforeEach
 	public void init() {
-		service = new FeedEntryFilteringService();
+		service = new FeedEntryFilteringService(new MetricRegistry());
 
 		entry = new FeedEntry();
 		entry.setUrl("https://github.com/Athou/commafeed");
@@ -62,7 +67,29 @@ class FeedEntryFilteringServiceTest {
 
 	@Test
 	void cannotLoopForever() {
-		Assertions.assertThrows(FeedEntryFilterException.class, () -> service.filterMatchesEntry("while(true) {}", entry));
+		FeedEntryFilterException e = Assertions.assertThrows(FeedEntryFilterException.class,
+				() -> service.filterMatchesEntry("while(true) {}", entry));
+		Assertions.assertTrue(e.getMessage().startsWith("Took too long"));
+	}
+
+	@Test
+	void filterIsDisabledAfterTimeout() {
+		Assertions.assertFalse(service.isQuarantined("while(true) {}"));
+		Assertions.assertThrows(FeedEntryFilterTimeoutException.class, () -> service.filterMatchesEntry("while(true) {}", entry));
+		Assertions.assertTrue(service.isQuarantined("while(true) {}"));
+
+		long start = System.nanoTime();
+		FeedEntryFilterException e = Assertions.assertThrows(FeedEntryFilterException.class,
+				() -> service.filterMatchesEntry("while(true) {}", entry));
+		Assertions.assertTrue(e.getMessage().contains("disabled"));
+		Assertions.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+	}
+
+	@Test
+	void variablesAreNotSharedBetweenEvaluations() throws FeedEntryFilterException {
+		EntryVariables variables = new EntryVariables(entry);
+		Assertions.assertTrue(service.filterMatchesEntry("author = 'someone else'; true", variables));
+		Assertions.assertTrue(service.filterMatchesEntry("author eq 'athou'", variables));
 	}
 
 	@Test
@@ -0,0 +1,249 @@
+package com.commafeed.backend.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
+import com.commafeed.TestDatabase;
+import com.commafeed.backend.Digests;
+import com.commafeed.backend.cache.CacheService;
+import com.commafeed.backend.dao.FeedEntryContentDAO;
+import com.commafeed.backend.dao.FeedEntryContentTermDAO;
+import com.commafeed.backend.dao.FeedEntryDAO;
+import com.commafeed.backend.dao.FeedEntryStatusDAO;
+import com.commafeed.backend.dao.FeedSubscriptionDAO;
+import com.commafeed.backend.dao.TimelineEntryDAO;
+import com.commafeed.backend.feed.parser.FeedParserResult.Content;
+import com.commafeed.backend.feed.parser.FeedParserResult.Entry;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedEntry;
+import com.commafeed.backend.model.FeedEntryContent;
+import com.commafeed.backend.model.FeedEntryStatus;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.User;
+import com.commafeed.backend.service.FeedEntryFilteringService.EntryVariables;
+import com.commafeed.backend.service.FeedEntryFilteringService.FeedEntryFilterException;
+
+class FeedEntryServiceTest {
+
+	private TestDatabase database;
+	private SessionFactory sessionFactory;
+	private Session session;
+	private FeedEntryContentDAO feedEntryContentDAO;
+	private FeedSubscriptionDAO feedSubscriptionDAO;
+	private FeedEntryStatusDAO feedEntryStatusDAO;
+	private FeedEntryFilteringService feedEntryFilteringService;
+	private FeedEntryService feedEntryService;
+	private Feed feed;
+
+	@BeforeEach
+	void init() {
+		database = new TestDatabase("feed-entry-service-test", "thread");
+		sessionFactory = database.getSessionFactory();
+
+		ApplicationSettings settings = new ApplicationSettings();
+		settings.setSearchIndexEnabled(false);
+		settings.setKeepStatusDays(30);
+		CommaFeedConfiguration config = new CommaFeedConfiguration();
+		config.setApplicationSettings(settings);
+
+		FeedEntryContentTermDAO feedEntryContentTermDAO = Mockito.mock(FeedEntryContentTermDAO.class);
+		feedEntryContentDAO = new FeedEntryContentDAO(sessionFactory, feedEntryContentTermDAO);
+		FeedEntryContentService feedEntryContentService = new FeedEntryContentService(feedEntryContentDAO, feedEntryContentTermDAO,
+				new FeedEntryContentCleaningService(), config);
+		feedSubscriptionDAO = Mockito.mock(FeedSubscriptionDAO.class);
+		feedEntryStatusDAO = Mockito.mock(FeedEntryStatusDAO.class);
+		feedEntryFilteringService = Mockito.mock(FeedEntryFilteringService.class);
+		FeedEntryDAO feedEntryDAO = new FeedEntryDAO(sessionFactory, new TimelineEntryDAO(sessionFactory));
+		feedEntryService = new FeedEntryService(feedSubscriptionDAO, feedEntryDAO, feedEntryStatusDAO, Mockito.mock(TimelineEntryDAO.class),
+				feedEntryContentService, feedEntryFilteringService, Mockito.mock(CacheService.class), config);
+
+		session = sessionFactory.getCurrentSession();
+		session.beginTransaction();
+
+		feed = new Feed();
+		feed.setUrl("https://commafeed.com/feed");
+		feed.setUrlAfterRedirect(feed.getUrl());
+		feed.setNormalizedUrl(feed.getUrl());
+		feed.setNormalizedUrlHash(Digests.sha1Hex(feed.getUrl()));
+		feed.setLink("https://commafeed.com");
+		session.persist(feed);
+	}
+
+	@AfterEach
+	void cleanup() {
+		session.getTransaction().rollback();
+		database.close();
+	}
+
+	@Test
+	void duplicateGuidsWithinABatch() {
+		List<FeedEntry> inserted = feedEntryService.createMissing(feed,
+				List.of(entry("guid-1", "title 1", "content 1"), entry("guid-2", "title 2", "content 2"),
+						entry("guid-1", "title 1 again", "content 1 again")));
+
+		Assertions.assertEquals(List.of("guid-1", "guid-2"), inserted.stream().map(FeedEntry::getGuid).toList());
+		// the first occurrence of a guid wins
+		Assertions.assertEquals("title 1", inserted.get(0).getContent().getTitle());
+		Assertions.assertEquals(2, countEntries());
+	}
+
+	@Test
+	void existingEntriesAreSkipped() {
+		feedEntryService.createMissing(feed, List.of(entry("guid-1", "title 1", "content 1")));
+
+		List<FeedEntry> inserted = feedEntryService.createMissing(feed,
+				List.of(entry("guid-1", "title 1", "content 1"), entry("guid-2", "title 2", "content 2")));
+
+		Assertions.assertEquals(List.of("guid-2"), inserted.stream().map(FeedEntry::getGuid).toList());
+		Assertions.assertEquals(2, countEntries());
+	}
+
+	@Test
+	void moreEntriesThanAnInClauseCanHold() {
+		List<Entry> entries = IntStream.range(0, 1200).mapToObj(i -> entry("guid-" + i, "title " + i, "content " + i)).toList();
+
+		Assertions.assertEquals(1200, feedEntryService.createMissing(feed, entries).size());
+		session.flush();
+		session.clear();
+
+		// every existing guid and content is found across several IN clauses, nothing is inserted twice
+		Assertions.assertEquals(0, feedEntryService.createMissing(feed, entries).size());
+		Assertions.assertEquals(1200, countEntries());
+		Assertions.assertEquals(1200, feedEntryContentDAO.findExisting(entries.stream().map(this::hashes).toList()).size());
+	}
+
+	@Test
+	void existingContentsAreLookedUpByContentAndTitle() {
+		feedEntryService.createMissing(feed, List.of(entry("guid-1", "title 1", ""), entry("guid-2", "title 2", "")));
+		session.flush();
+
+		// contents sharing the same empty content but having another title are not loaded
+		List<FeedEntryContent> existing = feedEntryContentDAO.findExisting(List.of(hashes(entry("guid-3", "title 1", ""))));
+		Assertions.assertEquals(List.of("title 1"), existing.stream().map(FeedEntryContent::getTitle).toList());
+	}
+
+	@Test
+	void contentsAreSharedBetweenEntries() {
+		List<FeedEntry> inserted = feedEntryService.createMissing(feed,
+				List.of(entry("guid-1", "title", "content"), entry("guid-2", "title", "content"),
+						entry("guid-3", "other title", "content")));
+
+		Assertions.assertSame(inserted.get(0).getContent(), inserted.get(1).getContent());
+		// same content but a different title is a different content
+		Assertions.assertNotSame(inserted.get(0).getContent(), inserted.get(2).getContent());
+
+		session.flush();
+		session.clear();
+
+		// contents already in the database are reused by new entries
+		List<FeedEntry> next = feedEntryService.createMissing(feed, List.of(entry("guid-4", "title", "content")));
+		Assertions.assertEquals(inserted.get(0).getContent().getId(), next.get(0).getContent().getId());
+		Assertions.assertEquals(2, countContents());
+	}
+
+	@Test
+	void markingAnEntryReadDecrementsTheUnreadCounter() {
+		User user = new User();
+		FeedSubscription sub = new FeedSubscription();
+		FeedEntry entry = unreadEntry(user, sub, Instant.now());
+
+		feedEntryService.markEntry(user, entry.getId(), true);
+		Mockito.verify(feedSubscriptionDAO).decrementUnreadCount(sub, 1);
+	}
+
+	@Test
+	void entriesOlderThanTheUnreadThresholdAreNotCounted() {
+		User user = new User();
+		FeedSubscription sub = new FeedSubscription();
+		// an unread status still exists for the entry, but the entry is not part of the counter
+		FeedEntry entry = unreadEntry(user, sub, Instant.now().minus(60, ChronoUnit.DAYS));
+
+		feedEntryService.markEntry(user, entry.getId(), true);
+		Mockito.verify(feedSubscriptionDAO, Mockito.never()).decrementUnreadCount(Mockito.any(), Mockito.anyLong());
+
+		Mockito.when(feedEntryStatusDAO.getStatus(user, sub, entry)).thenReturn(status(user, sub, entry, true));
+		feedEntryService.markEntry(user, entry.getId(), false);
+		Mockito.verify(feedSubscriptionDAO, Mockito.never())
+				.incrementUnreadCount(Mockito.any(), Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	void markingSubscriptionEntriesOnlyDecrementsCountedEntries() {
+		User user = new User();
+		FeedSubscription sub = new FeedSubscription();
+		List<FeedEntry> entries = feedEntryService.createMissing(feed,
+				List.of(entry("guid-1", "title 1", "content 1", Instant.now()), entry("guid-2", "title 2", "content 2", Instant.now()),
+						entry("guid-3", "title 3", "content 3", Instant.now().minus(60, ChronoUnit.DAYS))));
+		List<FeedEntryStatus> statuses = entries.stream().map(e -> status(user, sub, e, false)).toList();
+		Mockito.when(feedEntryStatusDAO.findBySubscriptions(user, List.of(sub), true, null, null, -1, -1, null, false, null, null, null,
+				null)).thenReturn(statuses);
+
+		feedEntryService.markSubscriptionEntries(user, List.of(sub), null, null, null);
+
+		Assertions.assertTrue(statuses.stream().allMatch(FeedEntryStatus::isRead));
+		Mockito.verify(feedSubscriptionDAO).decrementUnreadCount(sub, 2L);
+	}
+
+	@Test
+	void quarantinedFiltersAreNotEvaluated() throws FeedEntryFilterException {
+		FeedEntry entry = feedEntryService.createMissing(feed, List.of(entry("guid", "title", "content"))).get(0);
+		FeedSubscription sub = new FeedSubscription();
+		sub.setFilter("while(true) {}");
+		Mockito.when(feedEntryFilteringService.isQuarantined(sub.getFilter())).thenReturn(true);
+
+		Assertions.assertEquals(List.of(sub), feedEntryService.applyFilters(List.of(sub), entry));
+		Mockito.verify(feedEntryFilteringService, Mockito.never()).filterMatchesEntry(Mockito.anyString(), Mockito.any(EntryVariables.class));
+		Mockito.verify(feedEntryStatusDAO, Mockito.never()).saveOrUpdate(Mockito.any(FeedEntryStatus.class));
+	}
+
+	private FeedEntry unreadEntry(User user, FeedSubscription sub, Instant published) {
+		FeedEntry entry = feedEntryService.createMissing(feed, List.of(entry("guid", "title", "content", published))).get(0);
+		Mockito.when(feedSubscriptionDAO.findByFeed(user, feed)).thenReturn(sub);
+		Mockito.when(feedEntryStatusDAO.getStatus(user, sub, entry)).thenReturn(status(user, sub, entry, false));
+		return entry;
+	}
+
+	private FeedEntryStatus status(User user, FeedSubscription sub, FeedEntry entry, boolean read) {
+		FeedEntryStatus status = new FeedEntryStatus(user, sub, entry);
+		status.setRead(read);
+		status.setMarkable(true);
+		return status;
+	}
+
+	private Entry entry(String guid, String title, String content) {
+		return entry(guid, title, content, Instant.now());
+	}
+
+	private Entry entry(String guid, String title, String content, Instant published) {
+		return new Entry(guid, "https://commafeed.com/" + guid, published, new Content(title, content, null, null, null, null));
+	}
+
+	private FeedEntryContent hashes(Entry entry) {
+		FeedEntryContent content = new FeedEntryContent();
+		content.setContentHash(Digests.sha1Hex(entry.content().content()));
+		content.setTitleHash(Digests.sha1Hex(entry.content().title()));
+		return content;
+	}
+
+	private long countEntries() {
+		session.flush();
+		return session.createSelectionQuery("select count(e) from FeedEntry e", Long.class).getSingleResult();
+	}
+
+	private long countContents() {
+		session.flush();
+		return session.createSelectionQuery("select count(c) from FeedEntryContent c", Long.class).getSingleResult();
+	}
+}
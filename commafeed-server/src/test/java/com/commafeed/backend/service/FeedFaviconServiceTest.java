@@ -0,0 +1,129 @@
+package com.commafeed.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.backend.Digests;
+import com.commafeed.backend.dao.FeedDAO;
+import com.commafeed.backend.dao.FeedFaviconDAO;
+import com.commafeed.backend.dao.UnitOfWork;
+import com.commafeed.backend.dao.UnitOfWork.SessionRunner;
+import com.commafeed.backend.favicon.AbstractFaviconFetcher;
+import com.commafeed.backend.favicon.Favicon;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedFavicon;
+import com.commafeed.backend.service.FeedFaviconService.StoredFavicon;
+
+@ExtendWith(MockitoExtension.class)
+class FeedFaviconServiceTest {
+
+	private static final String KEY = "https://www.commafeed.com";
+
+	@Mock
+	private FeedFaviconDAO feedFaviconDAO;
+	@Mock
+	private FeedDAO feedDAO;
+	@Mock
+	private UnitOfWork unitOfWork;
+	@Mock
+	private AbstractFaviconFetcher fetcher;
+
+	private FeedFaviconService service;
+
+	@BeforeEach
+	void init() {
+		Mockito.lenient().doAnswer(invocation -> {
+			invocation.getArgument(0, SessionRunner.class).runInSession();
+			return null;
+		}).when(unitOfWork).run(ArgumentMatchers.any());
+		Mockito.lenient().when(fetcher.getKey(ArgumentMatchers.any())).thenReturn(KEY);
+
+		service = new FeedFaviconService(feedFaviconDAO, feedDAO, unitOfWork, Set.of(fetcher), new MetricRegistry());
+	}
+
+	@AfterEach
+	void cleanup() {
+		service.stop();
+	}
+
+	private Feed feed(long id) {
+		Feed feed = new Feed();
+		feed.setId(id);
+		feed.setUrl(KEY + "/feed" + id);
+		return feed;
+	}
+
+	private FeedFavicon awaitStored() {
+		ArgumentCaptor<FeedFavicon> captor = ArgumentCaptor.forClass(FeedFavicon.class);
+		Mockito.verify(feedFaviconDAO, Mockito.timeout(5000)).saveOrUpdate(captor.capture());
+		return captor.getValue();
+	}
+
+	@Test
+	void feedsOfTheSameSiteShareASingleFetch() throws InterruptedException {
+		byte[] icon = new byte[] { 1, 2, 3 };
+		CountDownLatch latch = new CountDownLatch(1);
+		Mockito.when(fetcher.fetch(ArgumentMatchers.any())).thenAnswer(invocation -> {
+			latch.await();
+			return new Favicon(icon, "image/png");
+		});
+
+		Map<Long, StoredFavicon> favicons = service.getFavicons(List.of(feed(1), feed(2)));
+		Assertions.assertTrue(favicons.get(1L).pending());
+		Assertions.assertTrue(favicons.get(2L).pending());
+		Assertions.assertTrue(service.getFavicon(feed(3)).pending());
+		latch.countDown();
+
+		FeedFavicon stored = awaitStored();
+		Mockito.verify(fetcher, Mockito.times(1)).fetch(ArgumentMatchers.any());
+		Assertions.assertEquals(KEY, stored.getKey());
+		Assertions.assertEquals(Digests.sha1Hex(KEY), stored.getKeyHash());
+		Assertions.assertArrayEquals(icon, stored.getIcon());
+		Assertions.assertEquals(Digests.sha1Hex(icon), stored.getHash());
+		Assertions.assertEquals(0, stored.getFailures());
+	}
+
+	@Test
+	void notFoundIsRetriedLater() {
+		Mockito.when(fetcher.fetch(ArgumentMatchers.any())).thenReturn(null);
+
+		Assertions.assertTrue(service.getFavicon(feed(1)).pending());
+
+		FeedFavicon stored = awaitStored();
+		Assertions.assertNull(stored.getIcon());
+		Assertions.assertEquals(1, stored.getFailures());
+		Duration nextRefresh = Duration.between(Instant.now(), stored.getNextRefresh());
+		Assertions.assertTrue(nextRefresh.compareTo(Duration.ofHours(23)) > 0 && nextRefresh.compareTo(Duration.ofDays(1)) <= 0);
+
+		Mockito.when(feedFaviconDAO.findByKeyHash(Digests.sha1Hex(KEY))).thenReturn(stored);
+		StoredFavicon favicon = service.getFavicon(feed(1));
+		Assertions.assertFalse(favicon.pending());
+		Mockito.verify(fetcher, Mockito.times(1)).fetch(ArgumentMatchers.any());
+	}
+
+	@Test
+	void failureBackoff() {
+		Assertions.assertEquals(Duration.ofDays(1), FeedFaviconService.failureBackoff(1));
+		Assertions.assertEquals(Duration.ofDays(2), FeedFaviconService.failureBackoff(2));
+		Assertions.assertEquals(Duration.ofDays(16), FeedFaviconService.failureBackoff(5));
+		Assertions.assertEquals(Duration.ofDays(30), FeedFaviconService.failureBackoff(6));
+		Assertions.assertEquals(Duration.ofDays(30), FeedFaviconService.failureBackoff(100));
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.commafeed.backend.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
+import com.commafeed.backend.model.FeedEntryContent;
+
+import io.dropwizard.util.DataSize;
+
+class ImageProxyServiceTest {
+
+	@Test
+	void proxiedContentsAreCached() {
+		MetricRegistry metrics = new MetricRegistry();
+		ImageProxyService service = new ImageProxyService(config(DataSize.megabytes(1)), metrics);
+
+		FeedEntryContent content = content(1L);
+		String proxied = service.proxyImages(content);
+		Assertions.assertTrue(proxied.contains("rest/server/proxy?u="));
+		Assertions.assertSame(proxied, service.proxyImages(content));
+		Assertions.assertEquals(1L, metrics.getGauges().get(MetricRegistry.name(ImageProxyService.class, "cache", "hits")).getValue());
+	}
+
+	@Test
+	void contentsThatAreNotPersistedAreNotCached() {
+		ImageProxyService service = new ImageProxyService(config(DataSize.megabytes(1)), new MetricRegistry());
+
+		FeedEntryContent content = content(null);
+		Assertions.assertNotSame(service.proxyImages(content), service.proxyImages(content));
+	}
+
+	private CommaFeedConfiguration config(DataSize cacheSize) {
+		ApplicationSettings settings = new ApplicationSettings();
+		settings.setImageProxyEnabled(true);
+		settings.setImageProxyCacheSize(cacheSize);
+		CommaFeedConfiguration config = new CommaFeedConfiguration();
+		config.setApplicationSettings(settings);
+		return config;
+	}
+
+	private FeedEntryContent content(Long id) {
+		FeedEntryContent content = new FeedEntryContent();
+		content.setId(id);
+		content.setContent("<p><img src=\"https://example.com/a.png\"></p>");
+		return content;
+	}
+}
@@ -0,0 +1,176 @@
+package com.commafeed.backend.task;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.codahale.metrics.MetricRegistry;
+import com.commafeed.CommaFeedConfiguration;
+import com.commafeed.CommaFeedConfiguration.ApplicationSettings;
+import com.commafeed.TestDatabase;
+import com.commafeed.backend.Digests;
+import com.commafeed.backend.cache.CacheService;
+import com.commafeed.backend.dao.FeedDAO;
+import com.commafeed.backend.dao.FeedEntryContentTermDAO;
+import com.commafeed.backend.dao.FeedEntryStatusDAO;
+import com.commafeed.backend.dao.FeedEntryTagDAO;
+import com.commafeed.backend.dao.FeedSubscriptionDAO;
+import com.commafeed.backend.dao.UnitOfWork;
+import com.commafeed.backend.feed.FeedRefreshEngine;
+import com.commafeed.backend.model.Feed;
+import com.commafeed.backend.model.FeedEntry;
+import com.commafeed.backend.model.FeedEntryContent;
+import com.commafeed.backend.model.FeedEntryStatus;
+import com.commafeed.backend.model.FeedSubscription;
+import com.commafeed.backend.model.User;
+import com.commafeed.backend.service.FeedService;
+import com.commafeed.backend.service.FeedSubscriptionService;
+
+class UnreadCountReconciliationTaskTest {
+
+	private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+	private TestDatabase database;
+	private SessionFactory sessionFactory;
+	private UnitOfWork unitOfWork;
+	private FeedSubscriptionDAO feedSubscriptionDAO;
+	private CacheService cache;
+	private MetricRegistry metrics;
+	private UnreadCountReconciliationTask task;
+
+	@BeforeEach
+	void init() {
+		database = new TestDatabase("unread-count-reconciliation-task-test", "managed");
+		sessionFactory = database.getSessionFactory();
+
+		ApplicationSettings settings = new ApplicationSettings();
+		settings.setKeepStatusDays(0);
+		settings.setQueryTimeout(0);
+		CommaFeedConfiguration config = new CommaFeedConfiguration();
+		config.setApplicationSettings(settings);
+
+		unitOfWork = new UnitOfWork(sessionFactory);
+		feedSubscriptionDAO = new FeedSubscriptionDAO(sessionFactory);
+		FeedEntryStatusDAO feedEntryStatusDAO = new FeedEntryStatusDAO(sessionFactory, Mockito.mock(FeedEntryTagDAO.class),
+				Mockito.mock(FeedEntryContentTermDAO.class), config);
+		cache = Mockito.mock(CacheService.class);
+		FeedSubscriptionService feedSubscriptionService = new FeedSubscriptionService(Mockito.mock(FeedDAO.class), feedEntryStatusDAO,
+				feedSubscriptionDAO, Mockito.mock(FeedService.class), Mockito.mock(FeedRefreshEngine.class), cache, config);
+		metrics = new MetricRegistry();
+		task = new UnreadCountReconciliationTask(unitOfWork, feedSubscriptionDAO, feedSubscriptionService, metrics);
+	}
+
+	@AfterEach
+	void cleanup() {
+		database.close();
+	}
+
+	@Test
+	void driftedCountersAreFixed() {
+		Long[] subIds = unitOfWork.call(() -> {
+			Session session = sessionFactory.getCurrentSession();
+			Feed feed = feed(session);
+			FeedEntry e1 = entry(session, feed, "1", NOW.minusSeconds(30));
+			entry(session, feed, "2", NOW.minusSeconds(20));
+			FeedEntry e3 = entry(session, feed, "3", NOW.minusSeconds(10));
+
+			FeedSubscription drifted = subscription(session, feed, "drifted");
+			FeedEntryStatus read = new FeedEntryStatus(drifted.getUser(), drifted, e3);
+			read.setRead(true);
+			session.persist(read);
+
+			FeedSubscription accurate = subscription(session, feed, "accurate");
+			session.flush();
+
+			// the drifted counter missed the entry marked as read, the accurate one counts the three unread entries
+			feedSubscriptionDAO.setUnreadCount(drifted, null, 3, e3.getPublished(), e1.getPublished());
+			feedSubscriptionDAO.setUnreadCount(accurate, null, 3, e3.getPublished(), e1.getPublished());
+			return new Long[] { drifted.getId(), accurate.getId() };
+		});
+
+		task.run();
+
+		unitOfWork.run(() -> {
+			Session session = sessionFactory.getCurrentSession();
+			FeedSubscription drifted = session.get(FeedSubscription.class, subIds[0]);
+			Assertions.assertEquals(2, drifted.getUnreadCount());
+			Assertions.assertEquals(NOW.minusSeconds(20), drifted.getNewestUnreadDate());
+			Assertions.assertEquals(NOW.minusSeconds(30), drifted.getOldestUnreadDate());
+
+			FeedSubscription accurate = session.get(FeedSubscription.class, subIds[1]);
+			Assertions.assertEquals(3, accurate.getUnreadCount());
+		});
+
+		Assertions.assertEquals(1, metrics.meter(MetricRegistry.name(UnreadCountReconciliationTask.class, "drift")).getCount());
+		Mockito.verify(cache).invalidateUnreadCount(ArgumentMatchers.<FeedSubscription> argThat(s -> s.getId().equals(subIds[0])));
+		Mockito.verify(cache, Mockito.never())
+				.invalidateUnreadCount(ArgumentMatchers.<FeedSubscription> argThat(s -> s.getId().equals(subIds[1])));
+	}
+
+	@Test
+	void countersThatWereNeverComputedAreComputed() {
+		Long subId = unitOfWork.call(() -> {
+			Session session = sessionFactory.getCurrentSession();
+			Feed feed = feed(session);
+			entry(session, feed, "1", NOW.minusSeconds(30));
+			return subscription(session, feed, "never computed").getId();
+		});
+
+		task.run();
+
+		unitOfWork.run(() -> {
+			FeedSubscription sub = sessionFactory.getCurrentSession().get(FeedSubscription.class, subId);
+			Assertions.assertEquals(1, sub.getUnreadCount());
+			Assertions.assertEquals(NOW.minusSeconds(30), sub.getNewestUnreadDate());
+		});
+	}
+
+	private Feed feed(Session session) {
+		Feed feed = new Feed();
+		feed.setUrl("https://commafeed.com/feed");
+		feed.setUrlAfterRedirect(feed.getUrl());
+		feed.setNormalizedUrl(feed.getUrl());
+		feed.setNormalizedUrlHash(Digests.sha1Hex(feed.getUrl()));
+		session.persist(feed);
+		return feed;
+	}
+
+	private FeedEntry entry(Session session, Feed feed, String guid, Instant published) {
+		FeedEntryContent content = new FeedEntryContent();
+		content.setContent(guid);
+		session.persist(content);
+
+		FeedEntry entry = new FeedEntry();
+		entry.setFeed(feed);
+		entry.setGuid(guid);
+		entry.setGuidHash(Digests.sha1Hex(guid));
+		entry.setContent(content);
+		entry.setInserted(published);
+		entry.setPublished(published);
+		session.persist(entry);
+		return entry;
+	}
+
+	private FeedSubscription subscription(Session session, Feed feed, String name) {
+		User user = new User();
+		user.setName(name);
+		user.setPassword(new byte[] { 1 });
+		user.setSalt(new byte[] { 1 });
+		session.persist(user);
+
+		FeedSubscription sub = new FeedSubscription();
+		sub.setUser(user);
+		sub.setFeed(feed);
+		sub.setTitle(name);
+		session.persist(sub);
+		return sub;
+	}
+}
@@ -0,0 +1,216 @@
+package com.commafeed.integration.load;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Local HTTP server serving synthetic RSS feeds for load tests.
+ *
+ * Each feed has a revision that is bumped by {@link #churn(double)}, a new revision publishes newEntriesPerRevision new entries. A
+ * fraction of the feeds (notModifiedRate) send an ETag and reply 304 to conditional requests when their revision did not change, the
+ * others always reply with the full document.
+ */
+class FeedFarm {
+
+	private static final DateTimeFormatter RFC_1123 = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+	private final int entriesPerFeed;
+	private final int newEntriesPerRevision;
+	private final double notModifiedRate;
+	private final Duration latency;
+
+	private final AtomicIntegerArray revisions;
+	private final AtomicIntegerArray served;
+	private final Random random = new Random(42);
+	private final Instant firstEntryDate = Instant.now().minus(Duration.ofDays(30));
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong notModifiedResponses = new AtomicLong();
+
+	private final Server server;
+	private final ServerConnector connector;
+
+	FeedFarm(int feedCount, int entriesPerFeed, int newEntriesPerRevision, double notModifiedRate, Duration latency) throws Exception {
+		this.entriesPerFeed = entriesPerFeed;
+		this.newEntriesPerRevision = newEntriesPerRevision;
+		this.notModifiedRate = notModifiedRate;
+		this.latency = latency;
+		this.revisions = new AtomicIntegerArray(feedCount);
+		this.served = new AtomicIntegerArray(feedCount);
+
+		this.server = new Server(new QueuedThreadPool(500));
+		this.connector = new ServerConnector(server);
+		this.connector.setHost("localhost");
+		this.server.addConnector(connector);
+		this.server.setHandler(new AbstractHandler() {
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+					throws IOException {
+				baseRequest.setHandled(true);
+				serve(target, request, response);
+			}
+		});
+		this.server.start();
+	}
+
+	int getFeedCount() {
+		return revisions.length();
+	}
+
+	String feedUrl(int feed) {
+		return "http://localhost:" + connector.getLocalPort() + "/feeds/" + feed;
+	}
+
+	long getRequests() {
+		return requests.get();
+	}
+
+	long getNotModifiedResponses() {
+		return notModifiedResponses.get();
+	}
+
+	/**
+	 * forget which feeds have been served, see {@link #allFeedsServed()}
+	 */
+	void resetServed() {
+		for (int i = 0; i < served.length(); i++) {
+			served.set(i, 0);
+		}
+	}
+
+	/**
+	 * whether every feed has been requested at least once since the last call to {@link #resetServed()}
+	 */
+	boolean allFeedsServed() {
+		for (int i = 0; i < served.length(); i++) {
+			if (served.get(i) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * publishes new entries in the given fraction of the feeds, randomly chosen
+	 *
+	 * @return the number of feeds that changed
+	 */
+	int churn(double rate) {
+		int changed = 0;
+		for (int i = 0; i < revisions.length(); i++) {
+			if (random.nextDouble() < rate) {
+				revisions.incrementAndGet(i);
+				changed++;
+			}
+		}
+		return changed;
+	}
+
+	String opml() {
+		StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<opml version=\"2.0\"><head><title>farm</title></head><body>");
+		for (int i = 0; i < revisions.length(); i++) {
+			sb.append("<outline type=\"rss\" text=\"feed ")
+					.append(i)
+					.append("\" xmlUrl=\"")
+					.append(feedUrl(i))
+					.append("\" />");
+		}
+		return sb.append("</body></opml>").toString();
+	}
+
+	private void serve(String target, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		requests.incrementAndGet();
+		sleep(latency);
+
+		int feed = Integer.parseInt(target.substring("/feeds/".length()));
+		int revision = revisions.get(feed);
+		served.set(feed, 1);
+		boolean supportsConditionalRequests = feed % 100 < notModifiedRate * 100;
+		String etag = "\"" + feed + "-" + revision + "\"";
+
+		if (supportsConditionalRequests) {
+			response.setHeader("ETag", etag);
+			if (etag.equals(request.getHeader("If-None-Match"))) {
+				notModifiedResponses.incrementAndGet();
+				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				return;
+			}
+		}
+
+		byte[] body = rss(feed, revision).getBytes(StandardCharsets.UTF_8);
+		response.setContentType("application/rss+xml; charset=UTF-8");
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	private String rss(int feed, int revision) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<rss version=\"2.0\"><channel>")
+				.append("<title>Feed ")
+				.append(feed)
+				.append("</title><link>https://farm.commafeed.com/")
+				.append(feed)
+				.append("</link><description>synthetic feed</description>");
+
+		// entries are numbered, each revision shifts the window of published entries
+		int newest = revision * newEntriesPerRevision + entriesPerFeed - 1;
+		for (int entry = newest; entry > newest - entriesPerFeed; entry--) {
+			String url = "https://farm.commafeed.com/" + feed + "/entries/" + entry;
+			sb.append("<item><title>Entry ")
+					.append(entry)
+					.append(" of feed ")
+					.append(feed)
+					.append("</title><link>")
+					.append(url)
+					.append("</link><guid>")
+					.append(url)
+					.append("</guid><author>author")
+					.append(entry % 7)
+					.append("@commafeed.com</author><category>category")
+					.append(entry % 5)
+					.append("</category><pubDate>")
+					.append(RFC_1123.format(firstEntryDate.plus(Duration.ofMinutes(entry))))
+					.append("</pubDate><description><![CDATA[<p>Paragraph with a <a href=\"")
+					.append(url)
+					.append("\">link</a> and <b>some</b> <i>formatting</i>.</p><p><img src=\"/images/")
+					.append(entry)
+					.append(".png\" width=\"100\" height=\"100\"></p><p>")
+					.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore. ".repeat(5))
+					.append("</p>]]></description></item>");
+		}
+		return sb.append("</channel></rss>").toString();
+	}
+
+	private static void sleep(Duration duration) {
+		if (duration.isZero()) {
+			return;
+		}
+
+		try {
+			TimeUnit.MILLISECONDS.sleep(duration.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	void stop() throws Exception {
+		server.stop();
+	}
+}
@@ -0,0 +1,201 @@
+package com.commafeed.integration.load;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.glassfish.jersey.client.JerseyClientBuilder;
+import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
+import org.glassfish.jersey.media.multipart.MultiPart;
+import org.glassfish.jersey.media.multipart.MultiPartFeature;
+import org.glassfish.jersey.media.multipart.file.StreamDataBodyPart;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.commafeed.CommaFeedDropwizardAppExtension;
+import com.commafeed.backend.feed.FeedRefreshEngine;
+import com.commafeed.backend.feed.FeedRefreshUpdater;
+
+import io.dropwizard.testing.ConfigOverride;
+import io.dropwizard.testing.junit5.DropwizardExtensionsSupport;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.MediaType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ingest load test, refreshes thousands of synthetic feeds served by a local {@link FeedFarm} and reports throughput, latency and database
+ * statement counts of {@link FeedRefreshEngine}.
+ *
+ * Disabled unless the LOAD_TEST environment variable is set to true, e.g.
+ * {@code LOAD_TEST=true LOAD_TEST_FEEDS=5000 mvn verify -Dit.test=FeedRefreshLoadIT}. TEST_DATABASE selects the database as for the other
+ * integration tests.
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "LOAD_TEST", matches = "true")
+@ExtendWith(DropwizardExtensionsSupport.class)
+class FeedRefreshLoadIT {
+
+	private static final int FEEDS = intEnv("LOAD_TEST_FEEDS", 2000);
+	private static final int ENTRIES_PER_FEED = intEnv("LOAD_TEST_ENTRIES_PER_FEED", 20);
+	private static final int NEW_ENTRIES_PER_CHURN = intEnv("LOAD_TEST_NEW_ENTRIES_PER_CHURN", 3);
+	private static final int ROUNDS = intEnv("LOAD_TEST_ROUNDS", 3);
+	// fraction of the feeds publishing new entries between two rounds
+	private static final double CHURN = doubleEnv("LOAD_TEST_CHURN", 0.2);
+	// fraction of the feeds replying 304 to conditional requests when unchanged
+	private static final double NOT_MODIFIED_RATE = doubleEnv("LOAD_TEST_NOT_MODIFIED_RATE", 0.5);
+	private static final Duration LATENCY = Duration.ofMillis(intEnv("LOAD_TEST_LATENCY_MS", 50));
+
+	private static final int BACKGROUND_THREADS = intEnv("LOAD_TEST_BACKGROUND_THREADS", 20);
+	private static final int DATABASE_UPDATE_THREADS = intEnv("LOAD_TEST_DATABASE_UPDATE_THREADS", 2);
+
+	private final CommaFeedDropwizardAppExtension extension = new CommaFeedDropwizardAppExtension(
+			ConfigOverride.config("app.backgroundThreads", String.valueOf(BACKGROUND_THREADS)),
+			ConfigOverride.config("app.databaseUpdateThreads", String.valueOf(DATABASE_UPDATE_THREADS)),
+			ConfigOverride.config("database.maxSize", String.valueOf(DATABASE_UPDATE_THREADS + 5)),
+			ConfigOverride.config("database.properties.hibernate\\.generate_statistics", "true"),
+			ConfigOverride.config("logging.loggers.com\\.commafeed", "INFO")) {
+		@Override
+		protected JerseyClientBuilder clientBuilder() {
+			return super.clientBuilder().register(MultiPartFeature.class).register(HttpAuthenticationFeature.basic("admin", "admin"));
+		}
+	};
+
+	private FeedFarm farm;
+	private Client client;
+	private String apiBaseUrl;
+
+	@BeforeEach
+	void init() throws Exception {
+		this.farm = new FeedFarm(FEEDS, ENTRIES_PER_FEED, NEW_ENTRIES_PER_CHURN, NOT_MODIFIED_RATE, LATENCY);
+		this.client = extension.client();
+		this.apiBaseUrl = "http://localhost:" + extension.getLocalPort() + "/rest/";
+	}
+
+	@AfterEach
+	void cleanup() throws Exception {
+		client.close();
+		farm.stop();
+	}
+
+	@Test
+	void ingest() {
+		List<RoundStats> rounds = new ArrayList<>();
+
+		// initial import, every feed is new and all of its entries are inserted
+		rounds.add(measure("import", farm.getFeedCount(), this::importOpml));
+		Assertions.assertEquals((long) FEEDS * ENTRIES_PER_FEED, rounds.get(0).entriesInserted());
+
+		for (int i = 1; i <= ROUNDS; i++) {
+			int changed = farm.churn(CHURN);
+			rounds.add(measure("refresh " + i + " (" + changed + " changed)", farm.getFeedCount(), this::refreshAll));
+		}
+
+		log.info("""
+
+				feeds: {}, entries per feed: {}, churn: {}, 304 rate: {}, latency: {}ms
+				backgroundThreads: {}, databaseUpdateThreads: {}
+				{}
+				farm requests: {}, 304 responses: {}""", FEEDS, ENTRIES_PER_FEED, CHURN, NOT_MODIFIED_RATE, LATENCY.toMillis(),
+				BACKGROUND_THREADS, DATABASE_UPDATE_THREADS, RoundStats.table(rounds), farm.getRequests(), farm.getNotModifiedResponses());
+	}
+
+	private RoundStats measure(String name, int expectedUpdates, Runnable trigger) {
+		MetricRegistry metrics = extension.getEnvironment().metrics();
+		Timer update = metrics.timer(MetricRegistry.name(FeedRefreshUpdater.class, "update"));
+		Timer process = metrics.timer(MetricRegistry.name(FeedRefreshEngine.class, "process"));
+		long updatesBefore = update.getCount();
+		long entriesBefore = metrics.meter(MetricRegistry.name(FeedRefreshUpdater.class, "entryInserted")).getCount();
+		long statementsBefore = statementCount(metrics);
+
+		long start = System.nanoTime();
+		farm.resetServed();
+		trigger.run();
+		// the refill loop may pick up feeds that were just subscribed, counting updates is not enough as some feeds may be updated twice
+		Awaitility.await()
+				.atMost(Duration.ofHours(1))
+				.pollInterval(Duration.ofMillis(100))
+				.until(() -> update.getCount() - updatesBefore >= expectedUpdates && farm.allFeedsServed() && isIdle(metrics));
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		long entriesInserted = metrics.meter(MetricRegistry.name(FeedRefreshUpdater.class, "entryInserted")).getCount() - entriesBefore;
+		return new RoundStats(name, expectedUpdates, entriesInserted, elapsed, statementCount(metrics) - statementsBefore,
+				update.getSnapshot(), process.getSnapshot());
+	}
+
+	private static boolean isIdle(MetricRegistry metrics) {
+		return gaugeValue(metrics, MetricRegistry.name(FeedRefreshEngine.class, "queue", "size")) == 0
+				&& gaugeValue(metrics, MetricRegistry.name(FeedRefreshEngine.class, "worker", "active")) == 0
+				&& gaugeValue(metrics, MetricRegistry.name(FeedRefreshEngine.class, "updater", "active")) == 0
+				&& gaugeValue(metrics, MetricRegistry.name(FeedRefreshEngine.class, "updater", "queue", "size")) == 0;
+	}
+
+	private static long gaugeValue(MetricRegistry metrics, String name) {
+		Gauge<?> gauge = metrics.getGauges().get(name);
+		return gauge == null ? -1 : ((Number) gauge.getValue()).longValue();
+	}
+
+	private static long statementCount(MetricRegistry metrics) {
+		return gaugeValue(metrics, MetricRegistry.name(SessionFactory.class, "statements", "prepared"));
+	}
+
+	private void importOpml() {
+		try (MultiPart multiPart = new MultiPart()) {
+			multiPart.bodyPart(new StreamDataBodyPart("file", new ByteArrayInputStream(farm.opml().getBytes(StandardCharsets.UTF_8))));
+			multiPart.setMediaType(MediaType.MULTIPART_FORM_DATA_TYPE);
+
+			client.target(apiBaseUrl + "feed/import").request().post(Entity.entity(multiPart, multiPart.getMediaType()), Void.TYPE);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void refreshAll() {
+		client.target(apiBaseUrl + "feed/refreshAll").request().get(Void.TYPE);
+	}
+
+	private static int intEnv(String name, int defaultValue) {
+		return Integer.parseInt(System.getenv().getOrDefault(name, String.valueOf(defaultValue)));
+	}
+
+	private static double doubleEnv(String name, double defaultValue) {
+		return Double.parseDouble(System.getenv().getOrDefault(name, String.valueOf(defaultValue)));
+	}
+
+	/**
+	 * update and process latency percentiles come from the exponentially decaying reservoirs of the timers, biased towards the last five
+	 * minutes
+	 */
+	private record RoundStats(String name, int feeds, long entriesInserted, Duration elapsed, long statements, Snapshot update,
+			Snapshot process) {
+
+		static String table(List<RoundStats> rounds) {
+			StringBuilder sb = new StringBuilder(String.format("%-28s %10s %12s %12s %14s %16s %12s %16s%n", "round", "feeds/s", "entries",
+					"entries/s", "statements", "statements/feed", "update p99", "process p99"));
+			for (RoundStats round : rounds) {
+				double seconds = round.elapsed.toMillis() / 1000.0;
+				sb.append(String.format("%-28s %10.1f %12d %12.1f %14d %16.1f %10.1fms %14.1fms%n", round.name, round.feeds / seconds,
+						round.entriesInserted, round.entriesInserted / seconds, round.statements, (double) round.statements / round.feeds,
+						toMillis(round.update.get99thPercentile()), toMillis(round.process.get99thPercentile())));
+			}
+			return sb.toString();
+		}
+
+		private static double toMillis(double nanos) {
+			return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+	}
+}
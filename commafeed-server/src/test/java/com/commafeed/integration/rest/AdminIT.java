@@ -2,6 +2,7 @@ package com.commafeed.integration.rest;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.glassfish.jersey.client.JerseyClientBuilder;
 import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
@@ -30,6 +31,18 @@ class AdminIT extends BaseIT {
 		Assertions.assertTrue(settings.getAllowRegistrations());
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	void getFetchStatistics() {
+		subscribeAndWaitForEntries(getFeedUrl());
+
+		Map<String, Object> report = getClient().target(getApiBaseUrl() + "admin/metrics/fetches").request().get(Map.class);
+		Map<String, Object> global = (Map<String, Object>) report.get("global");
+		Assertions.assertTrue(((Number) global.get("fetches")).longValue() >= 1);
+		Assertions.assertTrue(((Number) ((Map<String, Object>) global.get("outcomes")).get("MODIFIED")).longValue() >= 1);
+		Assertions.assertTrue(((Map<String, Object>) report.get("hosts")).containsKey("localhost"));
+	}
+
 	@Nested
 	class Users {
 		@Test
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import com.commafeed.frontend.model.Entries;
 import com.commafeed.frontend.model.Entry;
 import com.commafeed.frontend.model.FeedInfo;
 import com.commafeed.frontend.model.Subscription;
@@ -31,6 +32,7 @@ import com.commafeed.frontend.model.request.MarkRequest;
 import com.commafeed.integration.BaseIT;
 
 import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -99,8 +101,11 @@ class FeedIT extends BaseIT {
 		@Test
 		void markWithoutDates() {
 			long subscriptionId = subscribeAndWaitForEntries(getFeedUrl());
+			Assertions.assertEquals(2, getSubscription(subscriptionId).getUnread());
+
 			markFeedEntries(subscriptionId, null, null);
 			Assertions.assertTrue(getFeedEntries(subscriptionId).getEntries().stream().allMatch(Entry::isRead));
+			Assertions.assertEquals(0, getSubscription(subscriptionId).getUnread());
 		}
 
 		@Test
@@ -108,6 +113,7 @@ class FeedIT extends BaseIT {
 			long subscriptionId = subscribeAndWaitForEntries(getFeedUrl());
 			markFeedEntries(subscriptionId, LocalDate.of(2023, 12, 28).atStartOfDay().toInstant(ZoneOffset.UTC), null);
 			Assertions.assertEquals(1, getFeedEntries(subscriptionId).getEntries().stream().filter(Entry::isRead).count());
+			Assertions.assertEquals(1, getSubscription(subscriptionId).getUnread());
 		}
 
 		@Test
@@ -140,6 +146,103 @@ class FeedIT extends BaseIT {
 		}
 	}
 
+	@Nested
+	class Paginate {
+		@Test
+		void cursor() {
+			long subscriptionId = subscribeAndWaitForEntries(getFeedUrl());
+
+			Entries firstPage = getFeedEntries(subscriptionId, 1, null);
+			Assertions.assertEquals(1, firstPage.getEntries().size());
+			Assertions.assertTrue(firstPage.isHasMore());
+			Assertions.assertNotNull(firstPage.getNextCursor());
+
+			Entries secondPage = getFeedEntries(subscriptionId, 1, firstPage.getNextCursor());
+			Assertions.assertEquals(1, secondPage.getEntries().size());
+			Assertions.assertNotEquals(firstPage.getEntries().get(0).getId(), secondPage.getEntries().get(0).getId());
+			Assertions.assertFalse(secondPage.isHasMore());
+			Assertions.assertNull(secondPage.getNextCursor());
+		}
+
+		@Test
+		void timeline() {
+			// the timeline is enabled in the test configuration, the "all" category is read with the regular query until
+			// TimelineMaintenanceTask adds the new subscription to the timeline
+			long subscriptionId = subscribeAndWaitForEntries(getFeedUrl());
+
+			Entries firstPage = getAllEntries("all", 1, null);
+			Assertions.assertEquals(1, firstPage.getEntries().size());
+			Assertions.assertTrue(firstPage.isHasMore());
+
+			Entries secondPage = getAllEntries("all", 1, firstPage.getNextCursor());
+			Assertions.assertEquals(1, secondPage.getEntries().size());
+			Assertions.assertFalse(secondPage.isHasMore());
+			Assertions.assertTrue(firstPage.getEntries().get(0).getDate().isAfter(secondPage.getEntries().get(0).getDate()));
+			Assertions.assertEquals(String.valueOf(subscriptionId), secondPage.getEntries().get(0).getFeedId());
+
+			MarkRequest request = new MarkRequest();
+			request.setId(firstPage.getEntries().get(0).getId());
+			request.setRead(true);
+			getClient().target(getApiBaseUrl() + "entry/mark").request().post(Entity.json(request), Void.TYPE);
+
+			Entries unread = getAllEntries("unread", 10, null);
+			Assertions.assertEquals(1, unread.getEntries().size());
+			Assertions.assertEquals(secondPage.getEntries().get(0).getId(), unread.getEntries().get(0).getId());
+		}
+
+		@Test
+		void invalidCursor() {
+			long subscriptionId = subscribeAndWaitForEntries(getFeedUrl());
+			Response response = getClient().target(getApiBaseUrl() + "feed/entries")
+					.queryParam("id", subscriptionId)
+					.queryParam("cursor", "invalid")
+					.request()
+					.get();
+			Assertions.assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus());
+		}
+
+		private Entries getAllEntries(String readType, int limit, String cursor) {
+			return getClient().target(getApiBaseUrl() + "category/entries")
+					.queryParam("id", "all")
+					.queryParam("readType", readType)
+					.queryParam("limit", limit)
+					.queryParam("cursor", cursor)
+					.request()
+					.get(Entries.class);
+		}
+
+		private Entries getFeedEntries(long subscriptionId, int limit, String cursor) {
+			return getClient().target(getApiBaseUrl() + "feed/entries")
+					.queryParam("id", subscriptionId)
+					.queryParam("readType", "all")
+					.queryParam("limit", limit)
+					.queryParam("cursor", cursor)
+					.request()
+					.get(Entries.class);
+		}
+	}
+
+	@Nested
+	class Search {
+		@Test
+		void searchIndex() {
+			// the search index is enabled in the test configuration, keywords match words starting with the keyword
+			long subscriptionId = subscribeAndWaitForEntries(getFeedUrl());
+			Assertions.assertEquals(2, search(subscriptionId, "DESCR").getEntries().size());
+			Assertions.assertEquals(0, search(subscriptionId, "escription").getEntries().size());
+			Assertions.assertEquals(0, search(subscriptionId, "descr -item").getEntries().size());
+		}
+
+		private Entries search(long subscriptionId, String keywords) {
+			return getClient().target(getApiBaseUrl() + "feed/entries")
+					.queryParam("id", subscriptionId)
+					.queryParam("readType", "all")
+					.queryParam("keywords", keywords)
+					.request()
+					.get(Entries.class);
+		}
+	}
+
 	@Nested
 	class Refresh {
 		@Test
@@ -204,6 +307,29 @@ class FeedIT extends BaseIT {
 			byte[] defaultFavicon = IOUtils.toByteArray(Objects.requireNonNull(getClass().getResource("/images/default_favicon.gif")));
 			Assertions.assertArrayEquals(defaultFavicon, icon);
 		}
+
+		@Test
+		void notModified() {
+			Long subscriptionId = subscribe(getFeedUrl());
+
+			EntityTag etag;
+			try (Response response = getClient().target(getApiBaseUrl() + "feed/favicon/{id}")
+					.resolveTemplate("id", subscriptionId)
+					.request()
+					.get()) {
+				Assertions.assertEquals(HttpStatus.OK_200, response.getStatus());
+				etag = response.getEntityTag();
+				Assertions.assertNotNull(etag);
+			}
+
+			try (Response response = getClient().target(getApiBaseUrl() + "feed/favicon/{id}")
+					.resolveTemplate("id", subscriptionId)
+					.request()
+					.header("If-None-Match", etag)
+					.get()) {
+				Assertions.assertEquals(HttpStatus.NOT_MODIFIED_304, response.getStatus());
+			}
+		}
 	}
 
 	@Nested